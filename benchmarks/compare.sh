@@ -0,0 +1,31 @@
+#!/bin/bash
+
+# Compare two JMH JSON result files (from run.sh), benchmark by benchmark
+# Prints both scores and the change; for time-per-op modes a positive change is a slowdown
+
+set -e
+
+if [ $# -ne 2 ]; then
+    echo "Usage: $0 <baseline.json> <candidate.json>"
+    exit 1
+fi
+
+if ! command -v jq > /dev/null; then
+    echo "jq is required"
+    exit 1
+fi
+
+BASELINE="$1"
+CANDIDATE="$2"
+
+# benchmark + params -> "score unit error"
+scores() {
+    jq -r '.[] | "\(.benchmark | sub("com.example.task.benchmark."; ""))\(if .params then " " + (.params | to_entries | map("\(.key)=\(.value)") | join(",")) else "" end)\t\(.primaryMetric.score)\t\(.primaryMetric.scoreUnit)\t\(.primaryMetric.scoreError)"' "$1" | sort
+}
+
+printf "%-60s %14s %14s %10s  %s\n" "Benchmark" "Baseline" "Candidate" "Change" "Unit"
+join -t $'\t' <(scores "$BASELINE") <(scores "$CANDIDATE") | \
+    awk -F'\t' '{
+        change = ($2 != 0) ? ($5 - $2) * 100 / $2 : 0
+        printf "%-60s %14.3f %14.3f %+9.1f%%  %s\n", $1, $2, $5, change, $3
+    }'
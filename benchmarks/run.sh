@@ -0,0 +1,26 @@
+#!/bin/bash
+
+# Build and run the JMH benchmarks
+# Results are written as JSON to benchmarks/results/jmh_<timestamp>.json
+#
+# Usage:
+#   ./benchmarks/run.sh                       # all suites
+#   ./benchmarks/run.sh TaskLifecycle -t 4    # any JMH arguments (suite regex, threads, -prof gc, ...)
+#
+# Compare two runs:
+#   ./benchmarks/compare.sh benchmarks/results/jmh_A.json benchmarks/results/jmh_B.json
+
+set -e
+
+cd "$(dirname "$0")"
+
+echo "Building benchmarks..."
+mvn -q -B package -DskipTests
+
+mkdir -p results
+RESULT_FILE="results/jmh_$(date +"%Y%m%d_%H%M%S").json"
+
+java -jar target/benchmarks.jar -rf json -rff "$RESULT_FILE" "$@"
+
+echo ""
+echo "Results saved to: benchmarks/$RESULT_FILE"
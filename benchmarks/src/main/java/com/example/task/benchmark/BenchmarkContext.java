@@ -0,0 +1,107 @@
+package com.example.task.benchmark;
+
+import com.example.task.config.TaskBulkheadProperties;
+import com.example.task.config.TaskRetryProperties;
+import com.example.task.config.TaskTimeoutProperties;
+import com.example.task.consumer.CompletedTaskFilter;
+import com.example.task.consumer.TaskMessageProcessor;
+import com.example.task.entity.Task;
+import com.example.task.repository.TaskArchiveRepository;
+import com.example.task.repository.TaskRepository;
+import com.example.task.service.DefaultTaskMessageCodec;
+import com.example.task.service.TaskCache;
+import com.example.task.service.TaskChangeNotifier;
+import com.example.task.service.TaskCheckpointStore;
+import com.example.task.service.TaskCircuitBreaker;
+import com.example.task.service.TaskDeadLetterService;
+import com.example.task.service.TaskExecutionContext;
+import com.example.task.service.TaskExecutionRegistry;
+import com.example.task.service.TaskExecutionService;
+import com.example.task.service.TaskIdempotencyService;
+import com.example.task.service.TaskPipelineMetrics;
+import com.example.task.service.RocketMQTaskQueue;
+import com.example.task.service.TaskProgressBuffer;
+import com.example.task.service.TaskRetryService;
+import com.example.task.service.TaskService;
+import com.example.task.service.TaskStatistics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.util.Map;
+
+/**
+ * Spring context for the database-backed suites
+ * The real TaskService and TaskMessageProcessor with their collaborators, on an embedded H2
+ * database in MySQL mode (schema generated from the entities). Nothing talks to RocketMQ:
+ * the producer bean is never started and no consumer is created. Task execution is stubbed.
+ *
+ * Application logging is raised to WARN so log output does not dominate the measurements
+ */
+@Configuration
+@EnableAutoConfiguration
+@EntityScan(basePackageClasses = Task.class)
+@EnableJpaRepositories(basePackageClasses = TaskRepository.class)
+@Import({
+        TaskService.class, TaskArchiveRepository.class, RocketMQTaskQueue.class, TaskMessageProcessor.class, TaskStatistics.class,
+        TaskPipelineMetrics.class, DefaultTaskMessageCodec.class, TaskIdempotencyService.class, TaskProgressBuffer.class,
+        TaskCheckpointStore.class, TaskCache.class, TaskChangeNotifier.class, TaskExecutionRegistry.class,
+        CompletedTaskFilter.class, TaskBulkheadProperties.class, TaskTimeoutProperties.class,
+        TaskRetryProperties.class, TaskRetryService.class, TaskCircuitBreaker.class, TaskDeadLetterService.class
+})
+public class BenchmarkContext {
+
+    public static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(BenchmarkContext.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.open-in-view=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.task=WARN")
+                .run();
+    }
+
+    /**
+     * Producer bean required by RocketMQTaskQueue; never started
+     */
+    @Bean
+    public DefaultMQProducer rocketMQProducer() {
+        return new DefaultMQProducer("benchmark-producer-group");
+    }
+
+    @Bean
+    public TaskExecutionService taskExecutionService(MeterRegistry meterRegistry) {
+        return new StubTaskExecutionService(meterRegistry);
+    }
+
+    /**
+     * Returns a fixed result immediately, so the processor suite measures the pipeline
+     * around the execution rather than the simulated work
+     */
+    static class StubTaskExecutionService extends TaskExecutionService {
+
+        private static final Map<String, Object> RESULT = Map.of("rowCount", 10_000, "fileUrl", "/exports/result.csv");
+
+        StubTaskExecutionService(MeterRegistry meterRegistry) {
+            super(meterRegistry, null);
+        }
+
+        @Override
+        public Map<String, Object> execute(Task task, TaskExecutionContext context) {
+            context.reportProgress(100);
+            return RESULT;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.task.benchmark;
+
+import com.example.task.controller.TaskController;
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskPriority;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskController request / response binding: the JSON bodies of POST /tasks,
+ * POST /tasks/batch, GET /tasks/{taskId} and GET /tasks, read and written with an
+ * ObjectMapper configured like Spring Boot's (Jackson2ObjectMapperBuilder, ISO dates)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ControllerBindingBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+    private static final int PAGE_SIZE = 50;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private byte[] taskRequest;
+    private byte[] batchRequest;
+    private TaskController.TaskResponse taskResponse;
+    private TaskController.TaskDetailResponse detailResponse;
+    private TaskController.TaskPageResponse pageResponse;
+
+    @Setup
+    public void setup() throws Exception {
+        String request = """
+                {"taskType": "DATA_EXPORT", "priority": "HIGH",
+                 "params": {"userId": "123", "dateRange": "2024-01-01:2024-12-31"}}""";
+        taskRequest = request.getBytes(StandardCharsets.UTF_8);
+        batchRequest = ("{\"tasks\": [" + String.join(",", Collections.nCopies(BATCH_SIZE, request)) + "]}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        LocalDateTime now = LocalDateTime.now();
+        taskResponse = TaskController.TaskResponse.builder()
+                .taskId(UUID.randomUUID().toString())
+                .status(Task.TaskStatus.PENDING.name())
+                .createdAt(now)
+                .build();
+
+        Task task = Task.builder()
+                .id(UUID.randomUUID().toString())
+                .taskType("DATA_EXPORT")
+                .status(Task.TaskStatus.SUCCESS)
+                .priority(TaskPriority.NORMAL)
+                .result(Map.of("rowCount", 10_000, "fileUrl", "/exports/result.csv"))
+                .progress(100)
+                .createdAt(now.minusSeconds(12))
+                .startedAt(now.minusSeconds(10))
+                .finishedAt(now)
+                .build();
+        detailResponse = TaskController.TaskDetailResponse.of(task, 100);
+
+        List<TaskController.TaskSummaryResponse> items = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            items.add(TaskController.TaskSummaryResponse.builder()
+                    .taskId(UUID.randomUUID().toString())
+                    .taskType("DATA_EXPORT")
+                    .status(Task.TaskStatus.SUCCESS.name())
+                    .priority(TaskPriority.NORMAL.name())
+                    .progress(100)
+                    .createdAt(now.minusSeconds(i))
+                    .startedAt(now.minusSeconds(i))
+                    .finishedAt(now)
+                    .build());
+        }
+        pageResponse = TaskController.TaskPageResponse.builder()
+                .tasks(items)
+                .nextCursor("MjAyNi0wMS0xOFQwOTo1OTo1OHw")
+                .build();
+    }
+
+    @Benchmark
+    public TaskController.TaskRequest readTaskRequest() throws Exception {
+        return objectMapper.readValue(taskRequest, TaskController.TaskRequest.class);
+    }
+
+    @Benchmark
+    public TaskController.BatchTaskRequest readBatchRequest() throws Exception {
+        return objectMapper.readValue(batchRequest, TaskController.BatchTaskRequest.class);
+    }
+
+    @Benchmark
+    public byte[] writeTaskResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(taskResponse);
+    }
+
+    @Benchmark
+    public byte[] writeDetailResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(detailResponse);
+    }
+
+    @Benchmark
+    public byte[] writePageResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(pageResponse);
+    }
+}
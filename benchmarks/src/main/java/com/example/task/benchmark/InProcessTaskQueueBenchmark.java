@@ -0,0 +1,69 @@
+package com.example.task.benchmark;
+
+import com.example.task.config.TaskRetryProperties;
+import com.example.task.entity.TaskDispatchMode;
+import com.example.task.entity.TaskMessage;
+import com.example.task.entity.TaskPriority;
+import com.example.task.service.InProcessTaskQueue;
+import com.example.task.service.TaskPipelineMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process transport: enqueue followed by take + ack of the same message, i.e. the queue's
+ * share of enqueue-to-start latency without a broker round trip or message encoding.
+ * Journal disabled; run with -t 4 for contention between producer/consumer threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InProcessTaskQueueBenchmark {
+
+    private InProcessTaskQueue queue;
+    private TaskMessage message;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        queue = new InProcessTaskQueue(new TaskPipelineMetrics(registry, "task-topic", 16, 100), registry,
+                new TaskRetryProperties(), TaskDispatchMode.DIRECT, 16, 65536, 70, 20, 10, false, "", 64, false);
+        queue.start();
+
+        message = TaskMessage.builder()
+                .taskId(UUID.randomUUID().toString())
+                .taskType("DATA_EXPORT")
+                .retryCount(0)
+                .priority(TaskPriority.NORMAL)
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        queue.shutdown();
+    }
+
+    @Benchmark
+    public InProcessTaskQueue.Delivery enqueueTakeAck() throws InterruptedException {
+        queue.enqueue(message);
+        InProcessTaskQueue.Delivery delivery = queue.take(1, TimeUnit.SECONDS);
+        queue.ack(delivery);
+        return delivery;
+    }
+}
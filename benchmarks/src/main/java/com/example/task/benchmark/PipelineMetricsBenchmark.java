@@ -0,0 +1,89 @@
+package com.example.task.benchmark;
+
+import com.example.task.entity.Task;
+import com.example.task.service.TaskPipelineMetrics;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the pipeline instrumentation on the hot path
+ *
+ * Each benchmark times a no-op the way TaskService / TaskMessageProcessor do (two nanoTime
+ * calls) and records it; baseline is the two nanoTime calls alone, so the difference is
+ * what one recording adds to a task. The registry is a Prometheus registry with histogram
+ * buckets enabled, as configured in application-docker.yml.
+ *
+ * Run with -t 8 to see the cost under contention from concurrent consumer threads
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PipelineMetricsBenchmark {
+
+    private TaskPipelineMetrics metrics;
+    private MessageExt message;
+
+    @Setup
+    public void setup() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config);
+            }
+        });
+        metrics = new TaskPipelineMetrics(registry, "task-topic", 16, 100);
+
+        message = new MessageExt();
+        message.setTopic("task-topic-high");
+        message.setStoreTimestamp(System.currentTimeMillis());
+    }
+
+    @Benchmark
+    public long baseline() {
+        long startNanos = System.nanoTime();
+        return System.nanoTime() - startNanos;
+    }
+
+    @Benchmark
+    public void dbWrite() {
+        long startNanos = System.nanoTime();
+        metrics.recordDbWrite(TaskPipelineMetrics.DbOperation.MARK_RUNNING, System.nanoTime() - startNanos);
+    }
+
+    @Benchmark
+    public void send() {
+        long startNanos = System.nanoTime();
+        metrics.recordSend(TaskPipelineMetrics.SendMode.SYNC, true, System.nanoTime() - startNanos);
+    }
+
+    @Benchmark
+    public void execution() {
+        long startNanos = System.nanoTime();
+        metrics.recordExecution("DATA_EXPORT", Task.TaskStatus.SUCCESS, System.nanoTime() - startNanos);
+    }
+
+    @Benchmark
+    public void delivery() {
+        metrics.recordDelivery(message, 1);
+    }
+}
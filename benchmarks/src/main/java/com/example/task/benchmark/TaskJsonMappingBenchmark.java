@@ -0,0 +1,82 @@
+package com.example.task.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task entity JSON columns: params / result (Map<String, Object>) to and from the JSON text
+ * stored in MySQL. Hibernate maps @JdbcTypeCode(SqlTypes.JSON) attributes through Jackson,
+ * so this is the per-row cost of every insert (params), SUCCESS update (result) and load (both).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskJsonMappingBenchmark {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private Map<String, Object> params;
+    private Map<String, Object> result;
+    private String paramsJson;
+    private String resultJson;
+
+    @Setup
+    public void setup() throws Exception {
+        params = new LinkedHashMap<>();
+        params.put("userId", "123");
+        params.put("dateRange", "2024-01-01:2024-12-31");
+        params.put("format", "CSV");
+        params.put("filters", Map.of("region", List.of("EU", "US"), "minAmount", 100));
+
+        result = new LinkedHashMap<>();
+        result.put("taskType", "DATA_EXPORT");
+        result.put("rowCount", 10_000);
+        result.put("fileUrl", "https://storage.example.com/exports/550e8400-e29b-41d4-a716-446655440000.csv");
+        result.put("fileSizeBytes", 1_048_576L);
+        result.put("completedAt", "2026-01-18T10:00:10");
+
+        paramsJson = objectMapper.writeValueAsString(params);
+        resultJson = objectMapper.writeValueAsString(result);
+    }
+
+    @Benchmark
+    public String writeParams() throws Exception {
+        return objectMapper.writeValueAsString(params);
+    }
+
+    @Benchmark
+    public Map<String, Object> readParams() throws Exception {
+        return objectMapper.readValue(paramsJson, MAP_TYPE);
+    }
+
+    @Benchmark
+    public String writeResult() throws Exception {
+        return objectMapper.writeValueAsString(result);
+    }
+
+    @Benchmark
+    public Map<String, Object> readResult() throws Exception {
+        return objectMapper.readValue(resultJson, MAP_TYPE);
+    }
+}
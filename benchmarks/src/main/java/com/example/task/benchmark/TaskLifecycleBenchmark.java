@@ -0,0 +1,92 @@
+package com.example.task.benchmark;
+
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskSubmission;
+import com.example.task.service.TaskService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskService lifecycle transitions on embedded H2 (MySQL mode), see BenchmarkContext
+ *
+ * Every benchmark starts from a freshly inserted task, since a transition only applies once;
+ * subtract create from the others to get the cost of the transitions alone:
+ * - create: insert + commit (createTask)
+ * - createRunSucceed: create, PENDING -> RUNNING -> SUCCESS (the normal path)
+ * - createRunFail: create, PENDING -> RUNNING -> FAILED
+ * - createCancel: create, PENDING -> CANCELLED
+ *
+ * Absolute numbers are far below MySQL over a network; the suite is for spotting
+ * regressions in the code path (queries per transition, cache and statistics work)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskLifecycleBenchmark {
+
+    private static final Map<String, Object> PARAMS = Map.of("userId", "123", "dateRange", "2024-01-01:2024-12-31");
+    private static final Map<String, Object> RESULT = Map.of("rowCount", 10_000, "fileUrl", "/exports/result.csv");
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        taskService = context.getBean(TaskService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Task create() {
+        return taskService.createTask(submission());
+    }
+
+    @Benchmark
+    public boolean createRunSucceed() {
+        Task task = taskService.createTask(submission());
+        taskService.markAsRunning(task.getId(), task.getCreatedAt(), task.getTaskType(), false);
+        return taskService.markAsSuccess(task.getId(), task.getCreatedAt(), task.getTaskType(), RESULT);
+    }
+
+    @Benchmark
+    public boolean createRunFail() {
+        Task task = taskService.createTask(submission());
+        taskService.markAsRunning(task.getId(), task.getCreatedAt(), task.getTaskType(), false);
+        return taskService.markAsFailed(task.getId(), task.getCreatedAt(), task.getTaskType(), "Simulated failure");
+    }
+
+    @Benchmark
+    public boolean createCancel() {
+        Task task = taskService.createTask(submission());
+        return taskService.markAsCancelled(task.getId());
+    }
+
+    private static TaskSubmission submission() {
+        return TaskSubmission.builder()
+                .taskType("DATA_EXPORT")
+                .params(PARAMS)
+                .build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.task.benchmark;
+
+import com.example.task.entity.TaskMessage;
+import com.example.task.entity.TaskPriority;
+import com.example.task.service.BinaryTaskMessageCodec;
+import com.example.task.service.JsonTaskMessageCodec;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TaskMessage encode/decode: the previous Jackson String path vs the codecs
+ *
+ * - jacksonString*: writeValueAsString + getBytes / new String + readValue (before the codec)
+ * - json*: JsonTaskMessageCodec, Jackson straight to and from byte[]
+ * - binary*: BinaryTaskMessageCodec
+ *
+ * Run with -prof gc to compare allocation per message as well
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskMessageCodecBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JsonTaskMessageCodec jsonCodec = new JsonTaskMessageCodec(objectMapper);
+    private final BinaryTaskMessageCodec binaryCodec = new BinaryTaskMessageCodec();
+
+    private TaskMessage message;
+    private byte[] jsonBody;
+    private byte[] binaryBody;
+
+    @Setup
+    public void setup() throws Exception {
+        message = TaskMessage.builder()
+                .taskId(UUID.randomUUID().toString())
+                .taskType("DATA_EXPORT")
+                .retryCount(0)
+                .priority(TaskPriority.NORMAL)
+                .build();
+        jsonBody = objectMapper.writeValueAsBytes(message);
+        binaryBody = binaryCodec.encode(message);
+    }
+
+    @Benchmark
+    public byte[] jacksonStringEncode() throws Exception {
+        return objectMapper.writeValueAsString(message).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public TaskMessage jacksonStringDecode() throws Exception {
+        return objectMapper.readValue(new String(jsonBody, StandardCharsets.UTF_8), TaskMessage.class);
+    }
+
+    @Benchmark
+    public byte[] jsonEncode() {
+        return jsonCodec.encode(message);
+    }
+
+    @Benchmark
+    public TaskMessage jsonDecode() {
+        return jsonCodec.decode(jsonBody);
+    }
+
+    @Benchmark
+    public byte[] binaryEncode() {
+        return binaryCodec.encode(message);
+    }
+
+    @Benchmark
+    public TaskMessage binaryDecode() {
+        return binaryCodec.decode(binaryBody);
+    }
+}
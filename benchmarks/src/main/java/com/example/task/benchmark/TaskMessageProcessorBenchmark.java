@@ -0,0 +1,80 @@
+package com.example.task.benchmark;
+
+import com.example.task.consumer.TaskMessageProcessor;
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskMessage;
+import com.example.task.entity.TaskSubmission;
+import com.example.task.service.TaskMessageCodec;
+import com.example.task.service.TaskService;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One delivery through TaskMessageProcessor.process(), the consumers' per-message path:
+ * decode, dedup lookups, RUNNING transition, task load, execution registration, (stubbed)
+ * execution, SUCCESS transition and metrics. Runs on embedded H2, see BenchmarkContext.
+ *
+ * Each invocation first inserts the task it delivers, so subtract TaskLifecycleBenchmark.create
+ * for the processing cost alone
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskMessageProcessorBenchmark {
+
+    private static final Map<String, Object> PARAMS = Map.of("userId", "123", "dateRange", "2024-01-01:2024-12-31");
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private TaskMessageProcessor processor;
+    private TaskMessageCodec codec;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        context = BenchmarkContext.start();
+        taskService = context.getBean(TaskService.class);
+        processor = context.getBean(TaskMessageProcessor.class);
+        codec = context.getBean(TaskMessageCodec.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ConsumeConcurrentlyStatus process() {
+        Task task = taskService.createTask(TaskSubmission.builder()
+                .taskType("DATA_EXPORT")
+                .params(PARAMS)
+                .build());
+
+        MessageExt message = new MessageExt();
+        message.setTopic("task-topic");
+        message.setMsgId(task.getId());
+        message.setBody(codec.encode(TaskMessage.fromTask(task)));
+        message.setStoreTimestamp(System.currentTimeMillis());
+        message.setBornTimestamp(System.currentTimeMillis());
+
+        return processor.process(message);
+    }
+}
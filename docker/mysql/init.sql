@@ -7,21 +7,134 @@ USE task_db;
 
 -- Create tasks table
 CREATE TABLE IF NOT EXISTS tasks (
-    id VARCHAR(64) PRIMARY KEY COMMENT 'Task ID (UUID)',
+    id VARCHAR(64) NOT NULL COMMENT 'Task ID (UUID)',
     task_type VARCHAR(32) NOT NULL COMMENT 'Task type',
-    status VARCHAR(16) NOT NULL COMMENT 'PENDING, RUNNING, SUCCESS, FAILED',
+    status VARCHAR(16) NOT NULL COMMENT 'SCHEDULED, PENDING, RUNNING, SUCCESS, FAILED, CANCELLED, TIMED_OUT',
+    priority VARCHAR(8) NOT NULL DEFAULT 'NORMAL' COMMENT 'HIGH, NORMAL, LOW',
     params JSON COMMENT 'Task parameters (JSON)',
     result JSON COMMENT 'Task result (JSON, only when SUCCESS)',
     error_message TEXT COMMENT 'Error message (only when FAILED)',
     progress INT DEFAULT 0 COMMENT 'Progress: 0-100',
     retry_count INT DEFAULT 0 COMMENT 'Retry count',
-    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT 'Creation time',
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'Creation time',
+    run_at TIMESTAMP(3) NULL COMMENT 'Due time of a delayed task',
     started_at TIMESTAMP NULL COMMENT 'Start time',
     finished_at TIMESTAMP NULL COMMENT 'Finish time',
-    INDEX idx_status (status),
-    INDEX idx_task_type (task_type),
-    INDEX idx_created_at (created_at)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Async tasks table';
+    -- Every unique key of a partitioned table must contain the partitioning column
+    -- (id alone is no longer unique in the schema; ids are random UUIDs generated by TaskService).
+    -- Updates by id also match created_at, so MySQL prunes to a single partition
+    PRIMARY KEY (id, created_at),
+    -- Listings (GET /tasks), keyset-paginated on (created_at, id): one index per filter combination
+    INDEX idx_created_at_id (created_at, id),
+    INDEX idx_status_created_at (status, created_at, id),
+    INDEX idx_task_type_created_at (task_type, created_at, id),
+    INDEX idx_status_task_type_created_at (status, task_type, created_at, id),
+    INDEX idx_status_priority (status, priority),
+    INDEX idx_status_run_at (status, run_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Async tasks table'
+-- Range partitions by creation day (UTC). TaskPartitionManager splits pmax into the coming
+-- days and drops past partitions once TaskArchiver has emptied them. Bounds are epoch seconds
+-- (1767225600 = 2026-01-01 00:00 UTC), independent of the session time zone
+PARTITION BY RANGE (UNIX_TIMESTAMP(created_at)) (
+    PARTITION p0 VALUES LESS THAN (1767225600),
+    PARTITION pmax VALUES LESS THAN MAXVALUE
+);
+
+-- Existing databases:
+-- ALTER TABLE tasks
+--     DROP INDEX idx_status, DROP INDEX idx_task_type, DROP INDEX idx_created_at,
+--     ADD INDEX idx_created_at_id (created_at, id),
+--     ADD INDEX idx_status_created_at (status, created_at, id),
+--     ADD INDEX idx_task_type_created_at (task_type, created_at, id),
+--     ADD INDEX idx_status_task_type_created_at (status, task_type, created_at, id);
+-- ALTER TABLE tasks
+--     MODIFY created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT 'Creation time',
+--     DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at);
+-- One partition per UTC day from 2026-01-01 up to today, and an empty pmax, so that
+-- TaskPartitionManager never has to split a pmax holding rows and past days can be dropped
+-- one by one once archived (TIMESTAMPDIFF on DATETIME values ignores the session time zone):
+-- SET SESSION group_concat_max_len = 1048576;
+-- SET @days = (
+--     WITH RECURSIVE d (day) AS (
+--         SELECT DATE('2026-01-01') UNION ALL SELECT day + INTERVAL 1 DAY FROM d WHERE day < UTC_DATE())
+--     SELECT GROUP_CONCAT(CONCAT('PARTITION p', DATE_FORMAT(day, '%Y%m%d'), ' VALUES LESS THAN (',
+--            TIMESTAMPDIFF(SECOND, '1970-01-01 00:00:00', day + INTERVAL 1 DAY), ')') ORDER BY day SEPARATOR ', ')
+--     FROM d);
+-- SET @ddl = CONCAT('ALTER TABLE tasks PARTITION BY RANGE (UNIX_TIMESTAMP(created_at)) (',
+--     'PARTITION p0 VALUES LESS THAN (1767225600), ', @days, ', PARTITION pmax VALUES LESS THAN MAXVALUE)');
+-- PREPARE partition_tasks FROM @ddl; EXECUTE partition_tasks; DEALLOCATE PREPARE partition_tasks;
+-- (both ALTERs rebuild the table: run them in a maintenance window, or with an online schema change tool)
+
+-- Create tasks archive table
+-- Finished tasks moved out of tasks by TaskArchiver after their retention, in batches; still
+-- served by GET /tasks/{taskId}. Purged after task.archive.archive-retention
+CREATE TABLE IF NOT EXISTS tasks_archive (
+    id VARCHAR(64) PRIMARY KEY COMMENT 'Task ID (UUID)',
+    task_type VARCHAR(32) NOT NULL COMMENT 'Task type',
+    status VARCHAR(16) NOT NULL COMMENT 'SUCCESS, FAILED, CANCELLED, TIMED_OUT',
+    priority VARCHAR(8) NOT NULL DEFAULT 'NORMAL' COMMENT 'HIGH, NORMAL, LOW',
+    params JSON COMMENT 'Task parameters (JSON)',
+    result JSON COMMENT 'Task result (JSON)',
+    error_message TEXT COMMENT 'Error message',
+    progress INT DEFAULT 0 COMMENT 'Progress: 0-100',
+    retry_count INT DEFAULT 0 COMMENT 'Retry count',
+    created_at TIMESTAMP NOT NULL COMMENT 'Creation time',
+    run_at TIMESTAMP(3) NULL COMMENT 'Due time of a delayed task',
+    started_at TIMESTAMP NULL COMMENT 'Start time',
+    finished_at TIMESTAMP NULL COMMENT 'Finish time',
+    archived_at TIMESTAMP(3) NOT NULL COMMENT 'Time moved to the archive',
+    INDEX idx_archive_archived_at (archived_at)
+) ENGINE=InnoDB ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8 DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci
+  COMMENT='Archived finished tasks';
+
+-- Create task outbox table (task.submission.dispatch-mode=outbox)
+-- Written in the same transaction as the tasks insert, drained by OutboxRelay
+CREATE TABLE IF NOT EXISTS task_outbox (
+    task_id VARCHAR(64) PRIMARY KEY COMMENT 'Task ID (UUID)',
+    task_type VARCHAR(32) NOT NULL COMMENT 'Task type',
+    priority VARCHAR(8) NOT NULL DEFAULT 'NORMAL' COMMENT 'HIGH, NORMAL, LOW',
+    created_at TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) COMMENT 'Creation time',
+    INDEX idx_outbox_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Transactional outbox for task messages';
+
+-- Create task checkpoints table
+-- Last completed step of a running task, written behind by TaskCheckpointStore and read
+-- back when the task is redelivered; deleted once the task succeeded, was cancelled, timed out
+-- or was dead-lettered, and when a dead-lettered task is replayed
+CREATE TABLE IF NOT EXISTS task_checkpoints (
+    task_id VARCHAR(64) PRIMARY KEY COMMENT 'Task ID (UUID)',
+    step INT NOT NULL COMMENT 'Last completed step',
+    state VARBINARY(4096) NULL COMMENT 'Opaque executor state at that step',
+    updated_at TIMESTAMP(3) NOT NULL COMMENT 'Last write time'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Task checkpoints for resuming retries';
+
+-- Create task idempotency keys table (Idempotency-Key header on POST /tasks)
+-- Inserted in the same transaction as the task row; the primary key rejects a second task
+-- for the same key. Expired rows are deleted in batches by TaskIdempotencyService
+CREATE TABLE IF NOT EXISTS task_idempotency_keys (
+    idempotency_key VARCHAR(128) PRIMARY KEY COMMENT 'Client idempotency key',
+    task_id VARCHAR(64) NOT NULL COMMENT 'Task created for the key',
+    created_at TIMESTAMP(3) NOT NULL COMMENT 'Creation time',
+    expires_at TIMESTAMP(3) NOT NULL COMMENT 'Key is reusable after this time',
+    INDEX idx_idempotency_expires_at (expires_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Submission idempotency keys';
+
+-- Create task dead letters table
+-- Tasks not retried any more (attempts exhausted, or a non-retryable failure), written by
+-- TaskMessageProcessor; the task row stays FAILED. POST /tasks/dead-letter/replay requeues
+-- the task and deletes its dead letter
+CREATE TABLE IF NOT EXISTS task_dead_letters (
+    task_id VARCHAR(64) PRIMARY KEY COMMENT 'Task ID (UUID)',
+    task_type VARCHAR(64) NOT NULL COMMENT 'Task type',
+    priority VARCHAR(8) NOT NULL DEFAULT 'NORMAL' COMMENT 'HIGH, NORMAL, LOW',
+    attempts INT NOT NULL COMMENT 'Executions that failed',
+    reason VARCHAR(16) NOT NULL COMMENT 'EXHAUSTED, NON_RETRYABLE',
+    error_class VARCHAR(255) NULL COMMENT 'Class of the last failure',
+    error_message TEXT COMMENT 'Message of the last failure',
+    created_at TIMESTAMP(3) NOT NULL COMMENT 'Dead-letter time',
+    INDEX idx_dead_letter_created_at (created_at),
+    INDEX idx_dead_letter_type_created_at (task_type, created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Dead-lettered tasks';
 
 -- Insert sample data (optional)
 -- INSERT INTO tasks (id, task_type, status, params) VALUES
@@ -0,0 +1,55 @@
+package com.example.task.loadtest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Arrival Schedule
+ * Intended start times of one phase, fixed in advance (open model): arrival i happens when
+ * the cumulative arrival count reaches i, whatever the responses to earlier arrivals did.
+ *
+ * For a linear ramp from r0 to r1 over D seconds the count at time t is
+ * N(t) = r0 * t + (r1 - r0) / D * t^2 / 2, so arrival i is at the root of N(t) = i;
+ * a constant rate is the special case t = i / r0.
+ */
+public class ArrivalSchedule {
+
+    private final double startRate;
+    private final double slope;
+    private final double durationSeconds;
+
+    private long next;
+
+    public ArrivalSchedule(LoadProfile.Phase phase) {
+        this.startRate = phase.startRate();
+        this.slope = (phase.endRate() - phase.startRate()) / phase.durationSeconds();
+        this.durationSeconds = phase.durationSeconds();
+    }
+
+    /**
+     * Offset of the next arrival from the phase start
+     *
+     * @return nanoseconds, or -1 when the phase has no more arrivals
+     */
+    public long nextOffsetNanos() {
+        double seconds = timeOf(next++);
+        if (Double.isNaN(seconds) || seconds >= durationSeconds) {
+            return -1;
+        }
+        return (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Time of arrival i in seconds (NaN if the phase never reaches i arrivals)
+     */
+    double timeOf(long i) {
+        if (Math.abs(slope) < 1e-12) {
+            return startRate > 0 ? i / startRate : Double.NaN;
+        }
+        double discriminant = startRate * startRate + 2 * slope * i;
+        if (discriminant < 0) {
+            // Ramp down: the rate reaches zero before arrival i
+            return Double.NaN;
+        }
+        return (Math.sqrt(discriminant) - startRate) / slope;
+    }
+}
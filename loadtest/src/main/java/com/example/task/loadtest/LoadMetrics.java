@@ -0,0 +1,150 @@
+package com.example.task.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load Metrics
+ * Latency histograms and counters of one run, recorded lock-free from the task threads
+ *
+ * Latencies are measured from the intended time of the operation (its slot in the arrival
+ * schedule or the poll schedule), not from when the request actually went out, so time spent
+ * queued behind a stalled server is counted (coordinated omission correction). The matching
+ * "service" histograms measure from the actual send, for comparison.
+ */
+public class LoadMetrics {
+
+    public static final String SUBMIT = "submit";
+    public static final String SUBMIT_SERVICE = "submit.service";
+    public static final String POLL = "poll";
+    public static final String TIME_TO_START = "time_to_start";
+    public static final String END_TO_END = "end_to_end";
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    /**
+     * One latency metric: a Recorder for interval snapshots plus the run-wide histogram
+     */
+    public static class Metric {
+
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        private final Histogram cumulative = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        private Histogram interval;
+
+        public void record(long nanos) {
+            recorder.recordValue(Math.min(Math.max(nanos, 0), HIGHEST_TRACKABLE_NANOS));
+        }
+
+        /**
+         * Swap out the values recorded since the last call (folded into the cumulative histogram)
+         * Called by the reporter thread only
+         */
+        Histogram nextInterval() {
+            interval = recorder.getIntervalHistogram(interval);
+            cumulative.add(interval);
+            return interval;
+        }
+
+        public Histogram cumulative() {
+            return cumulative;
+        }
+    }
+
+    /**
+     * Snapshot of one report interval
+     */
+    public record Interval(double elapsedSeconds, long arrivals, long completed, long outstanding,
+                           Map<String, Summary> latencies) {
+    }
+
+    /**
+     * Percentiles of a histogram, in milliseconds
+     */
+    public record Summary(long count, double mean, double p50, double p90, double p99, double p999,
+                          double p9999, double max) {
+
+        public static Summary of(Histogram histogram) {
+            return new Summary(histogram.getTotalCount(),
+                    millis(histogram.getMean()),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(90)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getValueAtPercentile(99.99)),
+                    millis(histogram.getMaxValue()));
+        }
+
+        private static double millis(double nanos) {
+            return Math.round(nanos / 1_000) / 1_000.0;
+        }
+    }
+
+    // Sorted by name, so per-type metrics (end_to_end.<taskType>) sit next to the overall one
+    private final Map<String, Metric> metrics = new ConcurrentSkipListMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final List<Interval> timeline = new ArrayList<>();
+
+    private long lastArrivals;
+    private long lastCompleted;
+
+    public LoadMetrics() {
+        for (String name : List.of(SUBMIT, SUBMIT_SERVICE, POLL, TIME_TO_START, END_TO_END)) {
+            metrics.put(name, new Metric());
+        }
+    }
+
+    public void record(String metric, long nanos) {
+        metrics.computeIfAbsent(metric, name -> new Metric()).record(nanos);
+    }
+
+    public void increment(String counter) {
+        counters.computeIfAbsent(counter, name -> new LongAdder()).increment();
+    }
+
+    public long count(String counter) {
+        LongAdder adder = counters.get(counter);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * Close the current interval and append it to the timeline (reporter thread only)
+     */
+    public synchronized Interval snapshot(double elapsedSeconds, long outstanding) {
+        Map<String, Summary> latencies = new LinkedHashMap<>();
+        metrics.forEach((name, metric) -> latencies.put(name, Summary.of(metric.nextInterval())));
+
+        long arrivals = count("arrivals");
+        long completed = count("completed");
+        Interval interval = new Interval(elapsedSeconds, arrivals - lastArrivals, completed - lastCompleted,
+                outstanding, latencies);
+        lastArrivals = arrivals;
+        lastCompleted = completed;
+        timeline.add(interval);
+        return interval;
+    }
+
+    public Map<String, Metric> metrics() {
+        return metrics;
+    }
+
+    public Map<String, Long> counters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, adder) -> values.put(name, adder.sum()));
+        return values;
+    }
+
+    public synchronized List<Interval> timeline() {
+        return List.copyOf(timeline);
+    }
+}
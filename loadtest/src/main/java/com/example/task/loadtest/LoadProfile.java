@@ -0,0 +1,72 @@
+package com.example.task.loadtest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load Profile
+ * One load test run, read from a JSON file (see loadtest/profiles/):
+ * - phases run back to back, each at a constant arrival rate or a linear ramp between two rates
+ * - every arrival submits one task whose type is drawn from mix by weight
+ * - each submitted task is then polled with GET /tasks/{taskId} until it finishes
+ *
+ * Optional fields fall back to the defaults below
+ */
+public record LoadProfile(
+        String name,
+        String baseUrl,
+        List<Phase> phases,
+        List<TaskMix> mix,
+        Long pollIntervalMs,
+        Long completionTimeoutSeconds,
+        Integer maxOutstanding,
+        Long requestTimeoutMs,
+        Long reportIntervalSeconds) {
+
+    public LoadProfile {
+        name = name != null ? name : "load";
+        baseUrl = baseUrl != null ? baseUrl : "http://localhost:8080";
+        pollIntervalMs = pollIntervalMs != null ? pollIntervalMs : 500L;
+        completionTimeoutSeconds = completionTimeoutSeconds != null ? completionTimeoutSeconds : 300L;
+        maxOutstanding = maxOutstanding != null ? maxOutstanding : 50_000;
+        requestTimeoutMs = requestTimeoutMs != null ? requestTimeoutMs : 30_000L;
+        reportIntervalSeconds = reportIntervalSeconds != null ? reportIntervalSeconds : 10L;
+        if (phases == null || phases.isEmpty()) {
+            throw new IllegalArgumentException("Profile needs at least one phase");
+        }
+        if (mix == null || mix.isEmpty()) {
+            throw new IllegalArgumentException("Profile needs at least one task type in mix");
+        }
+    }
+
+    public LoadProfile withBaseUrl(String url) {
+        return new LoadProfile(name, url, phases, mix, pollIntervalMs, completionTimeoutSeconds, maxOutstanding,
+                requestTimeoutMs, reportIntervalSeconds);
+    }
+
+    /**
+     * A stretch of the run: rate is shorthand for startRate = endRate (steady / soak);
+     * different start and end rates ramp linearly (arrivals per second)
+     */
+    public record Phase(String name, Double rate, Double startRate, Double endRate, long durationSeconds) {
+
+        public Phase {
+            if (rate != null) {
+                startRate = rate;
+                endRate = rate;
+            }
+            if (startRate == null || endRate == null) {
+                throw new IllegalArgumentException("Phase " + name + " needs rate or startRate/endRate");
+            }
+            if (startRate < 0 || endRate < 0 || durationSeconds <= 0) {
+                throw new IllegalArgumentException("Phase " + name + " needs non-negative rates and a positive duration");
+            }
+        }
+    }
+
+    /**
+     * One task type of the mix, chosen with probability weight / total weight
+     */
+    public record TaskMix(String taskType, int weight, String priority, Map<String, Object> params) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.task.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load Report
+ * Writes the results of a run into the output directory:
+ * - loadtest_<name>_<timestamp>.json: profile, counters, run-wide percentiles and the interval timeline
+ * - loadtest_<name>_<timestamp>.txt: the same as a readable summary
+ * - loadtest_<name>_<timestamp>_<metric>.hgrm: full percentile distribution per metric
+ *   (HdrHistogram format, milliseconds; plot with the HdrHistogram plotter)
+ */
+public class LoadReport {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final LoadProfile profile;
+    private final LoadMetrics metrics;
+    private final LocalDateTime startedAt;
+    private final double elapsedSeconds;
+
+    public LoadReport(LoadProfile profile, LoadMetrics metrics, LocalDateTime startedAt, double elapsedSeconds) {
+        this.profile = profile;
+        this.metrics = metrics;
+        this.startedAt = startedAt;
+        this.elapsedSeconds = elapsedSeconds;
+    }
+
+    /**
+     * Write all report files
+     *
+     * @return path of the text summary
+     */
+    public Path write(Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        String prefix = "loadtest_" + profile.name() + "_" + startedAt.format(FILE_TIMESTAMP);
+
+        // 1. JSON report
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        objectMapper.writeValue(outputDir.resolve(prefix + ".json").toFile(), toMap());
+
+        // 2. Text summary
+        Path text = outputDir.resolve(prefix + ".txt");
+        try (PrintStream out = new PrintStream(Files.newOutputStream(text))) {
+            printSummary(out);
+        }
+
+        // 3. Percentile distributions
+        for (Map.Entry<String, LoadMetrics.Metric> entry : metrics.metrics().entrySet()) {
+            Path hgrm = outputDir.resolve(prefix + "_" + entry.getKey() + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(hgrm))) {
+                entry.getValue().cumulative().outputPercentileDistribution(out, NANOS_PER_MILLI);
+            }
+        }
+        return text;
+    }
+
+    public void printSummary(PrintStream out) {
+        Map<String, Long> counters = metrics.counters();
+        long arrivals = counters.getOrDefault("arrivals", 0L);
+
+        out.printf("Load test: %s (%s)%n", profile.name(), profile.baseUrl());
+        out.printf("Started:   %s, ran %.1f s%n", startedAt, elapsedSeconds);
+        out.printf("Arrivals:  %d (%.1f/s offered)%n", arrivals, elapsedSeconds > 0 ? arrivals / elapsedSeconds : 0);
+        out.println();
+
+        out.println("Counters:");
+        counters.forEach((name, value) -> out.printf("  %-28s %d%n", name, value));
+        out.println();
+
+        out.println("Latency (ms, corrected for coordinated omission unless marked .service):");
+        out.printf("  %-34s %9s %9s %9s %9s %9s %9s %9s %9s%n",
+                "metric", "count", "mean", "p50", "p90", "p99", "p99.9", "p99.99", "max");
+        summaries().forEach((name, s) -> out.printf("  %-34s %9d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, s.count(), s.mean(), s.p50(), s.p90(), s.p99(), s.p999(), s.p9999(), s.max()));
+        out.println();
+
+        out.println("Timeline (per interval: arrivals, completed, outstanding, submit p99 ms, end-to-end p99 ms):");
+        for (LoadMetrics.Interval interval : metrics.timeline()) {
+            out.printf("  %8.1fs %8d %8d %8d %10.2f %10.2f%n", interval.elapsedSeconds(), interval.arrivals(),
+                    interval.completed(), interval.outstanding(),
+                    interval.latencies().get(LoadMetrics.SUBMIT).p99(),
+                    interval.latencies().get(LoadMetrics.END_TO_END).p99());
+        }
+    }
+
+    private Map<String, Object> toMap() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("profile", profile);
+        report.put("startedAt", startedAt.toString());
+        report.put("elapsedSeconds", elapsedSeconds);
+        report.put("counters", metrics.counters());
+        report.put("latencyMillis", summaries());
+        report.put("timeline", metrics.timeline());
+        return report;
+    }
+
+    private Map<String, LoadMetrics.Summary> summaries() {
+        Map<String, LoadMetrics.Summary> summaries = new LinkedHashMap<>();
+        metrics.metrics().forEach((name, metric) -> summaries.put(name, LoadMetrics.Summary.of(metric.cumulative())));
+        return summaries;
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.task.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load Test
+ * Open-loop load generator for the task API. Usage:
+ *
+ * <pre>
+ * java -jar loadtest/target/loadtest.jar &lt;profile.json&gt; [--base-url=http://host:8080] [--output-dir=stress-test-results]
+ * </pre>
+ *
+ * Arrivals follow the profile's schedule no matter how the service responds: each arrival
+ * runs on its own virtual thread, which
+ * 1. submits a task (POST /tasks)
+ * 2. polls it (GET /tasks/{taskId}) every pollIntervalMs until it reaches a terminal status
+ *    or completionTimeoutSeconds passes
+ *
+ * A slow service therefore builds up outstanding tasks instead of slowing the load down.
+ * Above maxOutstanding in-flight tasks new arrivals are dropped (counted, not sent), which
+ * bounds the generator's own memory when the service stalls completely.
+ *
+ * End-to-end latency resolution is the poll interval.
+ */
+public class LoadTest {
+
+    private static final Set<String> TERMINAL_STATUSES = Set.of("SUCCESS", "FAILED", "CANCELLED", "TIMED_OUT");
+
+    private final LoadProfile profile;
+    private final TaskApiClient client;
+    private final LoadMetrics metrics = new LoadMetrics();
+    private final Semaphore outstanding;
+    private final long pollIntervalNanos;
+    private final long completionTimeoutNanos;
+    private final int totalWeight;
+
+    public LoadTest(LoadProfile profile) {
+        this.profile = profile;
+        this.client = new TaskApiClient(profile.baseUrl(), Duration.ofMillis(profile.requestTimeoutMs()));
+        this.outstanding = new Semaphore(profile.maxOutstanding());
+        this.pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(profile.pollIntervalMs());
+        this.completionTimeoutNanos = TimeUnit.SECONDS.toNanos(profile.completionTimeoutSeconds());
+        this.totalWeight = profile.mix().stream().mapToInt(LoadProfile.TaskMix::weight).sum();
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Task mix weights must add up to more than 0");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String profilePath = null;
+        String baseUrl = null;
+        Path outputDir = Path.of("stress-test-results");
+        for (String arg : args) {
+            if (arg.startsWith("--base-url=")) {
+                baseUrl = arg.substring("--base-url=".length());
+            } else if (arg.startsWith("--output-dir=")) {
+                outputDir = Path.of(arg.substring("--output-dir=".length()));
+            } else {
+                profilePath = arg;
+            }
+        }
+        if (profilePath == null) {
+            System.err.println("Usage: java -jar loadtest.jar <profile.json> [--base-url=URL] [--output-dir=DIR]");
+            System.exit(2);
+        }
+
+        LoadProfile profile = new ObjectMapper().readValue(Path.of(profilePath).toFile(), LoadProfile.class);
+        if (baseUrl != null) {
+            profile = profile.withBaseUrl(baseUrl);
+        }
+
+        new LoadTest(profile).run(outputDir);
+    }
+
+    public void run(Path outputDir) throws InterruptedException, IOException {
+        LocalDateTime startedAt = LocalDateTime.now();
+        long runStart = System.nanoTime();
+        System.out.printf("Load test %s against %s: %d phase(s)%n", profile.name(), profile.baseUrl(),
+                profile.phases().size());
+
+        // 1. Report an interval line while the load runs
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(
+                runnable -> Thread.ofPlatform().name("loadtest-reporter").daemon().unstarted(runnable));
+        reporter.scheduleAtFixedRate(() -> printInterval(runStart), profile.reportIntervalSeconds(),
+                profile.reportIntervalSeconds(), TimeUnit.SECONDS);
+
+        // 2. Dispatch arrivals phase by phase on the intended schedule
+        ExecutorService tasks = Executors.newVirtualThreadPerTaskExecutor();
+        long phaseStart = runStart;
+        for (LoadProfile.Phase phase : profile.phases()) {
+            System.out.printf("Phase %s: %.1f -> %.1f/s for %ds%n", phase.name(), phase.startRate(),
+                    phase.endRate(), phase.durationSeconds());
+            ArrivalSchedule schedule = new ArrivalSchedule(phase);
+            for (long offset = schedule.nextOffsetNanos(); offset >= 0; offset = schedule.nextOffsetNanos()) {
+                long intended = phaseStart + offset;
+                parkUntil(intended);
+                metrics.increment("arrivals");
+                if (!outstanding.tryAcquire()) {
+                    metrics.increment("dropped");
+                    continue;
+                }
+                LoadProfile.TaskMix mix = pickTaskType();
+                tasks.execute(() -> {
+                    try {
+                        runTask(mix, intended);
+                    } finally {
+                        outstanding.release();
+                    }
+                });
+            }
+            phaseStart += TimeUnit.SECONDS.toNanos(phase.durationSeconds());
+            parkUntil(phaseStart);
+        }
+
+        // 3. Let outstanding tasks finish (each gives up after completionTimeoutSeconds)
+        System.out.printf("Arrivals done, waiting for %d outstanding task(s)%n", inFlight());
+        tasks.shutdown();
+        tasks.awaitTermination(profile.completionTimeoutSeconds() + 60, TimeUnit.SECONDS);
+        reporter.shutdownNow();
+        reporter.awaitTermination(5, TimeUnit.SECONDS);
+
+        // 4. Final interval, then the reports
+        double elapsedSeconds = (System.nanoTime() - runStart) / 1e9;
+        metrics.snapshot(elapsedSeconds, inFlight());
+        LoadReport report = new LoadReport(profile, metrics, startedAt, elapsedSeconds);
+        Path summary = report.write(outputDir);
+        System.out.println();
+        report.printSummary(System.out);
+        System.out.println();
+        System.out.println("Reports written to " + summary.getParent().toAbsolutePath());
+    }
+
+    /**
+     * One simulated client: submit, then poll until the task finishes
+     * Every latency is taken from the operation's intended time (see LoadMetrics)
+     */
+    private void runTask(LoadProfile.TaskMix mix, long intended) {
+        try {
+            // 1. Submit
+            TaskApiClient.Response submitted = client.submit(mix);
+            metrics.record(LoadMetrics.SUBMIT, submitted.receivedNanos() - intended);
+            metrics.record(LoadMetrics.SUBMIT_SERVICE, submitted.receivedNanos() - submitted.sentNanos());
+            if (!submitted.isOk()) {
+                metrics.increment("submit.http_" + submitted.statusCode());
+                return;
+            }
+            metrics.increment("submit.accepted");
+            String taskId = submitted.text("taskId");
+
+            // 2. Poll on a fixed schedule; a late poll keeps its intended time
+            long deadline = intended + completionTimeoutNanos;
+            for (long nextPoll = submitted.receivedNanos() + pollIntervalNanos; ; nextPoll += pollIntervalNanos) {
+                if (nextPoll - deadline > 0) {
+                    metrics.increment("completion_timeout");
+                    return;
+                }
+                parkUntil(nextPoll);
+
+                TaskApiClient.Response polled = client.get(taskId);
+                metrics.record(LoadMetrics.POLL, polled.receivedNanos() - nextPoll);
+                if (!polled.isOk()) {
+                    metrics.increment("poll.http_" + polled.statusCode());
+                    continue;
+                }
+
+                String status = polled.text("status");
+                if (status != null && TERMINAL_STATUSES.contains(status)) {
+                    recordCompletion(mix, polled, status, intended);
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            metrics.increment("error." + e.getClass().getSimpleName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void recordCompletion(LoadProfile.TaskMix mix, TaskApiClient.Response polled, String status,
+                                  long intended) {
+        long endToEnd = polled.receivedNanos() - intended;
+        metrics.record(LoadMetrics.END_TO_END, endToEnd);
+        metrics.record(LoadMetrics.END_TO_END + "." + mix.taskType(), endToEnd);
+
+        // Queueing delay as seen by the service (its own clock, so not affected by polling)
+        LocalDateTime createdAt = polled.time("createdAt");
+        LocalDateTime startedAt = polled.time("startedAt");
+        if (createdAt != null && startedAt != null) {
+            metrics.record(LoadMetrics.TIME_TO_START, Duration.between(createdAt, startedAt).toNanos());
+        }
+
+        metrics.increment("completed");
+        metrics.increment("status." + status);
+    }
+
+    private LoadProfile.TaskMix pickTaskType() {
+        List<LoadProfile.TaskMix> mix = profile.mix();
+        int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (LoadProfile.TaskMix candidate : mix) {
+            pick -= candidate.weight();
+            if (pick < 0) {
+                return candidate;
+            }
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    private void printInterval(long runStart) {
+        LoadMetrics.Interval interval = metrics.snapshot((System.nanoTime() - runStart) / 1e9, inFlight());
+        System.out.printf("[%7.1fs] arrivals=%d completed=%d outstanding=%d dropped=%d submit p99=%.1fms "
+                        + "poll p99=%.1fms end-to-end p50=%.1fms p99=%.1fms%n",
+                interval.elapsedSeconds(), interval.arrivals(), interval.completed(), interval.outstanding(),
+                metrics.count("dropped"),
+                interval.latencies().get(LoadMetrics.SUBMIT).p99(),
+                interval.latencies().get(LoadMetrics.POLL).p99(),
+                interval.latencies().get(LoadMetrics.END_TO_END).p50(),
+                interval.latencies().get(LoadMetrics.END_TO_END).p99());
+    }
+
+    private long inFlight() {
+        return profile.maxOutstanding() - outstanding.availablePermits();
+    }
+
+    private static void parkUntil(long deadlineNanos) throws InterruptedException {
+        for (long remaining = deadlineNanos - System.nanoTime(); remaining > 0;
+             remaining = deadlineNanos - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.task.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+
+/**
+ * Task API Client
+ * Minimal blocking client for POST /tasks and GET /tasks/{taskId}, meant to be called from
+ * virtual threads (one per simulated task)
+ */
+public class TaskApiClient {
+
+    /**
+     * Outcome of one HTTP call: status code, the parsed body (null if none) and the
+     * send/receive timestamps (System.nanoTime)
+     */
+    public record Response(int statusCode, JsonNode body, long sentNanos, long receivedNanos) {
+
+        public boolean isOk() {
+            return statusCode >= 200 && statusCode < 300;
+        }
+
+        public String text(String field) {
+            JsonNode node = body != null ? body.get(field) : null;
+            return node != null && !node.isNull() ? node.asText() : null;
+        }
+
+        public LocalDateTime time(String field) {
+            String value = text(field);
+            return value != null ? LocalDateTime.parse(value) : null;
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final Duration requestTimeout;
+
+    public TaskApiClient(String baseUrl, Duration requestTimeout) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.requestTimeout = requestTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(requestTimeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    /**
+     * POST /tasks
+     */
+    public Response submit(LoadProfile.TaskMix mix) throws IOException, InterruptedException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("taskType", mix.taskType());
+        if (mix.priority() != null) {
+            body.put("priority", mix.priority());
+        }
+        if (mix.params() != null) {
+            body.put("params", mix.params());
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/tasks"))
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+        return send(request);
+    }
+
+    /**
+     * GET /tasks/{taskId}
+     */
+    public Response get(String taskId) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/tasks/" + taskId))
+                .timeout(requestTimeout)
+                .GET()
+                .build();
+        return send(request);
+    }
+
+    private Response send(HttpRequest request) throws IOException, InterruptedException {
+        long sent = System.nanoTime();
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        long received = System.nanoTime();
+
+        JsonNode body = null;
+        if (response.body().length > 0) {
+            try {
+                body = objectMapper.readTree(response.body());
+            } catch (IOException e) {
+                // Not JSON (e.g. an HTML error page): keep only the status code
+            }
+        }
+        return new Response(response.statusCode(), body, sent, received);
+    }
+}
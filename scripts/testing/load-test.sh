@@ -0,0 +1,32 @@
+#!/bin/bash
+
+# Open-loop Load Test
+# Builds the load generator (loadtest/) and runs a profile against a running service.
+# Reports (JSON, text, .hgrm) are written to ./stress-test-results
+#
+# Usage:
+#   ./scripts/testing/load-test.sh [profile.json] [--base-url=URL] [--output-dir=DIR]
+#
+# Examples:
+#   ./scripts/testing/load-test.sh                                   # loadtest/profiles/smoke.json
+#   ./scripts/testing/load-test.sh loadtest/profiles/soak.json --base-url=http://10.0.0.5:8080
+
+set -e
+
+cd "$(dirname "$0")/../.."
+
+PROFILE="loadtest/profiles/smoke.json"
+if [ $# -gt 0 ] && [[ "$1" != --* ]]; then
+    PROFILE="$1"
+    shift
+fi
+
+if [ ! -f "$PROFILE" ]; then
+    echo "Profile not found: $PROFILE"
+    exit 1
+fi
+
+echo "Building load generator..."
+mvn -q -B -f loadtest/pom.xml package -DskipTests
+
+java -jar loadtest/target/loadtest.jar "$PROFILE" --output-dir=./stress-test-results "$@"
@@ -74,6 +74,7 @@ echo "Next Steps:"
 echo "1. Monitor task processing in application logs: docker logs -f task-app"
 echo "2. Check RocketMQ Console: http://localhost:8081"
 echo "3. Use analyze-logs.sh to analyze results after all tasks complete"
+echo "   (or watch throughput and latency live: curl http://localhost:8080/stats)"
 echo ""
 echo "To monitor active tasks in real-time:"
 echo "  docker logs -f task-app | grep 'activeTasks='"
@@ -2,12 +2,14 @@ package com.example.task;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main Application Class
  * Async Task Processing Service with RocketMQ
  */
 @SpringBootApplication
+@EnableScheduling
 public class TaskAsyncServiceApplication {
 
     public static void main(String[] args) {
@@ -1,18 +1,24 @@
 package com.example.task.config;
 
+import com.example.task.service.TaskTransactionListener;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.client.producer.TransactionMQProducer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 
 /**
  * RocketMQ Producer Configuration
  * Uses official RocketMQ SDK (no Spring abstractions)
+ * Only with the RocketMQ transport (task.queue.transport=rocketmq, the default)
  */
 @Slf4j
 @Configuration
+@ConditionalOnProperty(name = "task.queue.transport", havingValue = "rocketmq", matchIfMissing = true)
 public class RocketMQConfig {
 
     @Value("${rocketmq.name-server}")
@@ -21,12 +27,18 @@ public class RocketMQConfig {
     @Value("${rocketmq.producer.group:task-producer-group}")
     private String producerGroup;
 
+    @Value("${rocketmq.producer.transaction-group:task-tx-producer-group}")
+    private String transactionProducerGroup;
+
     private DefaultMQProducer producer;
 
+    private TransactionMQProducer transactionProducer;
+
     /**
      * Create and start RocketMQ producer
      */
     @Bean
+    @Primary
     public DefaultMQProducer rocketMQProducer() throws Exception {
         log.info("Initializing RocketMQ producer: group={}, nameserver={}", producerGroup, nameServer);
 
@@ -44,6 +56,29 @@ public class RocketMQConfig {
         return producer;
     }
 
+    /**
+     * Create and start RocketMQ transactional producer
+     * Only used when task.submission.dispatch-mode=transactional
+     */
+    @Bean
+    @ConditionalOnProperty(name = "task.submission.dispatch-mode", havingValue = "transactional")
+    public TransactionMQProducer transactionMQProducer(TaskTransactionListener transactionListener) throws Exception {
+        log.info("Initializing RocketMQ transactional producer: group={}, nameserver={}",
+                transactionProducerGroup, nameServer);
+
+        transactionProducer = new TransactionMQProducer(transactionProducerGroup);
+        transactionProducer.setNamesrvAddr(nameServer);
+
+        // Local transaction (task row insert) and broker-initiated checks
+        transactionProducer.setTransactionListener(transactionListener);
+
+        transactionProducer.start();
+
+        log.info("RocketMQ transactional producer started successfully");
+
+        return transactionProducer;
+    }
+
     /**
      * Shutdown producer gracefully
      */
@@ -55,5 +90,10 @@ public class RocketMQConfig {
             producer.shutdown();
             log.info("RocketMQ producer shut down successfully");
         }
+
+        if (transactionProducer != null) {
+            transactionProducer.shutdown();
+            log.info("RocketMQ transactional producer shut down successfully");
+        }
     }
 }
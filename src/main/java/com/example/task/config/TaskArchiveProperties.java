@@ -0,0 +1,67 @@
+package com.example.task.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Archival of finished tasks (task.archive.*)
+ *
+ * task:
+ *   archive:
+ *     retention: 7d                 # default time a finished task stays in tasks
+ *     retentions:
+ *       "[REPORT_GENERATION]": 30d  # per task type
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "task.archive")
+public class TaskArchiveProperties {
+
+    /**
+     * Move finished tasks out of the hot table
+     */
+    private boolean enabled = true;
+
+    /**
+     * Default retention in tasks, counted from finished_at
+     */
+    private Duration retention = Duration.ofDays(7);
+
+    /**
+     * Per task type retentions, overriding the default
+     */
+    private Map<String, Duration> retentions = new HashMap<>();
+
+    /**
+     * Tasks moved per transaction (keeps row locks short)
+     */
+    private int batchSize = 500;
+
+    /**
+     * Pause between batches, so archiving never competes with the live workload for long
+     */
+    private long pauseMs = 200;
+
+    /**
+     * Max batches per run; the rest waits for the next run
+     */
+    private int maxBatchesPerRun = 100;
+
+    /**
+     * How long archived tasks are kept in tasks_archive
+     */
+    private Duration archiveRetention = Duration.ofDays(365);
+
+    /**
+     * Retention of a task type in the hot table
+     */
+    public Duration retentionFor(String taskType) {
+        Duration typeRetention = retentions.get(taskType);
+        return typeRetention != null ? typeRetention : retention;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.task.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-task-type bulkhead configuration (task.bulkheads.*)
+ *
+ * Each configured task type is published with its type as RocketMQ tag and consumed by
+ * its own consumer group with its own concurrency limit, local queue and timeout, so a
+ * flood of one slow type cannot starve the others. Types without a bulkhead are tagged
+ * DEFAULT and share the default consumer (rocketmq.consumer.*)
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "task")
+public class TaskBulkheadProperties {
+
+    /**
+     * Tag for task types without a dedicated bulkhead
+     */
+    public static final String DEFAULT_TAG = "DEFAULT";
+
+    /**
+     * Bulkheads keyed by task type (use "[DATA_EXPORT]" style keys in YAML to keep the case)
+     */
+    private Map<String, Bulkhead> bulkheads = new LinkedHashMap<>();
+
+    /**
+     * RocketMQ tag a task type is published with
+     */
+    public String tagFor(String taskType) {
+        return taskType != null && bulkheads.containsKey(taskType) ? taskType : DEFAULT_TAG;
+    }
+
+    /**
+     * Tag expression for the default consumer: everything when no bulkheads are configured,
+     * otherwise only the DEFAULT tag (typed tags belong to their bulkhead consumers)
+     */
+    public String defaultSubscription(String configuredTag) {
+        return bulkheads.isEmpty() ? configuredTag : DEFAULT_TAG;
+    }
+
+    @Data
+    public static class Bulkhead {
+
+        /**
+         * Max concurrently executing tasks of this type
+         * (consume threads in pooled mode, permits in virtual mode)
+         */
+        private int concurrency = 10;
+
+        /**
+         * Max messages buffered locally per message queue for this type
+         */
+        private int queueSize = 100;
+
+        /**
+         * Max execution time of one task of this type, in minutes
+         */
+        private int timeoutMinutes = 30;
+    }
+}
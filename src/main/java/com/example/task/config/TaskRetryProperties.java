@@ -0,0 +1,152 @@
+package com.example.task.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Retry policies and failure circuit breaker (task.retry.*)
+ *
+ * task:
+ *   retry:
+ *     policy:                       # default policy
+ *       max-attempts: 4
+ *       initial-backoff: 10s
+ *     policies:
+ *       "[REPORT_GENERATION]":      # per task type; unset fields inherit the default policy
+ *         max-attempts: 2
+ *         no-retry-on: [java.io.FileNotFoundException]
+ *     circuit-breaker:
+ *       failure-rate-threshold: 0.5
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "task.retry")
+public class TaskRetryProperties {
+
+    /**
+     * Default policy
+     */
+    private Policy policy = Policy.defaults();
+
+    /**
+     * Per task type policies, overriding the default field by field
+     */
+    private Map<String, Policy> policies = new HashMap<>();
+
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    @Data
+    public static class Policy {
+
+        /**
+         * Executions in total, the first one included (1 = never retry)
+         */
+        private Integer maxAttempts;
+
+        /**
+         * Delay before the first retry
+         */
+        private Duration initialBackoff;
+
+        /**
+         * Factor applied to the delay for each further retry
+         */
+        private Double multiplier;
+
+        /**
+         * Upper bound of the delay
+         */
+        private Duration maxBackoff;
+
+        /**
+         * Fraction of the delay that is randomized (0 = fixed delays, 1 = anywhere between 0
+         * and the delay), so tasks that failed together do not retry together
+         */
+        private Double jitter;
+
+        /**
+         * Exception classes worth retrying (with subclasses, anywhere in the cause chain);
+         * empty = every exception not listed in noRetryOn
+         */
+        private List<String> retryOn;
+
+        /**
+         * Exception classes that fail the task at once (with subclasses, anywhere in the cause
+         * chain); checked before retryOn
+         */
+        private List<String> noRetryOn;
+
+        static Policy defaults() {
+            Policy policy = new Policy();
+            policy.setMaxAttempts(4);
+            policy.setInitialBackoff(Duration.ofSeconds(10));
+            policy.setMultiplier(2.0);
+            policy.setMaxBackoff(Duration.ofMinutes(10));
+            policy.setJitter(0.5);
+            policy.setRetryOn(new ArrayList<>());
+            policy.setNoRetryOn(new ArrayList<>(List.of(
+                    "java.lang.IllegalArgumentException", "java.lang.UnsupportedOperationException")));
+            return policy;
+        }
+    }
+
+    @Data
+    public static class CircuitBreaker {
+
+        /**
+         * Stop executing a task type that keeps failing
+         */
+        private boolean enabled = true;
+
+        /**
+         * Sliding window the failure rate is computed over, in seconds
+         */
+        private int windowSeconds = 60;
+
+        /**
+         * Executions in the window before the failure rate is trusted
+         */
+        private int minimumCalls = 20;
+
+        /**
+         * Failure rate (0-1) in the window that opens the breaker
+         */
+        private double failureRateThreshold = 0.5;
+
+        /**
+         * How long an open breaker parks the type's messages before letting probes through
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        /**
+         * Probe executions while half-open; all must succeed to close the breaker
+         */
+        private int halfOpenProbes = 5;
+    }
+
+    /**
+     * Policy of a task type: its own fields, the default policy's for the rest
+     */
+    public Policy policyFor(String taskType) {
+        Policy override = policies.get(taskType);
+        if (override == null) {
+            return policy;
+        }
+        Policy merged = new Policy();
+        merged.setMaxAttempts(override.getMaxAttempts() != null ? override.getMaxAttempts() : policy.getMaxAttempts());
+        merged.setInitialBackoff(override.getInitialBackoff() != null ? override.getInitialBackoff() : policy.getInitialBackoff());
+        merged.setMultiplier(override.getMultiplier() != null ? override.getMultiplier() : policy.getMultiplier());
+        merged.setMaxBackoff(override.getMaxBackoff() != null ? override.getMaxBackoff() : policy.getMaxBackoff());
+        merged.setJitter(override.getJitter() != null ? override.getJitter() : policy.getJitter());
+        merged.setRetryOn(override.getRetryOn() != null ? override.getRetryOn() : policy.getRetryOn());
+        merged.setNoRetryOn(override.getNoRetryOn() != null ? override.getNoRetryOn() : policy.getNoRetryOn());
+        return merged;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.task.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Task execution deadlines (task.processing.*)
+ *
+ * task:
+ *   processing:
+ *     timeout-minutes: 30          # default deadline
+ *     timeouts:
+ *       "[REPORT_GENERATION]": 5m  # per task type
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "task.processing")
+public class TaskTimeoutProperties {
+
+    /**
+     * Default execution deadline in minutes
+     */
+    private long timeoutMinutes = 30;
+
+    /**
+     * Per task type deadlines, overriding the default
+     */
+    private Map<String, Duration> timeouts = new HashMap<>();
+
+    /**
+     * Execution deadline for a task type
+     */
+    public Duration timeoutFor(String taskType) {
+        Duration timeout = timeouts.get(taskType);
+        return timeout != null ? timeout : Duration.ofMinutes(timeoutMinutes);
+    }
+
+    /**
+     * Longest deadline of any task type: a RUNNING attempt older than this has outlived
+     * every deadline, so its node is gone and a redelivery may take it over
+     */
+    public Duration longestTimeout() {
+        Duration longest = Duration.ofMinutes(timeoutMinutes);
+        for (Duration timeout : timeouts.values()) {
+            if (timeout.compareTo(longest) > 0) {
+                longest = timeout;
+            }
+        }
+        return longest;
+    }
+}
@@ -0,0 +1,226 @@
+package com.example.task.consumer;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive Concurrency Limiter
+ * Gradient limiter for the default consumer lane (task.execution.adaptive.enabled=true),
+ * modelled on Netflix concurrency-limits' Gradient2Limit:
+ *
+ * - every window the average task latency (short RTT) is compared with a slow moving
+ *   average of it (long RTT); gradient = clamp(tolerance * longRtt / shortRtt, 0.5, 1)
+ * - new limit = limit * gradient + sqrt(limit), smoothed, bounded by [min-limit, max-limit]
+ *   so the limit keeps probing upwards while latency stays flat and shrinks when it rises
+ * - threads waiting for a Hikari connection count as saturation and force a backoff, since
+ *   the pool is shared with the HTTP path
+ * - the limit only grows while the lane actually uses at least half of it
+ *
+ * Consumers call acquire() before processing a message and release() afterwards; acquire()
+ * blocks while the node is at its limit. isSaturated() lets them pause pulling.
+ */
+@Slf4j
+@Component
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double MIN_GRADIENT = 0.5;
+
+    @Value("${task.execution.adaptive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${task.execution.adaptive.min-limit:2}")
+    private int minLimit;
+
+    @Value("${task.execution.adaptive.max-limit:50}")
+    private int maxLimit;
+
+    /**
+     * How much the short RTT may exceed the long RTT before the limit backs off
+     */
+    @Value("${task.execution.adaptive.tolerance:1.5}")
+    private double tolerance;
+
+    /**
+     * Weight of each new limit estimate (0..1)
+     */
+    @Value("${task.execution.adaptive.smoothing:0.2}")
+    private double smoothing;
+
+    /**
+     * Backoff ratio applied while threads wait for a database connection
+     */
+    @Value("${task.execution.adaptive.db-backoff-ratio:0.9}")
+    private double dbBackoffRatio;
+
+    private final HikariDataSource hikariDataSource;
+
+    private final Object lock = new Object();
+    private volatile double limit;
+    private int inFlight;
+
+    // Samples of the current window
+    private final LongAdder sampleCount = new LongAdder();
+    private final DoubleAdder sampleRttSum = new DoubleAdder();
+
+    private volatile double longRtt;
+    private volatile double lastGradient = 1.0;
+
+    public AdaptiveConcurrencyLimiter(DataSource dataSource, MeterRegistry meterRegistry,
+                                      @Value("${task.execution.adaptive.initial-limit:10}") int initialLimit) {
+        this.hikariDataSource = hikariDataSourceOf(dataSource);
+        this.limit = initialLimit;
+
+        Gauge.builder("task.concurrency.limit", this, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Current adaptive concurrency limit")
+                .register(meterRegistry);
+        Gauge.builder("task.concurrency.inflight", this, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Tasks currently holding a limiter permit")
+                .register(meterRegistry);
+        Gauge.builder("task.concurrency.gradient", this, l -> l.lastGradient)
+                .description("Latency gradient of the last window (1 = flat, lower = rising latency)")
+                .register(meterRegistry);
+        Gauge.builder("task.concurrency.rtt.long", this, l -> l.longRtt)
+                .description("Long-term average task latency used as the baseline")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    private static HikariDataSource hikariDataSourceOf(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class);
+            }
+        } catch (SQLException e) {
+            log.warn("Could not unwrap Hikari data source, pool saturation will be ignored", e);
+        }
+        return null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    /**
+     * True while every permit is in use
+     */
+    public boolean isSaturated() {
+        synchronized (lock) {
+            return inFlight >= (int) limit;
+        }
+    }
+
+    /**
+     * Take a permit, waiting while the limit is reached
+     *
+     * @return start time to pass back to release()
+     */
+    public long acquire() throws InterruptedException {
+        synchronized (lock) {
+            while (inFlight >= (int) limit) {
+                lock.wait();
+            }
+            inFlight++;
+        }
+        return System.nanoTime();
+    }
+
+    /**
+     * Return a permit and record the task latency
+     */
+    public void release(long startNanos) {
+        sampleRttSum.add((System.nanoTime() - startNanos) / 1_000_000.0);
+        sampleCount.increment();
+
+        synchronized (lock) {
+            inFlight--;
+            lock.notifyAll();
+        }
+    }
+
+    private int dbThreadsAwaitingConnection() {
+        // The pool MXBean only exists once Hikari has started
+        HikariPoolMXBean pool = hikariDataSource != null ? hikariDataSource.getHikariPoolMXBean() : null;
+        return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+    }
+
+    /**
+     * Recompute the limit from the samples of the last window
+     */
+    @Scheduled(fixedDelayString = "${task.execution.adaptive.window-ms:1000}")
+    public void adjust() {
+        if (!enabled) {
+            return;
+        }
+
+        // 1. Database pool saturation: back off regardless of latency
+        int dbPending = dbThreadsAwaitingConnection();
+
+        long count = sampleCount.sumThenReset();
+        double rttSum = sampleRttSum.sumThenReset();
+
+        double newLimit;
+        if (dbPending > 0) {
+            lastGradient = dbBackoffRatio;
+            newLimit = limit * dbBackoffRatio;
+        } else if (count == 0) {
+            // 2. No completed task in this window: nothing to learn from
+            return;
+        } else {
+            // 3. Latency gradient against the long-term baseline
+            double shortRtt = rttSum / count;
+            longRtt = longRtt == 0 ? shortRtt : longRtt * 0.95 + shortRtt * 0.05;
+
+            // Let the baseline follow a drop in latency quickly
+            if (shortRtt < longRtt) {
+                longRtt = shortRtt;
+            }
+
+            double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRtt / shortRtt));
+            lastGradient = gradient;
+
+            // 4. Only probe upwards while the current limit is actually being used
+            double queueSize = getInFlight() >= limit / 2 ? Math.sqrt(limit) : 0;
+            newLimit = limit * gradient + queueSize;
+
+            // 5. Smooth latency-driven changes (a database backoff applies immediately)
+            newLimit = limit * (1 - smoothing) + newLimit * smoothing;
+        }
+
+        newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+
+        if ((int) newLimit != (int) limit) {
+            log.debug("Concurrency limit changed: {} -> {}, gradient={}, dbPending={}",
+                    (int) limit, (int) newLimit, lastGradient, dbPending);
+        }
+
+        synchronized (lock) {
+            limit = newLimit;
+            lock.notifyAll();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.task.consumer;
+
+import com.example.task.service.RecentKeyFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Completed Task Filter
+ * Consumer-side dedup: remembers the tasks this node finished, so a redelivery of an
+ * already completed message (e.g. the ack was lost) is acked without touching the database
+ *
+ * Keyed by taskId rather than msgId, since a re-published retry gets a new message id
+ * A miss is never authoritative: the conditional RUNNING transition still rejects
+ * duplicates this filter does not know about (evicted, or completed on another node)
+ */
+@Component
+public class CompletedTaskFilter {
+
+    /**
+     * Result of a lookup
+     */
+    public enum Lookup {
+        COMPLETED,  // Finished on this node: skip the delivery
+        NEW,        // Definitely not finished on this node
+        UNKNOWN     // Bloom filter positive but not in the LRU: the database decides
+    }
+
+    private final RecentKeyFilter filter;
+
+    public CompletedTaskFilter(MeterRegistry meterRegistry,
+                               @Value("${task.dedup.consume.cache-max-size:100000}") long cacheMaxSize,
+                               @Value("${task.dedup.consume.retention-minutes:60}") long retentionMinutes,
+                               @Value("${task.dedup.consume.expected-keys:1000000}") long expectedKeys,
+                               @Value("${task.dedup.consume.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.filter = new RecentKeyFilter("consume", cacheMaxSize, Duration.ofMinutes(retentionMinutes),
+                expectedKeys, falsePositiveRate, meterRegistry);
+    }
+
+    public Lookup lookup(String taskId) {
+        if (!filter.mightContain(taskId)) {
+            return Lookup.NEW;
+        }
+        return filter.getIfPresent(taskId) != null ? Lookup.COMPLETED : Lookup.UNKNOWN;
+    }
+
+    public void markCompleted(String taskId, String msgId) {
+        filter.put(taskId, msgId);
+    }
+
+    /**
+     * An UNKNOWN lookup turned out to be a task that was not finished
+     */
+    public void recordFalsePositive() {
+        filter.recordFalsePositive();
+    }
+}
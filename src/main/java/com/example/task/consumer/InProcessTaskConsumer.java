@@ -0,0 +1,159 @@
+package com.example.task.consumer;
+
+import com.example.task.service.InProcessTaskQueue;
+import com.example.task.service.TaskPipelineMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-Process Task Consumer
+ * Consumes the in-process transport (task.queue.transport=in-process): takes TaskMessage
+ * objects straight from InProcessTaskQueue and hands them to TaskMessageProcessor, then
+ * acks CONSUME_SUCCESS or nacks RECONSUME_LATER (redelivered after the retry delay)
+ *
+ * Follows task.execution.mode:
+ * - pooled: consume-threads platform threads, each taking and processing one message at a time
+ * - virtual: one dispatcher thread takes a message per free permit (max-concurrency) and
+ *   processes it on its own virtual thread
+ *
+ * Lanes are served in weighted turn by the queue itself; task type bulkheads and the
+ * adaptive limiter only apply to the RocketMQ consumers
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "task.queue.transport", havingValue = "in-process")
+public class InProcessTaskConsumer {
+
+    private static final long TAKE_TIMEOUT_MS = 1000;
+
+    private final InProcessTaskQueue taskQueue;
+    private final TaskMessageProcessor taskMessageProcessor;
+    private final TaskPipelineMetrics pipelineMetrics;
+
+    @Value("${task.execution.mode:pooled}")
+    private String executionMode;
+
+    @Value("${task.queue.in-process.consume-threads:10}")
+    private int consumeThreads;
+
+    @Value("${task.execution.virtual.max-concurrency:10000}")
+    private int maxConcurrency;
+
+    private final List<Thread> threads = new ArrayList<>();
+    private ExecutorService virtualExecutor;
+    private volatile boolean running;
+
+    public InProcessTaskConsumer(InProcessTaskQueue taskQueue, TaskMessageProcessor taskMessageProcessor,
+                                 TaskPipelineMetrics pipelineMetrics) {
+        this.taskQueue = taskQueue;
+        this.taskMessageProcessor = taskMessageProcessor;
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    @PostConstruct
+    public void init() {
+        running = true;
+
+        if ("virtual".equals(executionMode)) {
+            virtualExecutor = Executors.newVirtualThreadPerTaskExecutor();
+            Semaphore permits = new Semaphore(maxConcurrency);
+            threads.add(Thread.ofPlatform().name("task-in-process-dispatcher").start(() -> dispatchLoop(permits)));
+        } else {
+            for (int i = 0; i < consumeThreads; i++) {
+                threads.add(Thread.ofPlatform().name("task-in-process-consumer-" + i).start(this::consumeLoop));
+            }
+        }
+
+        log.info("InProcessTaskConsumer started: mode={}, consumeThreads={}, maxConcurrency={}",
+                executionMode, threads.size(), maxConcurrency);
+    }
+
+    private void consumeLoop() {
+        while (running) {
+            try {
+                InProcessTaskQueue.Delivery delivery = taskQueue.take(TAKE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (delivery != null) {
+                    handle(delivery);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void dispatchLoop(Semaphore permits) {
+        while (running) {
+            try {
+                // Take a message only when it can start (backpressure)
+                permits.acquire();
+                InProcessTaskQueue.Delivery delivery = taskQueue.take(TAKE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (delivery == null) {
+                    permits.release();
+                    continue;
+                }
+                virtualExecutor.execute(() -> {
+                    try {
+                        handle(delivery);
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void handle(InProcessTaskQueue.Delivery delivery) {
+        pipelineMetrics.recordDelivery(delivery.lane(), System.nanoTime() - delivery.readyNanos(),
+                delivery.reconsumeTimes());
+
+        ConsumeConcurrentlyStatus status;
+        try {
+            status = taskMessageProcessor.process(delivery.message(), delivery.msgId(), delivery.reconsumeTimes());
+        } catch (Exception e) {
+            log.error("Unexpected error processing message: msgId={}", delivery.msgId(), e);
+            status = ConsumeConcurrentlyStatus.RECONSUME_LATER;
+        }
+
+        if (status == ConsumeConcurrentlyStatus.CONSUME_SUCCESS) {
+            taskQueue.ack(delivery);
+        } else {
+            taskQueue.nack(delivery);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        log.info("Shutting down InProcessTaskConsumer...");
+
+        // Loops stop within TAKE_TIMEOUT_MS; a running task is finished, not interrupted
+        running = false;
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdown();
+            if (!virtualExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Tasks still running at shutdown");
+            }
+        }
+
+        log.info("InProcessTaskConsumer shut down");
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.task.consumer;
+
+import org.apache.rocketmq.common.message.MessageQueue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Queue Offset Tracker
+ * Deferred acks for a pull consumer whose messages complete out of order: per message
+ * queue it tracks the offsets still in flight, and the committable offset is the lowest
+ * in-flight offset (or one past the highest dispatched offset when nothing is in flight)
+ *
+ * A crash therefore redelivers at most the in-flight window, never skips an unfinished message
+ */
+public class QueueOffsetTracker {
+
+    private final Map<MessageQueue, NavigableSet<Long>> inFlight = new ConcurrentHashMap<>();
+    private final Map<MessageQueue, AtomicLong> maxDispatched = new ConcurrentHashMap<>();
+
+    /**
+     * Record a message handed to a worker
+     */
+    public void dispatched(MessageQueue queue, long offset) {
+        // Add to the in-flight set before raising the max, see committableOffsets()
+        inFlight.computeIfAbsent(queue, q -> new ConcurrentSkipListSet<>()).add(offset);
+        maxDispatched.computeIfAbsent(queue, q -> new AtomicLong(-1)).accumulateAndGet(offset, Math::max);
+    }
+
+    /**
+     * Record a message whose processing finished (acked or re-published for retry)
+     */
+    public void completed(MessageQueue queue, long offset) {
+        NavigableSet<Long> offsets = inFlight.get(queue);
+        if (offsets != null) {
+            offsets.remove(offset);
+        }
+    }
+
+    /**
+     * Offsets that can be committed now, per queue
+     */
+    public Map<MessageQueue, Long> committableOffsets() {
+        Map<MessageQueue, Long> offsets = new HashMap<>();
+        for (Map.Entry<MessageQueue, AtomicLong> entry : maxDispatched.entrySet()) {
+            // Read the max first: every offset <= max was added to the in-flight set before it
+            long next = entry.getValue().get() + 1;
+            NavigableSet<Long> pending = inFlight.get(entry.getKey());
+            Long lowestPending = pending == null ? null : pending.ceiling(Long.MIN_VALUE);
+            offsets.put(entry.getKey(), lowestPending != null ? Math.min(lowestPending, next) : next);
+        }
+        return offsets;
+    }
+
+    /**
+     * Number of messages in flight across all queues
+     */
+    public int inFlightCount() {
+        int count = 0;
+        for (NavigableSet<Long> offsets : inFlight.values()) {
+            count += offsets.size();
+        }
+        return count;
+    }
+}
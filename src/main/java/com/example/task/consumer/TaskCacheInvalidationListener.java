@@ -0,0 +1,82 @@
+package com.example.task.consumer;
+
+import com.example.task.entity.TaskChangeEvent;
+import com.example.task.service.TaskCache;
+import com.example.task.service.TaskChangeNotifier;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
+import org.apache.rocketmq.client.consumer.listener.MessageListenerConcurrently;
+import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.remoting.protocol.heartbeat.MessageModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Task Cache Invalidation Listener
+ * Broadcasting consumer: every app node receives every invalidation published by
+ * TaskCache, drops its local entry and notifies local status watchers (the change may
+ * have happened on another node)
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${task.cache.broadcast.enabled:false} and '${task.queue.transport:rocketmq}' == 'rocketmq'")
+public class TaskCacheInvalidationListener {
+
+    @Value("${rocketmq.name-server}")
+    private String nameServer;
+
+    @Value("${task.cache.broadcast.topic:task-broadcast-topic}")
+    private String topic;
+
+    @Value("${task.cache.broadcast.group:task-broadcast-group}")
+    private String consumerGroup;
+
+    private final TaskCache taskCache;
+    private final TaskChangeNotifier taskChangeNotifier;
+
+    private DefaultMQPushConsumer consumer;
+
+    public TaskCacheInvalidationListener(TaskCache taskCache, TaskChangeNotifier taskChangeNotifier) {
+        this.taskCache = taskCache;
+        this.taskChangeNotifier = taskChangeNotifier;
+    }
+
+    @PostConstruct
+    public void init() throws MQClientException {
+        consumer = new DefaultMQPushConsumer(consumerGroup);
+        consumer.setNamesrvAddr(nameServer);
+
+        // BROADCASTING: each node consumes every message (offsets kept locally per node)
+        consumer.setMessageModel(MessageModel.BROADCASTING);
+        consumer.setConsumeThreadMin(1);
+        consumer.setConsumeThreadMax(1);
+
+        consumer.subscribe(topic, TaskCache.INVALIDATE_TAG);
+        consumer.registerMessageListener((MessageListenerConcurrently) (messages, context) -> {
+            for (MessageExt message : messages) {
+                String taskId = new String(message.getBody(), StandardCharsets.UTF_8);
+                taskCache.invalidateLocal(taskId);
+                taskChangeNotifier.publish(TaskChangeEvent.changed(taskId));
+            }
+            return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+        });
+
+        consumer.start();
+
+        log.info("TaskCacheInvalidationListener started: group={}, topic={}", consumerGroup, topic);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (consumer != null) {
+            consumer.shutdown();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.task.consumer;
+
+import com.example.task.service.TaskCancellationService;
+import com.example.task.service.TaskExecutionRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
+import org.apache.rocketmq.client.consumer.listener.MessageListenerConcurrently;
+import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.remoting.protocol.heartbeat.MessageModel;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Task Cancellation Listener
+ * Broadcasting consumer: every app node receives every cancellation published by
+ * TaskCancellationService, interrupts its local execution of the task (if any) and
+ * remembers the id so queued deliveries are skipped
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("${task.cancellation.broadcast.enabled:true} and '${task.queue.transport:rocketmq}' == 'rocketmq'")
+public class TaskCancellationListener {
+
+    @Value("${rocketmq.name-server}")
+    private String nameServer;
+
+    @Value("${task.cache.broadcast.topic:task-broadcast-topic}")
+    private String topic;
+
+    @Value("${task.cancellation.broadcast.group:task-cancel-broadcast-group}")
+    private String consumerGroup;
+
+    private final TaskExecutionRegistry taskExecutionRegistry;
+
+    private DefaultMQPushConsumer consumer;
+
+    public TaskCancellationListener(TaskExecutionRegistry taskExecutionRegistry) {
+        this.taskExecutionRegistry = taskExecutionRegistry;
+    }
+
+    @PostConstruct
+    public void init() throws MQClientException {
+        consumer = new DefaultMQPushConsumer(consumerGroup);
+        consumer.setNamesrvAddr(nameServer);
+
+        // BROADCASTING: each node consumes every message (offsets kept locally per node)
+        consumer.setMessageModel(MessageModel.BROADCASTING);
+        consumer.setConsumeThreadMin(1);
+        consumer.setConsumeThreadMax(1);
+
+        consumer.subscribe(topic, TaskCancellationService.CANCEL_TAG);
+        consumer.registerMessageListener((MessageListenerConcurrently) (messages, context) -> {
+            for (MessageExt message : messages) {
+                taskExecutionRegistry.cancel(new String(message.getBody(), StandardCharsets.UTF_8));
+            }
+            return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+        });
+
+        consumer.start();
+
+        log.info("TaskCancellationListener started: group={}, topic={}", consumerGroup, topic);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (consumer != null) {
+            consumer.shutdown();
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package com.example.task.consumer;
 
-import com.example.task.entity.TaskMessage;
-import com.example.task.service.TaskExecutionService;
-import com.example.task.service.TaskService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.task.config.TaskBulkheadProperties;
+import com.example.task.entity.TaskPriority;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
@@ -14,17 +14,39 @@ import org.apache.rocketmq.client.consumer.listener.MessageListenerConcurrently;
 import org.apache.rocketmq.client.exception.MQClientException;
 import org.apache.rocketmq.common.message.MessageExt;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.stereotype.Component;
 
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 /**
  * Task Consumer using RocketMQ Official SDK
  * Demonstrates direct usage of RocketMQ client without Spring annotations
+ * Active in the default pooled execution mode (task.execution.mode=pooled) with the RocketMQ
+ * transport; see VirtualThreadTaskConsumer for the virtual-thread mode and InProcessTaskConsumer
+ * for the in-process transport
+ *
+ * Task types with a bulkhead (task.bulkheads.*) get their own consumer groups and permits
+ * subscribed to their tag; all other types share the default consumer
+ *
+ * The default consumer and every bulkhead are split into one push consumer per priority
+ * lane topic. Each lane runs the full thread count, but the lanes of one consumer share one
+ * pool of execution permits handed out by WeightedFairScheduler (one turn group per pool),
+ * so total parallelism stays at consume-thread-max (or the bulkhead's concurrency) and busy
+ * lanes share it by weight.
+ *
+ * With task.execution.adaptive.enabled=true the shared permits come from
+ * AdaptiveConcurrencyLimiter (max-limit threads per lane) and pulling is suspended while
+ * the limit is reached
  */
 @Slf4j
 @Component
+@ConditionalOnExpression("'${task.queue.transport:rocketmq}' == 'rocketmq' and '${task.execution.mode:pooled}' == 'pooled'")
 public class TaskConsumer {
 
     @Value("${rocketmq.name-server}")
@@ -48,47 +70,91 @@ public class TaskConsumer {
     @Value("${task.processing.max-retry-times:16}")
     private int maxRetryTimes;
 
-    private final TaskService taskService;
-    private final TaskExecutionService taskExecutionService;
-    private final ObjectMapper objectMapper;
-
-    private DefaultMQPushConsumer consumer;
-
-    public TaskConsumer(TaskService taskService, TaskExecutionService taskExecutionService, ObjectMapper objectMapper) {
-        this.taskService = taskService;
-        this.taskExecutionService = taskExecutionService;
-        this.objectMapper = objectMapper;
+    private final TaskMessageProcessor taskMessageProcessor;
+    private final TaskBulkheadProperties bulkheadProperties;
+    private final MeterRegistry meterRegistry;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final WeightedFairScheduler laneScheduler;
+
+    // Lane consumers of the default lane and of every task type bulkhead
+    private final List<DefaultMQPushConsumer> consumers = new ArrayList<>();
+
+    public TaskConsumer(TaskMessageProcessor taskMessageProcessor, TaskBulkheadProperties bulkheadProperties,
+                        MeterRegistry meterRegistry, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                        WeightedFairScheduler laneScheduler) {
+        this.taskMessageProcessor = taskMessageProcessor;
+        this.bulkheadProperties = bulkheadProperties;
+        this.meterRegistry = meterRegistry;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.laneScheduler = laneScheduler;
     }
 
     /**
-     * Initialize and start RocketMQ consumer
+     * Initialize and start RocketMQ consumers
      * Called automatically after Spring bean construction
      */
     @PostConstruct
     public void init() throws MQClientException {
         log.info("Initializing TaskConsumer...");
 
+        // Default lane: task types without a bulkhead, one consumer per priority lane topic
+        // Threads are only an upper bound per lane; the shared permits set the effective parallelism
+        int permits = concurrencyLimiter.isEnabled() ? concurrencyLimiter.getMaxLimit() : consumeThreadMax;
+        LanePool defaultPool = new LanePool(laneScheduler.group(TaskBulkheadProperties.DEFAULT_TAG),
+                consumeThreadMax, concurrencyLimiter.isEnabled() ? concurrencyLimiter : null);
+        for (TaskPriority lane : TaskPriority.values()) {
+            // NORMAL keeps the existing group and topic; e.g. task-consumer-group-high for HIGH
+            startConsumer(TaskBulkheadProperties.DEFAULT_TAG, lane.topic(consumerGroup), lane.topic(topic),
+                    bulkheadProperties.defaultSubscription(tag), Math.min(consumeThreadMin, permits), permits,
+                    null, lane, defaultPool);
+        }
+        registerGauges(TaskBulkheadProperties.DEFAULT_TAG, defaultPool::active, defaultPool::limit);
+
+        // Each bulkhead: one consumer group per lane topic, subscribed to its task type tag,
+        // sharing the bulkhead's permits in weighted turn
+        for (Map.Entry<String, TaskBulkheadProperties.Bulkhead> entry : bulkheadProperties.getBulkheads().entrySet()) {
+            String taskType = entry.getKey();
+            TaskBulkheadProperties.Bulkhead bulkhead = entry.getValue();
+            LanePool pool = new LanePool(laneScheduler.group(taskType), bulkhead.getConcurrency(), null);
+            for (TaskPriority lane : TaskPriority.values()) {
+                // NORMAL keeps the bulkhead's existing group; e.g. task-consumer-group-DATA_EXPORT-high
+                startConsumer(taskType, lane.topic(consumerGroup + "-" + taskType), lane.topic(topic), taskType,
+                        bulkhead.getConcurrency(), bulkhead.getConcurrency(), bulkhead, lane, pool);
+            }
+            registerGauges(taskType, pool::active, pool::limit);
+        }
+    }
+
+    private DefaultMQPushConsumer startConsumer(String taskType, String group, String laneTopic,
+                                                String tagExpression, int threadMin, int threadMax,
+                                                TaskBulkheadProperties.Bulkhead bulkhead, TaskPriority lane,
+                                                LanePool pool) throws MQClientException {
         // 1. Create consumer instance
-        consumer = new DefaultMQPushConsumer(consumerGroup);
+        DefaultMQPushConsumer consumer = new DefaultMQPushConsumer(group);
 
         // 2. Configure name server address
         consumer.setNamesrvAddr(nameServer);
 
         // 3. Configure thread pool (this controls the constant processing rate!)
-        consumer.setConsumeThreadMin(consumeThreadMin);
-        consumer.setConsumeThreadMax(consumeThreadMax);
+        consumer.setConsumeThreadMin(threadMin);
+        consumer.setConsumeThreadMax(threadMax);
 
         // 3.1. Configure max retry times
         consumer.setMaxReconsumeTimes(maxRetryTimes);
-        log.info("Configured max retry times: {}", maxRetryTimes);
+
+        // 3.2. Bulkhead: own local queue and timeout
+        if (bulkhead != null) {
+            consumer.setPullThresholdForQueue(bulkhead.getQueueSize());
+            consumer.setConsumeTimeout(bulkhead.getTimeoutMinutes());
+        }
 
         // IMPORTANT: This is key to achieving constant throughput
         // With fixed thread pool size, the consumer can only process
         // a fixed number of tasks concurrently, ensuring resource usage
         // stays within expected bounds
 
-        // 4. Subscribe to topic and tag
-        consumer.subscribe(topic, tag);
+        // 4. Subscribe to the lane topic and tag
+        consumer.subscribe(laneTopic, tagExpression);
 
         // 5. Register message listener
         consumer.registerMessageListener(new MessageListenerConcurrently() {
@@ -98,9 +164,19 @@ public class TaskConsumer {
                     ConsumeConcurrentlyContext context) {
 
                 for (MessageExt message : messages) {
+                    long startNanos;
+                    try {
+                        // Wait for this lane's weighted turn at the shared permits
+                        startNanos = pool.acquire(lane);
+                        laneScheduler.recordStart(lane, message.getBornTimestamp());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+                    }
+
                     try {
                         // Process single message
-                        ConsumeConcurrentlyStatus status = processMessage(message);
+                        ConsumeConcurrentlyStatus status = taskMessageProcessor.process(message);
 
                         // If any message fails, return RECONSUME_LATER
                         if (status == ConsumeConcurrentlyStatus.RECONSUME_LATER) {
@@ -110,6 +186,8 @@ public class TaskConsumer {
                     } catch (Exception e) {
                         log.error("Unexpected error processing message", e);
                         return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+                    } finally {
+                        pool.release(startNanos);
                     }
                 }
 
@@ -120,61 +198,95 @@ public class TaskConsumer {
 
         // 6. Start consumer
         consumer.start();
+        consumers.add(consumer);
+        pool.consumers.add(consumer);
+
+        log.info("TaskConsumer started successfully: type={}, lane={}, group={}, topic={}, tags={}, threads=[{}, {}], maxRetryTimes={}",
+                taskType, lane, group, laneTopic, tagExpression, threadMin, threadMax, maxRetryTimes);
 
-        log.info("TaskConsumer started successfully: group={}, topic={}, threads=[{}, {}], maxRetryTimes={}",
-                consumerGroup, topic, consumeThreadMin, consumeThreadMax, maxRetryTimes);
+        return consumer;
+    }
+
+    private void registerGauges(String taskType, Supplier<Number> active, Supplier<Number> limit) {
+        Gauge.builder("task.bulkhead.active", active)
+                .description("Tasks currently executing in this bulkhead")
+                .tag("type", taskType)
+                .register(meterRegistry);
+        Gauge.builder("task.bulkhead.limit", limit)
+                .description("Concurrency limit of this bulkhead")
+                .tag("type", taskType)
+                .register(meterRegistry);
+        Gauge.builder("task.bulkhead.utilization",
+                        () -> limit.get().doubleValue() > 0 ? active.get().doubleValue() / limit.get().doubleValue() : 0)
+                .description("Share of this bulkhead's consumer threads (or permits) in use")
+                .tag("type", taskType)
+                .register(meterRegistry);
     }
 
     /**
-     * Process single message
+     * Execution permits shared by the priority lane consumers of the default lane or of one
+     * bulkhead, handed out in weighted turn
      */
-    private ConsumeConcurrentlyStatus processMessage(MessageExt message) {
-        String taskId = "unknown";
-        try {
-            // 1. Parse message body
-            String json = new String(message.getBody(), StandardCharsets.UTF_8);
-            TaskMessage taskMessage = objectMapper.readValue(json, TaskMessage.class);
-            taskId = taskMessage.getTaskId();
-
-            int currentRetryCount = message.getReconsumeTimes();
-            log.info("Processing message: taskId={}, reconsumeTimes={}, msgId={}",
-                    taskId, currentRetryCount, message.getMsgId());
-
-            // Sync retry count from RocketMQ
-            if (currentRetryCount > 0) {
-                taskService.incrementRetryCount(taskId);
-            }
+    private static class LanePool {
 
-            // 2. Mark task as RUNNING
-            taskService.markAsRunning(taskId);
+        private final WeightedFairScheduler.Group turns;
+        private final int concurrency;
+        private final Semaphore permits;
 
-            // 3. Get task details
-            com.example.task.entity.Task task = taskService.getTask(taskId);
-            if (task == null) {
-                log.error("Task not found: taskId={}", taskId);
-                return ConsumeConcurrentlyStatus.RECONSUME_LATER;
-            }
+        // Adaptive permits instead of the fixed semaphore (default lane only, may be null)
+        private final AdaptiveConcurrencyLimiter limiter;
 
-            // 4. Execute task (this may take time!)
-            var result = taskExecutionService.execute(task);
+        // Lane consumers of this pool (suspended together while the limiter is saturated)
+        private final List<DefaultMQPushConsumer> consumers = new ArrayList<>();
+        private final AtomicBoolean suspended = new AtomicBoolean();
 
-            // 5. Mark task as SUCCESS
-            taskService.markAsSuccess(taskId, result);
+        LanePool(WeightedFairScheduler.Group turns, int concurrency, AdaptiveConcurrencyLimiter limiter) {
+            this.turns = turns;
+            this.concurrency = concurrency;
+            this.permits = new Semaphore(concurrency);
+            this.limiter = limiter;
+        }
 
-            log.info("Task processed successfully: taskId={}", taskId);
+        double active() {
+            return limiter != null ? limiter.getInFlight() : concurrency - permits.availablePermits();
+        }
 
-            // ACK: Tell RocketMQ this message is consumed successfully
-            return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+        double limit() {
+            return limiter != null ? limiter.getLimit() : concurrency;
+        }
 
-        } catch (Exception e) {
-            log.error("Failed to process task: taskId={}", taskId, e);
+        /**
+         * Take a permit in this lane's weighted turn; with the adaptive limiter, suspend the
+         * lane consumers once the limit is reached
+         */
+        long acquire(TaskPriority lane) throws InterruptedException {
+            if (limiter == null) {
+                return turns.acquire(lane, () -> {
+                    permits.acquire();
+                    return 0;
+                });
+            }
+
+            long startNanos = turns.acquire(lane, limiter::acquire);
+            if (limiter.isSaturated() && suspended.compareAndSet(false, true)) {
+                consumers.forEach(DefaultMQPushConsumer::suspend);
+            }
+            return startNanos;
+        }
 
-            // Mark task as FAILED
-            taskService.markAsFailed(taskId, e.getMessage());
+        /**
+         * Return a permit; resume pulling once there is headroom again
+         */
+        void release(long startNanos) {
+            if (limiter == null) {
+                permits.release();
+                return;
+            }
 
-            // NACK: Tell RocketMQ to reconsume this message later
-            // RocketMQ will retry based on delay level
-            return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+            limiter.release(startNanos);
+            if (!limiter.isSaturated() && suspended.compareAndSet(true, false)) {
+                consumers.forEach(DefaultMQPushConsumer::resume);
+            }
         }
     }
 
@@ -186,9 +298,9 @@ public class TaskConsumer {
     public void shutdown() {
         log.info("Shutting down TaskConsumer...");
 
-        if (consumer != null) {
+        for (DefaultMQPushConsumer consumer : consumers) {
             consumer.shutdown();
-            log.info("TaskConsumer shut down successfully");
         }
+        log.info("TaskConsumer shut down successfully");
     }
 }
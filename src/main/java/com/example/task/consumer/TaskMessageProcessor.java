@@ -0,0 +1,269 @@
+package com.example.task.consumer;
+
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskMessage;
+import com.example.task.service.RocketMQTaskQueue;
+import com.example.task.service.TaskCheckpointStore;
+import com.example.task.service.TaskCircuitBreaker;
+import com.example.task.service.TaskDeadLetterService;
+import com.example.task.service.TaskExecutionContext;
+import com.example.task.service.TaskExecutionRegistry;
+import com.example.task.service.TaskExecutionService;
+import com.example.task.service.TaskMessageCodec;
+import com.example.task.service.TaskPipelineMetrics;
+import com.example.task.service.TaskProgressBuffer;
+import com.example.task.service.TaskQueue;
+import com.example.task.service.TaskRetryService;
+import com.example.task.service.TaskService;
+import com.example.task.service.TaskStatistics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Task Message Processor
+ * Processes one task message: RUNNING transition, execution, SUCCESS/FAILED transition
+ * Shared by the push consumer (TaskConsumer), the virtual-thread pull consumer and the
+ * in-process transport's consumer (InProcessTaskConsumer)
+ *
+ * The execution is registered in TaskExecutionRegistry while it runs, so a cancellation or
+ * the watchdog (deadline exceeded) can interrupt the worker; an interrupted execution is
+ * acked, since its row already holds CANCELLED / TIMED_OUT
+ *
+ * Failures are handled here, under the task type's policy (TaskRetryService), rather than by
+ * the transport's retry ladder:
+ * - retry: the message is enqueued again with the policy's backoff (TaskQueue.retry) and the
+ *   delivery is acked; if that enqueue fails, the delivery is nacked instead
+ * - dead letter (attempts exhausted, or not retryable): recorded by TaskDeadLetterService and
+ *   acked, the row stays FAILED
+ * Every execution outcome feeds the task type's circuit breaker; while it is open, messages
+ * of that type are parked (enqueued again for later, same attempt) instead of executed
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TaskMessageProcessor {
+
+    private final TaskService taskService;
+    private final TaskExecutionService taskExecutionService;
+    private final TaskExecutionRegistry taskExecutionRegistry;
+    private final TaskProgressBuffer taskProgressBuffer;
+    private final TaskCheckpointStore taskCheckpointStore;
+    private final CompletedTaskFilter completedTaskFilter;
+    private final TaskMessageCodec taskMessageCodec;
+    private final TaskStatistics taskStatistics;
+    private final TaskPipelineMetrics pipelineMetrics;
+    private final TaskQueue taskQueue;
+    private final TaskRetryService taskRetryService;
+    private final TaskCircuitBreaker taskCircuitBreaker;
+    private final TaskDeadLetterService taskDeadLetterService;
+
+    /**
+     * Process single RocketMQ message
+     */
+    public ConsumeConcurrentlyStatus process(MessageExt message) {
+        // 1. Decode message body (binary or legacy JSON)
+        TaskMessage taskMessage;
+        try {
+            taskMessage = taskMessageCodec.decode(message.getBody());
+        } catch (Exception e) {
+            log.error("Failed to decode task message: msgId={}", message.getMsgId(), e);
+            return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+        }
+
+        int currentRetryCount = reconsumeTimesOf(message);
+        pipelineMetrics.recordDelivery(message, currentRetryCount);
+        return process(taskMessage, message.getMsgId(), currentRetryCount);
+    }
+
+    /**
+     * Process single decoded message
+     * Entry point of the in-process transport, which hands TaskMessage objects over directly
+     * (recording the delivery itself)
+     *
+     * @param currentRetryCount attempt number, 0 for the first delivery
+     */
+    public ConsumeConcurrentlyStatus process(TaskMessage taskMessage, String msgId, int currentRetryCount) {
+        String taskId = taskMessage.getTaskId();
+        String taskType = taskMessage.getTaskType();
+        LocalDateTime createdAt = null;
+        TaskExecutionRegistry.Execution execution = null;
+        TaskCircuitBreaker.Outcome outcome = TaskCircuitBreaker.Outcome.IGNORED;
+        TaskCircuitBreaker.Permit permit = null;
+        try {
+            log.info("Processing message: taskId={}, reconsumeTimes={}, msgId={}",
+                    taskId, currentRetryCount, msgId);
+
+            // Cancelled while queued: skip without touching the database
+            if (taskExecutionRegistry.isCancelled(taskId)) {
+                log.info("Skipping delivery, task cancelled: taskId={}, msgId={}", taskId, msgId);
+                return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+            }
+
+            // Redelivery of a task this node already finished: skip without touching the database
+            CompletedTaskFilter.Lookup lookup = completedTaskFilter.lookup(taskId);
+            if (lookup == CompletedTaskFilter.Lookup.COMPLETED) {
+                log.info("Skipping delivery, task already completed: taskId={}, msgId={}", taskId, msgId);
+                return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+            }
+
+            // Type failing too often: park the message without executing it or using up an attempt
+            permit = taskCircuitBreaker.tryAcquire(taskType);
+            if (permit == null) {
+                return park(taskMessage, msgId, currentRetryCount);
+            }
+
+            // Partition key of the task row, for the updates below
+            createdAt = taskService.createdAtOf(taskMessage);
+            if (createdAt == null) {
+                log.warn("Skipping delivery, task not found: taskId={}, msgId={}", taskId, msgId);
+                return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+            }
+
+            // 2. Mark task as RUNNING (conditional update; retry count synced from RocketMQ in the same statement)
+            // A duplicate or stale delivery (task already RUNNING elsewhere or finished) is acked and skipped
+            if (!taskService.markAsRunning(taskId, createdAt, taskType, currentRetryCount > 0)) {
+                log.info("Skipping delivery, task not runnable: taskId={}, msgId={}", taskId, msgId);
+                return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+            }
+            if (lookup == CompletedTaskFilter.Lookup.UNKNOWN) {
+                completedTaskFilter.recordFalsePositive();
+            }
+
+            // 3. Get task details
+            Task task = taskService.getTask(taskId, createdAt);
+            if (task == null) {
+                log.error("Task not found: taskId={}", taskId);
+                return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+            }
+            if (currentRetryCount == 0) {
+                taskStatistics.recordQueueWait(task);
+            }
+
+            // 4. Execute task (this may take time!); progress and checkpoints go to write-behind buffers
+            // A redelivery resumes from the last checkpoint of the failed attempt
+            // Registered so it can be interrupted when cancelled or past its deadline
+            TaskExecutionContext context = new TaskExecutionContext(taskId, currentRetryCount > 0,
+                    taskProgressBuffer.reporterFor(taskId, createdAt), taskCheckpointStore);
+            execution = taskExecutionRegistry.register(task);
+            var result = taskExecutionService.execute(task, context);
+
+            // 5. Mark task as SUCCESS
+            long executionNanos = System.nanoTime() - execution.getStartedNanos();
+            taskStatistics.recordExecution(executionNanos);
+            pipelineMetrics.recordExecution(taskType, Task.TaskStatus.SUCCESS, executionNanos);
+            taskService.markAsSuccess(taskId, createdAt, task.getTaskType(), result);
+            completedTaskFilter.markCompleted(taskId, msgId);
+            outcome = TaskCircuitBreaker.Outcome.SUCCESS;
+
+            log.info("Task processed successfully: taskId={}", taskId);
+
+            // ACK: Tell RocketMQ this message is consumed successfully
+            return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+
+        } catch (Exception e) {
+            if (execution != null && execution.getAbortedAs() != null) {
+                // Row already CANCELLED / TIMED_OUT: nothing to retry or resume
+                if (execution.getAbortedAs() == Task.TaskStatus.TIMED_OUT) {
+                    outcome = TaskCircuitBreaker.Outcome.FAILURE;
+                }
+                pipelineMetrics.recordExecution(taskType, execution.getAbortedAs(),
+                        System.nanoTime() - execution.getStartedNanos());
+                taskCheckpointStore.discard(taskId);
+                completedTaskFilter.markCompleted(taskId, msgId);
+                log.info("Task execution stopped: taskId={}, reason={}", taskId, execution.getAbortedAs());
+                return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+            }
+
+            log.error("Failed to process task: taskId={}", taskId, e);
+            if (execution != null) {
+                long executionNanos = System.nanoTime() - execution.getStartedNanos();
+                taskStatistics.recordExecution(executionNanos);
+                pipelineMetrics.recordExecution(taskType, Task.TaskStatus.FAILED, executionNanos);
+                outcome = TaskCircuitBreaker.Outcome.FAILURE;
+            }
+
+            // Persist the last checkpoint before the retry is scheduled
+            taskCheckpointStore.persist(taskId);
+
+            // Mark task as FAILED (unless the failure came before its row was found)
+            if (createdAt != null) {
+                taskService.markAsFailed(taskId, createdAt, taskType, e.getMessage());
+            }
+
+            // Failed before executing (e.g. database unavailable): NACK, the transport redelivers
+            // after its own retry delay; a failed execution goes through the type's retry policy
+            return execution != null
+                    ? handleFailure(taskMessage, currentRetryCount, e)
+                    : ConsumeConcurrentlyStatus.RECONSUME_LATER;
+        } finally {
+            if (execution != null) {
+                taskExecutionRegistry.complete(execution);
+            }
+            if (permit != null) {
+                taskCircuitBreaker.record(permit, outcome);
+            }
+        }
+    }
+
+    /**
+     * Retry a failed execution after its policy's backoff, or dead-letter it
+     */
+    private ConsumeConcurrentlyStatus handleFailure(TaskMessage taskMessage, int currentRetryCount, Exception failure) {
+        String taskId = taskMessage.getTaskId();
+        int attempt = currentRetryCount + 1;
+        TaskRetryService.Decision decision = taskRetryService.decide(taskMessage.getTaskType(), attempt, failure);
+
+        if (!decision.retry()) {
+            try {
+                taskCheckpointStore.discard(taskId);
+                // Not marked completed in the filter: a replay must be able to run it again
+                taskDeadLetterService.deadLetter(taskMessage, attempt, decision.reason(), failure);
+                return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+            } catch (Exception e) {
+                log.error("Failed to dead-letter task, nacking: taskId={}", taskId, e);
+                return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+            }
+        }
+
+        try {
+            taskQueue.retry(taskMessage, attempt, decision.delayMs());
+            log.info("Task retry scheduled: taskId={}, attempt={}, delayMs={}", taskId, attempt, decision.delayMs());
+            return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+        } catch (Exception e) {
+            // NACK: the transport redelivers after its own retry delay
+            log.error("Failed to schedule task retry, nacking: taskId={}", taskId, e);
+            return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+        }
+    }
+
+    /**
+     * Send a message of a task type whose breaker is open back to the queue, due once the
+     * breaker lets probes through; the attempt number is unchanged
+     */
+    private ConsumeConcurrentlyStatus park(TaskMessage taskMessage, String msgId, int currentRetryCount) {
+        long delayMs = taskCircuitBreaker.parkDelayMs(taskMessage.getTaskType());
+        try {
+            taskQueue.retry(taskMessage, currentRetryCount, delayMs);
+            log.debug("Task parked, circuit breaker not closed: taskId={}, taskType={}, delayMs={}, msgId={}",
+                    taskMessage.getTaskId(), taskMessage.getTaskType(), delayMs, msgId);
+            return ConsumeConcurrentlyStatus.CONSUME_SUCCESS;
+        } catch (Exception e) {
+            log.error("Failed to park task, nacking: taskId={}", taskMessage.getTaskId(), e);
+            return ConsumeConcurrentlyStatus.RECONSUME_LATER;
+        }
+    }
+
+    /**
+     * Attempt number of a delivery: the broker's reconsumeTimes for push consumer retries,
+     * or the attempt property for messages re-published by a pull consumer
+     */
+    public static int reconsumeTimesOf(MessageExt message) {
+        String property = message.getUserProperty(RocketMQTaskQueue.PROPERTY_RECONSUME_TIMES);
+        return property != null ? Integer.parseInt(property) : message.getReconsumeTimes();
+    }
+}
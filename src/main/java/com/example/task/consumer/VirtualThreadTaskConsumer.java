@@ -0,0 +1,406 @@
+package com.example.task.consumer;
+
+import com.example.task.config.TaskBulkheadProperties;
+import com.example.task.entity.TaskPriority;
+import com.example.task.service.RocketMQTaskQueue;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.consumer.DefaultLitePullConsumer;
+import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
+import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.common.message.Message;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Virtual-Thread Task Consumer
+ * Execution mode for I/O-bound tasks (task.execution.mode=virtual, RocketMQ transport): each message is
+ * processed on its own virtual thread, so a task blocked on I/O (or Thread.sleep) does not
+ * pin a platform thread. Concurrency is governed by a permit limit instead of the consume
+ * thread count, e.g. 10,000 in-flight tasks per node.
+ *
+ * Uses a DefaultLitePullConsumer with auto-commit disabled:
+ * - the poll loop acquires a permit per message before dispatching it, so pulling stops
+ *   while the node is at its limit (backpressure)
+ * - offsets are committed through QueueOffsetTracker (deferred ack), never past a message
+ *   that is still running
+ * - a message that needs a retry is re-published with a delay level and an attempt
+ *   property, mirroring the push consumer's RECONSUME_LATER
+ *
+ * Like the push consumer, each task type bulkhead gets its own lanes (consumer groups,
+ * permits, offset trackers); the shared virtual-thread executor has no thread limit of its own
+ *
+ * The default lane and every bulkhead are split into one pull consumer per priority lane
+ * topic; the three lanes of one share its permits (max-concurrency, or the bulkhead's
+ * concurrency) handed out in weighted turn by WeightedFairScheduler. With
+ * task.execution.adaptive.enabled=true the shared permits come from
+ * AdaptiveConcurrencyLimiter instead, and the lane queues are paused while the limit is reached
+ */
+@Slf4j
+@Component
+@ConditionalOnExpression("'${task.queue.transport:rocketmq}' == 'rocketmq' and '${task.execution.mode:pooled}' == 'virtual'")
+public class VirtualThreadTaskConsumer {
+
+    @Value("${rocketmq.name-server}")
+    private String nameServer;
+
+    @Value("${rocketmq.consumer.group}")
+    private String consumerGroup;
+
+    @Value("${rocketmq.consumer.topic}")
+    private String topic;
+
+    @Value("${rocketmq.consumer.tag}")
+    private String tag;
+
+    @Value("${task.processing.max-retry-times:16}")
+    private int maxRetryTimes;
+
+    @Value("${task.execution.virtual.pull-batch-size:32}")
+    private int pullBatchSize;
+
+    @Value("${task.execution.virtual.commit-interval-ms:1000}")
+    private long commitIntervalMs;
+
+    private final TaskMessageProcessor taskMessageProcessor;
+    private final DefaultMQProducer rocketMQProducer;
+    private final TaskBulkheadProperties bulkheadProperties;
+    private final MeterRegistry meterRegistry;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final WeightedFairScheduler laneScheduler;
+    private final int maxConcurrency;
+
+    // Priority lanes of the default lane and of every task type bulkhead
+    private final List<PullLane> lanes = new ArrayList<>();
+
+    // Priority lanes sharing the default permits (paused together)
+    private final List<PullLane> priorityLanes = new ArrayList<>();
+    private final AtomicBoolean priorityLanesPaused = new AtomicBoolean();
+
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    public VirtualThreadTaskConsumer(TaskMessageProcessor taskMessageProcessor,
+                                     DefaultMQProducer rocketMQProducer,
+                                     TaskBulkheadProperties bulkheadProperties,
+                                     MeterRegistry meterRegistry,
+                                     AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                     WeightedFairScheduler laneScheduler,
+                                     @Value("${task.execution.virtual.max-concurrency:10000}") int maxConcurrency) {
+        this.taskMessageProcessor = taskMessageProcessor;
+        this.rocketMQProducer = rocketMQProducer;
+        this.bulkheadProperties = bulkheadProperties;
+        this.meterRegistry = meterRegistry;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.laneScheduler = laneScheduler;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @PostConstruct
+    public void init() throws MQClientException {
+        log.info("Initializing VirtualThreadTaskConsumer...");
+
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        running = true;
+
+        // Default lane: task types without a bulkhead, one pull consumer per priority lane topic
+        Semaphore defaultPermits = new Semaphore(maxConcurrency);
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiter.isEnabled() ? concurrencyLimiter : null;
+        WeightedFairScheduler.Group defaultTurns = laneScheduler.group(TaskBulkheadProperties.DEFAULT_TAG);
+        for (TaskPriority priority : TaskPriority.values()) {
+            PullLane lane = startLane(TaskBulkheadProperties.DEFAULT_TAG, priority.topic(consumerGroup),
+                    priority.topic(topic), bulkheadProperties.defaultSubscription(tag),
+                    maxConcurrency, defaultPermits, pullBatchSize, limiter, priority, defaultTurns);
+            priorityLanes.add(lane);
+        }
+        registerGauges(TaskBulkheadProperties.DEFAULT_TAG, priorityLanes.get(0));
+
+        // Each bulkhead: one lane per priority topic, subscribed to its tag, sharing the
+        // bulkhead's permits in weighted turn
+        for (Map.Entry<String, TaskBulkheadProperties.Bulkhead> entry : bulkheadProperties.getBulkheads().entrySet()) {
+            String taskType = entry.getKey();
+            TaskBulkheadProperties.Bulkhead bulkhead = entry.getValue();
+            Semaphore permits = new Semaphore(bulkhead.getConcurrency());
+            WeightedFairScheduler.Group turns = laneScheduler.group(taskType);
+            List<PullLane> bulkheadLanes = new ArrayList<>();
+            for (TaskPriority priority : TaskPriority.values()) {
+                // NORMAL keeps the bulkhead's existing group; e.g. task-consumer-group-DATA_EXPORT-high
+                bulkheadLanes.add(startLane(taskType, priority.topic(consumerGroup + "-" + taskType),
+                        priority.topic(topic), taskType, bulkhead.getConcurrency(), permits,
+                        Math.min(pullBatchSize, bulkhead.getQueueSize()), null, priority, turns));
+            }
+            registerGauges(taskType, bulkheadLanes.get(0));
+        }
+    }
+
+    private PullLane startLane(String taskType, String group, String laneTopic, String tagExpression,
+                               int concurrency, Semaphore permits, int batchSize, AdaptiveConcurrencyLimiter limiter,
+                               TaskPriority priority, WeightedFairScheduler.Group turns) throws MQClientException {
+        DefaultLitePullConsumer consumer = new DefaultLitePullConsumer(group);
+        consumer.setNamesrvAddr(nameServer);
+
+        // Offsets are committed by us once messages finish (deferred ack)
+        consumer.setAutoCommit(false);
+        consumer.setPullBatchSize(batchSize);
+
+        PullLane lane = new PullLane(taskType, consumer, concurrency, permits, limiter, priority, turns);
+        consumer.subscribe(laneTopic, tagExpression, lane::queuesAssigned);
+        consumer.start();
+
+        String threadName = "task-pull-loop-" + taskType + "-" + priority.name();
+        lane.pollThread = Thread.ofPlatform().name(threadName).start(lane::pollLoop);
+        lanes.add(lane);
+
+        log.info("VirtualThreadTaskConsumer lane started: type={}, priority={}, group={}, topic={}, tags={}, maxConcurrency={}, maxRetryTimes={}",
+                taskType, priority, group, laneTopic, tagExpression, concurrency, maxRetryTimes);
+        return lane;
+    }
+
+    private void registerGauges(String taskType, PullLane lane) {
+        Gauge.builder("task.bulkhead.active", lane, PullLane::active)
+                .description("Tasks currently executing in this bulkhead")
+                .tag("type", taskType)
+                .register(meterRegistry);
+        Gauge.builder("task.bulkhead.limit", lane, PullLane::limit)
+                .description("Concurrency limit of this bulkhead")
+                .tag("type", taskType)
+                .register(meterRegistry);
+        Gauge.builder("task.bulkhead.utilization", lane,
+                        l -> l.limit() > 0 ? l.active() / l.limit() : 0)
+                .description("Share of this bulkhead's consumer threads (or permits) in use")
+                .tag("type", taskType)
+                .register(meterRegistry);
+    }
+
+    private void pausePriorityLanes() {
+        if (priorityLanesPaused.compareAndSet(false, true)) {
+            priorityLanes.forEach(lane -> lane.consumer.pause(lane.assignedQueues));
+        }
+    }
+
+    private void resumePriorityLanes() {
+        if (priorityLanesPaused.compareAndSet(true, false)) {
+            priorityLanes.forEach(lane -> lane.consumer.resume(lane.assignedQueues));
+        }
+    }
+
+    /**
+     * One pull consumer with its own offset tracker; permits are shared with the other
+     * priority lanes of the default lane or of its bulkhead
+     */
+    private class PullLane {
+
+        private final String taskType;
+        private final DefaultLitePullConsumer consumer;
+        private final int concurrency;
+        private final Semaphore permits;
+        private final QueueOffsetTracker offsetTracker = new QueueOffsetTracker();
+        private Thread pollThread;
+
+        // Queues assigned by the last rebalance, for pausing and resuming the lane
+        private volatile Set<MessageQueue> assignedQueues = Set.of();
+
+        // Adaptive permits instead of the fixed semaphore (default lane only, may be null)
+        private final AdaptiveConcurrencyLimiter limiter;
+
+        // Priority lane, taking weighted turns with the other lanes sharing the permits
+        private final TaskPriority priority;
+        private final WeightedFairScheduler.Group turns;
+
+        PullLane(String taskType, DefaultLitePullConsumer consumer, int concurrency, Semaphore permits,
+                 AdaptiveConcurrencyLimiter limiter, TaskPriority priority, WeightedFairScheduler.Group turns) {
+            this.taskType = taskType;
+            this.consumer = consumer;
+            this.concurrency = concurrency;
+            this.permits = permits;
+            this.limiter = limiter;
+            this.priority = priority;
+            this.turns = turns;
+        }
+
+        /**
+         * Rebalance callback: remember the lane's queues, and keep newly assigned ones
+         * paused while the priority lanes are paused
+         */
+        void queuesAssigned(String topic, Set<MessageQueue> all, Set<MessageQueue> assigned) {
+            assignedQueues = Set.copyOf(assigned);
+            if (limiter != null && priorityLanesPaused.get()) {
+                consumer.pause(assignedQueues);
+            }
+        }
+
+        double active() {
+            return limiter != null ? limiter.getInFlight() : concurrency - permits.availablePermits();
+        }
+
+        double limit() {
+            return limiter != null ? limiter.getLimit() : concurrency;
+        }
+
+        /**
+         * Take a permit, blocking while the lane is at its limit
+         *
+         * @return start time for the limiter's latency sample
+         */
+        long acquire() throws InterruptedException {
+            WeightedFairScheduler.Gate gate = limiter != null ? limiter::acquire : () -> {
+                permits.acquire();
+                return 0;
+            };
+
+            // Wait for this lane's weighted turn at the shared permits
+            long startNanos = turns.acquire(priority, gate);
+
+            // Stop background pulling into the local caches while at the limit
+            if (limiter != null && limiter.isSaturated()) {
+                pausePriorityLanes();
+            }
+            return startNanos;
+        }
+
+        void release(long startNanos) {
+            if (limiter == null) {
+                permits.release();
+                return;
+            }
+
+            limiter.release(startNanos);
+            if (!limiter.isSaturated()) {
+                resumePriorityLanes();
+            }
+        }
+
+        /**
+         * Poll, dispatch each message to a virtual thread, and periodically commit offsets
+         * Poll and commit both run on this thread
+         */
+        void pollLoop() {
+            long lastCommit = System.currentTimeMillis();
+
+            while (running) {
+                try {
+                    List<MessageExt> messages = consumer.poll(commitIntervalMs);
+
+                    for (MessageExt message : messages) {
+                        // Blocks while the lane's concurrency limit is reached
+                        long startNanos = acquire();
+                        dispatch(message, startNanos);
+                    }
+
+                    if (System.currentTimeMillis() - lastCommit >= commitIntervalMs) {
+                        commit();
+                        lastCommit = System.currentTimeMillis();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    log.error("Error in pull loop: type={}", taskType, e);
+                }
+            }
+        }
+
+        void dispatch(MessageExt message, long startNanos) {
+            MessageQueue queue = new MessageQueue(message.getTopic(), message.getBrokerName(), message.getQueueId());
+            offsetTracker.dispatched(queue, message.getQueueOffset());
+            laneScheduler.recordStart(priority, message.getBornTimestamp());
+
+            executor.execute(() -> {
+                try {
+                    ConsumeConcurrentlyStatus status = taskMessageProcessor.process(message);
+                    if (status == ConsumeConcurrentlyStatus.RECONSUME_LATER) {
+                        republishForRetry(message);
+                    }
+                } catch (Exception e) {
+                    log.error("Unexpected error processing message", e);
+                    republishForRetry(message);
+                } finally {
+                    offsetTracker.completed(queue, message.getQueueOffset());
+                    release(startNanos);
+                }
+            });
+        }
+
+        void commit() {
+            Map<MessageQueue, Long> offsets = offsetTracker.committableOffsets();
+            if (!offsets.isEmpty()) {
+                consumer.commit(offsets, true);
+            }
+        }
+
+        void stopPolling() throws InterruptedException {
+            if (pollThread != null) {
+                // Wake the loop if it is waiting for a permit
+                pollThread.interrupt();
+                pollThread.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        }
+
+        void shutdown() {
+            commit();
+            consumer.shutdown();
+        }
+    }
+
+    /**
+     * Pull consumer retry: re-publish with the delay level the broker would use for the
+     * next push consumer retry (level 3 = 10s, then one level per attempt)
+     */
+    private void republishForRetry(MessageExt message) {
+        int nextAttempt = TaskMessageProcessor.reconsumeTimesOf(message) + 1;
+        if (nextAttempt > maxRetryTimes) {
+            log.warn("Max retry times exceeded, dropping message: msgId={}, keys={}", message.getMsgId(), message.getKeys());
+            return;
+        }
+
+        Message retry = new Message(message.getTopic(), message.getTags(), message.getKeys(), message.getBody());
+        retry.putUserProperty(RocketMQTaskQueue.PROPERTY_RECONSUME_TIMES, String.valueOf(nextAttempt));
+        retry.setDelayTimeLevel(Math.min(2 + nextAttempt, 18));
+
+        try {
+            rocketMQProducer.send(retry);
+        } catch (Exception e) {
+            // The offset is still committed; the task row stays FAILED
+            log.error("Failed to re-publish message for retry: msgId={}, keys={}", message.getMsgId(), message.getKeys(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        log.info("Shutting down VirtualThreadTaskConsumer...");
+
+        running = false;
+        for (PullLane lane : lanes) {
+            lane.stopPolling();
+        }
+
+        if (executor != null) {
+            executor.shutdown();
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Tasks still running at shutdown");
+            }
+        }
+
+        for (PullLane lane : lanes) {
+            lane.shutdown();
+        }
+        log.info("VirtualThreadTaskConsumer shut down successfully");
+    }
+}
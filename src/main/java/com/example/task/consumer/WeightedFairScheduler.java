@@ -0,0 +1,222 @@
+package com.example.task.consumer;
+
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskPriority;
+import com.example.task.repository.TaskRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Weighted Fair Scheduler
+ * Decides which priority lane gets the next execution permit of a consumer (the default
+ * lanes, or a task type bulkhead).
+ *
+ * Every lane's consumer threads (or pull loops) call Group.acquire() with their lane before
+ * taking a permit from the underlying gate (fixed semaphore or adaptive limiter). Only one
+ * waiter at a time is allowed through to the gate, picked by smooth weighted round-robin
+ * among the lanes that currently have waiters:
+ * - under contention lanes get permits in proportion to their weights (e.g. 70/20/10), so
+ *   HIGH starts quickly however deep the LOW backlog is, and LOW is never starved
+ * - an idle lane neither blocks others nor banks credit, so capacity is never left unused
+ *
+ * Each pool of permits takes turns on its own Group (group(DEFAULT) for the default lanes,
+ * group(type) for a task type bulkhead), so a bulkhead waiting for its permits never holds
+ * up the default lanes or another bulkhead
+ */
+@Slf4j
+@Component
+public class WeightedFairScheduler {
+
+    /**
+     * Source of execution permits behind the scheduler
+     */
+    @FunctionalInterface
+    public interface Gate {
+        /**
+         * Block until a permit is available
+         *
+         * @return value handed back to the gate on release (e.g. a start time)
+         */
+        long acquire() throws InterruptedException;
+    }
+
+    private static final TaskPriority[] LANES = TaskPriority.values();
+
+    private final TaskRepository taskRepository;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int[] weights = new int[LANES.length];
+
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+
+    private final Map<TaskPriority, Timer> timeToStart = new EnumMap<>(TaskPriority.class);
+    private final Map<TaskPriority, AtomicLong> pendingDepth = new EnumMap<>(TaskPriority.class);
+
+    public WeightedFairScheduler(TaskRepository taskRepository, MeterRegistry meterRegistry,
+                                 @Value("${task.priority.weights.high:70}") int highWeight,
+                                 @Value("${task.priority.weights.normal:20}") int normalWeight,
+                                 @Value("${task.priority.weights.low:10}") int lowWeight) {
+        this.taskRepository = taskRepository;
+        this.meterRegistry = meterRegistry;
+        weights[TaskPriority.HIGH.ordinal()] = Math.max(1, highWeight);
+        weights[TaskPriority.NORMAL.ordinal()] = Math.max(1, normalWeight);
+        weights[TaskPriority.LOW.ordinal()] = Math.max(1, lowWeight);
+
+        for (TaskPriority lane : LANES) {
+            AtomicLong depth = new AtomicLong();
+            pendingDepth.put(lane, depth);
+            Gauge.builder("task.lane.depth", depth, AtomicLong::get)
+                    .description("PENDING tasks in this priority lane")
+                    .tag("lane", lane.name())
+                    .register(meterRegistry);
+            timeToStart.put(lane, Timer.builder("task.lane.wait")
+                    .description("Time from message send to execution start")
+                    .tag("lane", lane.name())
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Turn-taking of one pool of permits, e.g. a task type bulkhead (created on first use)
+     */
+    public Group group(String taskType) {
+        return groups.computeIfAbsent(taskType, Group::new);
+    }
+
+    /**
+     * Record the time from send to execution start of a message of this lane
+     */
+    public void recordStart(TaskPriority lane, long bornTimestamp) {
+        timeToStart.get(lane).record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - bornTimestamp)));
+    }
+
+    /**
+     * Refresh the per-lane backlog gauges (PENDING rows, i.e. sent but not started)
+     */
+    @Scheduled(fixedDelayString = "${task.priority.depth-refresh-ms:5000}")
+    public void refreshDepth() {
+        try {
+            Map<TaskPriority, Long> counts = new EnumMap<>(TaskPriority.class);
+            List<Object[]> rows = taskRepository.countByPriority(Task.TaskStatus.PENDING);
+            for (Object[] row : rows) {
+                counts.put((TaskPriority) row[0], (Long) row[1]);
+            }
+            for (TaskPriority lane : LANES) {
+                pendingDepth.get(lane).set(counts.getOrDefault(lane, 0L));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to refresh lane depth", e);
+        }
+    }
+
+    /**
+     * Lanes taking turns at one pool of permits
+     */
+    public final class Group {
+
+        private final Object lock = new Object();
+        private final int[] waiting = new int[LANES.length];
+        private final int[] currentWeights = new int[LANES.length];
+        private TaskPriority selected;
+        private boolean granting;
+
+        private Group(String taskType) {
+            for (TaskPriority lane : LANES) {
+                Gauge.builder("task.lane.waiting", this, group -> group.waitingIn(lane))
+                        .description("Messages of this lane waiting for an execution permit")
+                        .tag("lane", lane.name())
+                        .tag("type", taskType)
+                        .register(meterRegistry);
+            }
+        }
+
+        /**
+         * Wait for this lane's turn, then take a permit from the gate
+         *
+         * @return the gate's acquire() value
+         */
+        public long acquire(TaskPriority lane, Gate gate) throws InterruptedException {
+            int index = lane.ordinal();
+
+            synchronized (lock) {
+                waiting[index]++;
+                try {
+                    while (true) {
+                        if (!granting && selected == null) {
+                            selected = pick();
+                            lock.notifyAll();
+                        }
+                        if (!granting && selected == lane) {
+                            selected = null;
+                            granting = true;
+                            break;
+                        }
+                        lock.wait();
+                    }
+                } catch (InterruptedException e) {
+                    // Do not leave the turn with a lane that has nobody left to take it
+                    if (selected == lane && waiting[index] == 1) {
+                        selected = null;
+                        lock.notifyAll();
+                    }
+                    throw e;
+                } finally {
+                    waiting[index]--;
+                }
+            }
+
+            try {
+                return gate.acquire();
+            } finally {
+                synchronized (lock) {
+                    granting = false;
+                    lock.notifyAll();
+                }
+            }
+        }
+
+        /**
+         * Smooth weighted round-robin over lanes with waiters (called with the lock held)
+         */
+        private TaskPriority pick() {
+            int total = 0;
+            int best = -1;
+            for (int i = 0; i < LANES.length; i++) {
+                if (waiting[i] == 0) {
+                    continue;
+                }
+                currentWeights[i] += weights[i];
+                total += weights[i];
+                if (best < 0 || currentWeights[i] > currentWeights[best]) {
+                    best = i;
+                }
+            }
+
+            if (best < 0) {
+                return null;
+            }
+            currentWeights[best] -= total;
+            return LANES[best];
+        }
+
+        private int waitingIn(TaskPriority lane) {
+            synchronized (lock) {
+                return waiting[lane.ordinal()];
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.task.controller;
+
+import com.example.task.entity.TaskDeadLetter;
+import com.example.task.service.TaskDeadLetterService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Dead Letter Controller
+ * 1. GET /tasks/dead-letter - Newest dead-lettered tasks (optionally ?taskType=, ?limit=)
+ * 2. POST /tasks/dead-letter/replay - Requeue dead-lettered tasks as fresh PENDING tasks
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class DeadLetterController {
+
+    private final TaskDeadLetterService taskDeadLetterService;
+
+    @Value("${task.retry.dead-letter.replay-max-size:1000}")
+    private int replayMaxSize;
+
+    @Value("${task.listing.max-limit:500}")
+    private int listMaxLimit;
+
+    @GetMapping("/tasks/dead-letter")
+    public ResponseEntity<List<DeadLetterResponse>> listDeadLetters(@RequestParam(required = false) String taskType,
+                                                                    @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > listMaxLimit) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(taskDeadLetterService.list(taskType, limit).stream()
+                .map(DeadLetterResponse::of)
+                .toList());
+    }
+
+    /**
+     * Replay dead letters
+     *
+     * Request body examples:
+     * { "taskIds": ["550e8400-...", "6ba7b810-..."] }   - these tasks
+     * { "taskType": "DATA_EXPORT", "limit": 200 }       - the oldest 200 of a type
+     * { "limit": 500 }                                   - the oldest 500 of any type
+     * limit defaults to 100; at most task.retry.dead-letter.replay-max-size per call
+     * Dead letters whose task is no longer FAILED are reported as skipped and kept
+     */
+    @PostMapping("/tasks/dead-letter/replay")
+    public ResponseEntity<ReplayResponse> replay(@RequestBody(required = false) ReplayRequest request) {
+        ReplayRequest replay = request != null ? request : new ReplayRequest();
+        int limit = replay.getLimit() != null ? replay.getLimit() : 100;
+        if (limit < 1 || limit > replayMaxSize
+                || (replay.getTaskIds() != null && replay.getTaskIds().size() > replayMaxSize)) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Replaying dead letters: taskIds={}, taskType={}, limit={}",
+                replay.getTaskIds() != null ? replay.getTaskIds().size() : null, replay.getTaskType(), limit);
+
+        TaskDeadLetterService.ReplayResult result =
+                taskDeadLetterService.replay(replay.getTaskIds(), replay.getTaskType(), limit);
+        return ResponseEntity.ok(ReplayResponse.builder()
+                .replayed(result.requeued().size())
+                .taskIds(result.requeued())
+                .skipped(result.skipped())
+                .build());
+    }
+
+    // Request DTO for replay
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class ReplayRequest {
+        private List<String> taskIds;
+        private String taskType;
+        private Integer limit;
+    }
+
+    // Response DTO for replay
+    @lombok.Data
+    @lombok.Builder
+    public static class ReplayResponse {
+        private int replayed;
+        private List<String> taskIds;
+        private List<String> skipped;
+    }
+
+    // Dead letter listing item
+    @lombok.Data
+    @lombok.Builder
+    public static class DeadLetterResponse {
+        private String taskId;
+        private String taskType;
+        private String priority;
+        private Integer attempts;
+        private String reason;
+        private String errorClass;
+        private String errorMessage;
+        private LocalDateTime deadLetteredAt;
+
+        public static DeadLetterResponse of(TaskDeadLetter deadLetter) {
+            return DeadLetterResponse.builder()
+                    .taskId(deadLetter.getTaskId())
+                    .taskType(deadLetter.getTaskType())
+                    .priority(deadLetter.getPriority().name())
+                    .attempts(deadLetter.getAttempts())
+                    .reason(deadLetter.getReason())
+                    .errorClass(deadLetter.getErrorClass())
+                    .errorMessage(deadLetter.getErrorMessage())
+                    .deadLetteredAt(deadLetter.getCreatedAt())
+                    .build();
+        }
+    }
+}
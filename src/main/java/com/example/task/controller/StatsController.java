@@ -0,0 +1,64 @@
+package com.example.task.controller;
+
+import com.example.task.entity.Task;
+import com.example.task.service.TaskExecutionRegistry;
+import com.example.task.service.TaskStatistics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stats Controller
+ * GET /stats - Live task statistics: counts per status and task type, throughput and
+ * queue wait / execution percentiles over 1m, 5m and 15m
+ *
+ * Everything is read from TaskStatistics in memory; the request never queries MySQL
+ */
+@RestController
+@RequiredArgsConstructor
+public class StatsController {
+
+    private final TaskStatistics taskStatistics;
+    private final TaskExecutionRegistry taskExecutionRegistry;
+
+    @GetMapping("/stats")
+    public ResponseEntity<StatsResponse> stats() {
+        Map<String, TaskStatistics.Throughput> throughput = new LinkedHashMap<>();
+        Map<String, TaskStatistics.Percentiles> queueWait = new LinkedHashMap<>();
+        Map<String, TaskStatistics.Percentiles> execution = new LinkedHashMap<>();
+        for (int minutes : TaskStatistics.WINDOW_MINUTES) {
+            String window = minutes + "m";
+            throughput.put(window, taskStatistics.throughput(minutes));
+            queueWait.put(window, taskStatistics.queueWait(minutes));
+            execution.put(window, taskStatistics.execution(minutes));
+        }
+
+        return ResponseEntity.ok(StatsResponse.builder()
+                .reconciledAt(taskStatistics.getReconciledAt())
+                .byStatus(taskStatistics.countsByStatus())
+                .byTaskType(taskStatistics.countsByTaskType())
+                .throughput(throughput)
+                .queueWaitMs(queueWait)
+                .executionMs(execution)
+                .executingOnThisNode(taskExecutionRegistry.snapshot().size())
+                .build());
+    }
+
+    // Response DTO for statistics
+    @lombok.Data
+    @lombok.Builder
+    public static class StatsResponse {
+        private LocalDateTime reconciledAt;
+        private Map<Task.TaskStatus, Long> byStatus;
+        private Map<String, Map<Task.TaskStatus, Long>> byTaskType;
+        private Map<String, TaskStatistics.Throughput> throughput;
+        private Map<String, TaskStatistics.Percentiles> queueWaitMs;
+        private Map<String, TaskStatistics.Percentiles> executionMs;
+        private int executingOnThisNode;
+    }
+}
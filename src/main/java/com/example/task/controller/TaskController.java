@@ -1,20 +1,39 @@
 package com.example.task.controller;
 
 import com.example.task.entity.Task;
+import com.example.task.entity.TaskCursor;
+import com.example.task.entity.TaskPriority;
+import com.example.task.entity.TaskSubmission;
+import com.example.task.repository.TaskSummaryView;
+import com.example.task.service.AsyncTaskSubmitter;
+import com.example.task.service.SubmissionRejectedException;
+import com.example.task.service.TaskCancellationService;
 import com.example.task.service.TaskService;
+import com.example.task.service.TaskSubmissionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Task Controller
- * Provides three endpoints:
+ * Provides seven endpoints:
  * 1. POST /tasks - Submit a task
- * 2. GET /tasks/{taskId} - Query task status
- * 3. GET /health - Health check for Docker
+ * 2. POST /tasks/async - Submit a task without blocking on the broker
+ * 3. POST /tasks/batch - Submit a batch of tasks
+ * 4. GET /tasks - List tasks (filters + keyset pagination)
+ * 5. GET /tasks/{taskId} - Query task status
+ * 6. POST /tasks/{taskId}/cancel (or DELETE /tasks/{taskId}) - Cancel a task
+ * 7. GET /health - Health check for Docker
  */
 @Slf4j
 @RestController
@@ -22,7 +41,22 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class TaskController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int IDEMPOTENCY_KEY_MAX_LENGTH = 128;
+
     private final TaskService taskService;
+    private final TaskSubmissionService taskSubmissionService;
+    private final AsyncTaskSubmitter asyncTaskSubmitter;
+    private final TaskCancellationService taskCancellationService;
+
+    @Value("${task.submission.batch-max-size:1000}")
+    private int batchMaxSize;
+
+    @Value("${task.listing.default-limit:50}")
+    private int listDefaultLimit;
+
+    @Value("${task.listing.max-limit:500}")
+    private int listMaxLimit;
 
     /**
      * Submit a task
@@ -30,32 +64,147 @@ public class TaskController {
      * Request body example:
      * {
      *   "taskType": "DATA_EXPORT",
+     *   "priority": "HIGH",
      *   "params": {
      *     "userId": "123",
      *     "dateRange": "2024-01-01:2024-12-31"
      *   }
      * }
+     * priority is optional (HIGH, NORMAL, LOW; default NORMAL)
+     * runAt (e.g. "2026-01-19T02:00:00") or delay (ISO-8601, e.g. "PT90M") defer the task:
+     * it is stored as SCHEDULED and enqueued when due
+     * An optional Idempotency-Key header makes retries safe: a repeated key returns the task
+     * created the first time (for task.idempotency.ttl-hours)
      */
     @PostMapping("/tasks")
-    public ResponseEntity<TaskResponse> submitTask(@RequestBody TaskRequest request) {
-        log.info("Received task submission: taskType={}", request.getTaskType());
+    public ResponseEntity<TaskResponse> submitTask(@RequestBody TaskRequest request,
+                                                   @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        log.info("Received task submission: taskType={}, priority={}", request.getTaskType(), request.getPriority());
 
-        // 1. Create task
-        Task task = taskService.createTask(request.getTaskType(), request.getParams());
+        if (!isValidIdempotencyKey(idempotencyKey)) {
+            return ResponseEntity.badRequest().build();
+        }
 
-        // 2. Send to RocketMQ
-        taskService.sendToQueue(task);
+        // 1. Create task and send to RocketMQ (directly, via outbox or as a transactional message)
+        Task task = taskSubmissionService.submit(request.toSubmission(idempotencyKey));
 
-        // 3. Return task ID
+        // 2. Return task ID
         return ResponseEntity.ok(TaskResponse.builder()
                 .taskId(task.getId())
                 .status(task.getStatus().name())
                 .createdAt(task.getCreatedAt())
+                .runAt(task.getRunAt())
+                .build());
+    }
+
+    /**
+     * Submit a task asynchronously
+     * Same request body as POST /tasks; the servlet thread is released while the broker send
+     * is in flight and the response is written from the send callback
+     * Returns 429 with Retry-After when the in-flight send window is full
+     */
+    @PostMapping("/tasks/async")
+    public CompletableFuture<ResponseEntity<TaskResponse>> submitTaskAsync(@RequestBody TaskRequest request,
+                                                                           @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        log.info("Received async task submission: taskType={}", request.getTaskType());
+
+        if (!isValidIdempotencyKey(idempotencyKey)) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+
+        return asyncTaskSubmitter.submit(request.toSubmission(idempotencyKey))
+                .thenApply(task -> ResponseEntity.ok(TaskResponse.builder()
+                        .taskId(task.getId())
+                        .status(task.getStatus().name())
+                        .createdAt(task.getCreatedAt())
+                        .runAt(task.getRunAt())
+                        .build()));
+    }
+
+    /**
+     * Submit a batch of tasks
+     * All tasks are inserted in one transaction and published with RocketMQ batch sends
+     * (or via the outbox relay in OUTBOX mode)
+     *
+     * Request body example:
+     * {
+     *   "tasks": [
+     *     {"taskType": "DATA_EXPORT", "params": {"userId": "123"}},
+     *     {"taskType": "DATA_IMPORT", "params": {"userId": "456"}}
+     *   ]
+     * }
+     */
+    @PostMapping("/tasks/batch")
+    public ResponseEntity<BatchTaskResponse> submitTasks(@RequestBody BatchTaskRequest request) {
+        List<TaskRequest> requests = request.getTasks();
+        if (requests == null || requests.isEmpty() || requests.size() > batchMaxSize) {
+            log.warn("Rejected task batch: size={}, maxSize={}", requests == null ? 0 : requests.size(), batchMaxSize);
+            return ResponseEntity.badRequest().build();
+        }
+
+        log.info("Received task batch submission: size={}", requests.size());
+
+        // 1. Create tasks and send to RocketMQ in batches
+        List<Task> tasks = taskSubmissionService.submitBatch(requests.stream()
+                .map(TaskRequest::toSubmission)
+                .toList());
+
+        // 2. Return per-item task IDs and statuses
+        List<TaskResponse> items = tasks.stream()
+                .map(task -> TaskResponse.builder()
+                        .taskId(task.getId())
+                        .status(task.getStatus().name())
+                        .createdAt(task.getCreatedAt())
+                        .runAt(task.getRunAt())
+                        .build())
+                .toList();
+
+        return ResponseEntity.ok(BatchTaskResponse.builder()
+                .tasks(items)
+                .build());
+    }
+
+    /**
+     * List tasks, newest first
+     * e.g. GET /tasks?status=FAILED&taskType=DATA_EXPORT&createdFrom=2026-01-18T09:00:00&limit=100
+     * All filters are optional (createdTo is exclusive); pass nextCursor from a response as
+     * ?cursor= to get the next page. Items carry no params/result (use GET /tasks/{taskId})
+     */
+    @GetMapping("/tasks")
+    public ResponseEntity<TaskPageResponse> listTasks(
+            @RequestParam(required = false) Task.TaskStatus status,
+            @RequestParam(required = false) String taskType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String cursor) {
+        int pageSize = limit != null ? limit : listDefaultLimit;
+        if (pageSize < 1 || pageSize > listMaxLimit) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        TaskCursor after;
+        try {
+            after = cursor != null ? TaskCursor.decode(cursor) : null;
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        // Fetch one extra row to know whether there is a next page
+        List<TaskSummaryView> rows = taskService.listTasks(status, taskType, createdFrom, createdTo, after, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<TaskSummaryView> page = hasMore ? rows.subList(0, pageSize) : rows;
+
+        TaskSummaryView last = page.isEmpty() ? null : page.get(page.size() - 1);
+        return ResponseEntity.ok(TaskPageResponse.builder()
+                .tasks(page.stream().map(TaskSummaryResponse::of).toList())
+                .nextCursor(hasMore ? new TaskCursor(last.getCreatedAt(), last.getId()).encode() : null)
                 .build());
     }
 
     /**
      * Query task status by task ID
+     * (with ?waitFor=... the request is handled as a long-poll by TaskWatchController)
      */
     @GetMapping("/tasks/{taskId}")
     public ResponseEntity<TaskDetailResponse> getTask(@PathVariable String taskId) {
@@ -67,17 +216,52 @@ public class TaskController {
             return ResponseEntity.notFound().build();
         }
 
-        return ResponseEntity.ok(TaskDetailResponse.builder()
-                .taskId(task.getId())
-                .taskType(task.getTaskType())
-                .status(task.getStatus().name())
-                .progress(task.getProgress())
-                .result(task.getResult())
-                .errorMessage(task.getErrorMessage())
-                .createdAt(task.getCreatedAt())
-                .startedAt(task.getStartedAt())
-                .finishedAt(task.getFinishedAt())
-                .build());
+        return ResponseEntity.ok(TaskDetailResponse.of(task, taskService.getLiveProgress(task)));
+    }
+
+    /**
+     * Cancel a task that has not finished yet
+     * SCHEDULED / PENDING tasks never run; a RUNNING task is interrupted on whichever node runs it
+     * Returns 404 if the task does not exist, 409 with its current state if it already finished
+     */
+    @PostMapping("/tasks/{taskId}/cancel")
+    public ResponseEntity<TaskDetailResponse> cancelTask(@PathVariable String taskId) {
+        log.info("Cancelling task: taskId={}", taskId);
+
+        boolean cancelled = taskCancellationService.cancel(taskId);
+
+        Task task = taskService.getTask(taskId);
+        if (task == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        TaskDetailResponse response = TaskDetailResponse.of(task, taskService.getLiveProgress(task));
+        return cancelled
+                ? ResponseEntity.ok(response)
+                : ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    /**
+     * Same as POST /tasks/{taskId}/cancel
+     */
+    @DeleteMapping("/tasks/{taskId}")
+    public ResponseEntity<TaskDetailResponse> deleteTask(@PathVariable String taskId) {
+        return cancelTask(taskId);
+    }
+
+    private static boolean isValidIdempotencyKey(String idempotencyKey) {
+        return idempotencyKey == null
+                || (!idempotencyKey.isBlank() && idempotencyKey.length() <= IDEMPOTENCY_KEY_MAX_LENGTH);
+    }
+
+    /**
+     * Backpressure: the submission window is full, ask the client to retry later
+     */
+    @ExceptionHandler(SubmissionRejectedException.class)
+    public ResponseEntity<Map<String, String>> handleSubmissionRejected(SubmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
     }
 
     /**
@@ -93,7 +277,34 @@ public class TaskController {
     @lombok.Builder
     public static class TaskRequest {
         private String taskType;
+        private TaskPriority priority;
+        private java.time.LocalDateTime runAt;
+        private java.time.Duration delay;
         private Map<String, Object> params;
+
+        public TaskSubmission toSubmission() {
+            return toSubmission(null);
+        }
+
+        public TaskSubmission toSubmission(String idempotencyKey) {
+            return TaskSubmission.builder()
+                    .taskType(taskType)
+                    .params(params)
+                    .priority(priority)
+                    .runAt(runAt)
+                    .delay(delay)
+                    .idempotencyKey(idempotencyKey)
+                    .build();
+        }
+    }
+
+    // Request DTO for batch submission
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class BatchTaskRequest {
+        private List<TaskRequest> tasks;
     }
 
     // Response DTO for task submission
@@ -103,6 +314,49 @@ public class TaskController {
         private String taskId;
         private String status;
         private java.time.LocalDateTime createdAt;
+        private java.time.LocalDateTime runAt;
+    }
+
+    // Response DTO for batch submission
+    @lombok.Data
+    @lombok.Builder
+    public static class BatchTaskResponse {
+        private List<TaskResponse> tasks;
+    }
+
+    // Response DTO for task listing
+    @lombok.Data
+    @lombok.Builder
+    public static class TaskPageResponse {
+        private List<TaskSummaryResponse> tasks;
+        private String nextCursor;
+    }
+
+    // Listing item
+    @lombok.Data
+    @lombok.Builder
+    public static class TaskSummaryResponse {
+        private String taskId;
+        private String taskType;
+        private String status;
+        private String priority;
+        private Integer progress;
+        private java.time.LocalDateTime createdAt;
+        private java.time.LocalDateTime startedAt;
+        private java.time.LocalDateTime finishedAt;
+
+        public static TaskSummaryResponse of(TaskSummaryView view) {
+            return TaskSummaryResponse.builder()
+                    .taskId(view.getId())
+                    .taskType(view.getTaskType())
+                    .status(view.getStatus().name())
+                    .priority(view.getPriority() != null ? view.getPriority().name() : null)
+                    .progress(view.getProgress())
+                    .createdAt(view.getCreatedAt())
+                    .startedAt(view.getStartedAt())
+                    .finishedAt(view.getFinishedAt())
+                    .build();
+        }
     }
 
     // Response DTO for task query
@@ -112,11 +366,29 @@ public class TaskController {
         private String taskId;
         private String taskType;
         private String status;
+        private String priority;
         private Integer progress;
         private Map<String, Object> result;
         private String errorMessage;
         private java.time.LocalDateTime createdAt;
+        private java.time.LocalDateTime runAt;
         private java.time.LocalDateTime startedAt;
         private java.time.LocalDateTime finishedAt;
+
+        public static TaskDetailResponse of(Task task, Integer progress) {
+            return TaskDetailResponse.builder()
+                    .taskId(task.getId())
+                    .taskType(task.getTaskType())
+                    .status(task.getStatus().name())
+                    .priority(task.getPriority() != null ? task.getPriority().name() : null)
+                    .progress(progress)
+                    .result(task.getResult())
+                    .errorMessage(task.getErrorMessage())
+                    .createdAt(task.getCreatedAt())
+                    .runAt(task.getRunAt())
+                    .startedAt(task.getStartedAt())
+                    .finishedAt(task.getFinishedAt())
+                    .build();
+        }
     }
 }
@@ -0,0 +1,132 @@
+package com.example.task.controller;
+
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskResultFile;
+import com.example.task.service.TaskResultStore;
+import com.example.task.service.TaskService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Task Result Controller
+ * GET /tasks/{taskId}/result - Download the result file of a task
+ *
+ * - Range: bytes=a-b / a- / -n returns 206 with that part (multiple ranges: whole file, 200);
+ *   a range past the end returns 416
+ * - ETag is the SHA-256 of the file; If-None-Match returns 304, If-Range with another ETag
+ *   ignores the Range
+ * - 404 if the task or its result file does not exist, 410 once the file has expired
+ *
+ * The body is sent with Tomcat's sendfile (kernel copies file to socket, nothing passes through
+ * the heap); other containers fall back to FileChannel.transferTo into the response stream
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class TaskResultController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final TaskService taskService;
+    private final TaskResultStore resultStore;
+
+    @GetMapping("/tasks/{taskId}/result")
+    public void downloadResult(@PathVariable String taskId, HttpServletRequest request,
+                               HttpServletResponse response) throws IOException {
+        log.info("Downloading task result: taskId={}, range={}", taskId, request.getHeader(HttpHeaders.RANGE));
+
+        // 1. Locate the file through the descriptor in tasks.result
+        Task task = taskService.getTask(taskId);
+        TaskResultFile file = task != null ? TaskResultFile.from(task.getResult()) : null;
+        if (file == null) {
+            response.setStatus(HttpStatus.NOT_FOUND.value());
+            return;
+        }
+        Path path = file.expiresAt().isAfter(LocalDateTime.now()) ? resultStore.resolve(taskId, file) : null;
+        if (path == null) {
+            response.setStatus(HttpStatus.GONE.value());
+            return;
+        }
+
+        // 2. Conditional request
+        String etag = "\"" + file.sha256() + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.equals("*") || ifNoneMatch.contains(etag))) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        // 3. Range (single range only; If-Range must name the current ETag)
+        long size = file.size();
+        long start = 0;
+        long end = size;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                if (ranges.size() == 1) {
+                    start = ranges.get(0).getRangeStart(size);
+                    end = ranges.get(0).getRangeEnd(size) + 1;
+                    if (start >= size || start >= end) {
+                        throw new IllegalArgumentException("Range not satisfiable: " + range);
+                    }
+                    response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + size);
+                }
+            } catch (IllegalArgumentException e) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                return;
+            }
+        }
+
+        response.setContentType(file.contentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(file.fileName()).build().toString());
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        // 4. Body: zero-copy
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toRealPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            for (long position = start; position < end; ) {
+                long sent = channel.transferTo(position, end - position, out);
+                if (sent <= 0) {
+                    throw new IOException("Result file shorter than its descriptor: " + path);
+                }
+                position += sent;
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.task.controller;
+
+import com.example.task.controller.TaskController.TaskDetailResponse;
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskChangeEvent;
+import com.example.task.service.TaskChangeNotifier;
+import com.example.task.service.TaskService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.EnumSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Task Watch Controller
+ * Push-style status endpoints replacing client polling:
+ * 1. GET /tasks/{taskId}?waitFor=SUCCESS,FAILED&timeout=30s - Long-poll until the task reaches a status
+ * 2. GET /tasks/{taskId}/events - Server-Sent Events stream of status and progress changes
+ *
+ * Both are driven by TaskChangeNotifier and use async servlet processing
+ * (DeferredResult / SseEmitter), so a waiting client does not hold a servlet thread.
+ * Notifications arrive on consumer/executor threads; the DB re-read and the blocking SSE
+ * write are handed off to virtual threads (in order per stream), so a slow client cannot
+ * stall task processing
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class TaskWatchController {
+
+    private static final Set<Task.TaskStatus> TERMINAL_STATUSES =
+            EnumSet.of(Task.TaskStatus.SUCCESS, Task.TaskStatus.FAILED,
+                    Task.TaskStatus.CANCELLED, Task.TaskStatus.TIMED_OUT);
+
+    private final TaskService taskService;
+    private final TaskChangeNotifier taskChangeNotifier;
+
+    @Value("${task.watch.max-timeout-seconds:60}")
+    private long maxTimeoutSeconds;
+
+    @Value("${task.watch.sse-timeout-minutes:30}")
+    private long sseTimeoutMinutes;
+
+    private final ExecutorService deliveryExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Long-poll: respond as soon as the task reaches one of the waitFor statuses,
+     * or with its current state when the timeout expires
+     */
+    @GetMapping(value = "/tasks/{taskId}", params = "waitFor")
+    public DeferredResult<ResponseEntity<TaskDetailResponse>> waitForTask(
+            @PathVariable String taskId,
+            @RequestParam Set<Task.TaskStatus> waitFor,
+            @RequestParam(defaultValue = "30s") String timeout) {
+
+        long timeoutMillis;
+        try {
+            timeoutMillis = Math.min(DurationStyle.detectAndParse(timeout).toMillis(),
+                    Duration.ofSeconds(maxTimeoutSeconds).toMillis());
+        } catch (IllegalArgumentException e) {
+            DeferredResult<ResponseEntity<TaskDetailResponse>> invalid = new DeferredResult<>();
+            invalid.setResult(ResponseEntity.badRequest().build());
+            return invalid;
+        }
+
+        DeferredResult<ResponseEntity<TaskDetailResponse>> deferred = new DeferredResult<>(timeoutMillis);
+
+        // Subscribe before reading, so a transition between the read and the subscription is not missed
+        // Progress events are ignored; "changed" events (status unknown) trigger a re-read
+        Runnable unsubscribe = taskChangeNotifier.subscribe(taskId, event -> {
+            boolean relevant = event.getStatus() != null
+                    ? waitFor.contains(event.getStatus())
+                    : event.getProgress() == null;
+            if (relevant) {
+                deliveryExecutor.execute(() -> completeIfReached(deferred, taskId, waitFor));
+            }
+        });
+        deferred.onCompletion(unsubscribe);
+        deferred.onTimeout(() -> deferred.setResult(currentState(taskId)));
+
+        Task task = taskService.getTask(taskId);
+        if (task == null) {
+            deferred.setResult(ResponseEntity.notFound().build());
+        } else if (waitFor.contains(task.getStatus())) {
+            deferred.setResult(ResponseEntity.ok(TaskDetailResponse.of(task, taskService.getLiveProgress(task))));
+        }
+
+        return deferred;
+    }
+
+    /**
+     * SSE stream: an initial "status" event, then "status" events on transitions and
+     * "progress" events while running; the stream completes once the task finishes
+     */
+    @GetMapping("/tasks/{taskId}/events")
+    public ResponseEntity<SseEmitter> streamTaskEvents(@PathVariable String taskId) {
+        Task task = taskService.getTask(taskId);
+        if (task == null) {
+            return ResponseEntity.notFound().build();
+        }
+
+        SseEmitter emitter = new SseEmitter(Duration.ofMinutes(sseTimeoutMinutes).toMillis());
+
+        // Events of one stream are sent one at a time, in publishing order
+        Executor delivery = new SerialExecutor(deliveryExecutor);
+        Runnable unsubscribe = taskChangeNotifier.subscribe(taskId,
+                event -> delivery.execute(() -> onTaskEvent(emitter, event)));
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> unsubscribe.run());
+
+        // Re-read after subscribing so the initial snapshot is not older than the first event
+        delivery.execute(() -> {
+            Task current = taskService.getTask(taskId);
+            sendStatus(emitter, current != null ? current : task);
+        });
+
+        return ResponseEntity.ok(emitter);
+    }
+
+    private void onTaskEvent(SseEmitter emitter, TaskChangeEvent event) {
+        if (event.getStatus() == null && event.getProgress() != null) {
+            send(emitter, "progress", event);
+            return;
+        }
+
+        // Status transition (or a change on another node): send the full current state
+        Task task = taskService.getTask(event.getTaskId());
+        if (task != null) {
+            sendStatus(emitter, task);
+        }
+    }
+
+    private void sendStatus(SseEmitter emitter, Task task) {
+        if (send(emitter, "status", TaskDetailResponse.of(task, taskService.getLiveProgress(task)))
+                && TERMINAL_STATUSES.contains(task.getStatus())) {
+            emitter.complete();
+        }
+    }
+
+    private boolean send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            log.debug("SSE send failed: {}", e.getMessage());
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void completeIfReached(DeferredResult<ResponseEntity<TaskDetailResponse>> deferred,
+                                   String taskId, Set<Task.TaskStatus> waitFor) {
+        Task task = taskService.getTask(taskId);
+        if (task != null && waitFor.contains(task.getStatus())) {
+            deferred.setResult(ResponseEntity.ok(TaskDetailResponse.of(task, taskService.getLiveProgress(task))));
+        }
+    }
+
+    private ResponseEntity<TaskDetailResponse> currentState(String taskId) {
+        Task task = taskService.getTask(taskId);
+        if (task == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(TaskDetailResponse.of(task, taskService.getLiveProgress(task)));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        deliveryExecutor.shutdown();
+    }
+
+    /**
+     * Runs submitted tasks one at a time, in submission order, on the underlying executor
+     */
+    private static class SerialExecutor implements Executor {
+
+        private final Executor executor;
+        private final Queue<Runnable> tasks = new ArrayDeque<>();
+        private Runnable active;
+
+        SerialExecutor(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public synchronized void execute(Runnable task) {
+            tasks.add(() -> {
+                try {
+                    task.run();
+                } finally {
+                    scheduleNext();
+                }
+            });
+            if (active == null) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            active = tasks.poll();
+            if (active != null) {
+                executor.execute(active);
+            }
+        }
+    }
+}
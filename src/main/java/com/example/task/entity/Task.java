@@ -7,6 +7,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 import java.util.Map;
@@ -21,11 +22,15 @@ import java.util.Map;
 @AllArgsConstructor
 @Entity
 @Table(name = "tasks", indexes = {
-        @Index(name = "idx_status", columnList = "status"),
-        @Index(name = "idx_task_type", columnList = "task_type"),
-        @Index(name = "idx_created_at", columnList = "created_at")
+        // Listings (GET /tasks): one index per filter combination, each ending in the (created_at, id) seek key
+        @Index(name = "idx_created_at_id", columnList = "created_at, id"),
+        @Index(name = "idx_status_created_at", columnList = "status, created_at, id"),
+        @Index(name = "idx_task_type_created_at", columnList = "task_type, created_at, id"),
+        @Index(name = "idx_status_task_type_created_at", columnList = "status, task_type, created_at, id"),
+        @Index(name = "idx_status_priority", columnList = "status, priority"),
+        @Index(name = "idx_status_run_at", columnList = "status, run_at")
 })
-public class Task {
+public class Task implements Persistable<String> {
 
     @Id
     @Column(name = "id", length = 64, nullable = false)
@@ -35,12 +40,19 @@ public class Task {
     private String taskType;
 
     /**
-     * Task status: PENDING, RUNNING, SUCCESS, FAILED
+     * Task status: SCHEDULED, PENDING, RUNNING, SUCCESS, FAILED, CANCELLED, TIMED_OUT
      */
     @Enumerated(EnumType.STRING)
     @Column(name = "status", length = 16, nullable = false)
     private TaskStatus status;
 
+    /**
+     * Priority lane: HIGH, NORMAL, LOW
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority", length = 8, nullable = false)
+    private TaskPriority priority;
+
     /**
      * Task parameters (JSON string)
      */
@@ -77,16 +89,57 @@ public class Task {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    /**
+     * Due time of a delayed task (null for immediate tasks)
+     */
+    @Column(name = "run_at")
+    private LocalDateTime runAt;
+
     @Column(name = "started_at")
     private LocalDateTime startedAt;
 
     @Column(name = "finished_at")
     private LocalDateTime finishedAt;
 
+    /**
+     * Client idempotency key of the submission (stored in task_idempotency_keys, not on the task)
+     */
+    @Transient
+    private String idempotencyKey;
+
+    /**
+     * Whether this entity has been persisted or loaded.
+     * The id is assigned by us (UUID), so Spring Data cannot infer newness from a null id;
+     * without this flag every save() would issue a SELECT before the INSERT and defeat JDBC batching.
+     */
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+
     public enum TaskStatus {
+        SCHEDULED, // Delayed task, waiting for its run time (not yet on the queue)
         PENDING,   // Task submitted, waiting to be processed
         RUNNING,   // Task is being processed
         SUCCESS,   // Task completed successfully
-        FAILED     // Task failed
+        FAILED,    // Task failed
+        CANCELLED, // Task cancelled by a client
+        TIMED_OUT; // Task exceeded its execution deadline and was interrupted
+
+        /**
+         * Whether the task has finished (no further transition expected)
+         */
+        public boolean isTerminal() {
+            return this == SUCCESS || this == FAILED || this == CANCELLED || this == TIMED_OUT;
+        }
     }
 }
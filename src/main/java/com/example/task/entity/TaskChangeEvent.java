@@ -0,0 +1,32 @@
+package com.example.task.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Task change notification
+ * status is set for lifecycle transitions, progress for progress reports; both null
+ * means "changed on another node, re-read the task"
+ */
+@Data
+@AllArgsConstructor
+public class TaskChangeEvent {
+
+    private String taskId;
+
+    private Task.TaskStatus status;
+
+    private Integer progress;
+
+    public static TaskChangeEvent status(String taskId, Task.TaskStatus status) {
+        return new TaskChangeEvent(taskId, status, null);
+    }
+
+    public static TaskChangeEvent progress(String taskId, int progress) {
+        return new TaskChangeEvent(taskId, null, progress);
+    }
+
+    public static TaskChangeEvent changed(String taskId) {
+        return new TaskChangeEvent(taskId, null, null);
+    }
+}
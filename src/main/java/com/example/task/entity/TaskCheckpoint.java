@@ -0,0 +1,26 @@
+package com.example.task.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Task checkpoint
+ * Last completed step of a running task plus an opaque executor-defined state blob,
+ * handed back to the executor when the task is redelivered so it can resume there
+ */
+@Data
+@AllArgsConstructor
+public class TaskCheckpoint {
+
+    private String taskId;
+
+    /**
+     * Last completed step (executor-defined numbering)
+     */
+    private int step;
+
+    /**
+     * Executor state at that step (may be null)
+     */
+    private byte[] state;
+}
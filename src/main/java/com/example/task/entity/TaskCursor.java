@@ -0,0 +1,36 @@
+package com.example.task.entity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset cursor of a task listing: the (createdAt, id) of the last task on a page
+ * The next page starts strictly after it, so pages stay stable while tasks are inserted
+ * and a deep page costs the same as the first one (no OFFSET)
+ *
+ * Opaque to clients: base64url of "createdAt|id"
+ */
+public record TaskCursor(LocalDateTime createdAt, String id) {
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static TaskCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new TaskCursor(LocalDateTime.parse(value.substring(0, separator)), value.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
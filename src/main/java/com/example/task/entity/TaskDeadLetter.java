@@ -0,0 +1,62 @@
+package com.example.task.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dead letter of a task
+ * Written when a task is not retried any more (attempts exhausted, or a non-retryable
+ * failure); the task row stays FAILED. POST /tasks/dead-letter/replay requeues the task
+ * and deletes its dead letter
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "task_dead_letters", indexes = {
+        @Index(name = "idx_dead_letter_created_at", columnList = "created_at"),
+        @Index(name = "idx_dead_letter_type_created_at", columnList = "task_type, created_at")
+})
+public class TaskDeadLetter {
+
+    @Id
+    @Column(name = "task_id", length = 64, nullable = false)
+    private String taskId;
+
+    @Column(name = "task_type", length = 64, nullable = false)
+    private String taskType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority", length = 8, nullable = false)
+    private TaskPriority priority;
+
+    /**
+     * Executions that failed
+     */
+    @Column(name = "attempts", nullable = false)
+    private Integer attempts;
+
+    /**
+     * EXHAUSTED or NON_RETRYABLE
+     */
+    @Column(name = "reason", length = 16, nullable = false)
+    private String reason;
+
+    /**
+     * Class of the last failure
+     */
+    @Column(name = "error_class", length = 255)
+    private String errorClass;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,10 @@
+package com.example.task.entity;
+
+/**
+ * How a submitted task reaches the queue (task.submission.dispatch-mode)
+ */
+public enum TaskDispatchMode {
+    DIRECT,         // Insert the row, then send to RocketMQ on the request thread
+    OUTBOX,         // Insert the row and an outbox entry in one transaction; OutboxRelay publishes
+    TRANSACTIONAL   // RocketMQ transactional message; the row insert is the local transaction
+}
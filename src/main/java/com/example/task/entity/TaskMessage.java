@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 /**
  * RocketMQ message body for task processing
  * Lightweight message that only contains task ID and essential info
@@ -21,6 +23,15 @@ public class TaskMessage {
 
     private Integer retryCount;
 
+    private TaskPriority priority;
+
+    /**
+     * Creation time of the task row, the partitioning column of tasks: the consumer's updates
+     * key on (id, createdAt) so MySQL touches one partition (null in messages sent before it
+     * was carried)
+     */
+    private LocalDateTime createdAt;
+
     /**
      * Convert Task to TaskMessage
      */
@@ -29,6 +40,8 @@ public class TaskMessage {
                 .taskId(task.getId())
                 .taskType(task.getTaskType())
                 .retryCount(0)
+                .priority(task.getPriority())
+                .createdAt(task.getCreatedAt())
                 .build();
     }
 }
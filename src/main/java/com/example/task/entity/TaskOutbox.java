@@ -0,0 +1,74 @@
+package com.example.task.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Task outbox entry
+ * Written in the same transaction as the task row; the outbox relay publishes it to
+ * RocketMQ and deletes it, so a task is enqueued if and only if its row committed
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "task_outbox", indexes = {
+        @Index(name = "idx_outbox_created_at", columnList = "created_at")
+})
+public class TaskOutbox implements Persistable<String> {
+
+    @Id
+    @Column(name = "task_id", length = 64, nullable = false)
+    private String taskId;
+
+    @Column(name = "task_type", length = 64, nullable = false)
+    private String taskType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority", length = 8, nullable = false)
+    private TaskPriority priority;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Same assigned-id newness tracking as Task, so batch inserts are not preceded by SELECTs
+     */
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public String getId() {
+        return taskId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+
+    /**
+     * Build the outbox entry for a task
+     */
+    public static TaskOutbox fromTask(Task task) {
+        return TaskOutbox.builder()
+                .taskId(task.getId())
+                .taskType(task.getTaskType())
+                .priority(task.getPriority())
+                .createdAt(task.getCreatedAt())
+                .build();
+    }
+}
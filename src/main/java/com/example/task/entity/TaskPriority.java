@@ -0,0 +1,44 @@
+package com.example.task.entity;
+
+/**
+ * Task priority
+ * Each priority is a separate lane: its own topic, consumed with a weighted share
+ * (see WeightedFairScheduler). NORMAL keeps the base topic so existing messages still drain.
+ */
+public enum TaskPriority {
+    HIGH("-high"),    // Interactive requests, e.g. a report a user is waiting for
+    NORMAL(""),       // Default
+    LOW("-low");      // Bulk / nightly work
+
+    private final String topicSuffix;
+
+    TaskPriority(String topicSuffix) {
+        this.topicSuffix = topicSuffix;
+    }
+
+    /**
+     * Lane topic for this priority, e.g. task-topic-high
+     */
+    public String topic(String baseTopic) {
+        return baseTopic + topicSuffix;
+    }
+
+    /**
+     * Priority of a lane topic (NORMAL for the base topic or an unknown topic)
+     */
+    public static TaskPriority fromTopic(String baseTopic, String topic) {
+        for (TaskPriority priority : values()) {
+            if (priority != NORMAL && priority.topic(baseTopic).equals(topic)) {
+                return priority;
+            }
+        }
+        return NORMAL;
+    }
+
+    /**
+     * NORMAL when no priority was given
+     */
+    public static TaskPriority orDefault(TaskPriority priority) {
+        return priority != null ? priority : NORMAL;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.task.entity;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Descriptor of a task's result file, stored under the "file" key of tasks.result
+ * The content itself lives in the result store and is downloaded from GET /tasks/{taskId}/result,
+ * so the row (and every getTask) stays small however large the export is
+ *
+ * sha256 is the digest of the stored bytes (after compression) and doubles as the ETag
+ */
+public record TaskResultFile(String fileName, String contentType, long size, String sha256,
+                             LocalDateTime expiresAt) {
+
+    public static final String RESULT_KEY = "file";
+
+    public Map<String, Object> toMap(String taskId) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("fileName", fileName);
+        map.put("contentType", contentType);
+        map.put("size", size);
+        map.put("sha256", sha256);
+        map.put("expiresAt", expiresAt.toString());
+        map.put("url", "/tasks/" + taskId + "/result");
+        return map;
+    }
+
+    /**
+     * Read the descriptor back from a task result
+     *
+     * @return null if the result has no file
+     */
+    public static TaskResultFile from(Map<String, Object> result) {
+        if (result == null || !(result.get(RESULT_KEY) instanceof Map<?, ?> file)) {
+            return null;
+        }
+        return new TaskResultFile(
+                (String) file.get("fileName"),
+                (String) file.get("contentType"),
+                ((Number) file.get("size")).longValue(),
+                (String) file.get("sha256"),
+                LocalDateTime.parse((String) file.get("expiresAt")));
+    }
+}
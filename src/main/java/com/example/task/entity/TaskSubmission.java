@@ -0,0 +1,54 @@
+package com.example.task.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Task submission
+ * Everything a client provides when submitting a task, before an id is assigned
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskSubmission {
+
+    private String taskType;
+
+    private Map<String, Object> params;
+
+    /**
+     * Optional, NORMAL when absent
+     */
+    private TaskPriority priority;
+
+    /**
+     * Optional due time; takes precedence over delay
+     */
+    private LocalDateTime runAt;
+
+    /**
+     * Optional delay from submission
+     */
+    private Duration delay;
+
+    /**
+     * Optional client idempotency key (Idempotency-Key header): resubmitting with the same
+     * key returns the task created the first time
+     */
+    private String idempotencyKey;
+
+    /**
+     * Due time if the task should not run before a later time, else null
+     */
+    public LocalDateTime resolveRunAt(LocalDateTime now) {
+        LocalDateTime due = runAt != null ? runAt : delay != null ? now.plus(delay) : null;
+        return due != null && due.isAfter(now) ? due : null;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.task.repository;
+
+import com.example.task.entity.TaskPriority;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a SCHEDULED task: just what the timing wheel needs to enqueue it
+ */
+public interface ScheduledTaskView {
+
+    String getId();
+
+    String getTaskType();
+
+    TaskPriority getPriority();
+
+    LocalDateTime getRunAt();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,134 @@
+package com.example.task.repository;
+
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskPriority;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Task Archive Repository
+ * JDBC access to tasks_archive, the compressed cold copy of finished tasks moved out of
+ * tasks by TaskArchiver (same columns plus archived_at; plain SQL so the rows are copied
+ * inside the database and never loaded into the application)
+ */
+@Repository
+@RequiredArgsConstructor
+public class TaskArchiveRepository {
+
+    private static final String COLUMNS = "id, task_type, status, priority, params, result, error_message, "
+            + "progress, retry_count, created_at, run_at, started_at, finished_at";
+
+    private static final String TERMINAL_STATUSES = "('SUCCESS', 'FAILED', 'CANCELLED', 'TIMED_OUT')";
+
+    private static final TypeReference<Map<String, Object>> JSON_MAP = new TypeReference<>() {
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Lock a batch of tasks finished before the cutoff, oldest first
+     * Rows locked by another node's archiver are skipped. FAILED tasks that still have a dead
+     * letter stay in tasks, so that they can be replayed (TaskDeadLetterService.replay)
+     * A task finishes after it was created, so created_at < cutoff bounds the index range
+     * and finished_at < cutoff decides
+     *
+     * @param taskType         only this type, read through idx_task_type_created_at (null for any type)
+     * @param excludeTaskTypes none of these types (when taskType is null; read through idx_created_at_id)
+     */
+    public List<String> lockArchivable(String taskType, Collection<String> excludeTaskTypes,
+                                       LocalDateTime finishedBefore, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT id FROM tasks WHERE created_at < :finishedBefore "
+                + "AND finished_at < :finishedBefore AND status IN ")
+                .append(TERMINAL_STATUSES)
+                .append(" AND NOT EXISTS (SELECT 1 FROM task_dead_letters d WHERE d.task_id = tasks.id)");
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("finishedBefore", finishedBefore)
+                .addValue("limit", limit);
+        if (taskType != null) {
+            sql.append(" AND task_type = :taskType");
+            params.addValue("taskType", taskType);
+        } else if (excludeTaskTypes != null && !excludeTaskTypes.isEmpty()) {
+            sql.append(" AND task_type NOT IN (:excludeTaskTypes)");
+            params.addValue("excludeTaskTypes", excludeTaskTypes);
+        }
+        sql.append(" ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED");
+        return jdbcTemplate.queryForList(sql.toString(), params, String.class);
+    }
+
+    /**
+     * Copy tasks into the archive and delete them from the hot table
+     * Must run in the transaction that locked them
+     *
+     * @return number of tasks moved
+     */
+    public int moveToArchive(Collection<String> ids, LocalDateTime archivedAt) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("archivedAt", archivedAt);
+        jdbcTemplate.update("INSERT INTO tasks_archive (" + COLUMNS + ", archived_at) "
+                + "SELECT " + COLUMNS + ", :archivedAt FROM tasks WHERE id IN (:ids)", params);
+        return jdbcTemplate.update("DELETE FROM tasks WHERE id IN (:ids)", params);
+    }
+
+    /**
+     * Delete archived tasks older than the cutoff, at most limit rows
+     */
+    public int deleteArchivedBefore(LocalDateTime archivedBefore, int limit) {
+        return jdbcTemplate.update("DELETE FROM tasks_archive WHERE archived_at < :archivedBefore LIMIT :limit",
+                new MapSqlParameterSource()
+                        .addValue("archivedBefore", archivedBefore)
+                        .addValue("limit", limit));
+    }
+
+    public Optional<Task> findById(String id) {
+        List<Task> tasks = jdbcTemplate.query("SELECT " + COLUMNS + " FROM tasks_archive WHERE id = :id",
+                new MapSqlParameterSource("id", id), (rs, rowNum) -> toTask(rs));
+        return tasks.stream().findFirst();
+    }
+
+    private Task toTask(ResultSet rs) throws SQLException {
+        Task task = Task.builder()
+                .id(rs.getString("id"))
+                .taskType(rs.getString("task_type"))
+                .status(Task.TaskStatus.valueOf(rs.getString("status")))
+                .priority(TaskPriority.valueOf(rs.getString("priority")))
+                .params(readJson(rs.getString("params")))
+                .result(readJson(rs.getString("result")))
+                .errorMessage(rs.getString("error_message"))
+                .progress(rs.getInt("progress"))
+                .retryCount(rs.getInt("retry_count"))
+                .createdAt(rs.getObject("created_at", LocalDateTime.class))
+                .runAt(rs.getObject("run_at", LocalDateTime.class))
+                .startedAt(rs.getObject("started_at", LocalDateTime.class))
+                .finishedAt(rs.getObject("finished_at", LocalDateTime.class))
+                .build();
+        // Loaded, not new: an accidental save() must not try to INSERT it into tasks
+        task.setPersisted(true);
+        return task;
+    }
+
+    private Map<String, Object> readJson(String json) throws SQLException {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, JSON_MAP);
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Malformed JSON column in tasks_archive", e);
+        }
+    }
+}
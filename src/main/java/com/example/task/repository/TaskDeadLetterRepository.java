@@ -0,0 +1,50 @@
+package com.example.task.repository;
+
+import com.example.task.entity.TaskDeadLetter;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Task Dead Letter Repository
+ */
+@Repository
+public interface TaskDeadLetterRepository extends JpaRepository<TaskDeadLetter, String> {
+
+    /**
+     * Newest dead letters (idx_dead_letter_created_at)
+     */
+    List<TaskDeadLetter> findAllByOrderByCreatedAtDesc(Limit limit);
+
+    /**
+     * Newest dead letters of a task type (idx_dead_letter_type_created_at)
+     */
+    List<TaskDeadLetter> findByTaskTypeOrderByCreatedAtDesc(String taskType, Limit limit);
+
+    /**
+     * Lock dead letters for replay
+     * SKIP LOCKED, so concurrent replays take disjoint sets; must be called inside a transaction
+     */
+    @Query(value = "SELECT * FROM task_dead_letters WHERE task_id IN (:ids) FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<TaskDeadLetter> lockByIds(@Param("ids") Collection<String> ids);
+
+    /**
+     * Lock the oldest dead letters of a task type for replay
+     */
+    @Query(value = "SELECT * FROM task_dead_letters WHERE task_type = :taskType "
+            + "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<TaskDeadLetter> lockOldestByTaskType(@Param("taskType") String taskType, @Param("limit") int limit);
+
+    /**
+     * Lock the oldest dead letters of any type for replay
+     */
+    @Query(value = "SELECT * FROM task_dead_letters ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<TaskDeadLetter> lockOldest(@Param("limit") int limit);
+}
@@ -0,0 +1,34 @@
+package com.example.task.repository;
+
+import com.example.task.entity.TaskIdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Task Idempotency Key Repository
+ */
+@Repository
+public interface TaskIdempotencyKeyRepository extends JpaRepository<TaskIdempotencyKey, String> {
+
+    /**
+     * Delete one key if it has expired (conditional, so a fresh key is never removed)
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TaskIdempotencyKey k WHERE k.idempotencyKey = :key AND k.expiresAt <= :now")
+    int deleteIfExpired(@Param("key") String key, @Param("now") LocalDateTime now);
+
+    /**
+     * Delete a batch of expired keys (bounded, to keep each statement short)
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM task_idempotency_keys WHERE expires_at <= :now LIMIT :limit", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -0,0 +1,25 @@
+package com.example.task.repository;
+
+import com.example.task.entity.TaskOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Task Outbox Repository
+ */
+@Repository
+public interface TaskOutboxRepository extends JpaRepository<TaskOutbox, String> {
+
+    /**
+     * Lock the oldest outbox entries for relaying
+     * SKIP LOCKED lets several relay instances drain the table concurrently without blocking
+     * each other; must be called inside a transaction
+     */
+    @Query(value = "SELECT * FROM task_outbox ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<TaskOutbox> lockBatch(@Param("limit") int limit);
+}
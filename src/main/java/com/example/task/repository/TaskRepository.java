@@ -1,8 +1,19 @@
 package com.example.task.repository;
 
 import com.example.task.entity.Task;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Task Repository
@@ -16,4 +27,233 @@ public interface TaskRepository extends JpaRepository<Task, String> {
     // - findAll(): query all records
     // - deleteById(): delete by primary key
     // - count(): count records
+
+    // State transitions below are single conditional UPDATEs: no entity load, no dirty
+    // checking, and the WHERE clause on the current status makes them idempotent under
+    // redelivery. Each returns the number of rows changed (0 = transition not applicable).
+    // They also match created_at, the partitioning column, so MySQL prunes them to the
+    // task's daily partition instead of probing the primary key of every partition.
+
+    /**
+     * Load a task by primary key, pruned to its partition
+     */
+    Optional<Task> findByIdAndCreatedAt(String id, LocalDateTime createdAt);
+
+    /**
+     * Move a task to RUNNING from one of the given statuses, or take over a RUNNING task
+     * whose previous attempt started before staleBefore (e.g. the node died mid-run)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Task t SET t.status = :running, " +
+            "t.startedAt = :now, t.retryCount = t.retryCount + :retryIncrement " +
+            "WHERE t.id = :id AND t.createdAt = :createdAt AND (t.status IN :fromStatuses " +
+            "OR (t.status = :running AND t.startedAt < :staleBefore))")
+    int transitionToRunning(@Param("id") String id,
+                            @Param("createdAt") LocalDateTime createdAt,
+                            @Param("running") Task.TaskStatus running,
+                            @Param("fromStatuses") Collection<Task.TaskStatus> fromStatuses,
+                            @Param("now") LocalDateTime now,
+                            @Param("staleBefore") LocalDateTime staleBefore,
+                            @Param("retryIncrement") int retryIncrement);
+
+    /**
+     * Move a RUNNING task to SUCCESS
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Task t SET t.status = :success, " +
+            "t.result = :result, t.progress = 100, t.finishedAt = :now " +
+            "WHERE t.id = :id AND t.createdAt = :createdAt AND t.status = :running")
+    int transitionToSuccess(@Param("id") String id,
+                            @Param("createdAt") LocalDateTime createdAt,
+                            @Param("success") Task.TaskStatus success,
+                            @Param("running") Task.TaskStatus running,
+                            @Param("result") Map<String, Object> result,
+                            @Param("now") LocalDateTime now);
+
+    /**
+     * Move tasks to a finished status (FAILED, CANCELLED, TIMED_OUT) from one of the given statuses
+     * createdAts holds the tasks' creation times (an IN list MySQL prunes partitions by)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Task t SET t.status = :finished, " +
+            "t.errorMessage = :errorMessage, t.finishedAt = :now " +
+            "WHERE t.id IN :ids AND t.createdAt IN :createdAts AND t.status IN :fromStatuses")
+    int transitionToFinished(@Param("ids") Collection<String> ids,
+                             @Param("createdAts") Collection<LocalDateTime> createdAts,
+                             @Param("finished") Task.TaskStatus finished,
+                             @Param("fromStatuses") Collection<Task.TaskStatus> fromStatuses,
+                             @Param("errorMessage") String errorMessage,
+                             @Param("now") LocalDateTime now);
+
+    /**
+     * Move FAILED tasks that still await a retry (no dead letter written) to a finished status
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Task t SET t.status = :finished, " +
+            "t.errorMessage = :errorMessage, t.finishedAt = :now " +
+            "WHERE t.id IN :ids AND t.createdAt IN :createdAts AND t.status = :failed " +
+            "AND NOT EXISTS (SELECT 1 FROM TaskDeadLetter d WHERE d.taskId = t.id)")
+    int transitionRetryingToFinished(@Param("ids") Collection<String> ids,
+                                     @Param("createdAts") Collection<LocalDateTime> createdAts,
+                                     @Param("finished") Task.TaskStatus finished,
+                                     @Param("failed") Task.TaskStatus failed,
+                                     @Param("errorMessage") String errorMessage,
+                                     @Param("now") LocalDateTime now);
+
+    /**
+     * Which of the given tasks are no longer in the given status
+     */
+    @Query("SELECT t.id FROM Task t WHERE t.id IN :ids AND t.createdAt IN :createdAts AND t.status <> :status")
+    List<String> findIdsNotInStatus(@Param("ids") Collection<String> ids,
+                                    @Param("createdAts") Collection<LocalDateTime> createdAts,
+                                    @Param("status") Task.TaskStatus status);
+
+    /**
+     * Increment retry count in SQL (no read-modify-write race)
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Task t SET t.retryCount = t.retryCount + 1 WHERE t.id = :id AND t.createdAt = :createdAt")
+    int incrementRetryCount(@Param("id") String id,
+                            @Param("createdAt") LocalDateTime createdAt);
+
+    /**
+     * Page of SCHEDULED tasks due before the given time, keyset-paginated on (runAt, id)
+     * (served from idx_status_run_at, which carries the primary key)
+     */
+    @Query("SELECT t.id AS id, t.taskType AS taskType, t.priority AS priority, t.runAt AS runAt, " +
+            "t.createdAt AS createdAt FROM Task t " +
+            "WHERE t.status = :scheduled AND t.runAt < :before " +
+            "AND (t.runAt > :afterRunAt OR (t.runAt = :afterRunAt AND t.id > :afterId)) " +
+            "ORDER BY t.runAt, t.id")
+    List<ScheduledTaskView> findScheduledBefore(@Param("scheduled") Task.TaskStatus scheduled,
+                                                @Param("before") LocalDateTime before,
+                                                @Param("afterRunAt") LocalDateTime afterRunAt,
+                                                @Param("afterId") String afterId,
+                                                Limit limit);
+
+    /**
+     * Lock the given tasks that are still SCHEDULED
+     * SKIP LOCKED lets several nodes release the same due tasks without blocking each other;
+     * must be called inside a transaction
+     */
+    @Query(value = "SELECT id FROM tasks WHERE id IN (:ids) AND created_at IN (:createdAts) " +
+            "AND status = 'SCHEDULED' FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<String> lockScheduled(@Param("ids") Collection<String> ids,
+                               @Param("createdAts") Collection<LocalDateTime> createdAts);
+
+    /**
+     * Release SCHEDULED tasks to PENDING
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Task t SET t.status = :pending " +
+            "WHERE t.id IN :ids AND t.createdAt IN :createdAts AND t.status = :scheduled")
+    int transitionScheduledToPending(@Param("ids") Collection<String> ids,
+                                     @Param("createdAts") Collection<LocalDateTime> createdAts,
+                                     @Param("pending") Task.TaskStatus pending,
+                                     @Param("scheduled") Task.TaskStatus scheduled);
+
+    /**
+     * Lock the given tasks that are still FAILED (for a dead-letter replay)
+     * SKIP LOCKED, like lockScheduled; must be called inside a transaction
+     */
+    @Query(value = "SELECT id FROM tasks WHERE id IN (:ids) AND status = 'FAILED' FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<String> lockFailed(@Param("ids") Collection<String> ids);
+
+    /**
+     * Requeue FAILED tasks as fresh PENDING tasks: attempts, error and timestamps are reset
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Task t SET t.status = :pending, t.retryCount = 0, t.progress = 0, " +
+            "t.errorMessage = NULL, t.startedAt = NULL, t.finishedAt = NULL " +
+            "WHERE t.id IN :ids AND t.status = :failed")
+    int transitionFailedToPending(@Param("ids") Collection<String> ids,
+                                  @Param("pending") Task.TaskStatus pending,
+                                  @Param("failed") Task.TaskStatus failed);
+
+    /**
+     * Number of tasks in a status per priority lane, as [priority, count] rows
+     * (served from idx_status_priority)
+     */
+    @Query("SELECT t.priority, COUNT(t) FROM Task t WHERE t.status = :status GROUP BY t.priority")
+    List<Object[]> countByPriority(@Param("status") Task.TaskStatus status);
+
+    /**
+     * Number of tasks per status and type, as [status, taskType, count] rows
+     * (an index-only scan of idx_status_task_type_created_at; run once at boot by TaskStatistics)
+     */
+    @Query("SELECT t.status, t.taskType, COUNT(t) FROM Task t GROUP BY t.status, t.taskType")
+    List<Object[]> countByStatusAndTaskType();
+
+    /**
+     * Update progress of a RUNNING task
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE Task t SET t.progress = :progress " +
+            "WHERE t.id = :id AND t.createdAt = :createdAt AND t.status = :running")
+    int updateProgress(@Param("id") String id,
+                       @Param("createdAt") LocalDateTime createdAt,
+                       @Param("running") Task.TaskStatus running,
+                       @Param("progress") int progress);
+
+    // Task listings, newest first, keyset-paginated on (createdAt, id): each page starts below
+    // the cursor (before, beforeId) and reads only `limit` index entries. One query per filter
+    // combination, so each is served by its own composite index ending in (created_at, id)
+    // with no filesort, instead of an optional-filter query the optimizer cannot range-scan.
+
+    String SUMMARY_SELECT = "SELECT t.id AS id, t.taskType AS taskType, t.status AS status, " +
+            "t.priority AS priority, t.progress AS progress, t.createdAt AS createdAt, " +
+            "t.startedAt AS startedAt, t.finishedAt AS finishedAt FROM Task t ";
+
+    String SEEK = "t.createdAt >= :from AND t.createdAt <= :before " +
+            "AND (t.createdAt < :before OR t.id < :beforeId) ORDER BY t.createdAt DESC, t.id DESC";
+
+    /**
+     * Listing page without filters (idx_created_at_id)
+     */
+    @Query(SUMMARY_SELECT + "WHERE " + SEEK)
+    List<TaskSummaryView> findPage(@Param("from") LocalDateTime from,
+                                   @Param("before") LocalDateTime before,
+                                   @Param("beforeId") String beforeId,
+                                   Limit limit);
+
+    /**
+     * Listing page of one status (idx_status_created_at)
+     */
+    @Query(SUMMARY_SELECT + "WHERE t.status = :status AND " + SEEK)
+    List<TaskSummaryView> findPageByStatus(@Param("status") Task.TaskStatus status,
+                                           @Param("from") LocalDateTime from,
+                                           @Param("before") LocalDateTime before,
+                                           @Param("beforeId") String beforeId,
+                                           Limit limit);
+
+    /**
+     * Listing page of one task type (idx_task_type_created_at)
+     */
+    @Query(SUMMARY_SELECT + "WHERE t.taskType = :taskType AND " + SEEK)
+    List<TaskSummaryView> findPageByTaskType(@Param("taskType") String taskType,
+                                             @Param("from") LocalDateTime from,
+                                             @Param("before") LocalDateTime before,
+                                             @Param("beforeId") String beforeId,
+                                             Limit limit);
+
+    /**
+     * Listing page of one status and task type (idx_status_task_type_created_at)
+     */
+    @Query(SUMMARY_SELECT + "WHERE t.status = :status AND t.taskType = :taskType AND " + SEEK)
+    List<TaskSummaryView> findPageByStatusAndTaskType(@Param("status") Task.TaskStatus status,
+                                                      @Param("taskType") String taskType,
+                                                      @Param("from") LocalDateTime from,
+                                                      @Param("before") LocalDateTime before,
+                                                      @Param("beforeId") String beforeId,
+                                                      Limit limit);
 }
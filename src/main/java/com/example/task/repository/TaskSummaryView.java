@@ -0,0 +1,29 @@
+package com.example.task.repository;
+
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskPriority;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a task for listings: no params/result JSON and no error message, so a page
+ * reads only fixed-width columns
+ */
+public interface TaskSummaryView {
+
+    String getId();
+
+    String getTaskType();
+
+    Task.TaskStatus getStatus();
+
+    TaskPriority getPriority();
+
+    Integer getProgress();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getStartedAt();
+
+    LocalDateTime getFinishedAt();
+}
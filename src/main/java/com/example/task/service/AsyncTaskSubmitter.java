@@ -0,0 +1,95 @@
+package com.example.task.service;
+
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskDispatchMode;
+import com.example.task.entity.TaskSubmission;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Async Task Submitter
+ * Non-blocking submission path: the task row is inserted on the request thread, the broker
+ * send uses the producer's async API and the returned future completes once it is acked
+ *
+ * The number of sends awaiting a broker ack is bounded by max-in-flight; when the window is
+ * full new submissions are rejected immediately (backpressure) instead of queueing up.
+ * Send results are handled on virtual threads, not on the producer's callback threads: a
+ * failed send marks the task FAILED with a blocking UPDATE, which during a broker outage
+ * would otherwise hold up the callbacks that free the window
+ *
+ * In OUTBOX/TRANSACTIONAL dispatch modes, and for delayed tasks, there is no direct broker
+ * send to wait for, so the submission is delegated to TaskSubmissionService and the future is
+ * already complete
+ */
+@Slf4j
+@Component
+public class AsyncTaskSubmitter {
+
+    private final TaskService taskService;
+    private final TaskSubmissionService taskSubmissionService;
+    private final Semaphore inFlightSends;
+    private final int maxInFlight;
+    private final ExecutorService completionExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${task.submission.async.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    public AsyncTaskSubmitter(TaskService taskService, TaskSubmissionService taskSubmissionService,
+                              @Value("${task.submission.async.max-in-flight:1000}") int maxInFlight) {
+        this.taskService = taskService;
+        this.taskSubmissionService = taskSubmissionService;
+        this.maxInFlight = maxInFlight;
+        this.inFlightSends = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Create a task and send it asynchronously
+     *
+     * @throws SubmissionRejectedException if the in-flight window is full
+     */
+    public CompletableFuture<Task> submit(TaskSubmission submission) {
+        if (taskSubmissionService.getDispatchMode() != TaskDispatchMode.DIRECT
+                || submission.resolveRunAt(LocalDateTime.now()) != null) {
+            return CompletableFuture.completedFuture(taskSubmissionService.submit(submission));
+        }
+
+        // A reused idempotency key completes with the task created the first time
+        return taskSubmissionService.submitOnce(submission, this::submitDirect, CompletableFuture::completedFuture);
+    }
+
+    private CompletableFuture<Task> submitDirect(TaskSubmission submission) {
+        if (!inFlightSends.tryAcquire()) {
+            log.warn("Async submission rejected, in-flight window full: maxInFlight={}", maxInFlight);
+            throw new SubmissionRejectedException("Too many in-flight submissions", retryAfterSeconds);
+        }
+
+        try {
+            Task task = taskService.createTask(submission);
+            return taskService.sendToQueueAsync(task, completionExecutor)
+                    .whenComplete((t, e) -> inFlightSends.release());
+        } catch (RuntimeException e) {
+            inFlightSends.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Number of sends currently awaiting a broker ack
+     */
+    public int getInFlight() {
+        return maxInFlight - inFlightSends.availablePermits();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        completionExecutor.shutdown();
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskMessage;
+import com.example.task.entity.TaskPriority;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Binary Task Message Codec
+ * Compact, versioned TaskMessage format (typically 30 bytes vs ~140 for JSON):
+ *
+ * <pre>
+ * offset  size  field
+ * 0       1     magic 0xA7 (never the first byte of a JSON document)
+ * 1       1     version
+ * 2       1     flags: bit0 taskId is a UUID, bit1 retryCount present, bit2 taskType present,
+ *               bit3 createdAt present
+ * 3       1     priority code (0 = absent)
+ * 4       16    taskId as two longs (UUID flag) | varint length + UTF-8
+ * ..      var   task type id (varint; 0 = inline: varint length + UTF-8), if flagged
+ * ..      var   retryCount (varint, if flagged)
+ * ..      8     createdAt as epoch seconds of the local date-time at UTC, if flagged
+ * </pre>
+ *
+ * Compatible additions are appended after the last field and ignored by older readers;
+ * the version is only bumped for incompatible changes, which older readers reject
+ */
+public class BinaryTaskMessageCodec implements TaskMessageCodec {
+
+    public static final byte MAGIC = (byte) 0xA7;
+    public static final byte VERSION = 1;
+
+    private static final int HEADER_SIZE = 4;
+    private static final int FLAG_UUID = 1;
+    private static final int FLAG_RETRY_COUNT = 1 << 1;
+    private static final int FLAG_TASK_TYPE = 1 << 2;
+    private static final int FLAG_CREATED_AT = 1 << 3;
+
+    // Wire codes, indexed by code: append only, never reorder
+    private static final TaskPriority[] PRIORITY_CODES = {null, TaskPriority.HIGH, TaskPriority.NORMAL, TaskPriority.LOW};
+    private static final String[] TASK_TYPE_IDS = {null, "DATA_EXPORT", "DATA_IMPORT", "REPORT_GENERATION"};
+
+    @Override
+    public byte[] encode(TaskMessage taskMessage) {
+        String taskId = Objects.requireNonNull(taskMessage.getTaskId(), "taskId");
+        UUID uuid = parseCanonicalUuid(taskId);
+        byte[] taskIdBytes = uuid == null ? taskId.getBytes(StandardCharsets.UTF_8) : null;
+
+        String taskType = taskMessage.getTaskType();
+        int typeId = typeIdOf(taskType);
+        byte[] taskTypeBytes = typeId == 0 && taskType != null ? taskType.getBytes(StandardCharsets.UTF_8) : null;
+
+        Integer retryCount = taskMessage.getRetryCount();
+
+        // Whole seconds only, like the created_at column; a value with a fraction is left out
+        // rather than rounded, so the consumer never keys an update on the wrong time
+        LocalDateTime createdAt = taskMessage.getCreatedAt();
+        boolean hasCreatedAt = createdAt != null && createdAt.getNano() == 0;
+
+        int flags = (uuid != null ? FLAG_UUID : 0)
+                | (retryCount != null ? FLAG_RETRY_COUNT : 0)
+                | (taskType != null ? FLAG_TASK_TYPE : 0)
+                | (hasCreatedAt ? FLAG_CREATED_AT : 0);
+
+        // 1. Exact size, so the body is allocated once
+        int size = HEADER_SIZE
+                + (uuid != null ? 16 : varintSize(taskIdBytes.length) + taskIdBytes.length)
+                + (taskType != null ? varintSize(typeId) : 0)
+                + (taskTypeBytes != null ? varintSize(taskTypeBytes.length) + taskTypeBytes.length : 0)
+                + (retryCount != null ? varintSize(retryCount) : 0)
+                + (hasCreatedAt ? 8 : 0);
+
+        // 2. Header
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.put(MAGIC);
+        buffer.put(VERSION);
+        buffer.put((byte) flags);
+        buffer.put((byte) priorityCodeOf(taskMessage.getPriority()));
+
+        // 3. Fields
+        if (uuid != null) {
+            buffer.putLong(uuid.getMostSignificantBits());
+            buffer.putLong(uuid.getLeastSignificantBits());
+        } else {
+            putString(buffer, taskIdBytes);
+        }
+
+        if (taskType != null) {
+            putVarint(buffer, typeId);
+            if (typeId == 0) {
+                putString(buffer, taskTypeBytes);
+            }
+        }
+
+        if (retryCount != null) {
+            putVarint(buffer, retryCount);
+        }
+
+        if (hasCreatedAt) {
+            buffer.putLong(createdAt.toEpochSecond(ZoneOffset.UTC));
+        }
+        return buffer.array();
+    }
+
+    @Override
+    public TaskMessage decode(ByteBuffer body) {
+        ByteBuffer buffer = body.duplicate();
+        try {
+            // 1. Header
+            if (buffer.get() != MAGIC) {
+                throw new IllegalArgumentException("Not a binary task message");
+            }
+            int version = buffer.get();
+            if (version < 1 || version > VERSION) {
+                throw new IllegalArgumentException("Unsupported task message version: " + version);
+            }
+            int flags = buffer.get();
+            int priorityCode = buffer.get() & 0xFF;
+
+            // 2. Fields
+            String taskId = (flags & FLAG_UUID) != 0
+                    ? new UUID(buffer.getLong(), buffer.getLong()).toString()
+                    : getString(buffer);
+
+            String taskType = null;
+            int typeId = (flags & FLAG_TASK_TYPE) != 0 ? getVarint(buffer) : -1;
+            if (typeId == 0) {
+                taskType = getString(buffer);
+            } else if (typeId > 0 && typeId < TASK_TYPE_IDS.length) {
+                taskType = TASK_TYPE_IDS[typeId];
+            } else if (typeId > 0) {
+                throw new IllegalArgumentException("Unknown task type id: " + typeId);
+            }
+
+            Integer retryCount = (flags & FLAG_RETRY_COUNT) != 0 ? getVarint(buffer) : null;
+
+            LocalDateTime createdAt = (flags & FLAG_CREATED_AT) != 0
+                    ? LocalDateTime.ofEpochSecond(buffer.getLong(), 0, ZoneOffset.UTC)
+                    : null;
+
+            return TaskMessage.builder()
+                    .taskId(taskId)
+                    .taskType(taskType)
+                    .retryCount(retryCount)
+                    .priority(priorityCode < PRIORITY_CODES.length ? PRIORITY_CODES[priorityCode] : null)
+                    .createdAt(createdAt)
+                    .build();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated binary task message", e);
+        }
+    }
+
+    private static int priorityCodeOf(TaskPriority priority) {
+        if (priority == null) {
+            return 0;
+        }
+        for (int code = 1; code < PRIORITY_CODES.length; code++) {
+            if (PRIORITY_CODES[code] == priority) {
+                return code;
+            }
+        }
+        return 0;
+    }
+
+    private static int typeIdOf(String taskType) {
+        if (taskType != null) {
+            for (int id = 1; id < TASK_TYPE_IDS.length; id++) {
+                if (TASK_TYPE_IDS[id].equals(taskType)) {
+                    return id;
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Parse a lower-case canonical UUID string (as produced by UUID.toString()), or return
+     * null so any other id is carried as a string and decodes back unchanged
+     */
+    static UUID parseCanonicalUuid(String value) {
+        if (value == null || value.length() != 36 || value.charAt(8) != '-' || value.charAt(13) != '-'
+                || value.charAt(18) != '-' || value.charAt(23) != '-') {
+            return null;
+        }
+        long a = parseHex(value, 0, 8);
+        long b = parseHex(value, 9, 13);
+        long c = parseHex(value, 14, 18);
+        long d = parseHex(value, 19, 23);
+        long e = parseHex(value, 24, 36);
+        if ((a | b | c | d | e) < 0) {
+            return null;
+        }
+        return new UUID(a << 32 | b << 16 | c, d << 48 | e);
+    }
+
+    // At most 12 digits, so -1 is free to mean "not lower-case hex"
+    private static long parseHex(String value, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            char ch = value.charAt(i);
+            int digit;
+            if (ch >= '0' && ch <= '9') {
+                digit = ch - '0';
+            } else if (ch >= 'a' && ch <= 'f') {
+                digit = ch - 'a' + 10;
+            } else {
+                return -1;
+            }
+            result = result << 4 | digit;
+        }
+        return result;
+    }
+
+    private static void putString(ByteBuffer buffer, byte[] bytes) {
+        putVarint(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = getVarint(buffer);
+        if (length > buffer.remaining()) {
+            throw new IllegalArgumentException("Truncated binary task message");
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    private static int varintSize(int value) {
+        return (38 - Integer.numberOfLeadingZeros(value | 1)) / 7;
+    }
+
+    private static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer buffer) {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            result |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in task message");
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Default Task Message Codec
+ * Writes the format selected by task.message.codec (binary | json) and reads both,
+ * sniffing the first byte, so messages already in the broker still decode after a switch
+ *
+ * Rolling upgrade: deploy every node (producers and consumers) with this codec first,
+ * then switch writers to binary
+ */
+@Slf4j
+@Component
+public class DefaultTaskMessageCodec implements TaskMessageCodec {
+
+    private final BinaryTaskMessageCodec binaryCodec = new BinaryTaskMessageCodec();
+    private final JsonTaskMessageCodec jsonCodec;
+    private final TaskMessageCodec writer;
+
+    public DefaultTaskMessageCodec(ObjectMapper objectMapper,
+                                   @Value("${task.message.codec:binary}") String format) {
+        this.jsonCodec = new JsonTaskMessageCodec(objectMapper);
+        this.writer = switch (format.toLowerCase()) {
+            case "binary" -> binaryCodec;
+            case "json" -> jsonCodec;
+            default -> throw new IllegalArgumentException("Unknown task.message.codec: " + format);
+        };
+        log.info("Task message codec: write={}", format);
+    }
+
+    @Override
+    public byte[] encode(TaskMessage taskMessage) {
+        return writer.encode(taskMessage);
+    }
+
+    @Override
+    public TaskMessage decode(ByteBuffer body) {
+        if (body.hasRemaining() && body.get(body.position()) == BinaryTaskMessageCodec.MAGIC) {
+            return binaryCodec.decode(body);
+        }
+        return jsonCodec.decode(body);
+    }
+}
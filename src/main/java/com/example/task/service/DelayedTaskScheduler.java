@@ -0,0 +1,304 @@
+package com.example.task.service;
+
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskDispatchMode;
+import com.example.task.entity.TaskPriority;
+import com.example.task.repository.ScheduledTaskView;
+import com.example.task.repository.TaskRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delayed Task Scheduler
+ * Enqueues SCHEDULED tasks (submitted with runAt/delay) when they become due
+ *
+ * - MySQL is the source of truth: SCHEDULED rows indexed by (status, run_at)
+ * - tasks due within load-window are loaded into an in-memory HierarchicalTimingWheel, in
+ *   keyset-paginated pages; new submissions inside the loaded window go straight into it
+ * - one ticker thread advances the wheel and releases due tasks in batches (SCHEDULED ->
+ *   PENDING, then enqueued like a normal submission), so there is no timer or thread per task
+ * - every load also picks up all overdue SCHEDULED rows (no lower bound): tasks missed
+ *   while the node was down, or held only in the wheel of a node that died
+ *
+ * Every node loads the same window; releasing locks the rows with SKIP LOCKED, so each task
+ * is enqueued by exactly one node
+ */
+@Slf4j
+@Component
+public class DelayedTaskScheduler {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * Wheel entry: only what is needed to enqueue the task
+     */
+    private record DueTask(String id, String taskType, TaskPriority priority, LocalDateTime createdAt, long dueMillis) {
+    }
+
+    private final TaskService taskService;
+    private final TaskRepository taskRepository;
+
+    @Value("${task.submission.dispatch-mode:direct}")
+    private TaskDispatchMode dispatchMode;
+
+    @Value("${task.scheduling.tick-ms:100}")
+    private long tickMs;
+
+    @Value("${task.scheduling.wheel-size:512}")
+    private int wheelSize;
+
+    @Value("${task.scheduling.levels:3}")
+    private int levels;
+
+    /**
+     * How far ahead tasks are held in memory; later ones stay in the database until a load reaches them
+     */
+    @Value("${task.scheduling.load-window-seconds:300}")
+    private long loadWindowSeconds;
+
+    @Value("${task.scheduling.load-page-size:5000}")
+    private int loadPageSize;
+
+    @Value("${task.scheduling.release-batch-size:500}")
+    private int releaseBatchSize;
+
+    private final Object lock = new Object();
+    private HierarchicalTimingWheel<DueTask> wheel;
+
+    // Due tasks waiting to be released (expired from the wheel, or already due when added)
+    private List<DueTask> due = new ArrayList<>();
+
+    // Everything due before this is in the wheel (null until the first load)
+    private LocalDateTime loadedUntil;
+
+    private Thread ticker;
+    private volatile boolean running;
+
+    private final Counter releasedCounter;
+    private final Timer releaseDelayTimer;
+
+    public DelayedTaskScheduler(TaskService taskService, TaskRepository taskRepository, MeterRegistry meterRegistry) {
+        this.taskService = taskService;
+        this.taskRepository = taskRepository;
+
+        Gauge.builder("task.scheduler.wheel.size", this, DelayedTaskScheduler::wheelSize)
+                .description("Scheduled tasks held in the timing wheel")
+                .register(meterRegistry);
+        this.releasedCounter = Counter.builder("task.scheduler.released")
+                .description("Scheduled tasks released to the queue")
+                .register(meterRegistry);
+        this.releaseDelayTimer = Timer.builder("task.scheduler.release.delay")
+                .description("Time from a task's run time to its release")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        wheel = new HierarchicalTimingWheel<>(tickMs, wheelSize, levels, System.currentTimeMillis());
+        if (wheel.rangeMillis() < TimeUnit.SECONDS.toMillis(loadWindowSeconds)) {
+            throw new IllegalStateException("Timing wheel range " + wheel.rangeMillis()
+                    + "ms is shorter than the load window of " + loadWindowSeconds + "s");
+        }
+
+        running = true;
+        ticker = Thread.ofPlatform().name("task-timing-wheel").daemon().start(this::tickLoop);
+
+        log.info("DelayedTaskScheduler started: tickMs={}, wheelSize={}, levels={}, rangeMs={}, loadWindowSeconds={}",
+                tickMs, wheelSize, levels, wheel.rangeMillis(), loadWindowSeconds);
+    }
+
+    /**
+     * Register a SCHEDULED task after its row has committed
+     * Tasks beyond the loaded window are left to a later load
+     */
+    public void schedule(Task task) {
+        DueTask dueTask = new DueTask(task.getId(), task.getTaskType(), task.getPriority(), task.getCreatedAt(),
+                toMillis(task.getRunAt()));
+        synchronized (lock) {
+            if (loadedUntil != null && task.getRunAt().isBefore(loadedUntil)) {
+                add(dueTask);
+            }
+        }
+    }
+
+    /**
+     * Load the next window of SCHEDULED tasks from the database into the wheel, plus every
+     * overdue SCHEDULED task (no lower bound): a task registered only in the wheel of a node
+     * that died before releasing it is picked up by the next load on any node
+     * The horizon moves before the query: a task committed meanwhile is either seen by the
+     * query or sees the new horizon in schedule(); a task in the wheel twice is harmless
+     * because releasing is conditional on the row still being SCHEDULED
+     */
+    @Scheduled(fixedDelayString = "${task.scheduling.load-interval-ms:60000}")
+    public void loadWindow() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plusSeconds(loadWindowSeconds);
+        LocalDateTime previous;
+        LocalDateTime from;
+        synchronized (lock) {
+            previous = loadedUntil;
+            // Everything before now is covered by the overdue scan
+            from = previous != null && previous.isAfter(now) ? previous : now;
+            loadedUntil = until;
+        }
+
+        int overdue;
+        int loaded;
+        try {
+            overdue = load(EPOCH, now);
+            loaded = load(from, until);
+        } catch (Exception e) {
+            // Roll the horizon back so the next load retries this window
+            synchronized (lock) {
+                loadedUntil = previous;
+            }
+            log.error("Failed to load scheduled tasks: from={}, until={}", from, until, e);
+            return;
+        }
+
+        if (overdue > 0) {
+            log.info("Overdue scheduled tasks loaded into timing wheel: count={}, before={}", overdue, now);
+        }
+        if (loaded > 0) {
+            log.info("Scheduled tasks loaded into timing wheel: count={}, from={}, until={}", loaded, from, until);
+        }
+    }
+
+    /**
+     * Add the SCHEDULED tasks due in [from, until) to the wheel
+     *
+     * @return number of tasks loaded
+     */
+    private int load(LocalDateTime from, LocalDateTime until) {
+        // Keyset pagination on (runAt, id); the first page includes tasks due exactly at 'from'
+        LocalDateTime afterRunAt = from;
+        String afterId = "";
+        int loaded = 0;
+
+        while (true) {
+            List<ScheduledTaskView> page = taskRepository.findScheduledBefore(Task.TaskStatus.SCHEDULED,
+                    until, afterRunAt, afterId, Limit.of(loadPageSize));
+            if (page.isEmpty()) {
+                return loaded;
+            }
+
+            synchronized (lock) {
+                for (ScheduledTaskView view : page) {
+                    add(new DueTask(view.getId(), view.getTaskType(), view.getPriority(), view.getCreatedAt(),
+                            toMillis(view.getRunAt())));
+                }
+            }
+            loaded += page.size();
+
+            ScheduledTaskView last = page.get(page.size() - 1);
+            afterRunAt = last.getRunAt();
+            afterId = last.getId();
+            if (page.size() < loadPageSize) {
+                return loaded;
+            }
+        }
+    }
+
+    private void add(DueTask dueTask) {
+        if (!wheel.add(dueTask, dueTask.dueMillis())) {
+            // Already due (or beyond range, which the load window rules out)
+            due.add(dueTask);
+        }
+    }
+
+    private void tickLoop() {
+        while (running) {
+            try {
+                Thread.sleep(tickMs);
+
+                List<DueTask> expired;
+                synchronized (lock) {
+                    wheel.advance(System.currentTimeMillis(), due::add);
+                    expired = due;
+                    due = new ArrayList<>();
+                }
+
+                for (int from = 0; from < expired.size(); from += releaseBatchSize) {
+                    release(expired.subList(from, Math.min(from + releaseBatchSize, expired.size())));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error in timing wheel ticker", e);
+            }
+        }
+    }
+
+    /**
+     * Release one batch of due tasks and enqueue them
+     */
+    private void release(List<DueTask> batch) {
+        List<Task> dueTasks = batch.stream()
+                .map(dueTask -> Task.builder()
+                        .id(dueTask.id())
+                        .taskType(dueTask.taskType())
+                        .priority(dueTask.priority())
+                        .status(Task.TaskStatus.SCHEDULED)
+                        .createdAt(dueTask.createdAt())
+                        .build())
+                .toList();
+
+        List<Task> released;
+        try {
+            released = taskService.releaseScheduled(dueTasks);
+        } catch (Exception e) {
+            // Rows are still SCHEDULED; retry on the next tick
+            log.error("Failed to release scheduled tasks, will retry: size={}", batch.size(), e);
+            synchronized (lock) {
+                due.addAll(batch);
+            }
+            return;
+        }
+
+        // OUTBOX: the relay publishes the entries written with the release
+        if (dispatchMode != TaskDispatchMode.OUTBOX && !released.isEmpty()) {
+            taskService.sendBatchToQueue(released);
+        }
+
+        long now = System.currentTimeMillis();
+        releasedCounter.increment(released.size());
+        for (DueTask dueTask : batch) {
+            releaseDelayTimer.record(Math.max(0, now - dueTask.dueMillis()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private int wheelSize() {
+        synchronized (lock) {
+            return wheel != null ? wheel.size() + due.size() : 0;
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (ticker != null) {
+            ticker.interrupt();
+            ticker.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+}
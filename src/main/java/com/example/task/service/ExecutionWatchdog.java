@@ -0,0 +1,70 @@
+package com.example.task.service;
+
+import com.example.task.entity.Task;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Execution Watchdog
+ * Periodically checks the executions running on this node:
+ * 1. past its deadline (task.processing.timeouts / timeout-minutes): mark TIMED_OUT and interrupt
+ * 2. row no longer RUNNING (cancelled on another node, broadcast lost): interrupt
+ */
+@Slf4j
+@Component
+public class ExecutionWatchdog {
+
+    private final TaskExecutionRegistry taskExecutionRegistry;
+    private final TaskService taskService;
+    private final Counter timedOutCounter;
+
+    public ExecutionWatchdog(TaskExecutionRegistry taskExecutionRegistry, TaskService taskService,
+                             MeterRegistry meterRegistry) {
+        this.taskExecutionRegistry = taskExecutionRegistry;
+        this.taskService = taskService;
+        this.timedOutCounter = Counter.builder("task.executions.timed.out")
+                .description("Executions interrupted for exceeding their deadline")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${task.execution.watchdog.interval-ms:1000}")
+    public void check() {
+        Collection<TaskExecutionRegistry.Execution> executions = taskExecutionRegistry.snapshot();
+        if (executions.isEmpty()) {
+            return;
+        }
+
+        // 1. Deadlines
+        long now = System.nanoTime();
+        for (TaskExecutionRegistry.Execution execution : executions) {
+            if (execution.getAbortedAs() == null && execution.isOverdue(now)) {
+                log.warn("Task exceeded its deadline: taskId={}, taskType={}", execution.getTaskId(), execution.getTaskType());
+                taskService.markAsTimedOut(execution.getTaskId(), execution.getCreatedAt(), execution.getTaskType(),
+                        "Execution exceeded its deadline");
+                taskExecutionRegistry.abort(execution, Task.TaskStatus.TIMED_OUT);
+                timedOutCounter.increment();
+            }
+        }
+
+        // 2. Reconcile with the database: one query for all local executions
+        try {
+            List<String> stopped = taskService.findNoLongerRunning(
+                    executions.stream().map(TaskExecutionRegistry.Execution::getTaskId).toList(),
+                    executions.stream().map(TaskExecutionRegistry.Execution::getCreatedAt).distinct().toList());
+            for (String taskId : stopped) {
+                TaskExecutionRegistry.Execution execution = taskExecutionRegistry.get(taskId);
+                if (execution != null) {
+                    taskExecutionRegistry.abort(execution, Task.TaskStatus.CANCELLED);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to reconcile running executions", e);
+        }
+    }
+}
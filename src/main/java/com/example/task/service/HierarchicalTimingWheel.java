@@ -0,0 +1,137 @@
+package com.example.task.service;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical Timing Wheel
+ * Holds items until their due time with O(1) insert and O(1) amortised expiry, driven by
+ * the caller's clock (advance()) instead of one timer per item.
+ *
+ * Level 0 has wheelSize slots of one tick each; every higher level has wheelSize slots each
+ * spanning a full rotation of the level below (e.g. 100ms x 512 = 51.2s at level 1, 7.3h at
+ * level 2). An item goes to the lowest level whose range covers its delay; when the clock
+ * crosses a slot boundary of a higher level, that slot's items cascade down to finer levels.
+ *
+ * Not thread-safe: callers synchronize
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private record Entry<T>(T item, long dueTick) {
+    }
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final long startMillis;
+
+    // Ticks covered by one slot at each level: wheelSize ^ level
+    private final long[] slotSpans;
+    // Slots hold ArrayDeque<Entry<T>>, read through slot(); a generic array cannot be created
+    private final ArrayDeque<?>[][] slots;
+
+    private long currentTick;
+    private int size;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, int levels, long startMillis) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.startMillis = startMillis;
+        this.slotSpans = new long[levels];
+        this.slots = new ArrayDeque<?>[levels][wheelSize];
+
+        long span = 1;
+        for (int level = 0; level < levels; level++) {
+            slotSpans[level] = span;
+            span *= wheelSize;
+        }
+    }
+
+    /**
+     * Longest delay the wheel can hold, in milliseconds
+     */
+    public long rangeMillis() {
+        return slotSpans[slotSpans.length - 1] * wheelSize * tickMs;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add an item
+     *
+     * @return false if the item is already due or beyond the wheel's range (not added)
+     */
+    public boolean add(T item, long dueMillis) {
+        long dueTick = Math.ceilDiv(dueMillis - startMillis, tickMs);
+        if (dueTick <= currentTick) {
+            return false;
+        }
+        return place(new Entry<>(item, dueTick));
+    }
+
+    private boolean place(Entry<T> entry) {
+        long delta = entry.dueTick() - currentTick;
+        for (int level = 0; level < slotSpans.length; level++) {
+            if (delta < slotSpans[level] * wheelSize) {
+                int index = (int) ((entry.dueTick() / slotSpans[level]) % wheelSize);
+                ArrayDeque<Entry<T>> slot = slot(level, index);
+                if (slot == null) {
+                    slot = new ArrayDeque<>();
+                    slots[level][index] = slot;
+                }
+                slot.add(entry);
+                size++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Advance the clock to nowMillis, handing every item that became due to onExpired
+     */
+    public void advance(long nowMillis, Consumer<T> onExpired) {
+        long targetTick = (nowMillis - startMillis) / tickMs;
+
+        while (currentTick < targetTick) {
+            currentTick++;
+
+            // 1. Cascade higher-level slots whose boundary was just crossed
+            for (int level = 1; level < slotSpans.length && currentTick % slotSpans[level] == 0; level++) {
+                ArrayDeque<Entry<T>> slot = take(level, (int) ((currentTick / slotSpans[level]) % wheelSize));
+                if (slot != null) {
+                    for (Entry<T> entry : slot) {
+                        if (entry.dueTick() <= currentTick) {
+                            onExpired.accept(entry.item());
+                        } else {
+                            place(entry);
+                        }
+                    }
+                }
+            }
+
+            // 2. Expire the current level-0 slot
+            ArrayDeque<Entry<T>> slot = take(0, (int) (currentTick % wheelSize));
+            if (slot != null) {
+                for (Entry<T> entry : slot) {
+                    onExpired.accept(entry.item());
+                }
+            }
+        }
+    }
+
+    private ArrayDeque<Entry<T>> take(int level, int index) {
+        ArrayDeque<Entry<T>> slot = slot(level, index);
+        if (slot != null) {
+            slots[level][index] = null;
+            size -= slot.size();
+        }
+        return slot;
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArrayDeque<Entry<T>> slot(int level, int index) {
+        return (ArrayDeque<Entry<T>>) slots[level][index];
+    }
+}
@@ -0,0 +1,449 @@
+package com.example.task.service;
+
+import com.example.task.config.TaskRetryProperties;
+import com.example.task.entity.TaskDispatchMode;
+import com.example.task.entity.TaskMessage;
+import com.example.task.entity.TaskPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * In-Process Task Queue
+ * Transport for single-node deployments and tests (task.queue.transport=in-process): no
+ * NameServer or Broker, and no encoding on the way from submission to execution.
+ *
+ * - one bounded lock-free ring buffer (MpmcRingBuffer) per priority lane holds the
+ *   TaskMessage objects themselves; a full lane rejects the enqueue like a failed send
+ * - consumers (InProcessTaskConsumer) wait on a semaphore counting queued messages, then
+ *   take from the lanes in weighted turn (task.priority.weights), falling back to the
+ *   other lanes when the preferred one is empty
+ * - retry() (a failed execution under its retry policy, or a parked message) holds the
+ *   message in a HierarchicalTimingWheel for the requested delay; a delay beyond the
+ *   wheel's range is held at its far end and re-armed when that expires
+ * - a nack (RECONSUME_LATER) schedules the message again after RocketMQ's retry delay for
+ *   that attempt (10s, 30s, 1m, 2m ... 2h), in the same wheel; once max-retry-times is
+ *   exhausted it is dropped as a dead letter, like RocketMQ's DLQ
+ *
+ * Without the journal, queued messages are lost when the node stops (their rows stay
+ * PENDING / FAILED). With task.queue.in-process.journal.enabled every enqueue, nack and ack
+ * is also appended to a memory-mapped TaskQueueJournal and replayed on startup.
+ *
+ * Only the direct and outbox dispatch modes apply: transactional messages need the broker
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "task.queue.transport", havingValue = "in-process")
+public class InProcessTaskQueue implements TaskQueue {
+
+    /**
+     * A message handed to a consumer; a redelivery carries the same seq
+     *
+     * @param readyNanos when the message became available (enqueue or retry due time)
+     */
+    public record Delivery(long seq, TaskMessage message, int reconsumeTimes, long readyNanos) {
+
+        public String msgId() {
+            return "local-" + seq;
+        }
+
+        public TaskPriority lane() {
+            return TaskPriority.orDefault(message.getPriority());
+        }
+    }
+
+    private record Retry(Delivery delivery, long dueMillis) {
+    }
+
+    // Retry delays of a RocketMQ push consumer (delay levels 3-18): attempt n waits RETRY_DELAYS_MS[n - 1]
+    private static final long[] RETRY_DELAYS_MS = {
+            10_000, 30_000, 60_000, 120_000, 180_000, 240_000, 300_000, 360_000,
+            420_000, 480_000, 540_000, 600_000, 1_200_000, 1_800_000, 3_600_000, 7_200_000};
+
+    private static final long TIMER_TICK_MS = 100;
+    private static final int TIMER_WHEEL_SIZE = 512;
+    private static final int TIMER_LEVELS = 3;  // 51.2s at level 0, 7.3h at level 1, 155d at level 2
+
+    private static final TaskPriority[] LANES = TaskPriority.values();
+
+    private final TaskPipelineMetrics pipelineMetrics;
+    private final TaskRetryProperties retryProperties;
+    private final int maxRetryTimes;
+
+    // One MpmcRingBuffer<Delivery> per priority, read through lane(); a generic array cannot be created
+    private final MpmcRingBuffer<?>[] lanes;
+    private final Semaphore available = new Semaphore(0);
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Weighted turn: ticket % totalWeight picks the lane tried first
+    private final AtomicLong ticket = new AtomicLong();
+    private final TaskPriority[] turns;
+
+    private final Object timerLock = new Object();
+    private final HierarchicalTimingWheel<Retry> retryWheel;
+    private Thread timer;
+    private volatile boolean running;
+
+    private final TaskQueueJournal journal;
+
+    private final Counter deadLetters;
+
+    @SuppressWarnings("unchecked")
+    public InProcessTaskQueue(TaskPipelineMetrics pipelineMetrics, MeterRegistry meterRegistry,
+                              TaskRetryProperties retryProperties,
+                              @Value("${task.submission.dispatch-mode:direct}") TaskDispatchMode dispatchMode,
+                              @Value("${task.processing.max-retry-times:16}") int maxRetryTimes,
+                              @Value("${task.queue.in-process.capacity:65536}") int capacity,
+                              @Value("${task.priority.weights.high:70}") int highWeight,
+                              @Value("${task.priority.weights.normal:20}") int normalWeight,
+                              @Value("${task.priority.weights.low:10}") int lowWeight,
+                              @Value("${task.queue.in-process.journal.enabled:false}") boolean journalEnabled,
+                              @Value("${task.queue.in-process.journal.dir:data/task-queue}") String journalDir,
+                              @Value("${task.queue.in-process.journal.segment-size-mb:64}") int segmentSizeMb,
+                              @Value("${task.queue.in-process.journal.fsync:false}") boolean fsync) {
+        if (dispatchMode == TaskDispatchMode.TRANSACTIONAL) {
+            throw new IllegalStateException(
+                    "task.submission.dispatch-mode=transactional requires task.queue.transport=rocketmq");
+        }
+
+        this.pipelineMetrics = pipelineMetrics;
+        this.retryProperties = retryProperties;
+        this.maxRetryTimes = maxRetryTimes;
+
+        this.lanes = new MpmcRingBuffer<?>[LANES.length];
+        for (TaskPriority lane : LANES) {
+            MpmcRingBuffer<Delivery> buffer = new MpmcRingBuffer<>(capacity);
+            lanes[lane.ordinal()] = buffer;
+            Gauge.builder("task.queue.depth", buffer, MpmcRingBuffer::size)
+                    .description("Messages waiting in the in-process queue")
+                    .tag("lane", lane.name())
+                    .register(meterRegistry);
+        }
+
+        // e.g. 70/20/10: 70 turns starting at HIGH, 20 at NORMAL, 10 at LOW
+        int[] weights = {Math.max(1, highWeight), Math.max(1, normalWeight), Math.max(1, lowWeight)};
+        List<TaskPriority> turnList = new ArrayList<>();
+        for (TaskPriority lane : LANES) {
+            for (int i = 0; i < weights[lane.ordinal()]; i++) {
+                turnList.add(lane);
+            }
+        }
+        this.turns = turnList.toArray(TaskPriority[]::new);
+
+        this.retryWheel = new HierarchicalTimingWheel<>(TIMER_TICK_MS, TIMER_WHEEL_SIZE, TIMER_LEVELS,
+                System.currentTimeMillis());
+        Gauge.builder("task.queue.delayed", this, InProcessTaskQueue::delayedCount)
+                .description("Messages waiting for their retry delay in the in-process queue")
+                .register(meterRegistry);
+        this.deadLetters = Counter.builder("task.queue.dead.letters")
+                .description("Messages dropped by the in-process queue after max-retry-times")
+                .register(meterRegistry);
+
+        this.journal = journalEnabled
+                ? new TaskQueueJournal(Path.of(journalDir), Math.multiplyExact(segmentSizeMb, 1024 * 1024), fsync)
+                : null;
+    }
+
+    @PostConstruct
+    public void start() {
+        long longestDelay = longestConfiguredDelayMillis();
+        if (retryWheel.rangeMillis() < longestDelay) {
+            throw new IllegalStateException("Retry timing wheel range " + retryWheel.rangeMillis()
+                    + "ms is shorter than the longest configured retry delay of " + longestDelay + "ms");
+        }
+
+        running = true;
+        timer = Thread.ofPlatform().name("task-queue-timer").daemon().start(this::timerLoop);
+
+        if (journal != null) {
+            // Messages queued or waiting for a retry when the node stopped
+            List<TaskQueueJournal.Entry> recovered = journal.recover();
+            sequence.set(journal.maxSeq());
+            long now = System.currentTimeMillis();
+            for (TaskQueueJournal.Entry entry : recovered) {
+                Delivery delivery = new Delivery(entry.seq(), entry.message(), entry.reconsumeTimes(), System.nanoTime());
+                schedule(delivery, Math.max(now, entry.dueMillis()));
+            }
+        }
+
+        log.info("InProcessTaskQueue started: capacity={}, maxRetryTimes={}, journal={}",
+                lanes[0].capacity(), maxRetryTimes, journal != null);
+    }
+
+    @Override
+    public void enqueue(TaskMessage taskMessage) {
+        long startNanos = System.nanoTime();
+        try {
+            offerNew(taskMessage, startNanos);
+        } catch (RuntimeException e) {
+            pipelineMetrics.recordSend(TaskPipelineMetrics.SendMode.SYNC, false, System.nanoTime() - startNanos);
+            throw e;
+        }
+        pipelineMetrics.recordSend(TaskPipelineMetrics.SendMode.SYNC, true, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Completes before returning: enqueueing never blocks
+     */
+    @Override
+    public CompletableFuture<Void> enqueueAsync(TaskMessage taskMessage) {
+        long startNanos = System.nanoTime();
+        try {
+            offerNew(taskMessage, startNanos);
+        } catch (RuntimeException e) {
+            pipelineMetrics.recordSend(TaskPipelineMetrics.SendMode.ASYNC, false, System.nanoTime() - startNanos);
+            return CompletableFuture.failedFuture(e);
+        }
+        pipelineMetrics.recordSend(TaskPipelineMetrics.SendMode.ASYNC, true, System.nanoTime() - startNanos);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void enqueueAll(List<TaskMessage> taskMessages) {
+        long startNanos = System.nanoTime();
+        try {
+            for (TaskMessage taskMessage : taskMessages) {
+                offerNew(taskMessage, startNanos);
+            }
+        } catch (RuntimeException e) {
+            pipelineMetrics.recordSend(TaskPipelineMetrics.SendMode.BATCH, false, System.nanoTime() - startNanos);
+            throw e;
+        }
+        pipelineMetrics.recordSend(TaskPipelineMetrics.SendMode.BATCH, true, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Messages are enqueued one by one; those rejected by a full lane are reported together
+     */
+    @Override
+    public void enqueueBatch(List<TaskMessage> taskMessages, BiConsumer<List<TaskMessage>, Exception> onFailure) {
+        long startNanos = System.nanoTime();
+        List<TaskMessage> rejected = new ArrayList<>();
+        RuntimeException cause = null;
+        for (TaskMessage taskMessage : taskMessages) {
+            try {
+                offerNew(taskMessage, startNanos);
+            } catch (RuntimeException e) {
+                rejected.add(taskMessage);
+                cause = e;
+            }
+        }
+        pipelineMetrics.recordSend(TaskPipelineMetrics.SendMode.BATCH, rejected.isEmpty(), System.nanoTime() - startNanos);
+
+        if (!rejected.isEmpty()) {
+            onFailure.accept(rejected, cause);
+        }
+    }
+
+    /**
+     * Wait for the next message
+     * Lanes are tried in weighted turn; a permit guarantees a published message, but a
+     * lane's head may still be mid-offer, so the lanes are retried until one yields it
+     *
+     * @return null if none arrived within the timeout
+     */
+    public Delivery take(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!available.tryAcquire(timeout, unit)) {
+            return null;
+        }
+        while (true) {
+            Delivery delivery = pollLanes();
+            if (delivery != null) {
+                return delivery;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * The delivery was processed (or skipped): forget it
+     */
+    public void ack(Delivery delivery) {
+        if (journal != null) {
+            journal.ack(delivery.seq());
+        }
+    }
+
+    /**
+     * The delivery should be retried (RECONSUME_LATER): redeliver it after the retry delay
+     * of its next attempt, or drop it once max-retry-times is exhausted
+     */
+    public void nack(Delivery delivery) {
+        int attempt = delivery.reconsumeTimes() + 1;
+        if (attempt > maxRetryTimes) {
+            deadLetters.increment();
+            ack(delivery);
+            log.warn("Task message dead-lettered after {} retries: taskId={}, msgId={}",
+                    delivery.reconsumeTimes(), delivery.message().getTaskId(), delivery.msgId());
+            return;
+        }
+
+        long dueMillis = System.currentTimeMillis() + RETRY_DELAYS_MS[Math.min(attempt, RETRY_DELAYS_MS.length) - 1];
+        if (journal != null) {
+            journal.put(delivery.seq(), delivery.message(), attempt, dueMillis);
+        }
+        schedule(new Delivery(delivery.seq(), delivery.message(), attempt, 0), dueMillis);
+
+        log.info("Task message scheduled for retry: taskId={}, attempt={}, delayMs={}",
+                delivery.message().getTaskId(), attempt, dueMillis - System.currentTimeMillis());
+    }
+
+    /**
+     * Hold the message in the timing wheel for delayMs, then deliver it as a new message
+     * with the given attempt number
+     */
+    @Override
+    public void retry(TaskMessage taskMessage, int reconsumeTimes, long delayMs) {
+        long dueMillis = System.currentTimeMillis() + Math.max(0, delayMs);
+        Delivery delivery = new Delivery(sequence.incrementAndGet(), taskMessage, reconsumeTimes, 0);
+        if (journal != null) {
+            journal.put(delivery.seq(), taskMessage, reconsumeTimes, dueMillis);
+        }
+        schedule(delivery, dueMillis);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (timer != null) {
+            timer.interrupt();
+            timer.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private void offerNew(TaskMessage taskMessage, long readyNanos) {
+        Delivery delivery = new Delivery(sequence.incrementAndGet(), taskMessage, 0, readyNanos);
+        if (journal != null) {
+            journal.put(delivery.seq(), taskMessage, 0, 0);
+        }
+        if (!offer(delivery)) {
+            if (journal != null) {
+                journal.ack(delivery.seq());
+            }
+            throw new RejectedExecutionException("In-process task queue full: lane=" + delivery.lane()
+                    + ", capacity=" + lanes[0].capacity());
+        }
+    }
+
+    private boolean offer(Delivery delivery) {
+        if (!lane(delivery.lane()).offer(delivery)) {
+            return false;
+        }
+        available.release();
+        return true;
+    }
+
+    private Delivery pollLanes() {
+        TaskPriority first = turns[(int) (ticket.getAndIncrement() % turns.length)];
+        Delivery delivery = lane(first).poll();
+        if (delivery != null) {
+            return delivery;
+        }
+        for (TaskPriority lane : LANES) {
+            if (lane != first && (delivery = lane(lane).poll()) != null) {
+                return delivery;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private MpmcRingBuffer<Delivery> lane(TaskPriority priority) {
+        return (MpmcRingBuffer<Delivery>) lanes[priority.ordinal()];
+    }
+
+    /**
+     * Hold a delivery until dueMillis, or make it available now if already due
+     * A due time beyond the wheel's range is armed at half the range (leaving room for a
+     * lagging timer) and re-armed from there, never released early
+     */
+    private void schedule(Delivery delivery, long dueMillis) {
+        long now = System.currentTimeMillis();
+        if (dueMillis > now) {
+            synchronized (timerLock) {
+                long armMillis = Math.min(dueMillis, now + retryWheel.rangeMillis() / 2);
+                if (retryWheel.add(new Retry(delivery, dueMillis), armMillis)) {
+                    return;
+                }
+            }
+        }
+        release(delivery);
+    }
+
+    /**
+     * Make a due delivery available; a full lane pushes it back by one tick rather than dropping it
+     */
+    private void release(Delivery delivery) {
+        Delivery ready = new Delivery(delivery.seq(), delivery.message(), delivery.reconsumeTimes(), System.nanoTime());
+        if (!offer(ready)) {
+            long retryAt = System.currentTimeMillis() + TIMER_TICK_MS;
+            synchronized (timerLock) {
+                retryWheel.add(new Retry(ready, retryAt), retryAt);
+            }
+        }
+    }
+
+    private void timerLoop() {
+        List<Retry> due = new ArrayList<>();
+        while (running) {
+            try {
+                Thread.sleep(TIMER_TICK_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            synchronized (timerLock) {
+                retryWheel.advance(System.currentTimeMillis(), due::add);
+            }
+            long now = System.currentTimeMillis();
+            for (Retry retry : due) {
+                if (retry.dueMillis() > now) {
+                    // Armed short of a due time beyond the wheel's range
+                    schedule(retry.delivery(), retry.dueMillis());
+                } else {
+                    release(retry.delivery());
+                }
+            }
+            due.clear();
+        }
+    }
+
+    /**
+     * Longest delay retry() is asked for: the largest max-backoff of any retry policy, or a
+     * circuit breaker park (up to twice the open duration)
+     */
+    private long longestConfiguredDelayMillis() {
+        long longest = 2 * Math.max(1_000, retryProperties.getCircuitBreaker().getOpenDuration().toMillis());
+        longest = Math.max(longest, retryProperties.getPolicy().getMaxBackoff().toMillis());
+        for (String taskType : retryProperties.getPolicies().keySet()) {
+            longest = Math.max(longest, retryProperties.policyFor(taskType).getMaxBackoff().toMillis());
+        }
+        return longest;
+    }
+
+    private int delayedCount() {
+        synchronized (timerLock) {
+            return retryWheel.size();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * JSON Task Message Codec
+ * The original message format, e.g. {"taskId":"...","taskType":"DATA_EXPORT","retryCount":0,"priority":"NORMAL"}
+ * Kept for reading messages produced before the binary codec and for task.message.codec=json
+ */
+public class JsonTaskMessageCodec implements TaskMessageCodec {
+
+    private final ObjectMapper objectMapper;
+
+    public JsonTaskMessageCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public byte[] encode(TaskMessage taskMessage) {
+        try {
+            return objectMapper.writeValueAsBytes(taskMessage);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Failed to encode task message: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public TaskMessage decode(ByteBuffer body) {
+        try {
+            if (body.hasArray()) {
+                return objectMapper.readValue(body.array(), body.arrayOffset() + body.position(),
+                        body.remaining(), TaskMessage.class);
+            }
+            byte[] bytes = new byte[body.remaining()];
+            body.duplicate().get(bytes);
+            return objectMapper.readValue(bytes, TaskMessage.class);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed JSON task message: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.task.service;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Latency Window
+ * Latency distribution over the last N minutes, for percentiles of any window up to N.
+ *
+ * Writers record into an HdrHistogram Recorder (wait-free, no lock on the recording path).
+ * Readers drain it into a ring of per-minute histograms and merge the minutes a window
+ * covers; histograms add losslessly, so a 15m p99 is exact to the configured precision
+ * rather than an average of per-minute percentiles.
+ *
+ * Values recorded just before a minute boundary are attributed to the minute in which they
+ * are drained, so callers drain periodically (see TaskStatistics)
+ */
+public class LatencyWindow {
+
+    private final long highestTrackableValue;
+    private final int significantDigits;
+
+    private final Recorder recorder;
+
+    // Ring of per-minute histograms and the epoch minute each one holds
+    private final Histogram[] minutes;
+    private final long[] minuteOf;
+
+    private Histogram interval;
+
+    public LatencyWindow(int windowMinutes, long highestTrackableValue, int significantDigits) {
+        this.highestTrackableValue = highestTrackableValue;
+        this.significantDigits = significantDigits;
+        this.recorder = new Recorder(highestTrackableValue, significantDigits);
+        this.minutes = new Histogram[windowMinutes];
+        this.minuteOf = new long[windowMinutes];
+        for (int i = 0; i < windowMinutes; i++) {
+            minutes[i] = new Histogram(highestTrackableValue, significantDigits);
+            minuteOf[i] = -1;
+        }
+    }
+
+    /**
+     * Record one value, clamped to [0, highestTrackableValue]
+     */
+    public void record(long value) {
+        recorder.recordValue(Math.min(Math.max(0, value), highestTrackableValue));
+    }
+
+    /**
+     * Move the values recorded since the last drain into the current minute
+     */
+    public synchronized void drain() {
+        interval = recorder.getIntervalHistogram(interval);
+
+        long minute = currentMinute();
+        int index = (int) (minute % minutes.length);
+        if (minuteOf[index] != minute) {
+            minutes[index].reset();
+            minuteOf[index] = minute;
+        }
+        minutes[index].add(interval);
+    }
+
+    /**
+     * Merged distribution of the current minute and the windowMinutes - 1 before it
+     */
+    public synchronized Histogram snapshot(int windowMinutes) {
+        drain();
+
+        Histogram merged = new Histogram(highestTrackableValue, significantDigits);
+        long now = currentMinute();
+        for (int i = 0; i < Math.min(windowMinutes, minutes.length); i++) {
+            long minute = now - i;
+            int index = (int) (minute % minutes.length);
+            if (minuteOf[index] == minute) {
+                merged.add(minutes[index]);
+            }
+        }
+        return merged;
+    }
+
+    private static long currentMinute() {
+        return System.currentTimeMillis() / 60_000;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.task.service;
+
+import org.apache.rocketmq.common.message.Message;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Message Batch Splitter
+ * Splits a list of messages into chunks that fit RocketMQ's batch size limit
+ * (a single batch send must stay below the producer's maxMessageSize)
+ * A chunk also ends where the topic changes, since one batch send targets a single topic;
+ * callers group messages by topic first
+ */
+public class MessageBatchSplitter implements Iterator<List<Message>> {
+
+    /**
+     * Fixed per-message overhead in the broker log (see RocketMQ batch message docs)
+     */
+    private static final int LOG_OVERHEAD = 20;
+
+    private final List<Message> messages;
+    private final int sizeLimit;
+    private int currIndex;
+
+    public MessageBatchSplitter(List<Message> messages, int sizeLimit) {
+        this.messages = messages;
+        this.sizeLimit = sizeLimit;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return currIndex < messages.size();
+    }
+
+    @Override
+    public List<Message> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        int nextIndex = currIndex;
+        int totalSize = 0;
+
+        for (; nextIndex < messages.size(); nextIndex++) {
+            Message message = messages.get(nextIndex);
+            int messageSize = sizeOf(message);
+
+            if (nextIndex > currIndex && !message.getTopic().equals(messages.get(currIndex).getTopic())) {
+                break;
+            }
+
+            // A single oversized message still goes out alone; the broker will reject it on its own
+            if (nextIndex > currIndex && totalSize + messageSize > sizeLimit) {
+                break;
+            }
+            totalSize += messageSize;
+        }
+
+        List<Message> chunk = new ArrayList<>(messages.subList(currIndex, Math.max(nextIndex, currIndex + 1)));
+        currIndex = currIndex + chunk.size();
+        return chunk;
+    }
+
+    private static int sizeOf(Message message) {
+        int size = message.getTopic().length() + message.getBody().length + LOG_OVERHEAD;
+        Map<String, String> properties = message.getProperties();
+        if (properties != null) {
+            for (Map.Entry<String, String> entry : properties.entrySet()) {
+                size += entry.getKey().length() + entry.getValue().length();
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.task.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded Multi-Producer Multi-Consumer Ring Buffer
+ * Lock-free array queue (Vyukov's bounded MPMC design): every slot carries a sequence number
+ * telling producers and consumers whose turn it is, so offer() and poll() each cost one CAS
+ * on the tail / head counter plus plain slot accesses, with no locks and no allocation.
+ *
+ * - slot i starts with sequence i: free for the producer that claims position i
+ * - a producer that claimed position p stores its item and sets the sequence to p + 1
+ * - a consumer that claimed position p takes the item and sets the sequence to p + capacity,
+ *   freeing the slot for the producer one lap later
+ *
+ * Capacity is rounded up to a power of two. Non-blocking: offer() returns false when full
+ * and poll() returns null when empty; callers add their own waiting.
+ */
+public class MpmcRingBuffer<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> items;
+    private final AtomicLongArray sequences;
+
+    // Padded so producers and consumers do not invalidate each other's cache line
+    private final PaddedCounter tail = new PaddedCounter();
+    private final PaddedCounter head = new PaddedCounter();
+
+    public MpmcRingBuffer(int capacity) {
+        if (capacity < 2 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("capacity must be between 2 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = size - 1;
+        this.items = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Add an item
+     *
+     * @return false if the buffer is full
+     */
+    public boolean offer(T item) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items.lazySet(index, item);
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                // Slot still holds the item from one lap ago: full
+                return false;
+            }
+            // Another producer claimed this position: retry with the new tail
+        }
+    }
+
+    /**
+     * Take the oldest item
+     *
+     * @return null if the buffer is empty
+     */
+    public T poll() {
+        while (true) {
+            long position = head.get();
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T item = items.get(index);
+                    items.lazySet(index, null);
+                    sequences.set(index, position + mask + 1);
+                    return item;
+                }
+            } else if (difference < 0) {
+                // Slot not yet published: empty
+                return null;
+            }
+            // Another consumer claimed this position: retry with the new head
+        }
+    }
+
+    /**
+     * Approximate number of items (exact when no offer or poll is in progress)
+     */
+    public int size() {
+        return (int) Math.max(0, Math.min(tail.get() - head.get(), capacity()));
+    }
+
+    @SuppressWarnings("unused")
+    private static final class PaddedCounter extends AtomicLong {
+        private static final long serialVersionUID = 1L;
+
+        private long p1, p2, p3, p4, p5, p6, p7;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskMessage;
+import com.example.task.entity.TaskOutbox;
+import com.example.task.repository.TaskOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbox Relay
+ * Drains task_outbox to task-topic in batches (only when task.submission.dispatch-mode=outbox)
+ *
+ * Each round locks the oldest entries with FOR UPDATE SKIP LOCKED, publishes them with
+ * batch sends and deletes them in the same transaction. If the send fails the transaction
+ * rolls back and the entries are retried on the next poll; if the delete fails after a
+ * successful send the messages go out twice, which the consumer tolerates (at-least-once)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "task.submission.dispatch-mode", havingValue = "outbox")
+public class OutboxRelay {
+
+    private final TaskOutboxRepository taskOutboxRepository;
+    private final TaskService taskService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${task.outbox.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Max batches relayed per poll, so a large backlog drains without waiting for the next tick
+     */
+    @Value("${task.outbox.max-batches-per-poll:20}")
+    private int maxBatchesPerPoll;
+
+    // Relay lag: age of the oldest entry seen in the last round (0 when the outbox is empty)
+    private final AtomicLong lagMillis = new AtomicLong(0);
+
+    private final Counter relayedCounter;
+    private final Counter failedCounter;
+    private final Timer relayTimer;
+
+    public OutboxRelay(TaskOutboxRepository taskOutboxRepository, TaskService taskService,
+                       TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.taskOutboxRepository = taskOutboxRepository;
+        this.taskService = taskService;
+        this.transactionTemplate = transactionTemplate;
+
+        Gauge.builder("task.outbox.lag", lagMillis, AtomicLong::get)
+                .description("Age of the oldest outbox entry seen by the relay")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        this.relayedCounter = Counter.builder("task.outbox.relayed")
+                .description("Outbox entries published to RocketMQ")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("task.outbox.relay.failures")
+                .description("Relay rounds rolled back because the send failed")
+                .register(meterRegistry);
+        this.relayTimer = Timer.builder("task.outbox.relay.batch")
+                .description("Time to lock, publish and delete one outbox batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Poll the outbox and relay pending entries
+     */
+    @Scheduled(fixedDelayString = "${task.outbox.poll-interval-ms:200}")
+    public void poll() {
+        for (int i = 0; i < maxBatchesPerPoll; i++) {
+            Integer relayed;
+            try {
+                relayed = relayTimer.record(() -> transactionTemplate.execute(status -> relayBatch()));
+            } catch (Exception e) {
+                failedCounter.increment();
+                log.error("Outbox relay round failed, will retry on next poll", e);
+                return;
+            }
+
+            // A partial batch means the outbox is drained
+            if (relayed == null || relayed < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private int relayBatch() {
+        List<TaskOutbox> entries = taskOutboxRepository.lockBatch(batchSize);
+        if (entries.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+
+        lagMillis.set(Duration.between(entries.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+
+        List<TaskMessage> messages = entries.stream()
+                .map(entry -> TaskMessage.builder()
+                        .taskId(entry.getTaskId())
+                        .taskType(entry.getTaskType())
+                        .retryCount(0)
+                        .priority(entry.getPriority())
+                        .createdAt(entry.getCreatedAt())
+                        .build())
+                .toList();
+
+        try {
+            taskService.publish(messages);
+        } catch (Exception e) {
+            // Rethrow to roll back the transaction and release the row locks
+            throw new IllegalStateException("Failed to publish outbox batch: " + e.getMessage(), e);
+        }
+
+        taskOutboxRepository.deleteAllByIdInBatch(entries.stream().map(TaskOutbox::getTaskId).toList());
+        relayedCounter.increment(entries.size());
+
+        log.info("Outbox batch relayed: size={}, lagMs={}", entries.size(), lagMillis.get());
+
+        return entries.size();
+    }
+}
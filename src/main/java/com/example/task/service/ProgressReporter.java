@@ -0,0 +1,14 @@
+package com.example.task.service;
+
+/**
+ * Progress Reporter
+ * Handed to task executors to report progress (0-100) while a task runs
+ * Reports are cheap and non-blocking; persistence happens in the background
+ */
+@FunctionalInterface
+public interface ProgressReporter {
+
+    ProgressReporter NOOP = progress -> { };
+
+    void report(int progress);
+}
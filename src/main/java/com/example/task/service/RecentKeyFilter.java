@@ -0,0 +1,120 @@
+package com.example.task.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+
+/**
+ * Recent Key Filter
+ * In-memory front for duplicate detection: a bounded LRU of recent key -> value pairs plus a
+ * Bloom filter of every key added within the retention window
+ *
+ * - getIfPresent(): LRU hit, a known duplicate
+ * - mightContain() false: the key is definitely new on this node, no lookup needed
+ * - mightContain() true: possibly seen (evicted from the LRU, or a false positive); the
+ *   caller checks the source of truth and reports a false positive if the key was not there
+ *
+ * The Bloom filter cannot forget keys, so it is split in two generations rotated every
+ * retention period: a key is remembered for at least one and at most two periods
+ *
+ * Metrics: task.dedup.lookups{filter, result=hit|new|probable}, task.dedup.false.positives{filter}
+ */
+public class RecentKeyFilter {
+
+    private final Cache<String, String> recent;
+    private final long expectedKeys;
+    private final double falsePositiveRate;
+    private final long rotateNanos;
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+    private volatile long rotatedAt;
+
+    private final Counter hits;
+    private final Counter definitelyNew;
+    private final Counter probable;
+    private final Counter falsePositives;
+
+    public RecentKeyFilter(String name, long maxSize, Duration retention, long expectedKeys,
+                           double falsePositiveRate, MeterRegistry meterRegistry) {
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(retention)
+                .build();
+        this.expectedKeys = expectedKeys;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rotateNanos = retention.toNanos();
+        this.current = new BloomFilter(expectedKeys, falsePositiveRate);
+        this.previous = new BloomFilter(expectedKeys, falsePositiveRate);
+        this.rotatedAt = System.nanoTime();
+
+        this.hits = lookupCounter(meterRegistry, name, "hit");
+        this.definitelyNew = lookupCounter(meterRegistry, name, "new");
+        this.probable = lookupCounter(meterRegistry, name, "probable");
+        this.falsePositives = Counter.builder("task.dedup.false.positives")
+                .description("Bloom filter positives the source of truth did not confirm")
+                .tag("filter", name)
+                .register(meterRegistry);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String name, String result) {
+        return Counter.builder("task.dedup.lookups")
+                .description("Duplicate filter lookups by outcome")
+                .tag("filter", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Value of a recently added key, or null
+     */
+    public String getIfPresent(String key) {
+        String value = recent.getIfPresent(key);
+        if (value != null) {
+            hits.increment();
+        }
+        return value;
+    }
+
+    /**
+     * False if the key was definitely not added within the retention window
+     */
+    public boolean mightContain(String key) {
+        rotateIfDue();
+        if (current.mightContain(key) || previous.mightContain(key)) {
+            probable.increment();
+            return true;
+        }
+        definitelyNew.increment();
+        return false;
+    }
+
+    public void put(String key, String value) {
+        rotateIfDue();
+        current.add(key);
+        recent.put(key, value);
+    }
+
+    /**
+     * mightContain() was true but the key was not found in the source of truth
+     */
+    public void recordFalsePositive() {
+        falsePositives.increment();
+    }
+
+    private void rotateIfDue() {
+        if (System.nanoTime() - rotatedAt < rotateNanos) {
+            return;
+        }
+        synchronized (this) {
+            if (System.nanoTime() - rotatedAt >= rotateNanos) {
+                previous = current;
+                current = new BloomFilter(expectedKeys, falsePositiveRate);
+                rotatedAt = System.nanoTime();
+            }
+        }
+    }
+}
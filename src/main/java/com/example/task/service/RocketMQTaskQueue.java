@@ -0,0 +1,201 @@
+package com.example.task.service;
+
+import com.example.task.config.TaskBulkheadProperties;
+import com.example.task.entity.TaskMessage;
+import com.example.task.entity.TaskPriority;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.common.message.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * RocketMQ Task Queue
+ * Default transport (task.queue.transport=rocketmq): task messages are encoded with the
+ * configured codec and sent to the priority lane topic, tagged with the task type bulkhead.
+ * Consumed by TaskConsumer (pooled mode) or VirtualThreadTaskConsumer (virtual mode).
+ *
+ * retry() re-sends the message as a timer message (RocketMQ 5, broker timerWheelEnable) with
+ * the attempt number in a user property, so any delay is honored and the attempt survives the
+ * re-send; a RECONSUME_LATER is still redelivered by the broker from its retry topic with the
+ * messageDelayLevel delays
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "task.queue.transport", havingValue = "rocketmq", matchIfMissing = true)
+public class RocketMQTaskQueue implements TaskQueue {
+
+    /**
+     * User property carrying the attempt number on re-sent messages (the broker only tracks
+     * reconsumeTimes for its own push consumer retries)
+     */
+    public static final String PROPERTY_RECONSUME_TIMES = "TASK_RECONSUME_TIMES";
+
+    private final DefaultMQProducer rocketMQProducer;
+    private final TaskMessageCodec taskMessageCodec;
+    private final TaskBulkheadProperties bulkheadProperties;
+    private final TaskPipelineMetrics pipelineMetrics;
+
+    /**
+     * Base topic; HIGH and LOW priority tasks go to its -high / -low lane topics
+     */
+    @Value("${rocketmq.consumer.topic:task-topic}")
+    private String topic;
+
+    /**
+     * Max bytes per RocketMQ batch send (must stay below the producer's maxMessageSize, 4MB by default)
+     */
+    @Value("${rocketmq.producer.batch-max-bytes:1048576}")
+    private int batchMaxBytes;
+
+    public RocketMQTaskQueue(DefaultMQProducer rocketMQProducer, TaskMessageCodec taskMessageCodec,
+                             TaskBulkheadProperties bulkheadProperties, TaskPipelineMetrics pipelineMetrics) {
+        this.rocketMQProducer = rocketMQProducer;
+        this.taskMessageCodec = taskMessageCodec;
+        this.bulkheadProperties = bulkheadProperties;
+        this.pipelineMetrics = pipelineMetrics;
+    }
+
+    @Override
+    public void enqueue(TaskMessage taskMessage) throws Exception {
+        Message message = toMessage(taskMessage);
+
+        long startNanos = System.nanoTime();
+        try {
+            rocketMQProducer.send(message);
+        } catch (Exception e) {
+            pipelineMetrics.recordSend(TaskPipelineMetrics.SendMode.SYNC, false, System.nanoTime() - startNanos);
+            throw e;
+        }
+        pipelineMetrics.recordSend(TaskPipelineMetrics.SendMode.SYNC, true, System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public CompletableFuture<Void> enqueueAsync(TaskMessage taskMessage) {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        long startNanos = System.nanoTime();
+
+        try {
+            rocketMQProducer.send(toMessage(taskMessage), new SendCallback() {
+                @Override
+                public void onSuccess(SendResult sendResult) {
+                    pipelineMetrics.recordSend(TaskPipelineMetrics.SendMode.ASYNC, true, System.nanoTime() - startNanos);
+                    log.debug("Task message sent: taskId={}, msgId={}", taskMessage.getTaskId(), sendResult.getMsgId());
+                    future.complete(null);
+                }
+
+                @Override
+                public void onException(Throwable e) {
+                    pipelineMetrics.recordSend(TaskPipelineMetrics.SendMode.ASYNC, false, System.nanoTime() - startNanos);
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    @Override
+    public void enqueueAll(List<TaskMessage> taskMessages) throws Exception {
+        List<Message> messages = toLaneOrderedMessages(taskMessages, new ArrayList<>());
+
+        MessageBatchSplitter splitter = new MessageBatchSplitter(messages, batchMaxBytes);
+        while (splitter.hasNext()) {
+            sendBatch(splitter.next());
+        }
+    }
+
+    /**
+     * Messages are grouped by priority lane and split into chunks below batchMaxBytes, and
+     * each chunk is sent with a single batch send
+     */
+    @Override
+    public void enqueueBatch(List<TaskMessage> taskMessages, BiConsumer<List<TaskMessage>, Exception> onFailure) {
+        List<TaskMessage> ordered = new ArrayList<>(taskMessages.size());
+        List<Message> messages;
+        try {
+            messages = toLaneOrderedMessages(taskMessages, ordered);
+        } catch (Exception e) {
+            onFailure.accept(taskMessages, e);
+            return;
+        }
+
+        int offset = 0;
+        MessageBatchSplitter splitter = new MessageBatchSplitter(messages, batchMaxBytes);
+        while (splitter.hasNext()) {
+            List<Message> chunk = splitter.next();
+            List<TaskMessage> chunkMessages = ordered.subList(offset, offset + chunk.size());
+            offset += chunk.size();
+
+            try {
+                sendBatch(chunk);
+            } catch (Exception e) {
+                onFailure.accept(chunkMessages, e);
+            }
+        }
+    }
+
+    @Override
+    public void retry(TaskMessage taskMessage, int reconsumeTimes, long delayMs) throws Exception {
+        Message message = toMessage(taskMessage);
+        message.putUserProperty(PROPERTY_RECONSUME_TIMES, String.valueOf(reconsumeTimes));
+        message.setDelayTimeMs(Math.max(1, delayMs));
+        rocketMQProducer.send(message);
+    }
+
+    private void sendBatch(List<Message> chunk) throws Exception {
+        long startNanos = System.nanoTime();
+        try {
+            rocketMQProducer.send(chunk);
+        } catch (Exception e) {
+            pipelineMetrics.recordSend(TaskPipelineMetrics.SendMode.BATCH, false, System.nanoTime() - startNanos);
+            throw e;
+        }
+        pipelineMetrics.recordSend(TaskPipelineMetrics.SendMode.BATCH, true, System.nanoTime() - startNanos);
+        log.debug("Task message batch sent: size={}", chunk.size());
+    }
+
+    /**
+     * One batch send targets one topic: order messages by lane (HIGH first, stable within a
+     * lane), collecting the ordered task messages alongside
+     */
+    private List<Message> toLaneOrderedMessages(List<TaskMessage> taskMessages, List<TaskMessage> ordered) {
+        taskMessages.stream()
+                .sorted(Comparator.comparing(taskMessage -> TaskPriority.orDefault(taskMessage.getPriority())))
+                .forEach(ordered::add);
+
+        List<Message> messages = new ArrayList<>(ordered.size());
+        for (TaskMessage taskMessage : ordered) {
+            messages.add(toMessage(taskMessage));
+        }
+        return messages;
+    }
+
+    /**
+     * Build the RocketMQ message for a task message
+     */
+    public Message toMessage(TaskMessage taskMessage) {
+        // 1. Encode message body (binary or JSON, see task.message.codec)
+        byte[] body = taskMessageCodec.encode(taskMessage);
+
+        // 2. Create RocketMQ message, keyed by task ID for tracing and transaction checks
+        Message message = new Message(
+                TaskPriority.orDefault(taskMessage.getPriority()).topic(topic),  // Topic (priority lane)
+                bulkheadProperties.tagFor(taskMessage.getTaskType()),  // Tag (task type bulkhead or DEFAULT)
+                body
+        );
+        message.setKeys(taskMessage.getTaskId());
+        return message;
+    }
+}
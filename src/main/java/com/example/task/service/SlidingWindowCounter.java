@@ -0,0 +1,62 @@
+package com.example.task.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sliding Window Counter
+ * Counts events over the last N seconds in a ring of one-second LongAdder buckets, so
+ * concurrent writers neither lock nor contend on one cache line, and a read sums at most
+ * N buckets.
+ *
+ * A bucket is reset when a new second claims it; an increment racing with that reset may be
+ * lost, which is fine for a throughput figure
+ */
+public class SlidingWindowCounter {
+
+    private final int seconds;
+
+    // Epoch second each bucket currently counts
+    private final AtomicLongArray bucketSeconds;
+    private final LongAdder[] buckets;
+
+    public SlidingWindowCounter(int seconds) {
+        this.seconds = seconds;
+        this.bucketSeconds = new AtomicLongArray(seconds);
+        this.buckets = new LongAdder[seconds];
+        for (int i = 0; i < seconds; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void add(long count) {
+        long now = currentSecond();
+        int index = (int) (now % seconds);
+
+        long bucketSecond = bucketSeconds.get(index);
+        if (bucketSecond < now && bucketSeconds.compareAndSet(index, bucketSecond, now)) {
+            buckets[index].reset();
+        }
+        buckets[index].add(count);
+    }
+
+    /**
+     * Events in the last windowSeconds seconds, including the current one
+     */
+    public long sum(int windowSeconds) {
+        long now = currentSecond();
+        long total = 0;
+        for (int i = 0; i < Math.min(windowSeconds, seconds); i++) {
+            long second = now - i;
+            int index = (int) (second % seconds);
+            if (bucketSeconds.get(index) == second) {
+                total += buckets[index].sum();
+            }
+        }
+        return total;
+    }
+
+    private static long currentSecond() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
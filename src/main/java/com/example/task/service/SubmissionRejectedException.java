@@ -0,0 +1,20 @@
+package com.example.task.service;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a submission cannot be accepted right now (e.g. the async send window is full)
+ * The controller maps it to 429 Too Many Requests with a Retry-After header
+ */
+@Getter
+public class SubmissionRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int retryAfterSeconds;
+
+    public SubmissionRejectedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.task.service;
+
+import com.example.task.config.TaskArchiveProperties;
+import com.example.task.repository.TaskArchiveRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Task Archiver
+ * Keeps the hot tasks table at a constant size: finished tasks (SUCCESS, FAILED, CANCELLED,
+ * TIMED_OUT) that finished longer ago than their type's retention are moved to tasks_archive
+ * (except FAILED tasks with a dead letter still waiting for replay), and archived
+ * tasks older than task.archive.archive-retention are deleted.
+ *
+ * Work is done in small throttled batches so it never causes a lock storm:
+ * - each batch locks at most batch-size rows (FOR UPDATE SKIP LOCKED, so archivers on several
+ *   nodes take disjoint batches and never wait on live transactions), copies them with one
+ *   INSERT ... SELECT and deletes them, in one short transaction
+ * - batches are separated by pause-ms, and a run stops after max-batches-per-run
+ *
+ * Types with their own retention are archived one type at a time (idx_task_type_created_at),
+ * all other types together (idx_created_at_id). Once a partition of tasks has been emptied,
+ * TaskPartitionManager drops it.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "task.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class TaskArchiver {
+
+    private final TaskArchiveRepository archiveRepository;
+    private final TaskArchiveProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter archivedCounter;
+    private final Counter purgedCounter;
+    private final Timer batchTimer;
+
+    public TaskArchiver(TaskArchiveRepository archiveRepository, TaskArchiveProperties properties,
+                        TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.archiveRepository = archiveRepository;
+        this.properties = properties;
+        this.transactionTemplate = transactionTemplate;
+
+        this.archivedCounter = Counter.builder("task.archive.archived")
+                .description("Finished tasks moved from tasks to tasks_archive")
+                .register(meterRegistry);
+        this.purgedCounter = Counter.builder("task.archive.purged")
+                .description("Archived tasks deleted after the archive retention")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("task.archive.batch")
+                .description("Time to lock, copy and delete one archive batch")
+                .register(meterRegistry);
+    }
+
+    /**
+     * One archive run: every type with its own retention, then all other types, then the
+     * archive purge, within max-batches-per-run batches in total
+     */
+    @Scheduled(fixedDelayString = "${task.archive.interval-ms:60000}")
+    public void run() {
+        try {
+            int budget = properties.getMaxBatchesPerRun();
+            int archived = 0;
+            LocalDateTime now = LocalDateTime.now();
+
+            // 1. Types with their own retention
+            Set<String> ownRetention = properties.getRetentions().keySet();
+            for (String taskType : ownRetention) {
+                LocalDateTime cutoff = now.minus(properties.retentionFor(taskType));
+                BatchResult result = archive(taskType, null, cutoff, budget);
+                archived += result.rows();
+                budget -= result.batches();
+            }
+
+            // 2. All other types (default retention)
+            BatchResult result = archive(null, ownRetention, now.minus(properties.getRetention()), budget);
+            archived += result.rows();
+            budget -= result.batches();
+
+            // 3. Archive purge
+            int purged = purge(now.minus(properties.getArchiveRetention()), budget);
+
+            if (archived > 0 || purged > 0) {
+                log.info("Task archive run: archived={}, purged={}", archived, purged);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Task archive run failed, will retry on next run", e);
+        }
+    }
+
+    private record BatchResult(int batches, int rows) {
+    }
+
+    private BatchResult archive(String taskType, Set<String> excludeTaskTypes, LocalDateTime finishedBefore,
+                                int maxBatches) throws InterruptedException {
+        int batches = 0;
+        int rows = 0;
+        while (batches < maxBatches) {
+            Integer moved = batchTimer.record(() -> transactionTemplate.execute(status -> {
+                List<String> ids = archiveRepository.lockArchivable(taskType, excludeTaskTypes, finishedBefore,
+                        properties.getBatchSize());
+                return ids.isEmpty() ? 0 : archiveRepository.moveToArchive(ids, LocalDateTime.now());
+            }));
+            batches++;
+            if (moved == null || moved == 0) {
+                break;
+            }
+            rows += moved;
+            archivedCounter.increment(moved);
+            if (moved < properties.getBatchSize()) {
+                break;
+            }
+            Thread.sleep(properties.getPauseMs());
+        }
+        return new BatchResult(batches, rows);
+    }
+
+    private int purge(LocalDateTime archivedBefore, int maxBatches) throws InterruptedException {
+        int purged = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            int deleted = archiveRepository.deleteArchivedBefore(archivedBefore, properties.getBatchSize());
+            purged += deleted;
+            purgedCounter.increment(deleted);
+            if (deleted < properties.getBatchSize()) {
+                break;
+            }
+            Thread.sleep(properties.getPauseMs());
+        }
+        return purged;
+    }
+}
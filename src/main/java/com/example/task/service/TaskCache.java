@@ -0,0 +1,121 @@
+package com.example.task.service;
+
+import com.example.task.entity.Task;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.common.message.Message;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Task Cache
+ * Bounded in-process near cache of task snapshots for status queries (Caffeine, W-TinyLFU eviction)
+ *
+ * Finished tasks (SUCCESS/FAILED/CANCELLED/TIMED_OUT) rarely change and are kept for terminal-ttl; in-flight
+ * tasks only for active-ttl, which bounds staleness when an update happens on another node.
+ * Lifecycle transitions invalidate the entry after their UPDATE commits; with
+ * broadcast enabled the invalidation is also published to all nodes via a RocketMQ
+ * broadcasting topic (see TaskCacheInvalidationListener)
+ *
+ * Cached tasks are shared snapshots and must not be modified by callers
+ */
+@Slf4j
+@Component
+public class TaskCache {
+
+    public static final String INVALIDATE_TAG = "INVALIDATE";
+
+    private final Cache<String, Task> cache;
+    private final DefaultMQProducer rocketMQProducer;
+
+    @Value("${task.cache.broadcast.enabled:false}")
+    private boolean broadcastEnabled;
+
+    @Value("${task.cache.broadcast.topic:task-broadcast-topic}")
+    private String broadcastTopic;
+
+    public TaskCache(ObjectProvider<DefaultMQProducer> rocketMQProducer,
+                     MeterRegistry meterRegistry,
+                     @Value("${task.cache.max-size:100000}") long maxSize,
+                     @Value("${task.cache.active-ttl-seconds:2}") long activeTtlSeconds,
+                     @Value("${task.cache.terminal-ttl-seconds:600}") long terminalTtlSeconds) {
+        // No producer with the in-process transport (single node: nothing to broadcast to)
+        this.rocketMQProducer = rocketMQProducer.getIfAvailable();
+
+        long activeTtlNanos = TimeUnit.SECONDS.toNanos(activeTtlSeconds);
+        long terminalTtlNanos = TimeUnit.SECONDS.toNanos(terminalTtlSeconds);
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, Task>() {
+                    @Override
+                    public long expireAfterCreate(String key, Task task, long currentTime) {
+                        return isTerminal(task) ? terminalTtlNanos : activeTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Task task, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, task, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Task task, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+
+        // Hit/miss/eviction stats as cache.gets, cache.evictions, ... tagged cache=task-near-cache
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "task-near-cache");
+    }
+
+    /**
+     * Get a task snapshot, loading it on a miss
+     * The load runs atomically per key, so an invalidation racing with it waits for the
+     * load to finish and then removes the possibly stale value
+     */
+    public Task get(String taskId, Function<String, Task> loader) {
+        return cache.get(taskId, loader);
+    }
+
+    /**
+     * Invalidate a task on this node and, if enabled, on all other nodes
+     * Must be called after the change is committed
+     */
+    public void invalidate(String taskId) {
+        cache.invalidate(taskId);
+
+        if (broadcastEnabled && rocketMQProducer != null) {
+            try {
+                Message message = new Message(broadcastTopic, INVALIDATE_TAG, taskId.getBytes(StandardCharsets.UTF_8));
+                message.setKeys(taskId);
+                rocketMQProducer.sendOneway(message);
+            } catch (Exception e) {
+                // Remote entries still expire after their TTL
+                log.warn("Failed to broadcast cache invalidation: taskId={}", taskId, e);
+            }
+        }
+    }
+
+    /**
+     * Invalidate a task on this node only (invalidation received from another node)
+     */
+    public void invalidateLocal(String taskId) {
+        cache.invalidate(taskId);
+    }
+
+    private static boolean isTerminal(Task task) {
+        return task.getStatus().isTerminal();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.task.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.common.message.Message;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Task Cancellation Service
+ * Cancels a task in three places:
+ * 1. the row (conditional UPDATE to CANCELLED), so queued deliveries can no longer move it to RUNNING
+ * 2. this node's execution registry, interrupting the worker if the task runs here
+ * 3. every other node, via a CANCEL message on the broadcasting topic (TaskCancellationListener)
+ *
+ * ExecutionWatchdog also stops local executions whose row is no longer RUNNING, which covers
+ * a lost broadcast
+ */
+@Slf4j
+@Service
+public class TaskCancellationService {
+
+    public static final String CANCEL_TAG = "CANCEL";
+
+    private final TaskService taskService;
+    private final TaskExecutionRegistry taskExecutionRegistry;
+    private final DefaultMQProducer rocketMQProducer;
+
+    @Value("${task.cancellation.broadcast.enabled:true}")
+    private boolean broadcastEnabled;
+
+    @Value("${task.cache.broadcast.topic:task-broadcast-topic}")
+    private String broadcastTopic;
+
+    public TaskCancellationService(TaskService taskService, TaskExecutionRegistry taskExecutionRegistry,
+                                   ObjectProvider<DefaultMQProducer> rocketMQProducer) {
+        this.taskService = taskService;
+        this.taskExecutionRegistry = taskExecutionRegistry;
+        // No producer with the in-process transport (single node: nothing to broadcast to)
+        this.rocketMQProducer = rocketMQProducer.getIfAvailable();
+    }
+
+    /**
+     * Cancel a task that has not finished yet
+     *
+     * @return false if the task does not exist or was already finished
+     */
+    public boolean cancel(String taskId) {
+        if (!taskService.markAsCancelled(taskId)) {
+            return false;
+        }
+
+        taskExecutionRegistry.cancel(taskId);
+
+        if (broadcastEnabled && rocketMQProducer != null) {
+            try {
+                Message message = new Message(broadcastTopic, CANCEL_TAG, taskId.getBytes(StandardCharsets.UTF_8));
+                rocketMQProducer.sendOneway(message);
+            } catch (Exception e) {
+                // The watchdog's status reconciliation still stops the execution
+                log.warn("Failed to broadcast cancellation: taskId={}", taskId, e);
+            }
+        }
+
+        log.info("Task cancelled: taskId={}", taskId);
+        return true;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskChangeEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Task Change Notifier
+ * In-process notification bus for task changes, fed by the TaskService lifecycle methods
+ * and the progress buffer, consumed by long-poll and SSE status watchers
+ *
+ * Listeners run on the publishing thread (a consumer or executor thread), so they must be
+ * quick and must not block; publishing to a task nobody watches is a single map lookup
+ */
+@Slf4j
+@Component
+public class TaskChangeNotifier {
+
+    private final Map<String, List<Consumer<TaskChangeEvent>>> listeners = new ConcurrentHashMap<>();
+
+    /**
+     * Subscribe to changes of one task
+     *
+     * @return handle that removes the subscription
+     */
+    public Runnable subscribe(String taskId, Consumer<TaskChangeEvent> listener) {
+        // Added inside compute, like the removal below: a concurrent unsubscribe cannot drop
+        // the list between looking it up and adding to it
+        listeners.compute(taskId, (id, list) -> {
+            List<Consumer<TaskChangeEvent>> subscribers = list != null ? list : new CopyOnWriteArrayList<>();
+            subscribers.add(listener);
+            return subscribers;
+        });
+
+        return () -> listeners.computeIfPresent(taskId, (id, list) -> {
+            list.remove(listener);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    /**
+     * Publish a change to the task's subscribers
+     */
+    public void publish(TaskChangeEvent event) {
+        List<Consumer<TaskChangeEvent>> subscribers = listeners.get(event.getTaskId());
+        if (subscribers == null) {
+            return;
+        }
+
+        for (Consumer<TaskChangeEvent> subscriber : subscribers) {
+            try {
+                subscriber.accept(event);
+            } catch (Exception e) {
+                log.warn("Task change listener failed: taskId={}", event.getTaskId(), e);
+            }
+        }
+    }
+
+    /**
+     * Number of tasks with at least one watcher
+     */
+    public int getWatchedTasks() {
+        return listeners.size();
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskCheckpoint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Task Checkpoint Store
+ * Write-behind store for task checkpoints (table task_checkpoints), built like
+ * TaskProgressBuffer: executors save into a last-value-wins map and a scheduled flusher
+ * upserts only the latest checkpoint of each dirty task in one JDBC batch
+ *
+ * - a failed attempt writes its own checkpoint before the message is nacked, so the
+ *   redelivery (on any node) resumes from the last completed step
+ * - checkpoints are only read for redeliveries, never for a first attempt
+ * - checkpoints are deleted in batches once the task succeeded, was cancelled, timed out or
+ *   was dead-lettered, and right away when a failed task is requeued (a replay starts over)
+ */
+@Slf4j
+@Component
+public class TaskCheckpointStore {
+
+    private static final String UPSERT_SQL =
+            "INSERT INTO task_checkpoints (task_id, step, state, updated_at) VALUES (?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE step = VALUES(step), state = VALUES(state), updated_at = VALUES(updated_at)";
+
+    private static final String SELECT_SQL =
+            "SELECT task_id, step, state FROM task_checkpoints WHERE task_id = ?";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM task_checkpoints WHERE task_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Latest checkpoint per task running on this node
+    private final Map<String, TaskCheckpoint> latest = new ConcurrentHashMap<>();
+
+    // Checkpoints not yet written to the database
+    private final Map<String, TaskCheckpoint> dirty = new ConcurrentHashMap<>();
+
+    // Finished tasks whose row is to be deleted
+    private final Set<String> finished = ConcurrentHashMap.newKeySet();
+
+    @Value("${task.checkpoint.flush-max-batch:1000}")
+    private int flushMaxBatch;
+
+    private final Counter savedCounter;
+    private final Counter writtenCounter;
+    private final Counter resumedCounter;
+
+    public TaskCheckpointStore(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        this.savedCounter = Counter.builder("task.checkpoint.saved")
+                .description("Checkpoints saved by executors")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("task.checkpoint.written")
+                .description("Checkpoint rows written to the database")
+                .register(meterRegistry);
+        this.resumedCounter = Counter.builder("task.checkpoint.resumed")
+                .description("Redelivered tasks resumed from a checkpoint")
+                .register(meterRegistry);
+        Gauge.builder("task.checkpoint.dirty", dirty, Map::size)
+                .description("Tasks with a checkpoint not yet flushed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Save a checkpoint (last value wins)
+     */
+    public void save(TaskCheckpoint checkpoint) {
+        latest.put(checkpoint.getTaskId(), checkpoint);
+        dirty.put(checkpoint.getTaskId(), checkpoint);
+        savedCounter.increment();
+    }
+
+    /**
+     * Last checkpoint of a task, or null if it has none
+     * Served from memory when the previous attempt ran on this node
+     */
+    public TaskCheckpoint load(String taskId) {
+        TaskCheckpoint checkpoint = latest.get(taskId);
+        if (checkpoint == null) {
+            List<TaskCheckpoint> rows = jdbcTemplate.query(SELECT_SQL, (rs, rowNum) ->
+                    new TaskCheckpoint(rs.getString("task_id"), rs.getInt("step"), rs.getBytes("state")), taskId);
+            checkpoint = rows.isEmpty() ? null : rows.get(0);
+            if (checkpoint != null) {
+                latest.putIfAbsent(taskId, checkpoint);
+            }
+        }
+
+        if (checkpoint != null) {
+            resumedCounter.increment();
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Write a task's pending checkpoint now and drop it from memory: the attempt failed,
+     * its message is about to be nacked and the retry (on any node) reads it back
+     */
+    public void persist(String taskId) {
+        latest.remove(taskId);
+        TaskCheckpoint checkpoint = dirty.remove(taskId);
+        if (checkpoint == null) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.update(UPSERT_SQL, toRow(checkpoint));
+            writtenCounter.increment();
+        } catch (Exception e) {
+            // The retry resumes from an older checkpoint (or from the start)
+            log.warn("Failed to write checkpoint: taskId={}", taskId, e);
+        }
+    }
+
+    /**
+     * Forget a task that finished for good and delete its checkpoint with the next flush
+     * The row is deleted even when this node holds nothing for the task: a failed attempt
+     * already persisted and forgot it (dead letter after the last retry)
+     */
+    public void discard(String taskId) {
+        dirty.remove(taskId);
+        latest.remove(taskId);
+        finished.add(taskId);
+    }
+
+    /**
+     * Delete the checkpoints of tasks that start over (requeued failed tasks) now, in the
+     * caller's transaction, so their next run cannot resume from a stale step
+     */
+    public void deleteAll(Collection<String> taskIds) {
+        List<Object[]> batch = new ArrayList<>(taskIds.size());
+        for (String taskId : taskIds) {
+            dirty.remove(taskId);
+            latest.remove(taskId);
+            batch.add(new Object[]{taskId});
+        }
+        jdbcTemplate.batchUpdate(DELETE_SQL, batch);
+    }
+
+    /**
+     * Write dirty checkpoints and delete finished ones in batches
+     * Deletes run after upserts, so a checkpoint flushed concurrently with discard() does not survive
+     */
+    @Scheduled(fixedDelayString = "${task.checkpoint.flush-interval-ms:1000}")
+    public void flush() {
+        while (!dirty.isEmpty()) {
+            List<Object[]> batch = new ArrayList<>(Math.min(dirty.size(), flushMaxBatch));
+            for (Map.Entry<String, TaskCheckpoint> entry : dirty.entrySet()) {
+                // Only take the value we are about to write; a newer checkpoint stays dirty
+                if (dirty.remove(entry.getKey(), entry.getValue())) {
+                    batch.add(toRow(entry.getValue()));
+                }
+                if (batch.size() >= flushMaxBatch) {
+                    break;
+                }
+            }
+
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            try {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+                writtenCounter.increment(batch.size());
+                log.debug("Task checkpoints flushed: rows={}", batch.size());
+            } catch (Exception e) {
+                // A later checkpoint or the failure flush supersedes it
+                log.warn("Failed to flush task checkpoints: rows={}", batch.size(), e);
+                break;
+            }
+
+            if (batch.size() < flushMaxBatch) {
+                break;
+            }
+        }
+
+        deleteFinished();
+    }
+
+    private void deleteFinished() {
+        if (finished.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>();
+        for (String taskId : finished) {
+            if (finished.remove(taskId)) {
+                batch.add(new Object[]{taskId});
+            }
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(DELETE_SQL, batch);
+        } catch (Exception e) {
+            log.warn("Failed to delete finished checkpoints: rows={}", batch.size(), e);
+        }
+    }
+
+    private static Object[] toRow(TaskCheckpoint checkpoint) {
+        return new Object[]{checkpoint.getTaskId(), checkpoint.getStep(), checkpoint.getState(),
+                Timestamp.valueOf(LocalDateTime.now())};
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.task.service;
+
+import com.example.task.config.TaskRetryProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Task Circuit Breaker
+ * One breaker per task type (task.retry.circuit-breaker.*), so a type that keeps failing
+ * stops taking worker capacity from the healthy ones:
+ *
+ * <pre>
+ * CLOSED --failure rate >= threshold over window-seconds (at least minimum-calls)--> OPEN
+ * OPEN --open-duration elapsed--> HALF_OPEN: up to half-open-probes executions let through
+ * HALF_OPEN --all probes succeeded--> CLOSED (fresh window)
+ * HALF_OPEN --a probe failed--> OPEN
+ * </pre>
+ *
+ * While a type is not admitted, TaskMessageProcessor parks its messages: they go back to the
+ * queue (parkDelayMs) without executing and without using up a retry attempt.
+ *
+ * Each admission carries the phase (CLOSED window or HALF_OPEN round) it was granted in, and
+ * its outcome only counts towards that phase: a slow execution admitted while CLOSED that
+ * finishes during HALF_OPEN is not taken for a probe.
+ *
+ * Outcomes are counted in SlidingWindowCounters, so recording takes no lock; state changes
+ * are rare and synchronized on the breaker. Task types come from clients: beyond
+ * task.stats.max-task-types types share one breaker
+ */
+@Slf4j
+@Component
+public class TaskCircuitBreaker {
+
+    /**
+     * Result of an admitted execution
+     * IGNORED: the delivery was skipped (duplicate, cancelled), which says nothing about the type
+     */
+    public enum Outcome {
+        SUCCESS, FAILURE, IGNORED
+    }
+
+    public enum State {
+        CLOSED, HALF_OPEN, OPEN
+    }
+
+    /**
+     * An admitted execution, handed back to record() with its outcome
+     */
+    public static final class Permit {
+
+        private static final Permit UNTRACKED = new Permit(null, null);
+
+        private final Breaker breaker;
+        private final Phase phase;
+
+        private Permit(Breaker breaker, Phase phase) {
+            this.breaker = breaker;
+            this.phase = phase;
+        }
+    }
+
+    /**
+     * One stretch of a breaker's state: a new Phase starts on every transition, so outcomes
+     * of admissions from an earlier phase are recognised and dropped
+     */
+    private static final class Phase {
+
+        private final State state;
+
+        // CLOSED: outcomes over the window
+        private final SlidingWindowCounter calls;
+        private final SlidingWindowCounter failures;
+
+        // HALF_OPEN: probes not handed out yet / probes still to succeed
+        private final AtomicInteger probePermits;
+        private final AtomicInteger probesPending;
+
+        private Phase(State state, int windowSeconds, int probes) {
+            this.state = state;
+            this.calls = state == State.CLOSED ? new SlidingWindowCounter(windowSeconds) : null;
+            this.failures = state == State.CLOSED ? new SlidingWindowCounter(windowSeconds) : null;
+            this.probePermits = new AtomicInteger(probes);
+            this.probesPending = new AtomicInteger(probes);
+        }
+    }
+
+    private final TaskRetryProperties.CircuitBreaker config;
+    private final MeterRegistry meterRegistry;
+    private final int maxTaskTypes;
+
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+    public TaskCircuitBreaker(TaskRetryProperties properties, MeterRegistry meterRegistry,
+                              @Value("${task.stats.max-task-types:100}") int maxTaskTypes) {
+        this.config = properties.getCircuitBreaker();
+        this.meterRegistry = meterRegistry;
+        this.maxTaskTypes = maxTaskTypes;
+    }
+
+    /**
+     * May a message of this type be executed now
+     * Every admitted call must be followed by exactly one record() with its permit
+     *
+     * @return the permit, or null if the type is not admitted
+     */
+    public Permit tryAcquire(String taskType) {
+        return config.isEnabled() ? breakerFor(taskType).tryAcquire() : Permit.UNTRACKED;
+    }
+
+    public void record(Permit permit, Outcome outcome) {
+        if (permit.breaker != null) {
+            permit.breaker.record(permit.phase, outcome);
+        }
+    }
+
+    /**
+     * How long to park a message that was not admitted: until the breaker lets probes
+     * through (one open-duration while the probes run), plus up to the same again at random
+     * so parked messages do not all return at once
+     */
+    public long parkDelayMs(String taskType) {
+        long remaining = breakerFor(taskType).remainingOpenMs();
+        long base = Math.max(1_000, remaining > 0 ? remaining : config.getOpenDuration().toMillis());
+        return base + ThreadLocalRandom.current().nextLong(base);
+    }
+
+    private Breaker breakerFor(String taskType) {
+        String key = taskType != null ? taskType : TaskStatistics.OTHER_TYPE;
+        Breaker breaker = breakers.get(key);
+        if (breaker != null) {
+            return breaker;
+        }
+        if (breakers.size() >= maxTaskTypes) {
+            key = TaskStatistics.OTHER_TYPE;
+        }
+        return breakers.computeIfAbsent(key, Breaker::new);
+    }
+
+    private final class Breaker {
+
+        private final String taskType;
+        private final Counter parked;
+
+        private volatile Phase phase = newPhase(State.CLOSED);
+        private volatile long openedAtMillis;
+
+        Breaker(String taskType) {
+            this.taskType = taskType;
+
+            Gauge.builder("task.circuit.state", this, breaker -> breaker.phase.state.ordinal())
+                    .description("Circuit breaker state by task type (0 closed, 1 half-open, 2 open)")
+                    .tag("type", taskType)
+                    .register(meterRegistry);
+            this.parked = Counter.builder("task.circuit.parked")
+                    .description("Messages parked because their task type's breaker was not closed")
+                    .tag("type", taskType)
+                    .register(meterRegistry);
+        }
+
+        Permit tryAcquire() {
+            Phase current = phase;
+            if (current.state == State.OPEN && remainingOpenMs() <= 0) {
+                halfOpen();
+                current = phase;
+            }
+
+            boolean admitted = switch (current.state) {
+                case CLOSED -> true;
+                case HALF_OPEN -> current.probePermits.getAndUpdate(n -> Math.max(0, n - 1)) > 0;
+                case OPEN -> false;
+            };
+            if (!admitted) {
+                parked.increment();
+                return null;
+            }
+            return new Permit(this, current);
+        }
+
+        void record(Phase admittedIn, Outcome outcome) {
+            if (admittedIn != phase) {
+                // Admitted before the last transition (e.g. while CLOSED, finishing during
+                // HALF_OPEN): says nothing about the current phase
+                return;
+            }
+            if (admittedIn.state == State.HALF_OPEN) {
+                switch (outcome) {
+                    case SUCCESS -> {
+                        if (admittedIn.probesPending.decrementAndGet() == 0) {
+                            close(admittedIn);
+                        }
+                    }
+                    case FAILURE -> open(admittedIn, "probe failed");
+                    case IGNORED -> admittedIn.probePermits.incrementAndGet();
+                }
+                return;
+            }
+            if (outcome == Outcome.IGNORED) {
+                return;
+            }
+
+            admittedIn.calls.add(1);
+            if (outcome == Outcome.FAILURE) {
+                admittedIn.failures.add(1);
+                long callCount = admittedIn.calls.sum(config.getWindowSeconds());
+                if (callCount >= config.getMinimumCalls()) {
+                    double failureRate = (double) admittedIn.failures.sum(config.getWindowSeconds()) / callCount;
+                    if (failureRate >= config.getFailureRateThreshold()) {
+                        open(admittedIn, String.format("failure rate %.2f over %d executions", failureRate, callCount));
+                    }
+                }
+            }
+        }
+
+        long remainingOpenMs() {
+            return phase.state == State.OPEN
+                    ? openedAtMillis + config.getOpenDuration().toMillis() - System.currentTimeMillis()
+                    : 0;
+        }
+
+        private synchronized void open(Phase from, String reason) {
+            if (phase != from) {
+                return;
+            }
+            openedAtMillis = System.currentTimeMillis();
+            phase = newPhase(State.OPEN);
+            log.warn("Circuit breaker opened, parking task type: type={}, reason={}, openFor={}",
+                    taskType, reason, config.getOpenDuration());
+        }
+
+        private synchronized void halfOpen() {
+            if (phase.state != State.OPEN || remainingOpenMs() > 0) {
+                return;
+            }
+            phase = newPhase(State.HALF_OPEN);
+            log.info("Circuit breaker half-open, probing task type: type={}, probes={}",
+                    taskType, phase.probePermits.get());
+        }
+
+        private synchronized void close(Phase from) {
+            if (phase != from) {
+                return;
+            }
+            // Fresh window
+            phase = newPhase(State.CLOSED);
+            log.info("Circuit breaker closed, task type recovered: type={}", taskType);
+        }
+
+        private Phase newPhase(State state) {
+            int probes = state == State.HALF_OPEN ? Math.max(1, config.getHalfOpenProbes()) : 0;
+            return new Phase(state, config.getWindowSeconds(), probes);
+        }
+    }
+}
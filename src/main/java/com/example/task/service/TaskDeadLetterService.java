@@ -0,0 +1,172 @@
+package com.example.task.service;
+
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskDeadLetter;
+import com.example.task.entity.TaskDispatchMode;
+import com.example.task.entity.TaskMessage;
+import com.example.task.entity.TaskPriority;
+import com.example.task.repository.TaskDeadLetterRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Task Dead Letter Service
+ * Store of tasks that are not retried any more (task_dead_letters), and their replay:
+ *
+ * Replay (POST /tasks/dead-letter/replay), in one transaction:
+ * 1. Lock the selected dead letters (by id, or the oldest of a type / of any type; SKIP LOCKED)
+ * 2. Reset their tasks from FAILED to PENDING (TaskService.requeueFailed; in OUTBOX mode the
+ *    outbox entries are written in the same transaction)
+ * 3. Delete the dead letters of the requeued tasks
+ * Then the requeued tasks are sent to the queue (except in OUTBOX mode, where the relay does).
+ * A dead letter whose task is no longer FAILED (e.g. cancelled meanwhile) is skipped and kept;
+ * TaskArchiver keeps FAILED tasks in tasks as long as they have a dead letter
+ */
+@Slf4j
+@Service
+public class TaskDeadLetterService {
+
+    /**
+     * Outcome of a replay
+     */
+    public record ReplayResult(List<String> requeued, List<String> skipped) {
+    }
+
+    private final TaskDeadLetterRepository deadLetterRepository;
+    private final TaskService taskService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${task.submission.dispatch-mode:direct}")
+    private TaskDispatchMode dispatchMode;
+
+    @Value("${task.stats.max-task-types:100}")
+    private int maxTaskTypes;
+
+    private final Counter replayedCounter;
+
+    // "<type>|<reason>" -> dead-lettered counter
+    private final Map<String, Counter> deadLetterCounters = new ConcurrentHashMap<>();
+
+    public TaskDeadLetterService(TaskDeadLetterRepository deadLetterRepository, TaskService taskService,
+                                 TransactionTemplate transactionTemplate, MeterRegistry meterRegistry) {
+        this.deadLetterRepository = deadLetterRepository;
+        this.taskService = taskService;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+
+        this.replayedCounter = Counter.builder("task.dead.letter.replayed")
+                .description("Dead-lettered tasks requeued by a replay")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a task that is not retried any more
+     * Called after the task row was marked FAILED
+     *
+     * @param attempts executions that failed
+     */
+    public void deadLetter(TaskMessage taskMessage, int attempts, TaskRetryService.DeadLetterReason reason,
+                           Throwable failure) {
+        deadLetterRepository.save(TaskDeadLetter.builder()
+                .taskId(taskMessage.getTaskId())
+                .taskType(taskMessage.getTaskType())
+                .priority(TaskPriority.orDefault(taskMessage.getPriority()))
+                .attempts(attempts)
+                .reason(reason.name())
+                .errorClass(failure.getClass().getName())
+                .errorMessage(failure.getMessage())
+                .createdAt(LocalDateTime.now())
+                .build());
+        counterFor(taskMessage.getTaskType(), reason).increment();
+
+        log.warn("Task dead-lettered: taskId={}, taskType={}, attempts={}, reason={}",
+                taskMessage.getTaskId(), taskMessage.getTaskType(), attempts, reason);
+    }
+
+    /**
+     * Newest dead letters, optionally of one task type
+     */
+    public List<TaskDeadLetter> list(String taskType, int limit) {
+        return taskType != null
+                ? deadLetterRepository.findByTaskTypeOrderByCreatedAtDesc(taskType, Limit.of(limit))
+                : deadLetterRepository.findAllByOrderByCreatedAtDesc(Limit.of(limit));
+    }
+
+    /**
+     * Requeue dead-lettered tasks
+     *
+     * @param taskIds  these tasks (null to select by taskType / age instead)
+     * @param taskType the oldest dead letters of this type (null for any type; ignored with taskIds)
+     * @param limit    max dead letters selected when not given taskIds
+     */
+    public ReplayResult replay(List<String> taskIds, String taskType, int limit) {
+        List<Task> requeued = new ArrayList<>();
+        List<String> skipped = new ArrayList<>();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // 1. Lock the dead letters
+            List<TaskDeadLetter> deadLetters;
+            if (taskIds != null && !taskIds.isEmpty()) {
+                deadLetters = deadLetterRepository.lockByIds(taskIds);
+            } else if (taskType != null) {
+                deadLetters = deadLetterRepository.lockOldestByTaskType(taskType, limit);
+            } else {
+                deadLetters = deadLetterRepository.lockOldest(limit);
+            }
+            if (deadLetters.isEmpty()) {
+                return;
+            }
+
+            // 2. Requeue their tasks
+            List<String> ids = deadLetters.stream().map(TaskDeadLetter::getTaskId).toList();
+            requeued.addAll(taskService.requeueFailed(ids));
+
+            // 3. Delete the dead letters of the requeued tasks
+            Set<String> requeuedIds = requeued.stream().map(Task::getId).collect(Collectors.toSet());
+            deadLetterRepository.deleteAllByIdInBatch(requeuedIds);
+            ids.stream().filter(id -> !requeuedIds.contains(id)).forEach(skipped::add);
+        });
+
+        // OUTBOX: the relay publishes the entries written with the requeue
+        if (dispatchMode != TaskDispatchMode.OUTBOX && !requeued.isEmpty()) {
+            taskService.sendBatchToQueue(requeued);
+        }
+
+        replayedCounter.increment(requeued.size());
+        log.info("Dead letters replayed: requeued={}, skipped={}", requeued.size(), skipped.size());
+
+        return new ReplayResult(requeued.stream().map(Task::getId).toList(), skipped);
+    }
+
+    private Counter counterFor(String taskType, TaskRetryService.DeadLetterReason reason) {
+        String type = taskType != null ? taskType : TaskStatistics.OTHER_TYPE;
+        Counter counter = deadLetterCounters.get(type + "|" + reason);
+        if (counter != null) {
+            return counter;
+        }
+        // Task types come from clients: bound the number of series
+        if (deadLetterCounters.size() >= maxTaskTypes * TaskRetryService.DeadLetterReason.values().length) {
+            type = TaskStatistics.OTHER_TYPE;
+        }
+        String tagType = type;
+        return deadLetterCounters.computeIfAbsent(tagType + "|" + reason, key -> Counter.builder("task.dead.letters")
+                .description("Tasks dead-lettered, by task type and reason")
+                .tag("type", tagType)
+                .tag("reason", reason.name().toLowerCase())
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskCheckpoint;
+
+/**
+ * Task Execution Context
+ * Handed to the executor for one attempt of a task: progress reporting plus checkpointing
+ *
+ * An executor that checkpoints after each completed step and starts from getCheckpoint()
+ * repeats only the failed remainder when a task is redelivered, not the whole task
+ */
+public class TaskExecutionContext {
+
+    private final String taskId;
+    private final boolean redelivery;
+    private final ProgressReporter progressReporter;
+    private final TaskCheckpointStore checkpointStore;
+
+    private TaskCheckpoint checkpoint;
+    private boolean checkpointLoaded;
+
+    public TaskExecutionContext(String taskId, boolean redelivery, ProgressReporter progressReporter,
+                                TaskCheckpointStore checkpointStore) {
+        this.taskId = taskId;
+        this.redelivery = redelivery;
+        this.progressReporter = progressReporter;
+        this.checkpointStore = checkpointStore;
+    }
+
+    /**
+     * Last checkpoint saved by a previous attempt, or null to start from the beginning
+     * (always null for a first attempt, which skips the lookup)
+     */
+    public TaskCheckpoint getCheckpoint() {
+        if (!checkpointLoaded) {
+            checkpoint = redelivery ? checkpointStore.load(taskId) : null;
+            checkpointLoaded = true;
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Record that a step completed (non-blocking; persisted in the background)
+     *
+     * @param state executor state needed to resume after this step (may be null)
+     */
+    public void checkpoint(int step, byte[] state) {
+        checkpoint = new TaskCheckpoint(taskId, step, state);
+        checkpointLoaded = true;
+        checkpointStore.save(checkpoint);
+    }
+
+    /**
+     * Report progress (0-100)
+     */
+    public void reportProgress(int progress) {
+        progressReporter.report(progress);
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.task.service;
+
+import com.example.task.config.TaskTimeoutProperties;
+import com.example.task.entity.Task;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task Execution Registry
+ * Tracks the executions running on this node (taskId -> worker thread and deadline) so a
+ * cancellation or the watchdog can interrupt the worker and free it
+ *
+ * Also remembers recently cancelled task ids, so deliveries still queued for a cancelled
+ * task are skipped before touching the database
+ */
+@Slf4j
+@Component
+public class TaskExecutionRegistry {
+
+    /**
+     * One running execution
+     */
+    @Getter
+    public static class Execution {
+        private final String taskId;
+        private final String taskType;
+        private final LocalDateTime createdAt;
+        private final Thread thread;
+        private final long startedNanos;
+        private final long deadlineNanos;
+
+        // Why the execution was stopped (CANCELLED / TIMED_OUT), null while it runs normally
+        private volatile Task.TaskStatus abortedAs;
+
+        // Set once the worker has moved on; an abort must not interrupt it after that
+        private boolean completed;
+
+        Execution(String taskId, String taskType, LocalDateTime createdAt, Thread thread, long startedNanos,
+                  long deadlineNanos) {
+            this.taskId = taskId;
+            this.taskType = taskType;
+            this.createdAt = createdAt;
+            this.thread = thread;
+            this.startedNanos = startedNanos;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        public boolean isOverdue(long nowNanos) {
+            return nowNanos - deadlineNanos > 0;
+        }
+    }
+
+    private final Map<String, Execution> running = new ConcurrentHashMap<>();
+    private final Cache<String, Boolean> recentlyCancelled;
+    private final TaskTimeoutProperties timeoutProperties;
+
+    public TaskExecutionRegistry(TaskTimeoutProperties timeoutProperties, MeterRegistry meterRegistry,
+                                 @Value("${task.cancellation.remember-max-size:100000}") long rememberMaxSize,
+                                 @Value("${task.cancellation.remember-minutes:60}") long rememberMinutes) {
+        this.timeoutProperties = timeoutProperties;
+        this.recentlyCancelled = Caffeine.newBuilder()
+                .maximumSize(rememberMaxSize)
+                .expireAfterWrite(rememberMinutes, TimeUnit.MINUTES)
+                .build();
+
+        Gauge.builder("task.executions.running", running, Map::size)
+                .description("Executions currently registered on this node")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Register the calling thread as the worker of a task
+     */
+    public Execution register(Task task) {
+        Duration timeout = timeoutProperties.timeoutFor(task.getTaskType());
+        long now = System.nanoTime();
+        Execution execution = new Execution(task.getId(), task.getTaskType(), task.getCreatedAt(),
+                Thread.currentThread(), now, now + timeout.toNanos());
+        running.put(task.getId(), execution);
+
+        // Cancelled between the RUNNING transition and registration
+        if (isCancelled(task.getId())) {
+            abort(execution, Task.TaskStatus.CANCELLED);
+        }
+        return execution;
+    }
+
+    /**
+     * Unregister a finished execution and clear an interrupt aimed at it, so the pooled
+     * worker thread is not handed to the next task interrupted
+     */
+    public void complete(Execution execution) {
+        running.remove(execution.getTaskId(), execution);
+        synchronized (execution) {
+            execution.completed = true;
+            if (execution.abortedAs != null) {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * Record a cancellation and interrupt the local execution of the task, if any
+     */
+    public void cancel(String taskId) {
+        recentlyCancelled.put(taskId, Boolean.TRUE);
+        Execution execution = running.get(taskId);
+        if (execution != null) {
+            abort(execution, Task.TaskStatus.CANCELLED);
+        }
+    }
+
+    /**
+     * Interrupt an execution, recording why
+     */
+    public void abort(Execution execution, Task.TaskStatus reason) {
+        synchronized (execution) {
+            if (execution.completed || execution.abortedAs != null) {
+                return;
+            }
+            execution.abortedAs = reason;
+            execution.thread.interrupt();
+        }
+        log.info("Execution interrupted: taskId={}, reason={}", execution.getTaskId(), reason);
+    }
+
+    public boolean isCancelled(String taskId) {
+        return recentlyCancelled.getIfPresent(taskId) != null;
+    }
+
+    public Execution get(String taskId) {
+        return running.get(taskId);
+    }
+
+    public Collection<Execution> snapshot() {
+        return List.copyOf(running.values());
+    }
+}
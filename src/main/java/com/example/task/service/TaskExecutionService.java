@@ -1,10 +1,20 @@
 package com.example.task.service;
 
 import com.example.task.entity.Task;
+import com.example.task.entity.TaskCheckpoint;
+import com.example.task.entity.TaskResultFile;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
@@ -27,36 +37,45 @@ public class TaskExecutionService {
     @Value("${task.processing.failed-rate:0.0}")
     private double failedRate;
 
+    @Value("${task.processing.export-rows-per-step:1000}")
+    private int exportRowsPerStep;
+
     // Track active tasks for monitoring concurrency
     private final AtomicInteger activeTasks = new AtomicInteger(0);
 
+    private final TaskResultStore resultStore;
+
+    public TaskExecutionService(MeterRegistry meterRegistry, TaskResultStore resultStore) {
+        this.resultStore = resultStore;
+        Gauge.builder("task.execution.active", activeTasks, AtomicInteger::get)
+                .description("Tasks currently inside execute() on this node")
+                .register(meterRegistry);
+    }
+
     /**
      * Execute task based on task type
+     *
+     * @param context receives progress updates (0-100) and checkpoints while the task runs,
+     *                and holds the checkpoint to resume from on a redelivery
      */
-    public Map<String, Object> execute(Task task) {
+    public Map<String, Object> execute(Task task, TaskExecutionContext context) {
         int currentActive = activeTasks.incrementAndGet();
         log.info("Task started: taskId={}, taskType={}, activeTasks={}", task.getId(), task.getTaskType(), currentActive);
 
         try {
-            // Simulate random failure based on configured rate
-            if (shouldFail()) {
-                activeTasks.decrementAndGet();
-                log.warn("Task failed (simulated): taskId={}, failedRate={}", task.getId(), failedRate);
-                throw new RuntimeException("Simulated task failure for testing");
-            }
+            Map<String, Object> result = handleDataExport(task, context);
 
-            Map<String, Object> result = handleDataExport(task);
-
-            log.info("Task executed successfully: taskId={}, activeTasks={}", task.getId(), activeTasks.decrementAndGet());
+            log.info("Task executed successfully: taskId={}", task.getId());
             return result;
 
         } catch (RuntimeException e) {
-            // Re-throw RuntimeException as-is (includes our simulated failure)
+            // Re-throw RuntimeException as-is (includes our simulated failure and interrupts)
             throw e;
         } catch (Exception e) {
-            activeTasks.decrementAndGet();
             log.error("Task execution failed: taskId={}", task.getId(), e);
             throw new RuntimeException("Task execution failed: " + e.getMessage(), e);
+        } finally {
+            activeTasks.decrementAndGet();
         }
     }
 
@@ -75,35 +94,85 @@ public class TaskExecutionService {
 
     /**
      * Handle data export task
-     * Simulates a time-consuming export operation
+     * Simulates a time-consuming export operation of ten steps, each streaming its rows into the
+     * result file (TaskResultStore) as one sealed chunk and checkpointing after it; a redelivered
+     * task resumes after its last checkpointed step, appending to the partial file
+     * Checkpoint state: rows exported so far + sealed length of the result file
      */
-    private Map<String, Object> handleDataExport(Task task) {
-        log.info("Handling data export: taskId={}, duration={}s", task.getId(), taskDurationSeconds);
-
-        // Simulate progress updates over the configured duration
+    private Map<String, Object> handleDataExport(Task task, TaskExecutionContext context) throws IOException {
         int progressSteps = 10;
         long sleepPerStep = (taskDurationSeconds * 1000L) / progressSteps;
 
-        for (int i = 1; i <= progressSteps; i++) {
-            try {
-                Thread.sleep(sleepPerStep); // Simulate work
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Task interrupted", e);
+        // Resume point from the checkpoint
+        int firstStep = 1;
+        long rowCount = 0;
+        long resultLength = 0;
+        TaskCheckpoint checkpoint = context.getCheckpoint();
+        if (checkpoint != null && checkpoint.getState() != null && checkpoint.getState().length >= 2 * Long.BYTES) {
+            ByteBuffer state = ByteBuffer.wrap(checkpoint.getState());
+            firstStep = checkpoint.getStep() + 1;
+            rowCount = state.getLong();
+            resultLength = state.getLong();
+        }
+
+        try (TaskResultSink sink = resultStore.openSink(task.getId(), "data-export.csv", "text/csv", resultLength);
+             Writer writer = new BufferedWriter(new OutputStreamWriter(sink, StandardCharsets.UTF_8))) {
+
+            if (firstStep > 1 && !sink.isResumed()) {
+                // Partial file not on this node (or gone): the rows must be exported again
+                log.info("Partial export not found, restarting data export: taskId={}", task.getId());
+                firstStep = 1;
+                rowCount = 0;
+            }
+            if (firstStep > 1) {
+                context.reportProgress((firstStep - 1) * 10);
+                log.info("Resuming data export from checkpoint: taskId={}, step={}", task.getId(), firstStep - 1);
+            } else {
+                writer.write("row_id,task_id,step,value\n");
             }
 
-            int progress = i * 10;
-            // TODO: Update progress to database or cache
-            log.debug("Data export progress: taskId={}, progress={}%", task.getId(), progress);
-        }
+            log.info("Handling data export: taskId={}, duration={}s, firstStep={}", task.getId(), taskDurationSeconds, firstStep);
+
+            // Simulate random failure based on configured rate, at a random remaining step
+            int failAtStep = shouldFail() ? firstStep + random.nextInt(progressSteps - firstStep + 1) : -1;
+
+            for (int i = firstStep; i <= progressSteps; i++) {
+                try {
+                    Thread.sleep(sleepPerStep); // Simulate work
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Task interrupted", e);
+                }
+
+                if (i == failAtStep) {
+                    log.warn("Task failed (simulated): taskId={}, step={}, failedRate={}", task.getId(), i, failedRate);
+                    throw new RuntimeException("Simulated task failure for testing");
+                }
+
+                // Stream this step's rows out as one chunk
+                for (int row = 0; row < exportRowsPerStep; row++) {
+                    rowCount++;
+                    writer.write(rowCount + "," + task.getId() + "," + i + "," + random.nextInt(1_000_000) + "\n");
+                }
+                writer.flush();
+                long sealedLength = sink.sealChunk();
+
+                context.checkpoint(i, ByteBuffer.allocate(2 * Long.BYTES).putLong(rowCount).putLong(sealedLength).array());
+
+                int progress = i * 10;
+                context.reportProgress(progress);
+                log.debug("Data export progress: taskId={}, progress={}%", task.getId(), progress);
+            }
 
-        // Return result
-        Map<String, Object> result = new HashMap<>();
-        result.put("exportPath", "/exports/data-" + task.getId() + ".csv");
-        result.put("rowCount", 10000);
-        result.put("fileSize", "2.5MB");
+            // Return result: the file descriptor only, the rows stay in the result store
+            writer.flush();
+            TaskResultFile file = sink.commit();
 
-        return result;
+            Map<String, Object> result = new HashMap<>();
+            result.put("rowCount", rowCount);
+            result.put(TaskResultFile.RESULT_KEY, file.toMap(task.getId()));
+            return result;
+        }
     }
 
 }
@@ -0,0 +1,131 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskIdempotencyKey;
+import com.example.task.repository.TaskIdempotencyKeyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Task Idempotency Service
+ * Resolves Idempotency-Key headers to the task created for them
+ *
+ * The database is the source of truth (task_idempotency_keys, inserted with the task row, its
+ * primary key rejecting a second task for the same key); a RecentKeyFilter in front keeps the
+ * common case free of extra reads:
+ * 1. key in the LRU: duplicate, answered from memory
+ * 2. key definitely not in the Bloom filter: new, no lookup; the insert is the only write
+ * 3. otherwise: one primary-key lookup
+ *
+ * A retry landing on another node passes step 2 there; the key insert then conflicts, the
+ * submission rolls back and the caller resolves the winner with findTaskIdAfterConflict()
+ */
+@Slf4j
+@Service
+public class TaskIdempotencyService {
+
+    private final TaskIdempotencyKeyRepository idempotencyKeyRepository;
+    private final RecentKeyFilter filter;
+    private final Duration ttl;
+
+    @Value("${task.idempotency.cleanup-batch-size:5000}")
+    private int cleanupBatchSize;
+
+    public TaskIdempotencyService(TaskIdempotencyKeyRepository idempotencyKeyRepository, MeterRegistry meterRegistry,
+                                  @Value("${task.idempotency.ttl-hours:24}") long ttlHours,
+                                  @Value("${task.idempotency.cache-max-size:100000}") long cacheMaxSize,
+                                  @Value("${task.idempotency.expected-keys:1000000}") long expectedKeys,
+                                  @Value("${task.idempotency.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.ttl = Duration.ofHours(ttlHours);
+        this.filter = new RecentKeyFilter("submission", cacheMaxSize, ttl, expectedKeys, falsePositiveRate, meterRegistry);
+    }
+
+    /**
+     * Task already created for this key, or null if the key is new
+     */
+    public String findTaskId(String key) {
+        String taskId = filter.getIfPresent(key);
+        if (taskId != null) {
+            return taskId;
+        }
+        if (!filter.mightContain(key)) {
+            return null;
+        }
+
+        taskId = lookup(key);
+        if (taskId == null) {
+            filter.recordFalsePositive();
+        }
+        return taskId;
+    }
+
+    /**
+     * Task created for this key by a concurrent submission whose insert won, or null
+     * (a stale expired row is removed, so the submission can be retried)
+     */
+    public String findTaskIdAfterConflict(String key) {
+        return lookup(key);
+    }
+
+    /**
+     * Key row to insert with a new task
+     */
+    public TaskIdempotencyKey newKey(String key, String taskId, LocalDateTime now) {
+        return TaskIdempotencyKey.builder()
+                .idempotencyKey(key)
+                .taskId(taskId)
+                .createdAt(now)
+                .expiresAt(now.plus(ttl))
+                .build();
+    }
+
+    /**
+     * Remember a committed key on this node
+     */
+    public void remember(String key, String taskId) {
+        filter.put(key, taskId);
+    }
+
+    private String lookup(String key) {
+        LocalDateTime now = LocalDateTime.now();
+        Optional<TaskIdempotencyKey> row = idempotencyKeyRepository.findById(key);
+        if (row.isEmpty()) {
+            return null;
+        }
+        if (row.get().isExpired(now)) {
+            idempotencyKeyRepository.deleteIfExpired(key, now);
+            return null;
+        }
+
+        filter.put(key, row.get().getTaskId());
+        return row.get().getTaskId();
+    }
+
+    /**
+     * Delete expired keys in bounded batches
+     */
+    @Scheduled(fixedDelayString = "${task.idempotency.cleanup-interval-ms:600000}")
+    public void deleteExpired() {
+        try {
+            int deleted;
+            int total = 0;
+            do {
+                deleted = idempotencyKeyRepository.deleteExpired(LocalDateTime.now(), cleanupBatchSize);
+                total += deleted;
+            } while (deleted == cleanupBatchSize);
+
+            if (total > 0) {
+                log.info("Expired idempotency keys deleted: count={}", total);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to delete expired idempotency keys", e);
+        }
+    }
+}
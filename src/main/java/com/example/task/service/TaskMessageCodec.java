@@ -0,0 +1,32 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskMessage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Task Message Codec
+ * Converts TaskMessage to and from a RocketMQ message body, without intermediate Strings
+ *
+ * Implementations: BinaryTaskMessageCodec (compact, versioned) and JsonTaskMessageCodec
+ * (legacy format); DefaultTaskMessageCodec picks the configured one for writing and
+ * recognises both when reading
+ */
+public interface TaskMessageCodec {
+
+    /**
+     * Encode a message body
+     */
+    byte[] encode(TaskMessage taskMessage);
+
+    /**
+     * Decode a message body from the buffer's position to its limit
+     *
+     * @throws IllegalArgumentException if the body is malformed or of an unsupported version
+     */
+    TaskMessage decode(ByteBuffer body);
+
+    default TaskMessage decode(byte[] body) {
+        return decode(ByteBuffer.wrap(body));
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.task.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Task Partition Manager
+ * Maintains the range partitions of tasks (MySQL, see docker/mysql/init.sql):
+ *
+ * <pre>
+ * PARTITION BY RANGE (UNIX_TIMESTAMP(created_at))
+ *   p20261016 VALUES LESS THAN (&lt;2026-10-17 00:00 UTC&gt;)
+ *   p20261017 VALUES LESS THAN (&lt;2026-10-18 00:00 UTC&gt;)
+ *   ...
+ *   pmax      VALUES LESS THAN MAXVALUE   (empty safety net)
+ * </pre>
+ *
+ * Each check (at startup, then every check-interval-ms):
+ * 1. Pre-create partitions of interval-days (UTC) up to precreate-days ahead, by splitting
+ *    pmax (REORGANIZE PARTITION on an empty partition copies no rows). A pmax holding rows
+ *    (a migration without daily partitions, or a downtime past the horizon) is not split:
+ *    that would copy its rows under a table lock, so it is left to an operator (offline)
+ * 2. Drop past partitions that TaskArchiver has emptied (DROP PARTITION is a metadata
+ *    change, no row-by-row delete); a past partition still holding rows (e.g. long-delayed
+ *    SCHEDULED tasks) is kept
+ *
+ * Only enabled with task.partitioning.enabled=true, on a partitioned tasks table. Checks on
+ * several nodes may race; the loser's DDL fails and is retried on its next check.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "task.partitioning.enabled", havingValue = "true")
+public class TaskPartitionManager {
+
+    private static final String CATCH_ALL = "pmax";
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("'p'yyyyMMdd");
+    private static final Pattern PARTITION_NAME = Pattern.compile("p\\w+");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${task.partitioning.interval-days:1}")
+    private int intervalDays;
+
+    @Value("${task.partitioning.precreate-days:7}")
+    private int precreateDays;
+
+    private final AtomicInteger partitionCount = new AtomicInteger();
+
+    private record Partition(String name, Long upperBound) {
+    }
+
+    public TaskPartitionManager(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        Gauge.builder("task.partitions", partitionCount, AtomicInteger::get)
+                .description("Range partitions of the tasks table")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(fixedDelayString = "${task.partitioning.check-interval-ms:3600000}",
+            initialDelayString = "${task.partitioning.check-interval-ms:3600000}")
+    public void maintain() {
+        try {
+            List<Partition> partitions = loadPartitions();
+            if (partitions.isEmpty()) {
+                log.warn("tasks is not partitioned; see the migration in docker/mysql/init.sql");
+                return;
+            }
+            if (partitions.stream().noneMatch(p -> CATCH_ALL.equals(p.name()))) {
+                log.warn("tasks has no {} partition, cannot pre-create partitions", CATCH_ALL);
+            } else {
+                precreate(partitions);
+            }
+            dropEmptied(loadPartitions());
+            partitionCount.set(loadPartitions().size());
+        } catch (Exception e) {
+            log.warn("Task partition maintenance failed, will retry on next check", e);
+        }
+    }
+
+    /**
+     * Split pmax into the partitions missing up to precreate-days ahead
+     */
+    private void precreate(List<Partition> partitions) {
+        List<Integer> rows = jdbcTemplate.queryForList(
+                "SELECT 1 FROM tasks PARTITION (" + CATCH_ALL + ") LIMIT 1", Integer.class);
+        if (!rows.isEmpty()) {
+            log.warn("tasks partition {} holds rows, not splitting it online (would copy them under a table lock); "
+                    + "split it in a maintenance window, see docker/mysql/init.sql", CATCH_ALL);
+            return;
+        }
+
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        long horizon = epochSecond(today.plusDays(precreateDays + 1L));
+        long lastBound = partitions.stream()
+                .map(Partition::upperBound)
+                .filter(bound -> bound != null)
+                .mapToLong(Long::longValue)
+                .max()
+                .orElse(epochSecond(today));
+
+        // The first new partition ends tomorrow at the earliest, so a table whose bounds lag
+        // behind (first start, long downtime) gets one partition for the gap instead of one per day
+        List<String> definitions = new ArrayList<>();
+        long lower = lastBound;
+        long upper = Math.max(lastBound + intervalDays * 86_400L, epochSecond(today.plusDays(1)));
+        while (lower < horizon) {
+            definitions.add("PARTITION " + partitionName(lower) + " VALUES LESS THAN (" + upper + ")");
+            lower = upper;
+            upper += intervalDays * 86_400L;
+        }
+        if (definitions.isEmpty()) {
+            return;
+        }
+
+        definitions.add("PARTITION " + CATCH_ALL + " VALUES LESS THAN MAXVALUE");
+        jdbcTemplate.execute("ALTER TABLE tasks REORGANIZE PARTITION " + CATCH_ALL
+                + " INTO (" + String.join(", ", definitions) + ")");
+        log.info("Task partitions created: count={}, until={}", definitions.size() - 1,
+                Instant.ofEpochSecond(lower));
+    }
+
+    /**
+     * Drop partitions that lie entirely in the past and hold no rows
+     */
+    private void dropEmptied(List<Partition> partitions) {
+        long startOfToday = epochSecond(LocalDate.now(ZoneOffset.UTC));
+        List<String> dropped = new ArrayList<>();
+        for (Partition partition : partitions) {
+            if (partition.upperBound() == null || partition.upperBound() > startOfToday
+                    || !PARTITION_NAME.matcher(partition.name()).matches()) {
+                continue;
+            }
+            List<Integer> any = jdbcTemplate.queryForList(
+                    "SELECT 1 FROM tasks PARTITION (" + partition.name() + ") LIMIT 1", Integer.class);
+            if (any.isEmpty()) {
+                dropped.add(partition.name());
+            }
+        }
+        if (dropped.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE tasks DROP PARTITION " + String.join(", ", dropped));
+        log.info("Emptied task partitions dropped: {}", dropped);
+    }
+
+    private List<Partition> loadPartitions() {
+        return jdbcTemplate.query(
+                "SELECT partition_name, partition_description FROM information_schema.partitions "
+                        + "WHERE table_schema = DATABASE() AND table_name = 'tasks' AND partition_name IS NOT NULL "
+                        + "ORDER BY partition_ordinal_position",
+                (rs, rowNum) -> {
+                    String description = rs.getString("partition_description");
+                    Long bound = "MAXVALUE".equalsIgnoreCase(description) ? null : Long.parseLong(description);
+                    return new Partition(rs.getString("partition_name"), bound);
+                });
+    }
+
+    private static String partitionName(long lowerBoundEpochSecond) {
+        return NAME_FORMAT.format(Instant.ofEpochSecond(lowerBoundEpochSecond).atZone(ZoneOffset.UTC));
+    }
+
+    private static long epochSecond(LocalDate date) {
+        return date.atStartOfDay(ZoneOffset.UTC).toEpochSecond();
+    }
+}
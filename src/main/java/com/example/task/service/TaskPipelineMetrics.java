@@ -0,0 +1,184 @@
+package com.example.task.service;
+
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task Pipeline Metrics
+ * Timers and counters for each stage of a task, exported at /actuator/prometheus:
+ * 1. task.db.write{operation} - insert on submission (through commit) and each status update
+ * 2. task.queue.send{mode,outcome} - broker send latency
+ * 3. task.consume.lag{lane} - broker store timestamp -> processing start
+ * 4. task.consume.retries{attempt} - redeliveries by reconsumeTimes
+ * 5. task.execution{type,outcome} - TaskExecutionService.execute
+ *
+ * Tags are enums, lanes, attempt numbers and task types only (never task ids). Meters are
+ * registered up front, or once per task type, so recording is an array or map lookup plus
+ * the timer update
+ */
+@Component
+public class TaskPipelineMetrics {
+
+    /**
+     * Database writes of the task lifecycle
+     */
+    public enum DbOperation {
+        INSERT, INSERT_BATCH, RELEASE_SCHEDULED, REQUEUE_FAILED,
+        MARK_RUNNING, MARK_SUCCESS, MARK_FAILED, MARK_CANCELLED, MARK_TIMED_OUT;
+
+        /**
+         * Status update that moves a task to the given status
+         */
+        public static DbOperation markAs(Task.TaskStatus status) {
+            return switch (status) {
+                case RUNNING -> MARK_RUNNING;
+                case SUCCESS -> MARK_SUCCESS;
+                case CANCELLED -> MARK_CANCELLED;
+                case TIMED_OUT -> MARK_TIMED_OUT;
+                default -> MARK_FAILED;
+            };
+        }
+    }
+
+    /**
+     * How a message was sent to the broker
+     */
+    public enum SendMode {
+        SYNC, ASYNC, BATCH
+    }
+
+    // Outcomes of an execution, by the status it ended in
+    private static final Task.TaskStatus[] OUTCOMES = {
+            Task.TaskStatus.SUCCESS, Task.TaskStatus.FAILED, Task.TaskStatus.CANCELLED, Task.TaskStatus.TIMED_OUT
+    };
+
+    private final MeterRegistry meterRegistry;
+    private final String topic;
+    private final int maxTaskTypes;
+
+    private final Map<DbOperation, Timer> dbWrites = new EnumMap<>(DbOperation.class);
+    private final Timer[] sends = new Timer[SendMode.values().length * 2];
+    private final Map<TaskPriority, Timer> consumeLag = new EnumMap<>(TaskPriority.class);
+    private final Counter[] retries;
+
+    // taskType -> one timer per outcome (indexed by status ordinal)
+    private final Map<String, Timer[]> executions = new ConcurrentHashMap<>();
+
+    public TaskPipelineMetrics(MeterRegistry meterRegistry,
+                               @Value("${rocketmq.consumer.topic:task-topic}") String topic,
+                               @Value("${task.processing.max-retry-times:16}") int maxRetryTimes,
+                               @Value("${task.stats.max-task-types:100}") int maxTaskTypes) {
+        this.meterRegistry = meterRegistry;
+        this.topic = topic;
+        this.maxTaskTypes = maxTaskTypes;
+
+        for (DbOperation operation : DbOperation.values()) {
+            dbWrites.put(operation, Timer.builder("task.db.write")
+                    .description("Task table writes, by lifecycle operation")
+                    .tag("operation", operation.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+        for (SendMode mode : SendMode.values()) {
+            for (boolean success : new boolean[]{true, false}) {
+                sends[sendIndex(mode, success)] = Timer.builder("task.queue.send")
+                        .description("Broker send latency")
+                        .tag("mode", mode.name().toLowerCase())
+                        .tag("outcome", success ? "success" : "failure")
+                        .register(meterRegistry);
+            }
+        }
+        for (TaskPriority lane : TaskPriority.values()) {
+            consumeLag.put(lane, Timer.builder("task.consume.lag")
+                    .description("Time from broker store to processing start")
+                    .tag("lane", lane.name())
+                    .register(meterRegistry));
+        }
+
+        // Attempts 1..maxRetryTimes; anything beyond (a raised limit) is counted in the last
+        this.retries = new Counter[Math.max(1, maxRetryTimes)];
+        for (int attempt = 1; attempt <= retries.length; attempt++) {
+            retries[attempt - 1] = Counter.builder("task.consume.retries")
+                    .description("Redelivered task messages, by reconsumeTimes")
+                    .tag("attempt", String.valueOf(attempt))
+                    .register(meterRegistry);
+        }
+    }
+
+    public void recordDbWrite(DbOperation operation, long nanos) {
+        dbWrites.get(operation).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordSend(SendMode mode, boolean success, long nanos) {
+        sends[sendIndex(mode, success)].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the queue lag of a message about to be processed, and count it if it is a retry
+     */
+    public void recordDelivery(MessageExt message, int reconsumeTimes) {
+        recordDelivery(TaskPriority.fromTopic(topic, message.getTopic()),
+                TimeUnit.MILLISECONDS.toNanos(Math.max(0, System.currentTimeMillis() - message.getStoreTimestamp())),
+                reconsumeTimes);
+    }
+
+    /**
+     * Same for a delivery of the in-process transport, whose lag is measured in nanoseconds
+     */
+    public void recordDelivery(TaskPriority lane, long lagNanos, int reconsumeTimes) {
+        consumeLag.get(lane).record(lagNanos, TimeUnit.NANOSECONDS);
+
+        if (reconsumeTimes > 0) {
+            retries[Math.min(reconsumeTimes, retries.length) - 1].increment();
+        }
+    }
+
+    /**
+     * Record one execution attempt
+     *
+     * @param outcome SUCCESS, FAILED, CANCELLED or TIMED_OUT
+     */
+    public void recordExecution(String taskType, Task.TaskStatus outcome, long nanos) {
+        Timer timer = executionTimers(taskType)[outcome.ordinal()];
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer[] executionTimers(String taskType) {
+        String key = taskType != null ? taskType : TaskStatistics.OTHER_TYPE;
+        Timer[] timers = executions.get(key);
+        if (timers != null) {
+            return timers;
+        }
+        // Task types come from clients: bound the number of series
+        if (executions.size() >= maxTaskTypes) {
+            key = TaskStatistics.OTHER_TYPE;
+        }
+        return executions.computeIfAbsent(key, type -> {
+            Timer[] created = new Timer[Task.TaskStatus.values().length];
+            for (Task.TaskStatus outcome : OUTCOMES) {
+                created[outcome.ordinal()] = Timer.builder("task.execution")
+                        .description("Task execution time, by task type and outcome")
+                        .tag("type", type)
+                        .tag("outcome", outcome.name().toLowerCase())
+                        .register(meterRegistry);
+            }
+            return created;
+        });
+    }
+
+    private static int sendIndex(SendMode mode, boolean success) {
+        return mode.ordinal() * 2 + (success ? 0 : 1);
+    }
+}
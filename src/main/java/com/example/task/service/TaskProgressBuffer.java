@@ -0,0 +1,155 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskChangeEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Task Progress Buffer
+ * Write-behind buffer for task progress: executors report into an in-memory,
+ * last-value-wins map keyed by taskId, and a scheduled flusher writes only the latest
+ * value of each dirty task in one JDBC batch update
+ *
+ * Ten reports of the same task between two flushes cost one row write; status queries
+ * read through the buffer so clients still see the freshest value
+ */
+@Slf4j
+@Component
+public class TaskProgressBuffer {
+
+    private static final String UPDATE_PROGRESS_SQL =
+            "UPDATE tasks SET progress = ? WHERE id = ? AND created_at = ? AND status = 'RUNNING'";
+
+    /**
+     * Progress not yet written, with the task's created_at (partition key of the update)
+     */
+    private record Pending(int progress, LocalDateTime createdAt) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskChangeNotifier taskChangeNotifier;
+
+    // Latest reported progress per running task (read-through for status queries)
+    private final Map<String, Integer> latest = new ConcurrentHashMap<>();
+
+    // Progress not yet written to the database
+    private final Map<String, Pending> dirty = new ConcurrentHashMap<>();
+
+    @Value("${task.progress.flush-max-batch:1000}")
+    private int flushMaxBatch;
+
+    private final Counter reportedCounter;
+    private final Counter writtenCounter;
+
+    public TaskProgressBuffer(JdbcTemplate jdbcTemplate, TaskChangeNotifier taskChangeNotifier,
+                              MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskChangeNotifier = taskChangeNotifier;
+
+        this.reportedCounter = Counter.builder("task.progress.reported")
+                .description("Progress ticks reported by executors")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("task.progress.written")
+                .description("Progress rows written to the database")
+                .register(meterRegistry);
+        Gauge.builder("task.progress.dirty", dirty, Map::size)
+                .description("Tasks with progress not yet flushed")
+                .register(meterRegistry);
+        Gauge.builder("task.progress.coalescing.ratio", this, TaskProgressBuffer::coalescingRatio)
+                .description("Progress ticks reported per row written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record progress for a task (last value wins)
+     */
+    public void report(String taskId, LocalDateTime createdAt, int progress) {
+        latest.put(taskId, progress);
+        dirty.put(taskId, new Pending(progress, createdAt));
+        reportedCounter.increment();
+        taskChangeNotifier.publish(TaskChangeEvent.progress(taskId, progress));
+    }
+
+    /**
+     * Reporter bound to one task, for handing to an executor
+     */
+    public ProgressReporter reporterFor(String taskId, LocalDateTime createdAt) {
+        return progress -> report(taskId, createdAt, progress);
+    }
+
+    /**
+     * Latest buffered progress, or null if nothing was reported for this task on this node
+     */
+    public Integer getProgress(String taskId) {
+        return latest.get(taskId);
+    }
+
+    /**
+     * Forget a task once it reached a terminal state (its final progress is written by the transition)
+     */
+    public void discard(String taskId) {
+        dirty.remove(taskId);
+        latest.remove(taskId);
+    }
+
+    /**
+     * Write dirty progress in batches
+     */
+    @Scheduled(fixedDelayString = "${task.progress.flush-interval-ms:1000}")
+    public void flush() {
+        while (!dirty.isEmpty()) {
+            List<Object[]> batch = new ArrayList<>(Math.min(dirty.size(), flushMaxBatch));
+            for (Map.Entry<String, Pending> entry : dirty.entrySet()) {
+                // Only take the value we are about to write; a newer report stays dirty
+                Pending pending = entry.getValue();
+                if (dirty.remove(entry.getKey(), pending)) {
+                    batch.add(new Object[]{pending.progress(), entry.getKey(), pending.createdAt()});
+                }
+                if (batch.size() >= flushMaxBatch) {
+                    break;
+                }
+            }
+
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            try {
+                jdbcTemplate.batchUpdate(UPDATE_PROGRESS_SQL, batch);
+                writtenCounter.increment(batch.size());
+                log.debug("Task progress flushed: rows={}", batch.size());
+            } catch (Exception e) {
+                // Progress is advisory; the next report or the terminal transition supersedes it
+                log.warn("Failed to flush task progress: rows={}", batch.size(), e);
+                return;
+            }
+
+            if (batch.size() < flushMaxBatch) {
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private double coalescingRatio() {
+        double written = writtenCounter.count();
+        return written == 0 ? 0.0 : reportedCounter.count() / written;
+    }
+}
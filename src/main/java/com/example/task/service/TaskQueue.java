@@ -0,0 +1,52 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskMessage;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * Task Queue
+ * Transport that carries task messages from submission to the consumers, selected by
+ * task.queue.transport:
+ * - rocketmq (default): RocketMQTaskQueue, consumed by TaskConsumer / VirtualThreadTaskConsumer
+ * - in-process: InProcessTaskQueue, consumed by InProcessTaskConsumer on the same node
+ *
+ * Consumers hand each delivery to TaskMessageProcessor and ack (CONSUME_SUCCESS) or nack
+ * (RECONSUME_LATER) it. Failed executions are retried by the processor through retry(), with
+ * the delay of the task type's retry policy; a nacked delivery (undecodable message, or a
+ * retry() that failed) comes back after the transport's own retry delay until
+ * max-retry-times is exhausted
+ */
+public interface TaskQueue {
+
+    /**
+     * Enqueue one message, returning once the transport has accepted it
+     */
+    void enqueue(TaskMessage taskMessage) throws Exception;
+
+    /**
+     * Enqueue one message without blocking the caller
+     * The future completes when the transport has accepted the message, or exceptionally
+     */
+    CompletableFuture<Void> enqueueAsync(TaskMessage taskMessage);
+
+    /**
+     * Enqueue messages in as few sends as the transport allows, failing fast on the first
+     * send that fails (messages of earlier sends stay enqueued)
+     */
+    void enqueueAll(List<TaskMessage> taskMessages) throws Exception;
+
+    /**
+     * Enqueue messages in as few sends as the transport allows, carrying on after a failed
+     * send; onFailure receives the messages of each failed send and the cause
+     */
+    void enqueueBatch(List<TaskMessage> taskMessages, BiConsumer<List<TaskMessage>, Exception> onFailure);
+
+    /**
+     * Enqueue a message again, delivered after delayMs as attempt reconsumeTimes
+     * (the caller then acks the current delivery)
+     */
+    void retry(TaskMessage taskMessage, int reconsumeTimes, long delayMs) throws Exception;
+}
@@ -0,0 +1,247 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskMessage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Task Queue Journal
+ * Append-only, memory-mapped log of the in-process queue, so queued and delayed messages
+ * survive a crash or restart of the node.
+ *
+ * Two record types, written into fixed-size segment files (queue-<index>.journal):
+ *
+ * <pre>
+ * PUT  type 1 | seq (8) | reconsumeTimes (4) | dueMillis (8) | length (4) | TaskMessage (binary codec)
+ * ACK  type 2 | seq (8)
+ * </pre>
+ *
+ * A message is live from its last PUT (enqueue, or nack with the retry's due time) until
+ * its ACK. The type byte is written last, so a record torn by a crash reads as the end of
+ * the segment. When a segment is full the live messages are rewritten as PUTs into a new
+ * segment and the old one is deleted, which keeps the journal about as large as the backlog.
+ *
+ * Writes land in the page cache and survive a process crash; with fsync every record is
+ * also forced to disk (survives a power loss, at the cost of a disk flush per record).
+ *
+ * Thread-safe: appends are serialized
+ */
+@Slf4j
+public class TaskQueueJournal implements AutoCloseable {
+
+    /**
+     * A live message as recovered from the journal
+     */
+    public record Entry(long seq, TaskMessage message, int reconsumeTimes, long dueMillis) {
+    }
+
+    private static final byte TYPE_PUT = 1;
+    private static final byte TYPE_ACK = 2;
+    private static final int PUT_HEADER_SIZE = 1 + 8 + 4 + 8 + 4;
+    private static final int ACK_SIZE = 1 + 8;
+    private static final String SEGMENT_PREFIX = "queue-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+
+    private final TaskMessageCodec codec = new BinaryTaskMessageCodec();
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean fsync;
+
+    // Live messages in enqueue order, needed to compact them into the next segment
+    private final Map<Long, Entry> live = new LinkedHashMap<>();
+
+    private long segmentIndex;
+    private Path segmentPath;
+    private MappedByteBuffer segment;
+
+    public TaskQueueJournal(Path directory, int segmentBytes, boolean fsync) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Replay existing segments and start a fresh one holding only the live messages
+     * Must be called once, before any append
+     *
+     * @return the live messages in enqueue order
+     */
+    public synchronized List<Entry> recover() {
+        try {
+            Files.createDirectories(directory);
+            List<Path> segments = listSegments();
+
+            Map<Long, Entry> replayed = new LinkedHashMap<>();
+            for (Path path : segments) {
+                replay(path, replayed);
+                segmentIndex = Math.max(segmentIndex, indexOf(path));
+            }
+            live.putAll(replayed);
+
+            roll();
+            for (Path path : segments) {
+                Files.deleteIfExists(path);
+            }
+
+            log.info("Task queue journal recovered: dir={}, segments={}, live={}", directory, segments.size(), live.size());
+            return new ArrayList<>(replayed.values());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to recover task queue journal: " + directory, e);
+        }
+    }
+
+    /**
+     * Record a message as enqueued (or re-enqueued by a nack) with its due time
+     */
+    public synchronized void put(long seq, TaskMessage message, int reconsumeTimes, long dueMillis) {
+        Entry entry = new Entry(seq, message, reconsumeTimes, dueMillis);
+        byte[] body = codec.encode(message);
+        if (segment.remaining() < PUT_HEADER_SIZE + body.length + 1) {
+            live.put(seq, entry);
+            roll();
+            return;
+        }
+        writePut(entry, body);
+        live.put(seq, entry);
+    }
+
+    /**
+     * Record a message as done (acked, dead-lettered or rejected)
+     */
+    public synchronized void ack(long seq) {
+        if (live.remove(seq) == null) {
+            return;
+        }
+        if (segment.remaining() < ACK_SIZE + 1) {
+            roll();
+            return;
+        }
+        int position = segment.position();
+        segment.putLong(position + 1, seq);
+        commit(position, ACK_SIZE, TYPE_ACK);
+    }
+
+    /**
+     * Highest sequence number among the live messages (0 if none)
+     */
+    public synchronized long maxSeq() {
+        return live.keySet().stream().mapToLong(Long::longValue).max().orElse(0);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+    }
+
+    /**
+     * Start the next segment with a PUT for every live message, then drop the previous one
+     */
+    private void roll() {
+        Path previous = segmentPath;
+        segmentIndex++;
+        segmentPath = directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, segmentIndex, SEGMENT_SUFFIX));
+
+        try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create task queue journal segment: " + segmentPath, e);
+        }
+
+        for (Entry entry : live.values()) {
+            byte[] body = codec.encode(entry.message());
+            if (segment.remaining() < PUT_HEADER_SIZE + body.length + 1) {
+                throw new IllegalStateException("Task queue journal segment of " + segmentBytes
+                        + " bytes cannot hold the " + live.size() + " live messages; raise segment-size-mb");
+            }
+            writePut(entry, body);
+        }
+        segment.force();
+
+        if (previous != null) {
+            try {
+                Files.deleteIfExists(previous);
+            } catch (IOException e) {
+                log.warn("Failed to delete task queue journal segment: {}", previous, e);
+            }
+        }
+    }
+
+    private void writePut(Entry entry, byte[] body) {
+        int position = segment.position();
+        segment.putLong(position + 1, entry.seq());
+        segment.putInt(position + 9, entry.reconsumeTimes());
+        segment.putLong(position + 13, entry.dueMillis());
+        segment.putInt(position + 21, body.length);
+        segment.put(position + PUT_HEADER_SIZE, body);
+        commit(position, PUT_HEADER_SIZE + body.length, TYPE_PUT);
+    }
+
+    /**
+     * Publish a record whose fields are written: the type byte goes last
+     */
+    private void commit(int position, int length, byte type) {
+        segment.put(position, type);
+        segment.position(position + length);
+        if (fsync) {
+            segment.force(position, length);
+        }
+    }
+
+    private void replay(Path path, Map<Long, Entry> replayed) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        while (buffer.remaining() >= ACK_SIZE) {
+            byte type = buffer.get();
+            if (type == TYPE_ACK) {
+                replayed.remove(buffer.getLong());
+            } else if (type == TYPE_PUT && buffer.remaining() >= PUT_HEADER_SIZE - 1) {
+                long seq = buffer.getLong();
+                int reconsumeTimes = buffer.getInt();
+                long dueMillis = buffer.getLong();
+                int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    break;
+                }
+                ByteBuffer body = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                // A re-put after a nack replaces the entry but keeps its enqueue order
+                replayed.put(seq, new Entry(seq, codec.decode(body), reconsumeTimes, dueMillis));
+            } else {
+                // End of the written part (zero type byte), or a torn record
+                break;
+            }
+        }
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+                    })
+                    .sorted((a, b) -> Long.compare(indexOf(a), indexOf(b)))
+                    .toList();
+        }
+    }
+
+    private static long indexOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
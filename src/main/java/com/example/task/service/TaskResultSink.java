@@ -0,0 +1,204 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskResultFile;
+import io.micrometer.core.instrument.Counter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Task Result Sink
+ * Streaming writer of one result file, obtained from TaskResultStore.openSink()
+ *
+ * Bytes go through a fixed 64KB direct buffer straight into <name>.part, hashed (SHA-256) on
+ * the way, so heap use does not depend on the result size. The file is written in chunks:
+ * 1. write() appends to the current chunk (gzip-compressed when compression is on)
+ * 2. sealChunk() completes the chunk (its own gzip member), forces it to disk and returns the
+ *    sealed length; checkpoint that length, a redelivery resumes from it
+ * 3. commit() seals the last chunk and atomically renames the file to its final name
+ *
+ * Closing without commit() keeps the sealed chunks for a resume and drops the rest.
+ * Concatenated gzip members are a valid gzip file, so a resumed file decompresses as one stream.
+ *
+ * Not thread-safe: one sink per task attempt
+ */
+@Slf4j
+public class TaskResultSink extends OutputStream {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path partPath;
+    private final Path filePath;
+    private final String contentType;
+    private final boolean gzip;
+    private final LocalDateTime expiresAt;
+    private final FileChannel channel;
+    private final MessageDigest digest;
+    private final boolean resumed;
+    private final Counter writtenBytes;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    // Raw (stored) bytes: buffered into the file channel
+    private final OutputStream raw = new OutputStream() {
+        @Override
+        public void write(int b) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flushBuffer();
+            }
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!buffer.hasRemaining()) {
+                    flushBuffer();
+                }
+                int n = Math.min(length, buffer.remaining());
+                buffer.put(bytes, offset, n);
+                offset += n;
+                length -= n;
+            }
+        }
+    };
+
+    private ChunkGzipStream chunk;
+    private long length;
+    private long sealedLength;
+    private boolean closed;
+
+    TaskResultSink(Path partPath, Path filePath, String contentType, boolean gzip, LocalDateTime expiresAt,
+                   FileChannel channel, MessageDigest digest, long resumedLength, Counter writtenBytes) {
+        this.partPath = partPath;
+        this.filePath = filePath;
+        this.contentType = contentType;
+        this.gzip = gzip;
+        this.expiresAt = expiresAt;
+        this.channel = channel;
+        this.digest = digest;
+        this.resumed = resumedLength > 0;
+        this.length = resumedLength;
+        this.sealedLength = resumedLength;
+        this.writtenBytes = writtenBytes;
+    }
+
+    /**
+     * Whether the sink continues a file from a previous attempt
+     * (false when there was nothing to resume, or the partial file is missing on this node:
+     * the executor then has to start over)
+     */
+    public boolean isResumed() {
+        return resumed;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        target().write(b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        target().write(bytes, offset, length);
+    }
+
+    /**
+     * Complete the current chunk and force it to disk
+     *
+     * @return stored length up to the end of the chunk (the resume point)
+     */
+    public long sealChunk() throws IOException {
+        if (chunk != null) {
+            chunk.finish();
+            chunk.release();
+            chunk = null;
+        }
+        flushBuffer();
+        channel.force(false);
+        sealedLength = length;
+        return sealedLength;
+    }
+
+    /**
+     * Seal the last chunk and publish the file under its final name
+     */
+    public TaskResultFile commit() throws IOException {
+        sealChunk();
+        channel.close();
+        closed = true;
+        Files.move(partPath, filePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        writtenBytes.increment(length);
+
+        log.info("Result committed: file={}, size={}", filePath, length);
+        return new TaskResultFile(filePath.getFileName().toString(), contentType, length,
+                HexFormat.of().formatHex(digest.digest()), expiresAt);
+    }
+
+    /**
+     * Without commit(): keep the sealed chunks for a resume, drop the unsealed tail
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (chunk != null) {
+            chunk.release();
+            chunk = null;
+        }
+        if (channel.isOpen()) {
+            try {
+                channel.truncate(sealedLength);
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    long length() {
+        return length;
+    }
+
+    private OutputStream target() throws IOException {
+        if (!gzip) {
+            return raw;
+        }
+        if (chunk == null) {
+            chunk = new ChunkGzipStream(raw);
+        }
+        return chunk;
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        digest.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            length += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * One gzip member per chunk; release() frees the native deflater without closing the file
+     */
+    private static class ChunkGzipStream extends GZIPOutputStream {
+
+        ChunkGzipStream(OutputStream out) throws IOException {
+            super(out, BUFFER_SIZE);
+        }
+
+        void release() {
+            def.end();
+        }
+    }
+}
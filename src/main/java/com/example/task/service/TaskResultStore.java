@@ -0,0 +1,211 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskResultFile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Task Result Store
+ * Result files of tasks on local disk, one directory per task:
+ *
+ * <pre>
+ * task.result.dir/&lt;taskId&gt;/&lt;name&gt;.part   while the executor writes (resumable)
+ * task.result.dir/&lt;taskId&gt;/&lt;name&gt;        after commit, served by GET /tasks/{taskId}/result
+ * </pre>
+ *
+ * Executors stream into a TaskResultSink and put only the returned TaskResultFile descriptor
+ * into tasks.result. With task.result.compression=gzip files are stored as <name>.gz.
+ *
+ * Files (and partial files of failed tasks) are deleted task.result.ttl-hours after their last
+ * write by a background sweep. The store is node-local: with several nodes, task.result.dir
+ * must be shared storage, or downloads must reach the node that ran the task.
+ */
+@Slf4j
+@Component
+public class TaskResultStore {
+
+    private static final String PART_SUFFIX = ".part";
+    private static final int REHASH_BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final boolean gzip;
+    private final Duration ttl;
+    private final Counter writtenBytes;
+    private final Counter expiredResults;
+
+    public TaskResultStore(MeterRegistry meterRegistry,
+                           @Value("${task.result.dir:data/results}") String directory,
+                           @Value("${task.result.compression:none}") String compression,
+                           @Value("${task.result.ttl-hours:72}") long ttlHours) {
+        this.directory = Path.of(directory).toAbsolutePath().normalize();
+        this.gzip = "gzip".equalsIgnoreCase(compression);
+        this.ttl = Duration.ofHours(ttlHours);
+        this.writtenBytes = Counter.builder("task.result.written.bytes")
+                .description("Bytes of committed result files")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.expiredResults = Counter.builder("task.result.expired")
+                .description("Result directories deleted by the TTL sweep")
+                .register(meterRegistry);
+        log.info("TaskResultStore initialized: dir={}, compression={}, ttl={}h", this.directory,
+                gzip ? "gzip" : "none", ttlHours);
+    }
+
+    /**
+     * Open the result file of a task for writing
+     *
+     * @param fileName     file name without the compression suffix (e.g. data-export.csv)
+     * @param contentType  media type of the uncompressed content
+     * @param resumeLength sealed length from the previous attempt's checkpoint (0 to start fresh);
+     *                     resumed only if this node still has the partial file, see TaskResultSink.isResumed()
+     */
+    public TaskResultSink openSink(String taskId, String fileName, String contentType, long resumeLength)
+            throws IOException {
+        Path taskDir = taskDirectory(taskId);
+        Files.createDirectories(taskDir);
+
+        String storedName = gzip ? fileName + ".gz" : fileName;
+        String storedType = gzip ? "application/gzip" : contentType;
+        Path filePath = taskDir.resolve(storedName);
+        Path partPath = taskDir.resolve(storedName + PART_SUFFIX);
+        MessageDigest digest = sha256();
+
+        boolean resumable = resumeLength > 0 && Files.exists(partPath) && Files.size(partPath) >= resumeLength;
+        FileChannel channel = FileChannel.open(partPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long length = resumable ? resumeLength : 0;
+            channel.truncate(length);
+            if (length > 0) {
+                rehash(channel, length, digest);
+            }
+            channel.position(length);
+            return new TaskResultSink(partPath, filePath, storedType, gzip, LocalDateTime.now().plus(ttl),
+                    channel, digest, length, writtenBytes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Path of a committed result file
+     *
+     * @return null if the file is gone (expired, or written on another node)
+     */
+    public Path resolve(String taskId, TaskResultFile file) {
+        Path path = taskDirectory(taskId).resolve(file.fileName()).normalize();
+        if (!path.startsWith(directory) || !Files.isRegularFile(path)) {
+            return null;
+        }
+        return path;
+    }
+
+    /**
+     * Delete task directories whose newest file is older than the TTL
+     */
+    @Scheduled(fixedDelayString = "${task.result.cleanup-interval-ms:600000}")
+    public void purgeExpired() {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(ttl));
+        int purged = 0;
+        try (Stream<Path> taskDirs = Files.list(directory)) {
+            for (Path taskDir : taskDirs.filter(Files::isDirectory).toList()) {
+                try {
+                    if (lastModified(taskDir).compareTo(cutoff) < 0) {
+                        deleteDirectory(taskDir);
+                        purged++;
+                    }
+                } catch (IOException e) {
+                    log.warn("Failed to purge result directory: {}", taskDir, e);
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to list result directory: {}", directory, e);
+        }
+
+        if (purged > 0) {
+            expiredResults.increment(purged);
+            log.info("Purged {} expired task result(s)", purged);
+        }
+    }
+
+    private Path taskDirectory(String taskId) {
+        Path taskDir = directory.resolve(taskId).normalize();
+        if (!taskDir.getParent().equals(directory)) {
+            throw new IllegalArgumentException("Invalid task id: " + taskId);
+        }
+        return taskDir;
+    }
+
+    private static FileTime lastModified(Path taskDir) throws IOException {
+        FileTime newest = Files.getLastModifiedTime(taskDir);
+        try (Stream<Path> files = Files.list(taskDir)) {
+            for (Path file : files.toList()) {
+                FileTime modified = Files.getLastModifiedTime(file);
+                if (modified.compareTo(newest) > 0) {
+                    newest = modified;
+                }
+            }
+        }
+        return newest;
+    }
+
+    private static void deleteDirectory(Path taskDir) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(taskDir)) {
+            files = listing.toList();
+        }
+        for (Path file : files) {
+            Files.deleteIfExists(file);
+        }
+        Files.deleteIfExists(taskDir);
+    }
+
+    /**
+     * Digest the sealed bytes of a resumed file, so the final checksum covers the whole file
+     */
+    private static void rehash(FileChannel channel, long length, MessageDigest digest) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(REHASH_BUFFER_SIZE);
+        long position = 0;
+        while (position < length) {
+            buffer.clear().limit((int) Math.min(REHASH_BUFFER_SIZE, length - position));
+            int n = channel.read(buffer, position);
+            if (n < 0) {
+                throw new IOException("Partial result file shorter than its checkpoint");
+            }
+            buffer.flip();
+            digest.update(buffer);
+            position += n;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
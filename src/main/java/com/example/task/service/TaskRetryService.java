@@ -0,0 +1,137 @@
+package com.example.task.service;
+
+import com.example.task.config.TaskRetryProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Task Retry Service
+ * Decides what happens to a failed execution under its task type's policy (task.retry.*):
+ * - retry after an exponential backoff with jitter:
+ *   delay = min(max-backoff, initial-backoff * multiplier^(attempt - 1)), of which the
+ *   jitter fraction is randomized
+ * - dead-letter once max-attempts executions failed, or at once when the exception is not
+ *   retryable (no-retry-on, or not in a non-empty retry-on; the whole cause chain is checked)
+ *
+ * Policies are resolved at startup (an unknown exception class fails the boot); task types
+ * without their own policy share the default one
+ */
+@Slf4j
+@Component
+public class TaskRetryService {
+
+    /**
+     * Why a failed task is not retried
+     */
+    public enum DeadLetterReason {
+        EXHAUSTED, NON_RETRYABLE
+    }
+
+    /**
+     * Outcome of a failed attempt: retry after delayMs, or dead-letter for reason
+     */
+    public record Decision(boolean retry, long delayMs, DeadLetterReason reason) {
+
+        static Decision retryAfter(long delayMs) {
+            return new Decision(true, delayMs, null);
+        }
+
+        static Decision deadLetter(DeadLetterReason reason) {
+            return new Decision(false, 0, reason);
+        }
+    }
+
+    private record Policy(int maxAttempts, long initialBackoffMs, double multiplier, long maxBackoffMs,
+                          double jitter, List<Class<?>> retryOn, List<Class<?>> noRetryOn) {
+    }
+
+    private final Policy defaultPolicy;
+    private final Map<String, Policy> typePolicies = new HashMap<>();
+
+    public TaskRetryService(TaskRetryProperties properties) {
+        this.defaultPolicy = resolve(properties.getPolicy());
+        for (String taskType : properties.getPolicies().keySet()) {
+            typePolicies.put(taskType, resolve(properties.policyFor(taskType)));
+        }
+        log.info("Task retry policies loaded: default={}, types={}", defaultPolicy, typePolicies.keySet());
+    }
+
+    /**
+     * Decide on a failed execution
+     *
+     * @param attempt the execution that failed, 1 for the first one
+     */
+    public Decision decide(String taskType, int attempt, Throwable failure) {
+        Policy policy = policyFor(taskType);
+
+        if (!isRetryable(policy, failure)) {
+            return Decision.deadLetter(DeadLetterReason.NON_RETRYABLE);
+        }
+        if (attempt >= policy.maxAttempts()) {
+            return Decision.deadLetter(DeadLetterReason.EXHAUSTED);
+        }
+        return Decision.retryAfter(backoffMs(policy, attempt));
+    }
+
+    private Policy policyFor(String taskType) {
+        Policy policy = taskType != null ? typePolicies.get(taskType) : null;
+        return policy != null ? policy : defaultPolicy;
+    }
+
+    private static long backoffMs(Policy policy, int attempt) {
+        double delay = policy.initialBackoffMs() * Math.pow(policy.multiplier(), attempt - 1);
+        long capped = (long) Math.min(delay, policy.maxBackoffMs());
+        long jitterMs = (long) (capped * policy.jitter() * ThreadLocalRandom.current().nextDouble());
+        return capped - jitterMs;
+    }
+
+    private static boolean isRetryable(Policy policy, Throwable failure) {
+        if (matches(policy.noRetryOn(), failure)) {
+            return false;
+        }
+        return policy.retryOn().isEmpty() || matches(policy.retryOn(), failure);
+    }
+
+    private static boolean matches(List<Class<?>> classes, Throwable failure) {
+        // Depth-bounded, in case of a cause cycle
+        Throwable current = failure;
+        for (int depth = 0; current != null && depth < 16; depth++) {
+            for (Class<?> type : classes) {
+                if (type.isInstance(current)) {
+                    return true;
+                }
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    private static Policy resolve(TaskRetryProperties.Policy policy) {
+        return new Policy(
+                Math.max(1, policy.getMaxAttempts()),
+                policy.getInitialBackoff().toMillis(),
+                Math.max(1.0, policy.getMultiplier()),
+                policy.getMaxBackoff().toMillis(),
+                Math.min(1.0, Math.max(0.0, policy.getJitter())),
+                loadClasses(policy.getRetryOn()),
+                loadClasses(policy.getNoRetryOn()));
+    }
+
+    private static List<Class<?>> loadClasses(List<String> names) {
+        List<Class<?>> classes = new ArrayList<>();
+        for (String name : names) {
+            try {
+                classes.add(Class.forName(name.trim()));
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Unknown exception class in task.retry policy: " + name, e);
+            }
+        }
+        return classes;
+    }
+}
@@ -1,20 +1,40 @@
 package com.example.task.service;
 
+import com.example.task.config.TaskTimeoutProperties;
 import com.example.task.entity.Task;
+import com.example.task.entity.TaskChangeEvent;
+import com.example.task.entity.TaskCursor;
+import com.example.task.entity.TaskDispatchMode;
 import com.example.task.entity.TaskMessage;
+import com.example.task.entity.TaskOutbox;
+import com.example.task.entity.TaskPriority;
+import com.example.task.entity.TaskSubmission;
+import com.example.task.repository.TaskArchiveRepository;
+import com.example.task.repository.TaskIdempotencyKeyRepository;
+import com.example.task.repository.TaskOutboxRepository;
 import com.example.task.repository.TaskRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.task.repository.TaskSummaryView;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.rocketmq.client.producer.DefaultMQProducer;
-import org.apache.rocketmq.common.message.Message;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * Task Service
@@ -25,146 +45,603 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class TaskService {
 
-    private final DefaultMQProducer rocketMQProducer;
-    private final ObjectMapper objectMapper;
+    // Statuses a delivery may move to RUNNING from (FAILED = redelivered retry)
+    private static final List<Task.TaskStatus> RUNNABLE_STATUSES =
+            List.of(Task.TaskStatus.PENDING, Task.TaskStatus.FAILED);
+
+    // Statuses a client may cancel from (in lifecycle order, see transitionToFinished)
+    // FAILED = awaiting a retry; a dead-lettered task is finished and stays FAILED
+    private static final List<Task.TaskStatus> CANCELLABLE_STATUSES =
+            List.of(Task.TaskStatus.SCHEDULED, Task.TaskStatus.PENDING, Task.TaskStatus.RUNNING, Task.TaskStatus.FAILED);
+
+    // Statuses that may still be marked FAILED (PENDING = send failure; in lifecycle order)
+    private static final List<Task.TaskStatus> FAILABLE_STATUSES =
+            List.of(Task.TaskStatus.PENDING, Task.TaskStatus.RUNNING);
+
+    // Open bounds of a listing's created_at range
+    private static final LocalDateTime LISTING_MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime LISTING_MAX_TIME = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private final TaskQueue taskQueue;
     private final TaskRepository taskRepository;
+    private final TaskArchiveRepository taskArchiveRepository;
+    private final TaskOutboxRepository taskOutboxRepository;
+    private final TaskIdempotencyKeyRepository taskIdempotencyKeyRepository;
+    private final TaskIdempotencyService taskIdempotencyService;
+    private final TaskProgressBuffer taskProgressBuffer;
+    private final TaskCheckpointStore taskCheckpointStore;
+    private final TaskCache taskCache;
+    private final TaskChangeNotifier taskChangeNotifier;
+    private final TaskStatistics taskStatistics;
+    private final TaskPipelineMetrics pipelineMetrics;
+
+    // A RUNNING attempt that started longer ago than the longest execution deadline is
+    // considered abandoned and may be taken over by a redelivery
+    private final TaskTimeoutProperties timeoutProperties;
+
+    @Value("${task.submission.dispatch-mode:direct}")
+    private TaskDispatchMode dispatchMode;
 
     /**
      * Create a new task
      */
     @Transactional
-    public Task createTask(String taskType, Map<String, Object> params) {
-        String taskId = UUID.randomUUID().toString();
-
-        Task task = Task.builder()
-                .id(taskId)
-                .taskType(taskType)
-                .status(Task.TaskStatus.PENDING)
-                .params(params)
-                .progress(0)
-                .retryCount(0)
-                .createdAt(LocalDateTime.now())
-                .build();
+    public Task createTask(TaskSubmission submission) {
+        return persistTask(buildTask(submission));
+    }
 
+    /**
+     * Persist a task built with buildTask()
+     * In OUTBOX mode the outbox entry is written in the same transaction (not for SCHEDULED
+     * tasks, which DelayedTaskScheduler enqueues when due); so is the idempotency key row,
+     * whose primary key makes a concurrent duplicate submission fail on commit
+     * The insert is timed through commit, when Hibernate actually flushes it
+     */
+    @Transactional
+    public Task persistTask(Task task) {
+        long startNanos = System.nanoTime();
         taskRepository.save(task);
 
-        log.info("Task created: taskId={}, taskType={}", taskId, taskType);
+        if (dispatchMode == TaskDispatchMode.OUTBOX && task.getStatus() == Task.TaskStatus.PENDING) {
+            taskOutboxRepository.save(TaskOutbox.fromTask(task));
+        }
+
+        String idempotencyKey = task.getIdempotencyKey();
+        if (idempotencyKey != null) {
+            taskIdempotencyKeyRepository.save(taskIdempotencyService.newKey(idempotencyKey, task.getId(), task.getCreatedAt()));
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pipelineMetrics.recordDbWrite(TaskPipelineMetrics.DbOperation.INSERT, System.nanoTime() - startNanos);
+                taskStatistics.created(task.getTaskType(), task.getStatus());
+                if (idempotencyKey != null) {
+                    taskIdempotencyService.remember(idempotencyKey, task.getId());
+                }
+            }
+        });
+
+        log.info("Task created: taskId={}, taskType={}, priority={}", task.getId(), task.getTaskType(), task.getPriority());
 
         return task;
     }
 
     /**
-     * Send task to RocketMQ
+     * Create a batch of tasks in one transaction
+     * With hibernate.jdbc.batch_size and rewriteBatchedStatements the inserts
+     * go out as multi-row INSERT statements instead of one round trip per task
      */
-    public void sendToQueue(Task task) {
-        TaskMessage taskMessage = TaskMessage.fromTask(task);
+    @Transactional
+    public List<Task> createTasks(List<TaskSubmission> submissions) {
+        List<Task> tasks = new ArrayList<>(submissions.size());
+        for (TaskSubmission submission : submissions) {
+            tasks.add(buildTask(submission));
+        }
 
-        try {
-            // 1. Convert message to JSON
-            String messageJson = objectMapper.writeValueAsString(taskMessage);
+        long startNanos = System.nanoTime();
+        taskRepository.saveAll(tasks);
+
+        if (dispatchMode == TaskDispatchMode.OUTBOX) {
+            taskOutboxRepository.saveAll(tasks.stream()
+                    .filter(task -> task.getStatus() == Task.TaskStatus.PENDING)
+                    .map(TaskOutbox::fromTask)
+                    .toList());
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pipelineMetrics.recordDbWrite(TaskPipelineMetrics.DbOperation.INSERT_BATCH, System.nanoTime() - startNanos);
+                for (Task task : tasks) {
+                    taskStatistics.created(task.getTaskType(), task.getStatus());
+                }
+            }
+        });
+
+        log.info("Task batch created: size={}", tasks.size());
+
+        return tasks;
+    }
+
+    /**
+     * Release due SCHEDULED tasks to PENDING
+     * Locks the rows that are still SCHEDULED (SKIP LOCKED, so concurrent nodes claim disjoint
+     * sets) and flips them in one UPDATE; in OUTBOX mode their outbox entries are written in
+     * the same transaction, otherwise the caller sends the returned tasks after commit
+     *
+     * @return the tasks released by this call
+     */
+    @Transactional
+    public List<Task> releaseScheduled(List<Task> dueTasks) {
+        long startNanos = System.nanoTime();
+        List<LocalDateTime> createdAts = createdAtsOf(dueTasks);
+        List<String> locked = taskRepository.lockScheduled(dueTasks.stream().map(Task::getId).toList(), createdAts);
+        if (locked.isEmpty()) {
+            return List.of();
+        }
+
+        taskRepository.transitionScheduledToPending(locked, createdAts, Task.TaskStatus.PENDING, Task.TaskStatus.SCHEDULED);
+
+        Set<String> lockedIds = new HashSet<>(locked);
+        List<Task> released = dueTasks.stream()
+                .filter(task -> lockedIds.contains(task.getId()))
+                .toList();
+        released.forEach(task -> task.setStatus(Task.TaskStatus.PENDING));
+
+        if (dispatchMode == TaskDispatchMode.OUTBOX) {
+            taskOutboxRepository.saveAll(released.stream().map(TaskOutbox::fromTask).toList());
+        }
+
+        // Invalidate and notify once the new status is visible
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pipelineMetrics.recordDbWrite(TaskPipelineMetrics.DbOperation.RELEASE_SCHEDULED, System.nanoTime() - startNanos);
+                for (Task task : released) {
+                    taskCache.invalidate(task.getId());
+                    taskChangeNotifier.publish(TaskChangeEvent.status(task.getId(), Task.TaskStatus.PENDING));
+                    taskStatistics.transitioned(task.getTaskType(), Task.TaskStatus.SCHEDULED, Task.TaskStatus.PENDING);
+                }
+            }
+        });
+
+        log.info("Scheduled tasks released: due={}, released={}", dueTasks.size(), released.size());
 
-            // 2. Create RocketMQ message
-            Message message = new Message(
-                    "task-topic",      // Topic
-                    "*",                // Tag (all)
-                    messageJson.getBytes(StandardCharsets.UTF_8)
-            );
+        return released;
+    }
+
+    /**
+     * Requeue FAILED tasks as fresh PENDING tasks (dead-letter replay)
+     * Locks the rows that are still FAILED (SKIP LOCKED), resets them in one UPDATE and deletes
+     * their checkpoints, so the new run starts from the first step; in
+     * OUTBOX mode their outbox entries are written in the same transaction, otherwise the
+     * caller sends the returned tasks after commit
+     *
+     * @return the tasks requeued by this call
+     */
+    @Transactional
+    public List<Task> requeueFailed(Collection<String> taskIds) {
+        long startNanos = System.nanoTime();
+        List<String> locked = taskRepository.lockFailed(taskIds);
+        if (locked.isEmpty()) {
+            return List.of();
+        }
+
+        taskRepository.transitionFailedToPending(locked, Task.TaskStatus.PENDING, Task.TaskStatus.FAILED);
+        // The requeued run starts over
+        taskCheckpointStore.deleteAll(locked);
+
+        List<Task> requeued = taskRepository.findAllById(locked);
+        if (dispatchMode == TaskDispatchMode.OUTBOX) {
+            taskOutboxRepository.saveAll(requeued.stream().map(TaskOutbox::fromTask).toList());
+        }
+
+        // Invalidate and notify once the new status is visible
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pipelineMetrics.recordDbWrite(TaskPipelineMetrics.DbOperation.REQUEUE_FAILED, System.nanoTime() - startNanos);
+                for (Task task : requeued) {
+                    taskCache.invalidate(task.getId());
+                    taskChangeNotifier.publish(TaskChangeEvent.status(task.getId(), Task.TaskStatus.PENDING));
+                    taskStatistics.transitioned(task.getTaskType(), Task.TaskStatus.FAILED, Task.TaskStatus.PENDING);
+                }
+            }
+        });
+
+        log.info("Failed tasks requeued: requested={}, requeued={}", taskIds.size(), requeued.size());
+
+        return requeued;
+    }
+
+    /**
+     * Build a new task with a fresh id (not persisted)
+     * PENDING, or SCHEDULED with runAt set when the submission asks for a later run time
+     */
+    public Task buildTask(TaskSubmission submission) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime runAt = submission.resolveRunAt(now);
+        return Task.builder()
+                .id(UUID.randomUUID().toString())
+                .taskType(submission.getTaskType())
+                .status(runAt != null ? Task.TaskStatus.SCHEDULED : Task.TaskStatus.PENDING)
+                .priority(TaskPriority.orDefault(submission.getPriority()))
+                .params(submission.getParams())
+                .progress(0)
+                .retryCount(0)
+                // Whole seconds, the precision of created_at: messages key updates on this value
+                .createdAt(now.truncatedTo(ChronoUnit.SECONDS))
+                .runAt(runAt)
+                .idempotencyKey(submission.getIdempotencyKey())
+                .build();
+    }
 
-            // 3. Send message using official SDK
-            rocketMQProducer.send(message);
+    /**
+     * Send task to the queue
+     */
+    public void sendToQueue(Task task) {
+        try {
+            taskQueue.enqueue(TaskMessage.fromTask(task));
 
             log.info("Task sent to queue: taskId={}", task.getId());
         } catch (Exception e) {
             log.error("Failed to send task to queue: taskId={}", task.getId(), e);
-            updateTaskStatus(task.getId(), Task.TaskStatus.FAILED, e.getMessage());
+            markAsFailed(task.getId(), task.getCreatedAt(), task.getTaskType(), e.getMessage());
+        }
+    }
+
+    /**
+     * Send task to the queue without blocking the caller
+     * The returned future completes when the queue has accepted the message; on failure the
+     * task is marked FAILED (same as sendToQueue) and the future completes with the FAILED task
+     *
+     * @param executor runs the completion, so the database update of a failed send never
+     *                 blocks the producer's callback threads
+     */
+    public CompletableFuture<Task> sendToQueueAsync(Task task, Executor executor) {
+        return taskQueue.enqueueAsync(TaskMessage.fromTask(task))
+                .handleAsync((ignored, e) -> {
+                    if (e != null) {
+                        return handleAsyncSendFailure(task, e);
+                    }
+                    log.info("Task sent to queue: taskId={}", task.getId());
+                    return task;
+                }, executor);
+    }
+
+    private Task handleAsyncSendFailure(Task task, Throwable e) {
+        log.error("Failed to send task to queue: taskId={}", task.getId(), e);
+        try {
+            markAsFailed(task.getId(), task.getCreatedAt(), task.getTaskType(), e.getMessage());
+        } catch (Exception updateError) {
+            log.error("Failed to mark task as FAILED: taskId={}", task.getId(), updateError);
+        }
+        task.setStatus(Task.TaskStatus.FAILED);
+        task.setErrorMessage(e.getMessage());
+        return task;
+    }
+
+    /**
+     * Send a batch of tasks to the queue
+     * The queue sends them in as few batch sends as it allows (RocketMQ: per priority lane,
+     * in chunks below batch-max-bytes); tasks of a send that fails are marked FAILED (in the
+     * database and on the returned entities)
+     */
+    public void sendBatchToQueue(List<Task> batch) {
+        Map<String, Task> tasksById = new HashMap<>(batch.size() * 2);
+        List<TaskMessage> messages = new ArrayList<>(batch.size());
+        for (Task task : batch) {
+            tasksById.put(task.getId(), task);
+            messages.add(TaskMessage.fromTask(task));
+        }
+
+        int[] failedCount = {0};
+        taskQueue.enqueueBatch(messages, (failed, e) -> {
+            log.error("Failed to send task batch to queue: size={}", failed.size(), e);
+            failedCount[0] += failed.size();
+            markBatchAsFailed(failed.stream().map(message -> tasksById.get(message.getTaskId())).toList(),
+                    e.getMessage());
+        });
+
+        log.info("Task batch sent to queue: size={}, failed={}", batch.size(), failedCount[0]);
+    }
+
+    /**
+     * Publish already-persisted task messages in batch sends
+     * Unlike sendBatchToQueue this does not touch task rows; it fails fast so the caller
+     * (the outbox relay) can roll back and retry
+     */
+    public void publish(List<TaskMessage> taskMessages) throws Exception {
+        taskQueue.enqueueAll(taskMessages);
+    }
+
+    private void markBatchAsFailed(List<Task> tasks, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        long startNanos = System.nanoTime();
+        int updated = taskRepository.transitionToFinished(tasks.stream().map(Task::getId).toList(), createdAtsOf(tasks),
+                Task.TaskStatus.FAILED, List.of(Task.TaskStatus.PENDING), errorMessage, now);
+        pipelineMetrics.recordDbWrite(TaskPipelineMetrics.DbOperation.MARK_FAILED, System.nanoTime() - startNanos);
+
+        // The rows were just created or released by this node, so normally all were still
+        // PENDING; otherwise which ones moved is unknown and the first 'updated' are counted
+        for (int i = 0; i < updated && i < tasks.size(); i++) {
+            taskStatistics.transitioned(tasks.get(i).getTaskType(), Task.TaskStatus.PENDING, Task.TaskStatus.FAILED);
+        }
+
+        for (Task task : tasks) {
+            task.setStatus(Task.TaskStatus.FAILED);
+            task.setErrorMessage(errorMessage);
+            task.setFinishedAt(now);
+            taskCache.invalidate(task.getId());
+            taskChangeNotifier.publish(TaskChangeEvent.status(task.getId(), Task.TaskStatus.FAILED));
         }
     }
 
     /**
      * Get task by ID
+     * Served from the near cache; a miss loads the row (no surrounding transaction, so a
+     * hit costs no connection checkout), falling back to tasks_archive for tasks the
+     * archiver already moved out. The returned task is a shared snapshot.
      */
-    @Transactional(readOnly = true)
     public Task getTask(String taskId) {
-        return taskRepository.findById(taskId).orElse(null);
+        return taskCache.get(taskId, id -> taskRepository.findById(id)
+                .or(() -> taskArchiveRepository.findById(id))
+                .orElse(null));
+    }
+
+    /**
+     * Get task by ID and creation time, as carried by its message
+     * Like getTask, but a cache miss reads only the task's partition
+     */
+    public Task getTask(String taskId, LocalDateTime createdAt) {
+        return taskCache.get(taskId, id -> taskRepository.findByIdAndCreatedAt(id, createdAt)
+                .or(() -> taskArchiveRepository.findById(id))
+                .orElse(null));
+    }
+
+    /**
+     * Creation time of a message's task: carried by the message, or looked up by id (across
+     * all partitions) for messages sent before TaskMessage carried it. A carried value with a
+     * fraction of a second predates whole-second creation times and cannot match the column
+     *
+     * @return null if the task does not exist
+     */
+    public LocalDateTime createdAtOf(TaskMessage taskMessage) {
+        LocalDateTime createdAt = taskMessage.getCreatedAt();
+        if (createdAt != null && createdAt.getNano() == 0) {
+            return createdAt;
+        }
+        Task task = getTask(taskMessage.getTaskId());
+        return task != null ? task.getCreatedAt() : null;
+    }
+
+    /**
+     * Progress of a task, reading through the write-behind progress buffer while it runs
+     */
+    public Integer getLiveProgress(Task task) {
+        if (task.getStatus() == Task.TaskStatus.RUNNING) {
+            Integer buffered = taskProgressBuffer.getProgress(task.getId());
+            if (buffered != null) {
+                return buffered;
+            }
+        }
+        return task.getProgress();
     }
 
+    /**
+     * One page of a task listing, newest first
+     * Filters are optional; createdTo is exclusive. Reads a projection through the composite
+     * index matching the filters, seeking past the cursor instead of using OFFSET
+     *
+     * @param cursor last task of the previous page, or null for the first page
+     */
+    public List<TaskSummaryView> listTasks(Task.TaskStatus status, String taskType, LocalDateTime createdFrom,
+                                           LocalDateTime createdTo, TaskCursor cursor, int limit) {
+        LocalDateTime from = createdFrom != null ? createdFrom : LISTING_MIN_TIME;
+        LocalDateTime before = cursor != null ? cursor.createdAt() : createdTo != null ? createdTo : LISTING_MAX_TIME;
+        String beforeId = cursor != null ? cursor.id() : "";
+        Limit pageLimit = Limit.of(limit);
+
+        if (status != null && taskType != null) {
+            return taskRepository.findPageByStatusAndTaskType(status, taskType, from, before, beforeId, pageLimit);
+        }
+        if (status != null) {
+            return taskRepository.findPageByStatus(status, from, before, beforeId, pageLimit);
+        }
+        if (taskType != null) {
+            return taskRepository.findPageByTaskType(taskType, from, before, beforeId, pageLimit);
+        }
+        return taskRepository.findPage(from, before, beforeId, pageLimit);
+    }
+
+    // Lifecycle transitions below are conditional UPDATEs, each committed by the repository's
+    // own transaction; the near cache is invalidated and TaskStatistics moved after that commit
+
     /**
      * Update task status to RUNNING
+     * Applies from PENDING, from FAILED (a redelivered retry), or from a RUNNING attempt that
+     * started longer ago than the longest execution deadline, timeout-minutes or any per-type
+     * timeout (the previous consumer died). For retries the retry count is incremented in the
+     * same statement.
+     * Statistics count a retry as leaving FAILED and a first attempt as leaving PENDING (a
+     * takeover of an abandoned RUNNING attempt is counted the same way).
+     *
+     * @return false if the transition did not apply (duplicate delivery, task already
+     *         finished, or task not found) and the message should be skipped
      */
-    @Transactional
-    public void markAsRunning(String taskId) {
-        taskRepository.findById(taskId).ifPresent(task -> {
-            task.setStatus(Task.TaskStatus.RUNNING);
-            task.setStartedAt(LocalDateTime.now());
-            taskRepository.save(task);
+    public boolean markAsRunning(String taskId, LocalDateTime createdAt, String taskType, boolean retry) {
+        LocalDateTime now = LocalDateTime.now();
+        long startNanos = System.nanoTime();
+        int updated = taskRepository.transitionToRunning(taskId, createdAt, Task.TaskStatus.RUNNING, RUNNABLE_STATUSES,
+                now, now.minus(timeoutProperties.longestTimeout()), retry ? 1 : 0);
+        pipelineMetrics.recordDbWrite(TaskPipelineMetrics.DbOperation.MARK_RUNNING, System.nanoTime() - startNanos);
 
-            log.info("Task marked as RUNNING: taskId={}", taskId);
-        });
+        if (updated == 0) {
+            log.info("Task not transitioned to RUNNING (duplicate or stale delivery): taskId={}", taskId);
+            return false;
+        }
+
+        taskCache.invalidate(taskId);
+        taskChangeNotifier.publish(TaskChangeEvent.status(taskId, Task.TaskStatus.RUNNING));
+        taskStatistics.transitioned(taskType, retry ? Task.TaskStatus.FAILED : Task.TaskStatus.PENDING,
+                Task.TaskStatus.RUNNING);
+
+        log.info("Task marked as RUNNING: taskId={}, retry={}", taskId, retry);
+        return true;
     }
 
     /**
      * Update task status to SUCCESS
+     *
+     * @return false if the task was no longer RUNNING
      */
-    @Transactional
-    public void markAsSuccess(String taskId, Map<String, Object> result) {
-        taskRepository.findById(taskId).ifPresent(task -> {
-            task.setStatus(Task.TaskStatus.SUCCESS);
-            task.setResult(result);
-            task.setProgress(100);
-            task.setFinishedAt(LocalDateTime.now());
-            taskRepository.save(task);
-
-            log.info("Task marked as SUCCESS: taskId={}", taskId);
-        });
+    public boolean markAsSuccess(String taskId, LocalDateTime createdAt, String taskType, Map<String, Object> result) {
+        long startNanos = System.nanoTime();
+        int updated = taskRepository.transitionToSuccess(taskId, createdAt, Task.TaskStatus.SUCCESS, Task.TaskStatus.RUNNING,
+                result, LocalDateTime.now());
+        pipelineMetrics.recordDbWrite(TaskPipelineMetrics.DbOperation.MARK_SUCCESS, System.nanoTime() - startNanos);
+        taskProgressBuffer.discard(taskId);
+        taskCheckpointStore.discard(taskId);
+
+        if (updated == 0) {
+            log.warn("Task not transitioned to SUCCESS (no longer RUNNING): taskId={}", taskId);
+            return false;
+        }
+
+        taskCache.invalidate(taskId);
+        taskChangeNotifier.publish(TaskChangeEvent.status(taskId, Task.TaskStatus.SUCCESS));
+        taskStatistics.transitioned(taskType, Task.TaskStatus.RUNNING, Task.TaskStatus.SUCCESS);
+
+        log.info("Task marked as SUCCESS: taskId={}", taskId);
+        return true;
     }
 
     /**
-     * Update task status to FAILED
+     * Update task status to FAILED (from PENDING or RUNNING)
+     *
+     * @return false if the task was already finished
      */
-    @Transactional
-    public void markAsFailed(String taskId, String errorMessage) {
-        updateTaskStatus(taskId, Task.TaskStatus.FAILED, errorMessage);
+    public boolean markAsFailed(String taskId, LocalDateTime createdAt, String taskType, String errorMessage) {
+        Task.TaskStatus from = transitionToFinished(taskId, createdAt, Task.TaskStatus.FAILED, FAILABLE_STATUSES, errorMessage);
+        taskProgressBuffer.discard(taskId);
+
+        if (from == null) {
+            log.warn("Task not transitioned to FAILED: taskId={}", taskId);
+            return false;
+        }
+
+        taskCache.invalidate(taskId);
+        taskChangeNotifier.publish(TaskChangeEvent.status(taskId, Task.TaskStatus.FAILED));
+        taskStatistics.transitioned(taskType, from, Task.TaskStatus.FAILED);
+
+        log.info("Task status updated: taskId={}, status={}", taskId, Task.TaskStatus.FAILED);
+        return true;
     }
 
     /**
-     * Increment retry count
+     * Update task status to CANCELLED (from SCHEDULED, PENDING, RUNNING, or FAILED with a
+     * retry still pending; the retry delivery is then skipped by markAsRunning)
+     * Stopping a running execution is up to the caller (see TaskCancellationService)
+     *
+     * @return false if the task does not exist or was already finished
      */
-    @Transactional
-    public void incrementRetryCount(String taskId) {
-        taskRepository.findById(taskId).ifPresent(task -> {
-            int newCount = task.getRetryCount() + 1;
-            task.setRetryCount(newCount);
-            taskRepository.save(task);
+    public boolean markAsCancelled(String taskId) {
+        Task task = getTask(taskId);
+        if (task == null) {
+            return false;
+        }
+        return finish(taskId, task.getCreatedAt(), task.getTaskType(), Task.TaskStatus.CANCELLED, CANCELLABLE_STATUSES,
+                "Cancelled by client");
+    }
 
-            log.info("Task retry count incremented: taskId={}, retryCount={}", taskId, newCount);
-        });
+    /**
+     * Update task status to TIMED_OUT (from RUNNING)
+     *
+     * @return false if the task was no longer RUNNING
+     */
+    public boolean markAsTimedOut(String taskId, LocalDateTime createdAt, String taskType, String errorMessage) {
+        return finish(taskId, createdAt, taskType, Task.TaskStatus.TIMED_OUT, List.of(Task.TaskStatus.RUNNING), errorMessage);
+    }
+
+    private boolean finish(String taskId, LocalDateTime createdAt, String taskType, Task.TaskStatus status,
+                           List<Task.TaskStatus> fromStatuses, String errorMessage) {
+        Task.TaskStatus from = transitionToFinished(taskId, createdAt, status, fromStatuses, errorMessage);
+
+        if (from == null) {
+            log.warn("Task not transitioned to {}: taskId={}", status, taskId);
+            return false;
+        }
+
+        taskProgressBuffer.discard(taskId);
+        taskCheckpointStore.discard(taskId);
+        taskCache.invalidate(taskId);
+        taskChangeNotifier.publish(TaskChangeEvent.status(taskId, status));
+        taskStatistics.transitioned(taskType, from, status);
+
+        log.info("Task status updated: taskId={}, status={}", taskId, status);
+        return true;
     }
 
     /**
-     * Update task progress
+     * Move a task to a finished status with one conditional UPDATE per source status, so the
+     * statistics know which status it left. Source statuses are tried in lifecycle order: a
+     * task that advances between two attempts is still caught by a later one. A FAILED task
+     * only moves if it has no dead letter, i.e. it still awaits a retry.
+     *
+     * @return the status the task left, or null if it was in none of fromStatuses
      */
-    @Transactional
-    public void updateProgress(String taskId, int progress) {
-        taskRepository.findById(taskId).ifPresent(task -> {
-            task.setProgress(progress);
-            taskRepository.save(task);
+    private Task.TaskStatus transitionToFinished(String taskId, LocalDateTime createdAt, Task.TaskStatus status,
+                                                 List<Task.TaskStatus> fromStatuses, String errorMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        long startNanos = System.nanoTime();
+        try {
+            for (Task.TaskStatus from : fromStatuses) {
+                int updated = from == Task.TaskStatus.FAILED
+                        ? taskRepository.transitionRetryingToFinished(List.of(taskId), List.of(createdAt), status, from,
+                                errorMessage, now)
+                        : taskRepository.transitionToFinished(List.of(taskId), List.of(createdAt), status, List.of(from),
+                                errorMessage, now);
+                if (updated > 0) {
+                    return from;
+                }
+            }
+            return null;
+        } finally {
+            pipelineMetrics.recordDbWrite(TaskPipelineMetrics.DbOperation.markAs(status), System.nanoTime() - startNanos);
+        }
+    }
 
-            log.debug("Task progress updated: taskId={}, progress={}", taskId, progress);
-        });
+    /**
+     * Find which of the given tasks are no longer RUNNING (cancelled, timed out or taken over)
+     */
+    public List<String> findNoLongerRunning(Collection<String> taskIds, Collection<LocalDateTime> createdAts) {
+        return taskRepository.findIdsNotInStatus(taskIds, createdAts, Task.TaskStatus.RUNNING);
     }
 
     /**
-     * Update task status
+     * Increment retry count
      */
-    @Transactional
-    private void updateTaskStatus(String taskId, Task.TaskStatus status, String errorMessage) {
-        taskRepository.findById(taskId).ifPresent(task -> {
-            task.setStatus(status);
-            task.setErrorMessage(errorMessage);
-            task.setFinishedAt(LocalDateTime.now());
-            taskRepository.save(task);
+    public void incrementRetryCount(String taskId, LocalDateTime createdAt) {
+        taskRepository.incrementRetryCount(taskId, createdAt);
 
-            log.info("Task status updated: taskId={}, status={}", taskId, status);
-        });
+        log.info("Task retry count incremented: taskId={}", taskId);
+    }
+
+    /**
+     * Update task progress (only while RUNNING)
+     * Writes immediately; executors should report through TaskProgressBuffer instead
+     */
+    public void updateProgress(String taskId, LocalDateTime createdAt, int progress) {
+        taskRepository.updateProgress(taskId, createdAt, Task.TaskStatus.RUNNING, progress);
+
+        log.debug("Task progress updated: taskId={}, progress={}", taskId, progress);
+    }
+
+    /**
+     * Distinct creation times of the given tasks, the partition keys of a batch update
+     */
+    private static List<LocalDateTime> createdAtsOf(List<Task> tasks) {
+        return tasks.stream().map(Task::getCreatedAt).distinct().toList();
     }
 }
@@ -0,0 +1,247 @@
+package com.example.task.service;
+
+import com.example.task.entity.Task;
+import com.example.task.repository.TaskRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Task Statistics
+ * Live aggregates behind GET /stats, maintained in memory by the lifecycle methods
+ * (TaskService, TaskMessageProcessor), so reading them never queries MySQL:
+ * - tasks per task type and status: LongAdder per (type, status), seeded once at boot from
+ *   one GROUP BY and then moved by every transition this node makes
+ * - throughput over sliding 1m / 5m / 15m windows: per-second LongAdder buckets
+ * - queue wait (due -> started) and execution (started -> finished) percentiles: HdrHistogram
+ *   recorders merged per window
+ *
+ * Counts cover the database as of boot plus this node's own transitions; with several nodes
+ * each one only sees its share of the transitions after boot
+ */
+@Slf4j
+@Component
+public class TaskStatistics {
+
+    /**
+     * Bucket for task types beyond max-task-types, and for transitions whose type is unknown
+     */
+    public static final String OTHER_TYPE = "OTHER";
+
+    /**
+     * Windows reported by GET /stats, in minutes
+     */
+    public static final List<Integer> WINDOW_MINUTES = List.of(1, 5, 15);
+
+    private static final Task.TaskStatus[] STATUSES = Task.TaskStatus.values();
+    private static final int MAX_WINDOW_MINUTES = 15;
+
+    // Latencies above a day are clamped; 2 significant digits keep each histogram at ~20KB
+    private static final long HIGHEST_TRACKABLE_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    /**
+     * Throughput over one window
+     */
+    public record Throughput(long submitted, long started, long succeeded, long failed, long cancelled,
+                             long timedOut, double completedPerSecond) {
+    }
+
+    /**
+     * Latency percentiles over one window, in milliseconds
+     */
+    public record Percentiles(long count, double mean, long p50, long p90, long p99, long p999, long max) {
+
+        static Percentiles of(Histogram histogram) {
+            if (histogram.getTotalCount() == 0) {
+                return new Percentiles(0, 0, 0, 0, 0, 0, 0);
+            }
+            return new Percentiles(histogram.getTotalCount(), histogram.getMean(),
+                    histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+                    histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9),
+                    histogram.getMaxValue());
+        }
+    }
+
+    private final TaskRepository taskRepository;
+
+    @Value("${task.stats.max-task-types:100}")
+    private int maxTaskTypes;
+
+    // taskType -> one adder per status (indexed by ordinal)
+    private final Map<String, LongAdder[]> counts = new ConcurrentHashMap<>();
+
+    private final SlidingWindowCounter submitted = new SlidingWindowCounter(MAX_WINDOW_MINUTES * 60);
+    private final Map<Task.TaskStatus, SlidingWindowCounter> entered = new EnumMap<>(Task.TaskStatus.class);
+
+    private final LatencyWindow queueWait = new LatencyWindow(MAX_WINDOW_MINUTES, HIGHEST_TRACKABLE_MILLIS, SIGNIFICANT_DIGITS);
+    private final LatencyWindow execution = new LatencyWindow(MAX_WINDOW_MINUTES, HIGHEST_TRACKABLE_MILLIS, SIGNIFICANT_DIGITS);
+
+    @Getter
+    private volatile LocalDateTime reconciledAt;
+
+    public TaskStatistics(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+        for (Task.TaskStatus status : List.of(Task.TaskStatus.RUNNING, Task.TaskStatus.SUCCESS,
+                Task.TaskStatus.FAILED, Task.TaskStatus.CANCELLED, Task.TaskStatus.TIMED_OUT)) {
+            entered.put(status, new SlidingWindowCounter(MAX_WINDOW_MINUTES * 60));
+        }
+    }
+
+    /**
+     * Cold start: seed the counts from the database
+     * Runs before TaskService (which depends on this bean) exists, so no transition of this
+     * node can be counted twice or lost. On failure the counts start from zero.
+     */
+    @PostConstruct
+    public void reconcile() {
+        try {
+            List<Object[]> rows = taskRepository.countByStatusAndTaskType();
+            for (Object[] row : rows) {
+                adders((String) row[1])[((Task.TaskStatus) row[0]).ordinal()].add((Long) row[2]);
+            }
+            reconciledAt = LocalDateTime.now();
+            log.info("Task statistics reconciled from database: groups={}", rows.size());
+        } catch (Exception e) {
+            log.warn("Failed to reconcile task statistics, counting from zero", e);
+        }
+    }
+
+    /**
+     * A task was created (PENDING or SCHEDULED)
+     */
+    public void created(String taskType, Task.TaskStatus status) {
+        adders(taskType)[status.ordinal()].increment();
+        submitted.add(1);
+    }
+
+    /**
+     * A task moved from one status to another
+     */
+    public void transitioned(String taskType, Task.TaskStatus from, Task.TaskStatus to) {
+        LongAdder[] adders = adders(taskType);
+        adders[from.ordinal()].decrement();
+        adders[to.ordinal()].increment();
+
+        SlidingWindowCounter counter = entered.get(to);
+        if (counter != null) {
+            counter.add(1);
+        }
+    }
+
+    /**
+     * Time a task waited in the queue: from when it was due (created, or runAt for a
+     * scheduled task) until its first attempt started
+     */
+    public void recordQueueWait(Task task) {
+        if (task.getStartedAt() == null || task.getCreatedAt() == null) {
+            return;
+        }
+        LocalDateTime due = task.getRunAt() != null && task.getRunAt().isAfter(task.getCreatedAt())
+                ? task.getRunAt()
+                : task.getCreatedAt();
+        queueWait.record(Duration.between(due, task.getStartedAt()).toMillis());
+    }
+
+    /**
+     * Duration of one execution attempt
+     */
+    public void recordExecution(long nanos) {
+        execution.record(TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    /**
+     * Tasks per status, across task types
+     */
+    public Map<Task.TaskStatus, Long> countsByStatus() {
+        Map<Task.TaskStatus, Long> result = new EnumMap<>(Task.TaskStatus.class);
+        for (Task.TaskStatus status : STATUSES) {
+            result.put(status, 0L);
+        }
+        for (LongAdder[] adders : counts.values()) {
+            for (Task.TaskStatus status : STATUSES) {
+                result.merge(status, adders[status.ordinal()].sum(), Long::sum);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tasks per task type and status (statuses with no tasks omitted)
+     */
+    public Map<String, Map<Task.TaskStatus, Long>> countsByTaskType() {
+        Map<String, Map<Task.TaskStatus, Long>> result = new TreeMap<>();
+        counts.forEach((taskType, adders) -> {
+            Map<Task.TaskStatus, Long> byStatus = new EnumMap<>(Task.TaskStatus.class);
+            for (Task.TaskStatus status : STATUSES) {
+                long count = adders[status.ordinal()].sum();
+                if (count != 0) {
+                    byStatus.put(status, count);
+                }
+            }
+            result.put(taskType, byStatus);
+        });
+        return result;
+    }
+
+    public Throughput throughput(int windowMinutes) {
+        int seconds = windowMinutes * 60;
+        long succeeded = entered.get(Task.TaskStatus.SUCCESS).sum(seconds);
+        long failed = entered.get(Task.TaskStatus.FAILED).sum(seconds);
+        long cancelled = entered.get(Task.TaskStatus.CANCELLED).sum(seconds);
+        long timedOut = entered.get(Task.TaskStatus.TIMED_OUT).sum(seconds);
+        return new Throughput(submitted.sum(seconds), entered.get(Task.TaskStatus.RUNNING).sum(seconds),
+                succeeded, failed, cancelled, timedOut,
+                (double) (succeeded + failed + cancelled + timedOut) / seconds);
+    }
+
+    public Percentiles queueWait(int windowMinutes) {
+        return Percentiles.of(queueWait.snapshot(windowMinutes));
+    }
+
+    public Percentiles execution(int windowMinutes) {
+        return Percentiles.of(execution.snapshot(windowMinutes));
+    }
+
+    /**
+     * Drain the latency recorders into the current minute, so values are attributed to the
+     * minute they were recorded in even when nobody reads the statistics
+     */
+    @Scheduled(fixedDelayString = "${task.stats.drain-interval-ms:5000}")
+    public void drain() {
+        queueWait.drain();
+        execution.drain();
+    }
+
+    private LongAdder[] adders(String taskType) {
+        String key = taskType != null ? taskType : OTHER_TYPE;
+        LongAdder[] adders = counts.get(key);
+        if (adders != null) {
+            return adders;
+        }
+        if (counts.size() >= maxTaskTypes) {
+            key = OTHER_TYPE;
+        }
+        return counts.computeIfAbsent(key, k -> {
+            LongAdder[] created = new LongAdder[STATUSES.length];
+            for (int i = 0; i < created.length; i++) {
+                created[i] = new LongAdder();
+            }
+            return created;
+        });
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.task.service;
+
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskDispatchMode;
+import com.example.task.entity.TaskSubmission;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Task Submission Service
+ * Creates tasks and gets them onto the queue according to task.submission.dispatch-mode:
+ * - DIRECT: insert the row, then send to RocketMQ on the request thread
+ * - OUTBOX: insert the row plus an outbox entry atomically; OutboxRelay publishes later
+ * - TRANSACTIONAL: RocketMQ half message + local transaction inserting the row
+ *
+ * Tasks with a later run time (runAt/delay) are only inserted as SCHEDULED in every mode;
+ * DelayedTaskScheduler enqueues them when due
+ *
+ * A submission with an idempotency key that was already used returns the task created the
+ * first time instead of creating another one (see TaskIdempotencyService)
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskSubmissionService {
+
+    private final TaskService taskService;
+    private final ObjectProvider<TransactionalTaskPublisher> transactionalTaskPublisher;
+    private final DelayedTaskScheduler delayedTaskScheduler;
+    private final TaskIdempotencyService taskIdempotencyService;
+
+    @Value("${task.submission.dispatch-mode:direct}")
+    private TaskDispatchMode dispatchMode;
+
+    /**
+     * Submit a single task
+     */
+    public Task submit(TaskSubmission submission) {
+        return submitOnce(submission, this::doSubmit, task -> task);
+    }
+
+    /**
+     * Run a submission unless its idempotency key was already used
+     *
+     * @param submit creates the task (inserting the key row in the same transaction)
+     * @param replay turns the task created earlier for the same key into the result
+     */
+    public <T> T submitOnce(TaskSubmission submission, Function<TaskSubmission, T> submit, Function<Task, T> replay) {
+        String key = submission.getIdempotencyKey();
+        if (key == null) {
+            return submit.apply(submission);
+        }
+
+        // 1. Known key: no insert at all (usually answered from memory)
+        Task existing = findByKey(taskIdempotencyService.findTaskId(key));
+        if (existing != null) {
+            log.info("Duplicate submission: idempotencyKey={}, taskId={}", key, existing.getId());
+            return replay.apply(existing);
+        }
+
+        // 2. New key: the key row is inserted with the task
+        try {
+            return submit.apply(submission);
+        } catch (DataIntegrityViolationException | IllegalStateException e) {
+            // A concurrent submission with the same key won the insert (or the key row was stale);
+            // TRANSACTIONAL mode reports the failed local transaction as IllegalStateException
+            String taskId = taskIdempotencyService.findTaskIdAfterConflict(key);
+            existing = findByKey(taskId);
+            if (existing != null) {
+                log.info("Duplicate submission (concurrent): idempotencyKey={}, taskId={}", key, taskId);
+                return replay.apply(existing);
+            }
+            if (taskId == null && e instanceof DataIntegrityViolationException) {
+                // Stale expired key removed: retry once
+                return submit.apply(submission);
+            }
+            throw e;
+        }
+    }
+
+    private Task findByKey(String taskId) {
+        return taskId != null ? taskService.getTask(taskId) : null;
+    }
+
+    private Task doSubmit(TaskSubmission submission) {
+        Task task = taskService.buildTask(submission);
+
+        if (task.getStatus() == Task.TaskStatus.SCHEDULED) {
+            taskService.persistTask(task);
+            delayedTaskScheduler.schedule(task);
+            return task;
+        }
+
+        switch (dispatchMode) {
+            case OUTBOX:
+                return taskService.persistTask(task);
+            case TRANSACTIONAL:
+                return transactionalTaskPublisher.getObject().publish(task);
+            default:
+                taskService.persistTask(task);
+                taskService.sendToQueue(task);
+                return task;
+        }
+    }
+
+    /**
+     * Submit a batch of tasks
+     */
+    public List<Task> submitBatch(List<TaskSubmission> submissions) {
+        switch (dispatchMode) {
+            case OUTBOX:
+                return scheduleDeferred(taskService.createTasks(submissions));
+            case TRANSACTIONAL:
+                // Transactional messages cannot be batched; each task gets its own half message
+                List<Task> tasks = new ArrayList<>(submissions.size());
+                for (TaskSubmission submission : submissions) {
+                    tasks.add(submit(submission));
+                }
+                return tasks;
+            default:
+                List<Task> created = scheduleDeferred(taskService.createTasks(submissions));
+                List<Task> immediate = created.stream()
+                        .filter(task -> task.getStatus() == Task.TaskStatus.PENDING)
+                        .toList();
+                if (!immediate.isEmpty()) {
+                    taskService.sendBatchToQueue(immediate);
+                }
+                return created;
+        }
+    }
+
+    /**
+     * Hand the SCHEDULED tasks of a committed batch to the delayed task scheduler
+     */
+    private List<Task> scheduleDeferred(List<Task> tasks) {
+        for (Task task : tasks) {
+            if (task.getStatus() == Task.TaskStatus.SCHEDULED) {
+                delayedTaskScheduler.schedule(task);
+            }
+        }
+        return tasks;
+    }
+
+    public TaskDispatchMode getDispatchMode() {
+        return dispatchMode;
+    }
+}
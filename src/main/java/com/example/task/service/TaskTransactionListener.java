@@ -0,0 +1,68 @@
+package com.example.task.service;
+
+import com.example.task.entity.Task;
+import com.example.task.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.producer.LocalTransactionState;
+import org.apache.rocketmq.client.producer.TransactionListener;
+import org.apache.rocketmq.common.message.Message;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Task Transaction Listener
+ * Local transaction for transactional task messages: inserting the task row
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "task.submission.dispatch-mode", havingValue = "transactional")
+public class TaskTransactionListener implements TransactionListener {
+
+    private final TaskService taskService;
+    private final TaskRepository taskRepository;
+
+    /**
+     * Half messages younger than this are reported UNKNOW on a check instead of rolled back,
+     * since the local transaction may still be in flight
+     */
+    @Value("${task.submission.transactional.check-grace-seconds:60}")
+    private long checkGraceSeconds;
+
+    @Override
+    public LocalTransactionState executeLocalTransaction(Message message, Object arg) {
+        Task task = (Task) arg;
+        try {
+            taskService.persistTask(task);
+            return LocalTransactionState.COMMIT_MESSAGE;
+        } catch (Exception e) {
+            log.error("Local transaction failed, rolling back message: taskId={}", task.getId(), e);
+            return LocalTransactionState.ROLLBACK_MESSAGE;
+        }
+    }
+
+    /**
+     * Broker-initiated check for half messages whose outcome was never reported
+     * (e.g. the app crashed between the insert and the commit ack)
+     */
+    @Override
+    public LocalTransactionState checkLocalTransaction(MessageExt message) {
+        String taskId = message.getKeys();
+
+        if (taskRepository.existsById(taskId)) {
+            log.info("Transaction check committed: taskId={}", taskId);
+            return LocalTransactionState.COMMIT_MESSAGE;
+        }
+
+        long ageMillis = System.currentTimeMillis() - message.getBornTimestamp();
+        if (ageMillis < checkGraceSeconds * 1000L) {
+            return LocalTransactionState.UNKNOW;
+        }
+
+        log.warn("Transaction check rolled back, task row not found: taskId={}", taskId);
+        return LocalTransactionState.ROLLBACK_MESSAGE;
+    }
+}
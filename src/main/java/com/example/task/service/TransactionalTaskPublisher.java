@@ -0,0 +1,50 @@
+package com.example.task.service;
+
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.rocketmq.client.producer.LocalTransactionState;
+import org.apache.rocketmq.client.producer.TransactionMQProducer;
+import org.apache.rocketmq.client.producer.TransactionSendResult;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+/**
+ * Transactional Task Publisher
+ * Publishes a task as a RocketMQ transactional message: the half message is stored first,
+ * then TaskTransactionListener inserts the task row as the local transaction and the
+ * message becomes visible only if that insert committed
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnExpression("'${task.submission.dispatch-mode:direct}' == 'transactional' and '${task.queue.transport:rocketmq}' == 'rocketmq'")
+public class TransactionalTaskPublisher {
+
+    private final TransactionMQProducer transactionMQProducer;
+    private final RocketMQTaskQueue rocketMQTaskQueue;
+
+    /**
+     * Publish a task built with TaskService.buildTask()
+     */
+    public Task publish(Task task) {
+        TransactionSendResult result;
+        try {
+            result = transactionMQProducer.sendMessageInTransaction(rocketMQTaskQueue.toMessage(TaskMessage.fromTask(task)), task);
+        } catch (Exception e) {
+            log.error("Failed to send transactional message: taskId={}", task.getId(), e);
+            throw new IllegalStateException("Failed to submit task: " + e.getMessage(), e);
+        }
+
+        if (result.getLocalTransactionState() != LocalTransactionState.COMMIT_MESSAGE) {
+            log.error("Task local transaction not committed: taskId={}, state={}",
+                    task.getId(), result.getLocalTransactionState());
+            throw new IllegalStateException("Failed to create task: " + task.getId());
+        }
+
+        log.info("Task sent to queue (transactional): taskId={}, msgId={}", task.getId(), result.getMsgId());
+
+        return task;
+    }
+}
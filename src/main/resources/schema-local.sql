@@ -0,0 +1,27 @@
+-- Tables of the local profile that have no JPA entity (the entity tables are created by Hibernate)
+-- Mirrors docker/mysql/init.sql
+CREATE TABLE IF NOT EXISTS task_checkpoints (
+    task_id VARCHAR(64) PRIMARY KEY,
+    step INT NOT NULL,
+    state VARBINARY(4096) NULL,
+    updated_at TIMESTAMP(3) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS tasks_archive (
+    id VARCHAR(64) PRIMARY KEY,
+    task_type VARCHAR(32) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    priority VARCHAR(8) NOT NULL DEFAULT 'NORMAL',
+    params JSON,
+    result JSON,
+    error_message TEXT,
+    progress INT DEFAULT 0,
+    retry_count INT DEFAULT 0,
+    created_at TIMESTAMP NOT NULL,
+    run_at TIMESTAMP(3) NULL,
+    started_at TIMESTAMP NULL,
+    finished_at TIMESTAMP NULL,
+    archived_at TIMESTAMP(3) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_archive_archived_at ON tasks_archive (archived_at);
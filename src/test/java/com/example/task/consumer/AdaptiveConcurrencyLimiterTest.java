@@ -0,0 +1,138 @@
+package com.example.task.consumer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private AdaptiveConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        // Not a Hikari data source: no pool saturation signal
+        limiter = new AdaptiveConcurrencyLimiter(mock(DataSource.class), new SimpleMeterRegistry(), 10);
+        ReflectionTestUtils.setField(limiter, "enabled", true);
+        ReflectionTestUtils.setField(limiter, "minLimit", 2);
+        ReflectionTestUtils.setField(limiter, "maxLimit", 50);
+        ReflectionTestUtils.setField(limiter, "tolerance", 1.5);
+        ReflectionTestUtils.setField(limiter, "smoothing", 0.2);
+        ReflectionTestUtils.setField(limiter, "dbBackoffRatio", 0.9);
+    }
+
+    @Test
+    void blocksAtTheLimitUntilAPermitIsReleased() throws Exception {
+        long[] starts = new long[10];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = limiter.acquire();
+        }
+        assertTrue(limiter.isSaturated());
+
+        CompletableFuture<Long> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return limiter.acquire();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertThrows(TimeoutException.class, () -> waiting.get(200, TimeUnit.MILLISECONDS));
+
+        limiter.release(starts[0]);
+        waiting.get(5, TimeUnit.SECONDS);
+        assertEquals(10, limiter.getInFlight());
+    }
+
+    @Test
+    void growsWhileLatencyStaysFlatAndTheLimitIsUsed() throws Exception {
+        holdPermits(6);
+
+        for (int window = 0; window < 10; window++) {
+            sample(20, 20);
+            limiter.adjust();
+        }
+
+        assertTrue(limiter.getLimit() > 10, "limit " + limiter.getLimit());
+    }
+
+    @Test
+    void doesNotGrowWhileMostPermitsAreIdle() throws Exception {
+        for (int window = 0; window < 10; window++) {
+            sample(20, 20);
+            limiter.adjust();
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    @Test
+    void shrinksWhenLatencyRisesAboveTheBaseline() throws Exception {
+        holdPermits(6);
+        for (int window = 0; window < 5; window++) {
+            sample(20, 20);
+            limiter.adjust();
+        }
+        int baselineLimit = limiter.getLimit();
+
+        for (int window = 0; window < 10; window++) {
+            sample(20, 200);
+            limiter.adjust();
+        }
+
+        assertTrue(limiter.getLimit() < baselineLimit,
+                "limit " + limiter.getLimit() + " not below " + baselineLimit);
+    }
+
+    @Test
+    void staysWithinMinLimit() throws Exception {
+        for (int window = 0; window < 5; window++) {
+            sample(20, 10);
+            limiter.adjust();
+        }
+        for (int window = 0; window < 50; window++) {
+            sample(20, 1_000);
+            limiter.adjust();
+        }
+
+        assertEquals(2, limiter.getLimit());
+    }
+
+    @Test
+    void keepsTheLimitWithoutSamplesOrWhenDisabled() throws Exception {
+        limiter.adjust();
+        assertEquals(10, limiter.getLimit());
+
+        ReflectionTestUtils.setField(limiter, "enabled", false);
+        sample(20, 1_000);
+        limiter.adjust();
+        assertEquals(10, limiter.getLimit());
+        assertFalse(limiter.isSaturated());
+    }
+
+    private void holdPermits(int permits) throws InterruptedException {
+        for (int i = 0; i < permits; i++) {
+            limiter.acquire();
+        }
+    }
+
+    /**
+     * Complete tasks that each took latencyMs
+     */
+    private void sample(int tasks, long latencyMs) throws InterruptedException {
+        for (int i = 0; i < tasks; i++) {
+            long start = limiter.acquire();
+            limiter.release(start - TimeUnit.MILLISECONDS.toNanos(latencyMs));
+        }
+    }
+}
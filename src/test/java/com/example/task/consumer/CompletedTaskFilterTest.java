@@ -0,0 +1,32 @@
+package com.example.task.consumer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompletedTaskFilterTest {
+
+    @Test
+    void skipsOnlyTasksCompletedOnThisNode() {
+        CompletedTaskFilter filter = new CompletedTaskFilter(new SimpleMeterRegistry(), 1_000, 60, 10_000, 0.01);
+
+        assertEquals(CompletedTaskFilter.Lookup.NEW, filter.lookup("task-1"));
+
+        filter.markCompleted("task-1", "msg-1");
+
+        assertEquals(CompletedTaskFilter.Lookup.COMPLETED, filter.lookup("task-1"));
+        assertEquals(CompletedTaskFilter.Lookup.NEW, filter.lookup("task-2"));
+    }
+
+    @Test
+    void bloomPositiveWithoutLruEntryIsLeftToTheDatabase() {
+        // 64-bit filter, saturated: every other key is a probable hit
+        CompletedTaskFilter filter = new CompletedTaskFilter(new SimpleMeterRegistry(), 1_000, 60, 1, 0.5);
+        for (int i = 0; i < 50; i++) {
+            filter.markCompleted("task-" + i, "msg-" + i);
+        }
+
+        assertEquals(CompletedTaskFilter.Lookup.UNKNOWN, filter.lookup("task-100"));
+    }
+}
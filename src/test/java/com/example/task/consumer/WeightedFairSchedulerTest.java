@@ -0,0 +1,143 @@
+package com.example.task.consumer;
+
+import com.example.task.entity.TaskPriority;
+import com.example.task.repository.TaskRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class WeightedFairSchedulerTest {
+
+    private static final int WAITERS_PER_LANE = 30;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final WeightedFairScheduler scheduler =
+            new WeightedFairScheduler(mock(TaskRepository.class), meterRegistry, 7, 2, 1);
+
+    // Platform threads: the waiters block in Object.wait
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    // The gate: one permit per release(), grants recorded in the order the gate hands them out
+    private final Semaphore permits = new Semaphore(0);
+    private final List<TaskPriority> grants = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void grantsPermitsInProportionToTheWeightsUnderContention() throws Exception {
+        WeightedFairScheduler.Group group = scheduler.group("DEFAULT");
+        List<Future<Long>> waiters = new ArrayList<>();
+        for (TaskPriority lane : TaskPriority.values()) {
+            for (int i = 0; i < WAITERS_PER_LANE; i++) {
+                waiters.add(executor.submit(() -> group.acquire(lane, () -> take(lane))));
+            }
+        }
+        // One waiter is already at the gate, the rest queue for their turn
+        awaitWaiting("DEFAULT", 3 * WAITERS_PER_LANE - 1);
+
+        // The first grant went to whichever waiter arrived first; the next 30 are three full
+        // rounds of 7 + 2 + 1 turns
+        release(1 + 30);
+
+        Map<TaskPriority, Integer> counts = new EnumMap<>(TaskPriority.class);
+        synchronized (grants) {
+            for (TaskPriority lane : grants.subList(1, 31)) {
+                counts.merge(lane, 1, Integer::sum);
+            }
+        }
+        assertEquals(Map.of(TaskPriority.HIGH, 21, TaskPriority.NORMAL, 6, TaskPriority.LOW, 3), counts);
+
+        release(3 * WAITERS_PER_LANE - 31);
+        for (Future<Long> waiter : waiters) {
+            waiter.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void idleLanesDoNotHoldUpABusyOne() throws Exception {
+        WeightedFairScheduler.Group group = scheduler.group("DEFAULT");
+        List<Future<Long>> waiters = new ArrayList<>();
+        for (int i = 0; i < WAITERS_PER_LANE; i++) {
+            waiters.add(executor.submit(() -> group.acquire(TaskPriority.LOW, () -> take(TaskPriority.LOW))));
+        }
+
+        release(WAITERS_PER_LANE);
+        for (Future<Long> waiter : waiters) {
+            waiter.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(WAITERS_PER_LANE, grants.size());
+    }
+
+    @Test
+    void aBlockedGroupDoesNotHoldUpAnother() throws Exception {
+        CountDownLatch atGate = new CountDownLatch(1);
+        executor.submit(() -> scheduler.group("DATA_EXPORT").acquire(TaskPriority.HIGH, () -> {
+            atGate.countDown();
+            return take(TaskPriority.HIGH);
+        }));
+        assertTrue(atGate.await(5, TimeUnit.SECONDS));
+
+        long value = scheduler.group("DEFAULT").acquire(TaskPriority.HIGH, () -> 42L);
+        assertEquals(42L, value);
+    }
+
+    private long take(TaskPriority lane) throws InterruptedException {
+        permits.acquire();
+        synchronized (grants) {
+            grants.add(lane);
+            grants.notifyAll();
+        }
+        return lane.ordinal();
+    }
+
+    /**
+     * Hand out permits one at a time, so each grant is a separate turn
+     */
+    private void release(int count) throws InterruptedException {
+        for (int i = 0; i < count; i++) {
+            int granted;
+            synchronized (grants) {
+                granted = grants.size();
+            }
+            permits.release();
+            synchronized (grants) {
+                long deadline = System.currentTimeMillis() + 5_000;
+                while (grants.size() == granted && System.currentTimeMillis() < deadline) {
+                    grants.wait(100);
+                }
+            }
+        }
+    }
+
+    private void awaitWaiting(String group, int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (waiting(group) < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, waiting(group));
+    }
+
+    private int waiting(String group) {
+        return (int) meterRegistry.find("task.lane.waiting").tag("type", group).gauges().stream()
+                .mapToDouble(gauge -> gauge.value())
+                .sum();
+    }
+}
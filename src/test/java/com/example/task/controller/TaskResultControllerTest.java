@@ -0,0 +1,188 @@
+package com.example.task.controller;
+
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskResultFile;
+import com.example.task.service.TaskResultStore;
+import com.example.task.service.TaskService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TaskResultControllerTest {
+
+    private static final String TASK_ID = "task-1";
+    private static final String CONTENT = "0123456789";
+    private static final String ETAG = "\"abc123\"";
+
+    private final TaskService taskService = mock(TaskService.class);
+    private final TaskResultStore resultStore = mock(TaskResultStore.class);
+    private final TaskResultController controller = new TaskResultController(taskService, resultStore);
+
+    @TempDir
+    Path dir;
+
+    private Path path;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        path = Files.writeString(dir.resolve("result.csv"), CONTENT, StandardCharsets.US_ASCII);
+        givenResult(LocalDateTime.now().plusDays(1));
+        when(resultStore.resolve(eq(TASK_ID), any(TaskResultFile.class))).thenReturn(path);
+    }
+
+    @Test
+    void downloadsTheWholeFileWithItsEtag() throws Exception {
+        MockHttpServletResponse response = download(request());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals("text/csv", response.getContentType());
+    }
+
+    @Test
+    void servesSingleRanges() throws Exception {
+        assertPartial("bytes=2-5", "2345", "bytes 2-5/10");
+        assertPartial("bytes=7-", "789", "bytes 7-9/10");
+        assertPartial("bytes=-3", "789", "bytes 7-9/10");
+        // An end past the file is clamped to its last byte
+        assertPartial("bytes=8-100", "89", "bytes 8-9/10");
+    }
+
+    @Test
+    void rejectsRangesPastTheEnd() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=10-");
+
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    void sendsTheWholeFileForMultipleRanges() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-1,5-6");
+
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+    }
+
+    @Test
+    void answersNotModifiedForTheCurrentEtag() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"other\", " + ETAG);
+
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(304, response.getStatus());
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    void ignoresTheRangeWhenIfRangeNamesAnotherVersion() throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"stale\"");
+
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+
+        MockHttpServletRequest current = request();
+        current.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        current.addHeader(HttpHeaders.IF_RANGE, ETAG);
+        assertEquals("2345", download(current).getContentAsString());
+    }
+
+    @Test
+    void answersNotFoundAndGone() throws Exception {
+        when(taskService.getTask(TASK_ID)).thenReturn(null);
+        assertEquals(404, download(request()).getStatus());
+
+        givenResult(LocalDateTime.now().minusMinutes(1));
+        assertEquals(410, download(request()).getStatus());
+    }
+
+    @Test
+    void headSendsHeadersOnly() throws Exception {
+        MockHttpServletRequest request = request();
+        request.setMethod("HEAD");
+
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(200, response.getStatus());
+        assertEquals(10, response.getContentLengthLong());
+        assertEquals("", response.getContentAsString());
+    }
+
+    @Test
+    void handsTheBodyToSendfileWhenSupported() throws Exception {
+        MockHttpServletRequest request = request();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("", response.getContentAsString());
+        assertEquals(path.toRealPath().toString(), request.getAttribute("org.apache.tomcat.sendfile.filename"));
+        assertEquals(2L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(6L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    private void assertPartial(String range, String body, String contentRange) throws Exception {
+        MockHttpServletRequest request = request();
+        request.addHeader(HttpHeaders.RANGE, range);
+
+        MockHttpServletResponse response = download(request);
+
+        assertEquals(206, response.getStatus(), range);
+        assertEquals(body, response.getContentAsString(), range);
+        assertEquals(contentRange, response.getHeader(HttpHeaders.CONTENT_RANGE), range);
+        assertEquals(body.length(), response.getContentLengthLong(), range);
+        assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+    }
+
+    private void givenResult(LocalDateTime expiresAt) {
+        TaskResultFile file = new TaskResultFile("result.csv", "text/csv", CONTENT.length(), "abc123", expiresAt);
+        when(taskService.getTask(TASK_ID)).thenReturn(Task.builder()
+                .id(TASK_ID)
+                .status(Task.TaskStatus.SUCCESS)
+                .result(Map.of(TaskResultFile.RESULT_KEY, file.toMap(TASK_ID)))
+                .build());
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/tasks/" + TASK_ID + "/result");
+    }
+
+    private MockHttpServletResponse download(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.downloadResult(TASK_ID, request, response);
+        return response;
+    }
+}
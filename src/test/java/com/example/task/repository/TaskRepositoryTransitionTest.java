@@ -0,0 +1,124 @@
+package com.example.task.repository;
+
+import com.example.task.entity.Task;
+import com.example.task.entity.TaskPriority;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@DataJpaTest
+class TaskRepositoryTransitionTest {
+
+    private static final EnumSet<Task.TaskStatus> RUNNABLE = EnumSet.of(Task.TaskStatus.PENDING, Task.TaskStatus.FAILED);
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void runsPendingTaskOnlyOnce() {
+        Task task = insert(Task.TaskStatus.PENDING, null);
+
+        assertEquals(1, toRunning(task, now.minusMinutes(30), 0));
+        // Redelivery while the first attempt is still running
+        assertEquals(0, toRunning(task, now.minusMinutes(30), 0));
+
+        Task running = reload(task);
+        assertEquals(Task.TaskStatus.RUNNING, running.getStatus());
+        assertEquals(now, running.getStartedAt());
+        assertEquals(0, running.getRetryCount());
+    }
+
+    @Test
+    void takesOverRunningTaskOnlyWhenStale() {
+        Task task = insert(Task.TaskStatus.RUNNING, now.minusHours(1));
+
+        assertEquals(0, toRunning(task, now.minusHours(2), 1));
+        assertEquals(1, toRunning(task, now.minusMinutes(30), 1));
+
+        Task running = reload(task);
+        assertEquals(now, running.getStartedAt());
+        assertEquals(1, running.getRetryCount());
+    }
+
+    @Test
+    void retriesFailedTaskAndCountsTheAttempt() {
+        Task task = insert(Task.TaskStatus.FAILED, now.minusMinutes(5));
+
+        assertEquals(1, toRunning(task, now.minusMinutes(30), 1));
+        assertEquals(1, reload(task).getRetryCount());
+    }
+
+    @Test
+    void succeedsOnlyFromRunning() {
+        Task pending = insert(Task.TaskStatus.PENDING, null);
+        assertEquals(0, toSuccess(pending));
+        assertEquals(Task.TaskStatus.PENDING, reload(pending).getStatus());
+
+        Task running = insert(Task.TaskStatus.RUNNING, now);
+        assertEquals(1, toSuccess(running));
+        assertEquals(0, toSuccess(running));
+
+        Task succeeded = reload(running);
+        assertEquals(Task.TaskStatus.SUCCESS, succeeded.getStatus());
+        assertEquals(100, succeeded.getProgress());
+        assertEquals(Map.of("rows", 1), succeeded.getResult());
+    }
+
+    @Test
+    void lateFailureDoesNotOverwriteSuccess() {
+        Task task = insert(Task.TaskStatus.SUCCESS, now);
+
+        int changed = taskRepository.transitionToFinished(List.of(task.getId()), List.of(task.getCreatedAt()),
+                Task.TaskStatus.FAILED, EnumSet.of(Task.TaskStatus.RUNNING), "late failure", now);
+
+        assertEquals(0, changed);
+        Task unchanged = reload(task);
+        assertEquals(Task.TaskStatus.SUCCESS, unchanged.getStatus());
+        assertNull(unchanged.getErrorMessage());
+    }
+
+    private int toRunning(Task task, LocalDateTime staleBefore, int retryIncrement) {
+        return taskRepository.transitionToRunning(task.getId(), task.getCreatedAt(), Task.TaskStatus.RUNNING,
+                RUNNABLE, now, staleBefore, retryIncrement);
+    }
+
+    private int toSuccess(Task task) {
+        return taskRepository.transitionToSuccess(task.getId(), task.getCreatedAt(), Task.TaskStatus.SUCCESS,
+                Task.TaskStatus.RUNNING, Map.of("rows", 1), now);
+    }
+
+    private Task insert(Task.TaskStatus status, LocalDateTime startedAt) {
+        return taskRepository.saveAndFlush(Task.builder()
+                .id(UUID.randomUUID().toString())
+                .taskType("DATA_EXPORT")
+                .status(status)
+                .priority(TaskPriority.NORMAL)
+                .progress(0)
+                .retryCount(0)
+                .createdAt(now.minusMinutes(10))
+                .startedAt(startedAt)
+                .build());
+    }
+
+    private Task reload(Task task) {
+        // The conditional UPDATEs bypass the persistence context of the test's transaction
+        entityManager.clear();
+        return taskRepository.findByIdAndCreatedAt(task.getId(), task.getCreatedAt()).orElseThrow();
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskMessage;
+import com.example.task.entity.TaskPriority;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryTaskMessageCodecTest {
+
+    private final BinaryTaskMessageCodec codec = new BinaryTaskMessageCodec();
+
+    @Test
+    void roundTripsUuidTaskIdInCompactForm() {
+        TaskMessage message = message(UUID.randomUUID().toString(), "DATA_EXPORT", 3, TaskPriority.HIGH);
+
+        byte[] body = codec.encode(message);
+
+        // header (4) + UUID (16) + type id (1) + retryCount (1)
+        assertEquals(22, body.length);
+        assertEquals(message, codec.decode(body));
+    }
+
+    @Test
+    void roundTripsNonUuidTaskIdsUnchanged() {
+        for (String taskId : new String[]{"task-42", "", "550E8400-E29B-41D4-A716-446655440000",
+                "550e8400-e29b-41d4-a716-44665544000g", "zadanie-żółw-✓"}) {
+            TaskMessage message = message(taskId, "DATA_IMPORT", 0, TaskPriority.NORMAL);
+            assertEquals(message, codec.decode(codec.encode(message)), taskId);
+        }
+    }
+
+    @Test
+    void roundTripsUnknownTaskTypeInline() {
+        TaskMessage message = message(UUID.randomUUID().toString(), "CUSTOM_REINDEX", 1, TaskPriority.LOW);
+        assertEquals(message, codec.decode(codec.encode(message)));
+    }
+
+    @Test
+    void roundTripsAbsentOptionalFields() {
+        TaskMessage message = message(UUID.randomUUID().toString(), null, null, null);
+        assertEquals(message, codec.decode(codec.encode(message)));
+    }
+
+    @Test
+    void roundTripsWholeSecondCreatedAt() {
+        TaskMessage message = message(UUID.randomUUID().toString(), "DATA_EXPORT", 0, TaskPriority.NORMAL);
+        message.setCreatedAt(LocalDateTime.of(2026, 3, 14, 15, 9, 26));
+
+        byte[] body = codec.encode(message);
+
+        // + createdAt as epoch seconds (8)
+        assertEquals(30, body.length);
+        assertEquals(message, codec.decode(body));
+    }
+
+    @Test
+    void omitsCreatedAtWithFractionalSeconds() {
+        TaskMessage message = message("task-42", "DATA_EXPORT", 0, TaskPriority.NORMAL);
+        message.setCreatedAt(LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_000_000));
+
+        assertNull(codec.decode(codec.encode(message)).getCreatedAt());
+    }
+
+    @Test
+    void decodesFromBufferPositionToLimit() {
+        TaskMessage message = message("task-7", "REPORT_GENERATION", 300, TaskPriority.HIGH);
+        byte[] body = codec.encode(message);
+
+        // Body embedded in a larger buffer, as read from a journal segment
+        ByteBuffer buffer = ByteBuffer.allocate(body.length + 10);
+        buffer.position(5);
+        buffer.put(body);
+        buffer.position(5).limit(5 + body.length);
+
+        assertEquals(message, codec.decode(buffer));
+        assertEquals(5, buffer.position());
+    }
+
+    @Test
+    void rejectsUnknownTaskTypeId() {
+        byte[] body = codec.encode(message(UUID.randomUUID().toString(), "DATA_EXPORT", null, null));
+        // Type id follows the 4-byte header and 16-byte UUID
+        body[20] = 99;
+
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(body));
+    }
+
+    @Test
+    void rejectsTruncatedInput() {
+        for (TaskMessage message : new TaskMessage[]{
+                message(UUID.randomUUID().toString(), "DATA_EXPORT", 200, TaskPriority.HIGH),
+                message("task-42", "CUSTOM_REINDEX", 1, TaskPriority.LOW)}) {
+            byte[] body = codec.encode(message);
+            for (int length = 0; length < body.length; length++) {
+                byte[] truncated = Arrays.copyOf(body, length);
+                assertThrows(IllegalArgumentException.class, () -> codec.decode(truncated),
+                        message.getTaskId() + " truncated to " + length);
+            }
+        }
+    }
+
+    @Test
+    void rejectsBadMagicAndUnsupportedVersion() {
+        byte[] body = codec.encode(message(UUID.randomUUID().toString(), "DATA_EXPORT", 0, TaskPriority.NORMAL));
+
+        byte[] badMagic = body.clone();
+        badMagic[0] = '{';
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(badMagic));
+
+        byte[] newerVersion = body.clone();
+        newerVersion[1] = BinaryTaskMessageCodec.VERSION + 1;
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(newerVersion));
+
+        byte[] zeroVersion = body.clone();
+        zeroVersion[1] = 0;
+        assertThrows(IllegalArgumentException.class, () -> codec.decode(zeroVersion));
+    }
+
+    private static TaskMessage message(String taskId, String taskType, Integer retryCount, TaskPriority priority) {
+        return TaskMessage.builder()
+                .taskId(taskId)
+                .taskType(taskType)
+                .retryCount(retryCount)
+                .priority(priority)
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.task.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    @Test
+    void neverReportsAnAddedKeyAsAbsent() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("task-" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("task-" + i), "task-" + i);
+        }
+    }
+
+    @Test
+    void keepsFalsePositivesNearTheConfiguredRate() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("task-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000, "false positives " + falsePositives);
+    }
+
+    @Test
+    void sizesBitsFromExpectedKeysAndRate() {
+        // m = -n ln p / (ln 2)^2 = 95851 bits for n = 10000, p = 0.01, rounded up to whole words
+        assertEquals(95872, new BloomFilter(10_000, 0.01).bitCount());
+        assertEquals(64, new BloomFilter(0, 0.5).bitCount());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.task.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTest {
+
+    // 10ms ticks, 4 slots, 2 levels: level 0 covers 40ms, level 1 covers 160ms
+    private static final long TICK_MS = 10;
+
+    private final HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK_MS, 4, 2, 0);
+
+    @Test
+    void reportsRange() {
+        assertEquals(160, wheel.rangeMillis());
+    }
+
+    @Test
+    void expiresLevelZeroItemOnItsTick() {
+        List<String> expired = new ArrayList<>();
+        assertTrue(wheel.add("a", 30));
+
+        wheel.advance(29, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(30, expired::add);
+        assertEquals(List.of("a"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesHigherLevelItemsAcrossLevelBoundary() {
+        List<String> expired = new ArrayList<>();
+        // Beyond level 0 (40ms): held at level 1, cascaded down at the 40ms / 120ms boundaries
+        assertTrue(wheel.add("early", 50));
+        assertTrue(wheel.add("late", 150));
+        assertEquals(2, wheel.size());
+
+        wheel.advance(40, expired::add);
+        assertTrue(expired.isEmpty());
+        assertEquals(2, wheel.size());
+
+        wheel.advance(49, expired::add);
+        assertTrue(expired.isEmpty());
+        wheel.advance(50, expired::add);
+        assertEquals(List.of("early"), expired);
+
+        wheel.advance(149, expired::add);
+        assertEquals(List.of("early"), expired);
+        wheel.advance(150, expired::add);
+        assertEquals(List.of("early", "late"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rejectsItemsAlreadyDueOrBeyondRange() {
+        wheel.advance(100, item -> {
+        });
+
+        assertFalse(wheel.add("past", 90));
+        assertFalse(wheel.add("now", 100));
+        // The range counts from the current tick: 100ms + 160ms is one tick too far
+        assertFalse(wheel.add("beyond", 260));
+        assertTrue(wheel.add("edge", 250));
+        assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void expiresEveryItemWithinOneTickOfItsDueTime() {
+        Random random = new Random(42);
+        Map<String, Long> dueTimes = new HashMap<>();
+        Map<String, Long> expiredAt = new HashMap<>();
+
+        long now = 0;
+        for (int step = 0; step < 2_000; step++) {
+            // Items are added at every point of the wheel's rotation, with any delay in range
+            // (short of the last tick, which the current tick's offset may push out of range)
+            if (random.nextInt(3) == 0) {
+                String item = "item-" + step;
+                long due = now + 1 + random.nextInt((int) (wheel.rangeMillis() - 2 * TICK_MS));
+                assertTrue(wheel.add(item, due), "due " + due + " at " + now);
+                dueTimes.put(item, due);
+            }
+            now += 1 + random.nextInt(7);
+            long advancedTo = now;
+            wheel.advance(now, item -> expiredAt.put(item, advancedTo));
+        }
+        while (wheel.size() > 0) {
+            now += 1 + random.nextInt(7);
+            long advancedTo = now;
+            wheel.advance(now, item -> expiredAt.put(item, advancedTo));
+        }
+
+        assertEquals(dueTimes.keySet(), expiredAt.keySet());
+        for (Map.Entry<String, Long> entry : dueTimes.entrySet()) {
+            long at = expiredAt.get(entry.getKey());
+            assertTrue(at >= entry.getValue(), entry.getKey() + " expired early at " + at);
+            assertTrue(at < entry.getValue() + TICK_MS + 7, entry.getKey() + " expired late at " + at);
+        }
+        assertEquals(0, wheel.size());
+    }
+}
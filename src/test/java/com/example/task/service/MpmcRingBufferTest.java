@@ -0,0 +1,126 @@
+package com.example.task.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MpmcRingBufferTest {
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertEquals(4, new MpmcRingBuffer<Integer>(3).capacity());
+        assertEquals(8, new MpmcRingBuffer<Integer>(8).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new MpmcRingBuffer<Integer>(1));
+    }
+
+    @Test
+    void rejectsOfferWhenFullAndReturnsNullWhenEmpty() {
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(4);
+        assertNull(buffer.poll());
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        for (int i = 0; i < 4; i++) {
+            assertEquals(i, buffer.poll());
+        }
+        assertNull(buffer.poll());
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void keepsFifoOrderAcrossManyLaps() {
+        MpmcRingBuffer<Integer> buffer = new MpmcRingBuffer<>(4);
+        int next = 0;
+        int expected = 0;
+        for (int lap = 0; lap < 1_000; lap++) {
+            // Three in, three out: the head and tail wrap around at a different slot every lap
+            for (int i = 0; i < 3; i++) {
+                assertTrue(buffer.offer(next++));
+            }
+            for (int i = 0; i < 3; i++) {
+                assertEquals(expected++, buffer.poll());
+            }
+        }
+        assertNull(buffer.poll());
+    }
+
+    @Test
+    void deliversEveryItemExactlyOnceWithConcurrentProducersAndConsumers() throws Exception {
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 100_000;
+        long total = (long) producers * perProducer;
+
+        MpmcRingBuffer<Long> buffer = new MpmcRingBuffer<>(1024);
+        AtomicLong consumed = new AtomicLong();
+        AtomicLong sum = new AtomicLong();
+        AtomicInteger[] seen = new AtomicInteger[producers * perProducer];
+        for (int i = 0; i < seen.length; i++) {
+            seen[i] = new AtomicInteger();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(producers + consumers);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            Future<?>[] futures = new Future<?>[producers + consumers];
+            for (int p = 0; p < producers; p++) {
+                long first = (long) p * perProducer;
+                futures[p] = executor.submit(() -> {
+                    start.await();
+                    for (long value = first; value < first + perProducer; value++) {
+                        while (!buffer.offer(value)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (int c = 0; c < consumers; c++) {
+                futures[producers + c] = executor.submit(() -> {
+                    start.await();
+                    while (consumed.get() < total) {
+                        Long value = buffer.poll();
+                        if (value == null) {
+                            Thread.onSpinWait();
+                            continue;
+                        }
+                        seen[value.intValue()].incrementAndGet();
+                        sum.addAndGet(value);
+                        consumed.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(total, consumed.get());
+        assertEquals(total * (total - 1) / 2, sum.get());
+        for (AtomicInteger count : seen) {
+            assertEquals(1, count.get());
+        }
+        assertNull(buffer.poll());
+    }
+}
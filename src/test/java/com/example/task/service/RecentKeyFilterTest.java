@@ -0,0 +1,65 @@
+package com.example.task.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecentKeyFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void answersRecentKeysFromMemory() {
+        RecentKeyFilter filter = filter(Duration.ofMinutes(10));
+
+        assertFalse(filter.mightContain("key-1"));
+        filter.put("key-1", "task-1");
+
+        assertEquals("task-1", filter.getIfPresent("key-1"));
+        assertTrue(filter.mightContain("key-1"));
+        assertNull(filter.getIfPresent("key-2"));
+        assertFalse(filter.mightContain("key-2"));
+
+        assertEquals(1, lookups("hit"));
+        assertEquals(2, lookups("new"));
+        assertEquals(1, lookups("probable"));
+    }
+
+    @Test
+    void remembersKeysForOneToTwoRetentionPeriods() throws InterruptedException {
+        RecentKeyFilter filter = filter(Duration.ofMillis(50));
+        filter.put("key-1", "task-1");
+
+        // One period later: gone from the LRU, still in the previous Bloom generation,
+        // so the caller has to ask the source of truth
+        Thread.sleep(60);
+        assertNull(filter.getIfPresent("key-1"));
+        assertTrue(filter.mightContain("key-1"));
+
+        // Two periods later: both generations rotated past it
+        Thread.sleep(60);
+        assertFalse(filter.mightContain("key-1"));
+    }
+
+    @Test
+    void countsFalsePositives() {
+        RecentKeyFilter filter = filter(Duration.ofMinutes(10));
+        filter.recordFalsePositive();
+
+        assertEquals(1, meterRegistry.get("task.dedup.false.positives").tag("filter", "test").counter().count());
+    }
+
+    private RecentKeyFilter filter(Duration retention) {
+        return new RecentKeyFilter("test", 1_000, retention, 10_000, 0.01, meterRegistry);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get("task.dedup.lookups").tag("filter", "test").tag("result", result).counter().count();
+    }
+}
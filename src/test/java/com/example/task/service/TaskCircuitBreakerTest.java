@@ -0,0 +1,152 @@
+package com.example.task.service;
+
+import com.example.task.config.TaskRetryProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class TaskCircuitBreakerTest {
+
+    private static final String TYPE = "DATA_EXPORT";
+
+    private final TaskRetryProperties properties = new TaskRetryProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private TaskCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        TaskRetryProperties.CircuitBreaker config = properties.getCircuitBreaker();
+        config.setMinimumCalls(10);
+        config.setFailureRateThreshold(0.5);
+        config.setOpenDuration(Duration.ofMillis(50));
+        config.setHalfOpenProbes(2);
+        breaker = new TaskCircuitBreaker(properties, meterRegistry, 100);
+    }
+
+    @Test
+    void staysClosedBelowTheMinimumCallsOrThreshold() {
+        execute(9, TaskCircuitBreaker.Outcome.FAILURE);
+        assertEquals(TaskCircuitBreaker.State.CLOSED, state());
+
+        execute(20, TaskCircuitBreaker.Outcome.SUCCESS);
+        execute(10, TaskCircuitBreaker.Outcome.FAILURE);
+        // 19 failures out of 39
+        assertEquals(TaskCircuitBreaker.State.CLOSED, state());
+    }
+
+    @Test
+    void opensAtTheFailureRateAndParksTheType() {
+        execute(5, TaskCircuitBreaker.Outcome.SUCCESS);
+        execute(5, TaskCircuitBreaker.Outcome.FAILURE);
+
+        assertEquals(TaskCircuitBreaker.State.OPEN, state());
+        assertNull(breaker.tryAcquire(TYPE));
+        assertEquals(1, meterRegistry.get("task.circuit.parked").tag("type", TYPE).counter().count());
+
+        // Other types are unaffected
+        assertNotNull(breaker.tryAcquire("DATA_IMPORT"));
+    }
+
+    @Test
+    void closesOnceEveryProbeSucceeds() throws InterruptedException {
+        open();
+        Thread.sleep(60);
+
+        TaskCircuitBreaker.Permit first = breaker.tryAcquire(TYPE);
+        TaskCircuitBreaker.Permit second = breaker.tryAcquire(TYPE);
+        assertNotNull(first);
+        assertNotNull(second);
+        assertEquals(TaskCircuitBreaker.State.HALF_OPEN, state());
+        // Probes all handed out
+        assertNull(breaker.tryAcquire(TYPE));
+
+        breaker.record(first, TaskCircuitBreaker.Outcome.SUCCESS);
+        assertEquals(TaskCircuitBreaker.State.HALF_OPEN, state());
+        breaker.record(second, TaskCircuitBreaker.Outcome.SUCCESS);
+        assertEquals(TaskCircuitBreaker.State.CLOSED, state());
+
+        // Fresh window: the failures that opened the breaker are forgotten
+        execute(1, TaskCircuitBreaker.Outcome.FAILURE);
+        assertEquals(TaskCircuitBreaker.State.CLOSED, state());
+    }
+
+    @Test
+    void reopensWhenAProbeFails() throws InterruptedException {
+        open();
+        Thread.sleep(60);
+
+        breaker.record(breaker.tryAcquire(TYPE), TaskCircuitBreaker.Outcome.FAILURE);
+
+        assertEquals(TaskCircuitBreaker.State.OPEN, state());
+        assertNull(breaker.tryAcquire(TYPE));
+    }
+
+    @Test
+    void ignoredProbeHandsItsPermitBack() throws InterruptedException {
+        open();
+        Thread.sleep(60);
+        breaker.tryAcquire(TYPE);
+        TaskCircuitBreaker.Permit skipped = breaker.tryAcquire(TYPE);
+
+        breaker.record(skipped, TaskCircuitBreaker.Outcome.IGNORED);
+
+        assertNotNull(breaker.tryAcquire(TYPE));
+    }
+
+    @Test
+    void lateOutcomesFromBeforeTheBreakerOpenedAreNotProbes() throws InterruptedException {
+        // Admitted while CLOSED, still running when the breaker opens
+        TaskCircuitBreaker.Permit slowSuccess = breaker.tryAcquire(TYPE);
+        TaskCircuitBreaker.Permit slowFailure = breaker.tryAcquire(TYPE);
+        open();
+        Thread.sleep(60);
+
+        TaskCircuitBreaker.Permit probe = breaker.tryAcquire(TYPE);
+        assertEquals(TaskCircuitBreaker.State.HALF_OPEN, state());
+
+        // The late failure does not reopen the breaker...
+        breaker.record(slowFailure, TaskCircuitBreaker.Outcome.FAILURE);
+        assertEquals(TaskCircuitBreaker.State.HALF_OPEN, state());
+
+        // ...and the late success does not stand in for the second probe
+        breaker.record(slowSuccess, TaskCircuitBreaker.Outcome.SUCCESS);
+        breaker.record(probe, TaskCircuitBreaker.Outcome.SUCCESS);
+        assertEquals(TaskCircuitBreaker.State.HALF_OPEN, state());
+
+        breaker.record(breaker.tryAcquire(TYPE), TaskCircuitBreaker.Outcome.SUCCESS);
+        assertEquals(TaskCircuitBreaker.State.CLOSED, state());
+    }
+
+    @Test
+    void admitsEverythingWhenDisabled() {
+        properties.getCircuitBreaker().setEnabled(false);
+        breaker = new TaskCircuitBreaker(properties, new SimpleMeterRegistry(), 100);
+
+        for (int i = 0; i < 50; i++) {
+            breaker.record(breaker.tryAcquire(TYPE), TaskCircuitBreaker.Outcome.FAILURE);
+        }
+        assertNotNull(breaker.tryAcquire(TYPE));
+    }
+
+    private void open() {
+        execute(10, TaskCircuitBreaker.Outcome.FAILURE);
+        assertEquals(TaskCircuitBreaker.State.OPEN, state());
+    }
+
+    private void execute(int times, TaskCircuitBreaker.Outcome outcome) {
+        for (int i = 0; i < times; i++) {
+            breaker.record(breaker.tryAcquire(TYPE), outcome);
+        }
+    }
+
+    private TaskCircuitBreaker.State state() {
+        double ordinal = meterRegistry.get("task.circuit.state").tag("type", TYPE).gauge().value();
+        return TaskCircuitBreaker.State.values()[(int) ordinal];
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskIdempotencyKey;
+import com.example.task.repository.TaskIdempotencyKeyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskIdempotencyServiceTest {
+
+    private final TaskIdempotencyKeyRepository repository = mock(TaskIdempotencyKeyRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void newKeyNeedsNoLookup() {
+        TaskIdempotencyService service = service(0.01);
+
+        assertNull(service.findTaskId("key-1"));
+        verify(repository, never()).findById(anyString());
+    }
+
+    @Test
+    void rememberedKeyIsAnsweredFromMemory() {
+        TaskIdempotencyService service = service(0.01);
+        service.remember("key-1", "task-1");
+
+        assertEquals("task-1", service.findTaskId("key-1"));
+        verify(repository, never()).findById(anyString());
+    }
+
+    @Test
+    void probableKeyIsLookedUpOnceThenCached() {
+        TaskIdempotencyService service = service(0.5);
+        saturate(service);
+        LocalDateTime now = LocalDateTime.now();
+        when(repository.findById("key-1")).thenReturn(Optional.of(key("key-1", "task-1", now.plusHours(1))));
+
+        assertEquals("task-1", service.findTaskId("key-1"));
+        assertEquals("task-1", service.findTaskId("key-1"));
+        verify(repository, times(1)).findById("key-1");
+    }
+
+    @Test
+    void probableKeyMissingFromTheDatabaseIsAFalsePositive() {
+        TaskIdempotencyService service = service(0.5);
+        saturate(service);
+        when(repository.findById(anyString())).thenReturn(Optional.empty());
+
+        assertNull(service.findTaskId("key-1"));
+        assertEquals(1, meterRegistry.get("task.dedup.false.positives").tag("filter", "submission").counter().count());
+    }
+
+    @Test
+    void expiredKeyIsRemovedAndTreatedAsNew() {
+        TaskIdempotencyService service = service(0.01);
+        LocalDateTime now = LocalDateTime.now();
+        when(repository.findById("key-1")).thenReturn(Optional.of(key("key-1", "task-1", now.minusMinutes(1))));
+
+        assertNull(service.findTaskIdAfterConflict("key-1"));
+        verify(repository).deleteIfExpired(eq("key-1"), any(LocalDateTime.class));
+    }
+
+    @Test
+    void newKeyExpiresAfterTheTtl() {
+        LocalDateTime now = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+        TaskIdempotencyKey key = service(0.01).newKey("key-1", "task-1", now);
+
+        assertEquals(now.plusHours(24), key.getExpiresAt());
+    }
+
+    private TaskIdempotencyService service(double falsePositiveRate) {
+        long expectedKeys = falsePositiveRate >= 0.5 ? 1 : 10_000;
+        return new TaskIdempotencyService(repository, meterRegistry, 24, 1_000, expectedKeys, falsePositiveRate);
+    }
+
+    /**
+     * Fill the 64-bit filter of service(0.5), so every other key is a probable hit
+     */
+    private static void saturate(TaskIdempotencyService service) {
+        for (int i = 0; i < 50; i++) {
+            service.remember("seed-" + i, "task-" + i);
+        }
+    }
+
+    private static TaskIdempotencyKey key(String key, String taskId, LocalDateTime expiresAt) {
+        return TaskIdempotencyKey.builder()
+                .idempotencyKey(key)
+                .taskId(taskId)
+                .createdAt(expiresAt.minusHours(24))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.task.service;
+
+import com.example.task.entity.TaskMessage;
+import com.example.task.entity.TaskPriority;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskQueueJournalTest {
+
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    // PUT record: type (1) + seq (8) + reconsumeTimes (4) + dueMillis (8) + length (4) + body
+    private static final int PUT_HEADER_SIZE = 25;
+    private static final int ACK_SIZE = 9;
+
+    private final BinaryTaskMessageCodec codec = new BinaryTaskMessageCodec();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversNothingFromEmptyDirectory() {
+        TaskQueueJournal journal = journal();
+        assertTrue(journal.recover().isEmpty());
+        assertEquals(0, journal.maxSeq());
+        journal.close();
+    }
+
+    @Test
+    void recoversLiveMessagesAfterAckAndRePut() {
+        TaskMessage first = message();
+        TaskMessage second = message();
+        TaskMessage third = message();
+
+        TaskQueueJournal journal = open();
+        journal.put(1, first, 0, 0);
+        journal.put(2, second, 0, 0);
+        journal.put(3, third, 0, 0);
+        journal.ack(1);
+        // Nack of the second message: re-put with its retry attempt and due time
+        journal.put(2, second, 1, 5_000);
+        journal.close();
+
+        TaskQueueJournal recovered = journal();
+        List<TaskQueueJournal.Entry> entries = recovered.recover();
+
+        // The re-put keeps the message's enqueue order
+        assertEquals(List.of(
+                new TaskQueueJournal.Entry(2, second, 1, 5_000),
+                new TaskQueueJournal.Entry(3, third, 0, 0)), entries);
+        assertEquals(3, recovered.maxSeq());
+        recovered.close();
+    }
+
+    @Test
+    void stopsAtTruncatedRecord() throws IOException {
+        TaskMessage first = message();
+        TaskMessage second = message();
+
+        TaskQueueJournal journal = open();
+        journal.put(1, first, 0, 0);
+        journal.put(2, second, 0, 0);
+        journal.close();
+
+        // Cut the second PUT in the middle of its body, as a crash during the write would
+        long firstPut = PUT_HEADER_SIZE + codec.encode(first).length;
+        truncate(onlySegment(), firstPut + PUT_HEADER_SIZE + 3);
+
+        assertEquals(List.of(new TaskQueueJournal.Entry(1, first, 0, 0)), journal().recover());
+    }
+
+    @Test
+    void stopsAtTruncatedHeader() throws IOException {
+        TaskMessage first = message();
+
+        TaskQueueJournal journal = open();
+        journal.put(1, first, 0, 0);
+        journal.put(2, message(), 0, 0);
+        journal.close();
+
+        long firstPut = PUT_HEADER_SIZE + codec.encode(first).length;
+        truncate(onlySegment(), firstPut + 10);
+
+        assertEquals(List.of(new TaskQueueJournal.Entry(1, first, 0, 0)), journal().recover());
+    }
+
+    @Test
+    void recoveredJournalKeepsRecording() {
+        TaskMessage message = message();
+
+        TaskQueueJournal journal = open();
+        journal.put(1, message, 0, 0);
+        journal.close();
+
+        TaskQueueJournal recovered = journal();
+        assertEquals(1, recovered.recover().size());
+        recovered.ack(1);
+        recovered.put(2, message, 2, 9_000);
+        recovered.close();
+
+        assertEquals(List.of(new TaskQueueJournal.Entry(2, message, 2, 9_000)), journal().recover());
+    }
+
+    @Test
+    void rollsFullSegmentsKeepingOnlyLiveMessages() throws IOException {
+        TaskMessage sample = message();
+        int putSize = PUT_HEADER_SIZE + codec.encode(sample).length;
+        // Room for a few records per segment, so the loop below rolls many times
+        int segmentBytes = 4 * putSize + 2 * ACK_SIZE;
+
+        TaskQueueJournal journal = new TaskQueueJournal(directory, segmentBytes, false);
+        journal.recover();
+        TaskMessage kept = message();
+        journal.put(1, kept, 0, 0);
+        for (long seq = 2; seq < 100; seq++) {
+            journal.put(seq, message(), 0, 0);
+            journal.ack(seq);
+        }
+        journal.close();
+
+        // The previous segment is deleted on every roll
+        assertEquals(1, segments().size());
+
+        TaskQueueJournal recovered = new TaskQueueJournal(directory, segmentBytes, false);
+        assertEquals(List.of(new TaskQueueJournal.Entry(1, kept, 0, 0)), recovered.recover());
+        recovered.close();
+    }
+
+    private TaskQueueJournal journal() {
+        return new TaskQueueJournal(directory, SEGMENT_BYTES, false);
+    }
+
+    /**
+     * A journal on a fresh directory, ready for appends
+     */
+    private TaskQueueJournal open() {
+        TaskQueueJournal journal = journal();
+        assertTrue(journal.recover().isEmpty());
+        return journal;
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> segments = segments();
+        assertEquals(1, segments.size());
+        return segments.get(0);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".journal")).toList();
+        }
+    }
+
+    private static void truncate(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private static TaskMessage message() {
+        return TaskMessage.builder()
+                .taskId(UUID.randomUUID().toString())
+                .taskType("DATA_EXPORT")
+                .retryCount(0)
+                .priority(TaskPriority.NORMAL)
+                .build();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.task.service;
+
+import com.example.task.config.TaskRetryProperties;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TaskRetryServiceTest {
+
+    private final TaskRetryProperties properties = new TaskRetryProperties();
+
+    @Test
+    void backsOffExponentiallyUpToTheCap() {
+        properties.getPolicy().setJitter(0.0);
+        properties.getPolicy().setMaxAttempts(10);
+        TaskRetryService service = new TaskRetryService(properties);
+
+        // 10s * 2^(attempt - 1), capped at 10 minutes
+        assertEquals(10_000, service.decide("DATA_EXPORT", 1, new IOException()).delayMs());
+        assertEquals(20_000, service.decide("DATA_EXPORT", 2, new IOException()).delayMs());
+        assertEquals(40_000, service.decide("DATA_EXPORT", 3, new IOException()).delayMs());
+        assertEquals(600_000, service.decide("DATA_EXPORT", 9, new IOException()).delayMs());
+    }
+
+    @Test
+    void randomizesTheJitterFraction() {
+        TaskRetryService service = new TaskRetryService(properties);
+
+        for (int i = 0; i < 1_000; i++) {
+            long delayMs = service.decide("DATA_EXPORT", 2, new IOException()).delayMs();
+            assertTrue(delayMs > 10_000 && delayMs <= 20_000, "delay " + delayMs);
+        }
+    }
+
+    @Test
+    void deadLettersOnceAttemptsAreExhausted() {
+        TaskRetryService service = new TaskRetryService(properties);
+
+        assertTrue(service.decide("DATA_EXPORT", 3, new IOException()).retry());
+
+        TaskRetryService.Decision decision = service.decide("DATA_EXPORT", 4, new IOException());
+        assertFalse(decision.retry());
+        assertEquals(TaskRetryService.DeadLetterReason.EXHAUSTED, decision.reason());
+    }
+
+    @Test
+    void deadLettersNonRetryableFailuresAtOnceAnywhereInTheCauseChain() {
+        TaskRetryService service = new TaskRetryService(properties);
+
+        TaskRetryService.Decision direct = service.decide("DATA_EXPORT", 1, new IllegalArgumentException("bad param"));
+        assertFalse(direct.retry());
+        assertEquals(TaskRetryService.DeadLetterReason.NON_RETRYABLE, direct.reason());
+
+        TaskRetryService.Decision wrapped = service.decide("DATA_EXPORT", 1,
+                new RuntimeException(new NumberFormatException("not a number")));
+        assertEquals(TaskRetryService.DeadLetterReason.NON_RETRYABLE, wrapped.reason());
+    }
+
+    @Test
+    void retriesOnlyListedFailuresWhenRetryOnIsSet() {
+        properties.getPolicy().setRetryOn(List.of("java.io.IOException"));
+        TaskRetryService service = new TaskRetryService(properties);
+
+        assertTrue(service.decide("DATA_EXPORT", 1, new UncheckedIOException(new IOException())).retry());
+        assertEquals(TaskRetryService.DeadLetterReason.NON_RETRYABLE,
+                service.decide("DATA_EXPORT", 1, new IllegalStateException()).reason());
+    }
+
+    @Test
+    void typePolicyOverridesTheDefaultFieldByField() {
+        properties.getPolicy().setJitter(0.0);
+        TaskRetryProperties.Policy reports = new TaskRetryProperties.Policy();
+        reports.setMaxAttempts(2);
+        reports.setNoRetryOn(List.of("java.io.FileNotFoundException"));
+        properties.getPolicies().put("REPORT_GENERATION", reports);
+        TaskRetryService service = new TaskRetryService(properties);
+
+        // Inherited backoff, own attempts
+        assertEquals(10_000, service.decide("REPORT_GENERATION", 1, new IOException()).delayMs());
+        assertEquals(TaskRetryService.DeadLetterReason.EXHAUSTED,
+                service.decide("REPORT_GENERATION", 2, new IOException()).reason());
+        assertEquals(TaskRetryService.DeadLetterReason.NON_RETRYABLE,
+                service.decide("REPORT_GENERATION", 1, new FileNotFoundException()).reason());
+
+        // Other types keep the default policy
+        assertTrue(service.decide("DATA_EXPORT", 2, new FileNotFoundException()).retry());
+        assertTrue(service.decide(null, 3, new IOException()).retry());
+    }
+
+    @Test
+    void rejectsUnknownExceptionClasses() {
+        properties.getPolicy().setNoRetryOn(List.of("com.example.NoSuchException"));
+
+        assertThrows(IllegalStateException.class, () -> new TaskRetryService(properties));
+    }
+
+    @Test
+    void capsBackoffWithATypeMaximum() {
+        properties.getPolicy().setJitter(0.0);
+        properties.getPolicy().setMaxBackoff(Duration.ofSeconds(15));
+        TaskRetryService service = new TaskRetryService(properties);
+
+        assertEquals(15_000, service.decide("DATA_EXPORT", 3, new IOException()).delayMs());
+    }
+}